@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.nukkitx.protocol.bedrock.BedrockClient;
+import lombok.Getter;
+import org.geysermc.common.PlatformType;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.GeyserLogger;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.command.CommandManager;
+import org.geysermc.connector.configuration.GeyserJacksonConfiguration;
+import org.geysermc.connector.dump.BootstrapDumpInfo;
+import org.geysermc.connector.event.EventManager;
+import org.geysermc.connector.event.events.network.SessionConnectEvent;
+import org.geysermc.connector.event.handlers.LambdaEventHandler;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.auth.BedrockClientData;
+import org.geysermc.connector.ping.IGeyserPingPassthrough;
+import org.geysermc.connector.utils.FileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless bootstrap that starts a real {@link GeyserConnector} in the benchmark JVM, so that the registries
+ * are loaded the same way as on a server. A loopback Bedrock client is connected once to obtain a real
+ * {@link GeyserSession} for code paths that need one.
+ */
+public class BenchmarkBootstrap implements GeyserBootstrap {
+    private static BenchmarkBootstrap instance;
+
+    private final Path configFolder;
+    private final BenchmarkConfiguration config;
+    private final BenchmarkLogger logger = new BenchmarkLogger();
+    private GeyserConnector connector;
+    private CommandManager commandManager;
+
+    private BedrockClient client;
+    @Getter
+    private GeyserSession session;
+
+    private BenchmarkBootstrap() throws IOException {
+        this.configFolder = Files.createTempDirectory("geyser-benchmarks");
+        try (InputStream stream = GeyserConnector.class.getResourceAsStream("/config.yml")) {
+            this.config = FileUtils.loadYaml(stream, BenchmarkConfiguration.class);
+        }
+        // Nothing connects downstream, but avoid the SRV lookup for "auto"
+        config.getRemote().setAddress("127.0.0.1");
+        // Pick a free port so several forks can run side by side
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            config.getBedrock().setPort(socket.getLocalPort());
+        }
+    }
+
+    /**
+     * Starts Geyser and connects a loopback session the first time it is called in this JVM.
+     *
+     * @return the running bootstrap
+     */
+    public static synchronized BenchmarkBootstrap get() {
+        if (instance == null) {
+            try {
+                instance = new BenchmarkBootstrap();
+                instance.onEnable();
+                instance.connectSession();
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to start Geyser for benchmarking", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Starts Geyser in front of a Java server on this machine with offline authentication, without connecting
+     * a loopback session. Used by the load test, which brings its own clients.
+     *
+     * @param remotePort the port of the Java server
+     * @return the running bootstrap
+     */
+    public static synchronized BenchmarkBootstrap startProxy(int remotePort) {
+        if (instance != null) {
+            throw new IllegalStateException("Geyser has already been started in this JVM");
+        }
+        try {
+            instance = new BenchmarkBootstrap();
+            instance.config.getRemote().setPort(remotePort);
+            instance.config.getRemote().setAuthType("offline");
+            instance.onEnable();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start Geyser for load testing", e);
+        }
+        return instance;
+    }
+
+    private void connectSession() throws Exception {
+        CompletableFuture<GeyserSession> future = new CompletableFuture<>();
+        LambdaEventHandler<SessionConnectEvent> handler = EventManager.getInstance()
+                .on(SessionConnectEvent.class, event -> future.complete(event.getSession()));
+
+        client = new BedrockClient(new InetSocketAddress("127.0.0.1", 0));
+        client.bind().join();
+        client.connect(new InetSocketAddress("127.0.0.1", config.getBedrock().getPort())).join();
+
+        session = future.get(10, TimeUnit.SECONDS);
+        handler.unregister();
+
+        // Nothing has logged in, so fill in what translators read from the client data
+        session.setClientData(GeyserConnector.JSON_MAPPER.readValue("{\"LanguageCode\":\"en_US\"}", BedrockClientData.class));
+    }
+
+    @Override
+    public void onEnable() {
+        connector = GeyserConnector.start(PlatformType.STANDALONE, this);
+        commandManager = new BenchmarkCommandManager(connector);
+    }
+
+    @Override
+    public void onDisable() {
+        if (client != null) {
+            client.close();
+        }
+        connector.shutdown();
+    }
+
+    @Override
+    public BenchmarkConfiguration getGeyserConfig() {
+        return config;
+    }
+
+    @Override
+    public GeyserLogger getGeyserLogger() {
+        return logger;
+    }
+
+    @Override
+    public CommandManager getGeyserCommandManager() {
+        return commandManager;
+    }
+
+    @Override
+    public IGeyserPingPassthrough getGeyserPingPassthrough() {
+        return null;
+    }
+
+    @Override
+    public Path getConfigFolder() {
+        return configFolder;
+    }
+
+    @Override
+    public BootstrapDumpInfo getDumpInfo() {
+        return new BootstrapDumpInfo();
+    }
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static final class BenchmarkConfiguration extends GeyserJacksonConfiguration {
+        @Override
+        public Path getFloodgateKeyPath() {
+            return Paths.get(getFloodgateKeyFile());
+        }
+
+        /**
+         * The chunk cache is needed for collision and is what most large servers run with
+         */
+        @Override
+        public boolean isCacheChunks() {
+            return true;
+        }
+
+        /**
+         * Synthetic clients sign their own login chain as there is no Xbox Live to sign it
+         */
+        @Override
+        public boolean isEnableProxyConnections() {
+            return true;
+        }
+
+        @Override
+        public IMetricsInfo getMetrics() {
+            return new IMetricsInfo() {
+                @Override
+                public boolean isEnabled() {
+                    return false;
+                }
+
+                @Override
+                public String getUniqueId() {
+                    return null;
+                }
+            };
+        }
+    }
+
+    private static final class BenchmarkCommandManager extends CommandManager {
+        private BenchmarkCommandManager(GeyserConnector connector) {
+            super(connector);
+        }
+
+        @Override
+        public String getDescription(String command) {
+            return "";
+        }
+    }
+
+    /**
+     * Only prints warnings and errors so benchmark output stays readable
+     */
+    private static final class BenchmarkLogger implements GeyserLogger {
+        @Override
+        public void severe(String message) {
+            System.err.println("[SEVERE] " + message);
+        }
+
+        @Override
+        public void severe(String message, Throwable error) {
+            severe(message);
+            error.printStackTrace();
+        }
+
+        @Override
+        public void error(String message) {
+            System.err.println("[ERROR] " + message);
+        }
+
+        @Override
+        public void error(String message, Throwable error) {
+            error(message);
+            error.printStackTrace();
+        }
+
+        @Override
+        public void warning(String message) {
+            System.err.println("[WARN] " + message);
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void setDebug(boolean debug) {
+        }
+
+        @Override
+        public boolean isDebug() {
+            return false;
+        }
+    }
+}
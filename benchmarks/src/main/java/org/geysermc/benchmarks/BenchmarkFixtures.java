@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic world data for the benchmarks. Every fixture takes a seed so runs are comparable.
+ */
+public final class BenchmarkFixtures {
+    /**
+     * The Java chunk format switches to the global palette above 8 bits per block
+     */
+    public static final int GLOBAL_PALETTE_STATES = 1024;
+    public static final int INDIRECT_PALETTE_STATES = 24;
+    /**
+     * Sections 0 to 7 - roughly a typical overworld chunk up to sea level
+     */
+    public static final int FILLED_SECTIONS = 8;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * @param count the amount of distinct block states
+     * @param waterlogged if half of the states should be waterlogged
+     * @param random the random to pick states with
+     * @return distinct, non-air Java block states
+     */
+    public static int[] blockStates(int count, boolean waterlogged, Random random) {
+        IntList dry = new IntArrayList();
+        IntList wet = new IntArrayList();
+        for (Map.Entry<String, Integer> entry : BlockTranslator.getJavaIdBlockMap().entrySet()) {
+            int state = entry.getValue();
+            if (state == BlockTranslator.JAVA_AIR_ID) {
+                continue;
+            }
+            if (BlockTranslator.isWaterlogged(state)) {
+                wet.add(state);
+            } else {
+                dry.add(state);
+            }
+        }
+        Collections.shuffle(dry, random);
+        Collections.shuffle(wet, random);
+
+        int wetCount = waterlogged ? Math.min(count / 2, wet.size()) : 0;
+        int[] states = new int[count];
+        for (int i = 0; i < count; i++) {
+            states[i] = i < wetCount ? wet.getInt(i) : dry.getInt(i - wetCount);
+        }
+        return states;
+    }
+
+    /**
+     * @param x the chunk X
+     * @param z the chunk Z
+     * @param paletteSize the amount of distinct block states in each section
+     * @param waterlogged if half of the block states should be waterlogged
+     * @param seed the seed for block placement
+     * @return a full column with {@link #FILLED_SECTIONS} filled sections
+     */
+    public static Column column(int x, int z, int paletteSize, boolean waterlogged, long seed) {
+        Random random = new Random(seed);
+        int[] states = blockStates(paletteSize, waterlogged, random);
+
+        Chunk[] chunks = new Chunk[16];
+        for (int sectionY = 0; sectionY < FILLED_SECTIONS; sectionY++) {
+            Chunk chunk = new Chunk();
+            for (int y = 0; y < 16; y++) {
+                for (int blockZ = 0; blockZ < 16; blockZ++) {
+                    for (int blockX = 0; blockX < 16; blockX++) {
+                        chunk.set(blockX, y, blockZ, states[random.nextInt(states.length)]);
+                    }
+                }
+            }
+            chunks[sectionY] = chunk;
+        }
+
+        return new Column(x, z, chunks, new CompoundTag[0], new CompoundTag("HeightMaps"), biomes(1, seed));
+    }
+
+    /**
+     * @param distinctBiomes the amount of different biome IDs to use
+     * @param seed the seed for biome placement
+     * @return Java 1.16 biome data - 4x4x4 cells for the whole column
+     */
+    public static int[] biomes(int distinctBiomes, long seed) {
+        int[] biomes = new int[1024];
+        if (distinctBiomes <= 1) {
+            Arrays.fill(biomes, 1); // Plains
+            return biomes;
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < biomes.length; i++) {
+            biomes[i] = random.nextInt(distinctBiomes);
+        }
+        return biomes;
+    }
+}
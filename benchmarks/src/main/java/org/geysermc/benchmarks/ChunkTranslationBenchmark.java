@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.utils.ChunkUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java to Bedrock chunk translation, the largest per-packet cost while players move around.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkTranslationBenchmark {
+
+    @Param({"indirect", "global"})
+    public String palette;
+
+    @Param({"false", "true"})
+    public boolean waterlogged;
+
+    private GeyserSession session;
+    private Column column;
+
+    @Setup
+    public void setup() {
+        session = BenchmarkBootstrap.get().getSession();
+        int paletteSize = palette.equals("global") ? BenchmarkFixtures.GLOBAL_PALETTE_STATES : BenchmarkFixtures.INDIRECT_PALETTE_STATES;
+        column = BenchmarkFixtures.column(0, 0, paletteSize, waterlogged, 0x6765797365724cL);
+    }
+
+    @Benchmark
+    public ChunkUtils.ChunkData translateToBedrock() {
+        return ChunkUtils.translateToBedrock(session, column, false);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.nukkitx.math.vector.Vector3f;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.collision.CollisionManager;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player collision correction, done for every movement packet when chunk caching is enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final String[] SHAPED_BLOCKS = {"_stairs", "_slab", "_fence", "_wall", "_pane", "scaffolding", "minecraft:snow["};
+    private static final int FLOOR_Y = 64;
+
+    /**
+     * "open" stands on a flat floor, "enclosed" is surrounded by stairs, slabs, fences and other non-full blocks
+     */
+    @Param({"open", "enclosed"})
+    public String surroundings;
+
+    private CollisionManager collisionManager;
+    private Vector3f position;
+
+    @Setup
+    public void setup() {
+        GeyserSession session = BenchmarkBootstrap.get().getSession();
+        session.getChunkCache().addToCache(column(surroundings.equals("enclosed")));
+
+        position = Vector3f.from(8.5f, FLOOR_Y, 8.5f);
+        session.getPlayerEntity().setPosition(position);
+        collisionManager = session.getCollisionManager();
+    }
+
+    private static Column column(boolean enclosed) {
+        int stone = BlockTranslator.getJavaBlockState("minecraft:stone");
+        IntList shaped = new IntArrayList();
+        for (Map.Entry<String, Integer> entry : BlockTranslator.getJavaIdBlockMap().entrySet()) {
+            for (String block : SHAPED_BLOCKS) {
+                if (entry.getKey().contains(block)) {
+                    shaped.add(entry.getValue().intValue());
+                    break;
+                }
+            }
+        }
+
+        Random random = new Random(64);
+        Chunk[] chunks = new Chunk[16];
+        for (int sectionY = 0; sectionY < 16; sectionY++) {
+            chunks[sectionY] = new Chunk();
+        }
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = 0; y < FLOOR_Y; y++) {
+                    chunks[y >> 4].set(x, y & 0xF, z, stone);
+                }
+                // Leave the block the player stands in empty
+                if (enclosed && (x != 8 || z != 8)) {
+                    for (int y = FLOOR_Y; y < FLOOR_Y + 2; y++) {
+                        chunks[y >> 4].set(x, y & 0xF, z, shaped.getInt(random.nextInt(shaped.size())));
+                    }
+                }
+            }
+        }
+        return new Column(0, 0, chunks, new CompoundTag[0], new CompoundTag("HeightMaps"), BenchmarkFixtures.biomes(1, 0));
+    }
+
+    @Benchmark
+    public boolean correctPlayerPosition() {
+        // Corrections move the bounding box, so start from the same place every time
+        collisionManager.updatePlayerBoundingBox(position);
+        return collisionManager.correctPlayerPosition();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
+import com.github.steveice10.packetlib.tcp.io.ByteBufNetOutput;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The cost of moving one player's worth of Java packets from the server to Geyser. "tcp" is the loopback
+ * connection with framing and the default compression threshold, as used when Geyser connects over the network.
+ * "local" is the direct connection that the Spigot, BungeeCord and Velocity bootstraps offer: a Netty local channel
+ * with framing only.
+ *
+ * Each invocation sends a batch (a chunk and a burst of entity movement) and waits until Geyser's end has decoded
+ * all of it, so the time covers the work on both ends. Run with {@code -prof gc} to also compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownstreamTransportBenchmark {
+    /**
+     * The vanilla default for network-compression-threshold
+     */
+    private static final int COMPRESSION_THRESHOLD = 256;
+    private static final int MOVEMENT_PACKETS = 64;
+
+    @Param({"tcp", "local"})
+    public String transport;
+
+    private final List<EventLoopGroup> groups = new ArrayList<>();
+    private Channel serverChannel;
+    private Channel clientChannel;
+    private Channel javaEnd;
+    private volatile CountDownLatch received;
+
+    private List<ByteBuf> batch;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkBootstrap.get();
+        batch = createBatch();
+
+        boolean tcp = transport.equals("tcp");
+        CompletableFuture<Channel> accepted = new CompletableFuture<>();
+
+        ServerBootstrap serverBootstrap = new ServerBootstrap()
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast("prepender", new FrameEncoder());
+                        if (tcp) {
+                            ch.pipeline().addLast("compress", new CompressionEncoder());
+                        }
+                        accepted.complete(ch);
+                    }
+                });
+        Bootstrap clientBootstrap = new Bootstrap()
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast("splitter", new FrameDecoder());
+                        if (tcp) {
+                            ch.pipeline().addLast("decompress", new CompressionDecoder());
+                        }
+                        ch.pipeline().addLast("counter", new ReceiveCounter());
+                    }
+                });
+
+        if (tcp) {
+            EventLoopGroup serverGroup = group(new NioEventLoopGroup(1));
+            EventLoopGroup clientGroup = group(new NioEventLoopGroup(1));
+            serverChannel = serverBootstrap.channel(NioServerSocketChannel.class).group(serverGroup, serverGroup)
+                    .childOption(ChannelOption.TCP_NODELAY, true)
+                    .bind(new InetSocketAddress("127.0.0.1", 0)).syncUninterruptibly().channel();
+            clientChannel = clientBootstrap.channel(NioSocketChannel.class).group(clientGroup)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .connect(serverChannel.localAddress()).syncUninterruptibly().channel();
+        } else {
+            EventLoopGroup serverGroup = group(new DefaultEventLoopGroup(1));
+            EventLoopGroup clientGroup = group(new DefaultEventLoopGroup(1));
+            serverChannel = serverBootstrap.channel(LocalServerChannel.class).group(serverGroup, serverGroup)
+                    .bind(LocalAddress.ANY).syncUninterruptibly().channel();
+            clientChannel = clientBootstrap.channel(LocalChannel.class).group(clientGroup)
+                    .connect(serverChannel.localAddress()).syncUninterruptibly().channel();
+        }
+        javaEnd = accepted.get(10, TimeUnit.SECONDS);
+    }
+
+    private EventLoopGroup group(EventLoopGroup group) {
+        groups.add(group);
+        return group;
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientChannel.close().syncUninterruptibly();
+        serverChannel.close().syncUninterruptibly();
+        for (EventLoopGroup group : groups) {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        for (ByteBuf packet : batch) {
+            packet.release();
+        }
+    }
+
+    @Benchmark
+    public void sendBatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(batch.size());
+        received = latch;
+        for (ByteBuf packet : batch) {
+            javaEnd.write(packet.retainedDuplicate(), javaEnd.voidPromise());
+        }
+        javaEnd.flush();
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for the batch");
+        }
+    }
+
+    /**
+     * @return encoded packets: a full chunk and a burst of small entity movement packets
+     */
+    private static List<ByteBuf> createBatch() throws Exception {
+        List<ByteBuf> packets = new ArrayList<>();
+
+        ByteBuf chunk = Unpooled.buffer();
+        writeVarInt(chunk, 0x20);
+        new ServerChunkDataPacket(BenchmarkFixtures.column(0, 0, BenchmarkFixtures.INDIRECT_PALETTE_STATES, false, 0x6765797365724cL))
+                .write(new ByteBufNetOutput(chunk));
+        packets.add(chunk);
+
+        Random random = new Random(0x6765797365724cL);
+        for (int i = 0; i < MOVEMENT_PACKETS; i++) {
+            // Entity position and rotation: ID, three short deltas, yaw, pitch and on ground
+            ByteBuf movement = Unpooled.buffer(16);
+            writeVarInt(movement, 0x28);
+            writeVarInt(movement, random.nextInt(4096));
+            for (int j = 0; j < 3; j++) {
+                movement.writeShort(random.nextInt(1024) - 512);
+            }
+            movement.writeByte(random.nextInt(256));
+            movement.writeByte(random.nextInt(256));
+            movement.writeBoolean(true);
+            packets.add(movement);
+        }
+        return packets;
+    }
+
+    private static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuf buf) {
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            byte b = buf.readByte();
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("VarInt too big");
+    }
+
+    private final class ReceiveCounter extends SimpleChannelInboundHandler<ByteBuf> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+            received.countDown();
+        }
+    }
+
+    /**
+     * Minecraft's packet length prefix
+     */
+    private static final class FrameEncoder extends MessageToByteEncoder<ByteBuf> {
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+            writeVarInt(out, msg.readableBytes());
+            out.writeBytes(msg);
+        }
+    }
+
+    private static final class FrameDecoder extends ByteToMessageDecoder {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            in.markReaderIndex();
+            int length = 0;
+            for (int i = 0; i < 3; i++) {
+                if (!in.isReadable()) {
+                    in.resetReaderIndex();
+                    return;
+                }
+                byte b = in.readByte();
+                length |= (b & 0x7F) << (i * 7);
+                if ((b & 0x80) == 0) {
+                    if (in.readableBytes() < length) {
+                        in.resetReaderIndex();
+                        return;
+                    }
+                    out.add(in.readRetainedSlice(length));
+                    return;
+                }
+            }
+            throw new CorruptedFrameException("Length wider than 21 bits");
+        }
+    }
+
+    /**
+     * Minecraft's compression: a data length prefix, and zlib above the threshold
+     */
+    private static final class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
+        private final Deflater deflater = new Deflater();
+        private final byte[] buffer = new byte[8192];
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+            int length = msg.readableBytes();
+            if (length < COMPRESSION_THRESHOLD) {
+                writeVarInt(out, 0);
+                out.writeBytes(msg);
+                return;
+            }
+            byte[] data = new byte[length];
+            msg.readBytes(data);
+            writeVarInt(out, length);
+            deflater.setInput(data);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.writeBytes(buffer, 0, count);
+            }
+            deflater.reset();
+        }
+    }
+
+    private static final class CompressionDecoder extends ByteToMessageDecoder {
+        private final Inflater inflater = new Inflater();
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws DataFormatException {
+            int length = readVarInt(in);
+            if (length == 0) {
+                out.add(in.readRetainedSlice(in.readableBytes()));
+                return;
+            }
+            byte[] compressed = new byte[in.readableBytes()];
+            in.readBytes(compressed);
+            inflater.setInput(compressed);
+            byte[] data = new byte[length];
+            inflater.inflate(data);
+            inflater.reset();
+            out.add(Unpooled.wrappedBuffer(data));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import org.geysermc.connector.event.EventManager;
+import org.geysermc.connector.event.EventResult;
+import org.geysermc.connector.event.GeyserEvent;
+import org.geysermc.connector.event.annotations.GeyserEventHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotated handler dispatch the way {@link EventManager} used to do it, reflective calls on handlers iterated from a
+ * {@link PriorityBlockingQueue}, against the current generated invokers in a copy-on-write array.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    @Param({"1", "4"})
+    public int handlers;
+
+    private EventManager eventManager;
+    private DispatchEvent event;
+    private Listener[] listeners;
+    private PriorityBlockingQueue<ReflectiveHandler> reflectiveHandlers;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws NoSuchMethodException {
+        BenchmarkBootstrap.get();
+        eventManager = EventManager.getInstance();
+        event = new DispatchEvent();
+
+        Method method = Listener.class.getMethod("onEvent", DispatchEvent.class);
+        listeners = new Listener[handlers];
+        reflectiveHandlers = new PriorityBlockingQueue<>(handlers, Comparator.comparingInt((ReflectiveHandler handler) -> handler.priority));
+        for (int i = 0; i < handlers; i++) {
+            listeners[i] = new Listener(blackhole);
+            eventManager.registerEvents(listeners[i]);
+            reflectiveHandlers.add(new ReflectiveHandler(listeners[i], method));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (Listener listener : listeners) {
+            eventManager.unregisterEvents(listener);
+        }
+    }
+
+    @Benchmark
+    public DispatchEvent reflection() throws Exception {
+        for (ReflectiveHandler handler : reflectiveHandlers) {
+            handler.method.invoke(handler.listener, event);
+        }
+        return event;
+    }
+
+    @Benchmark
+    public EventResult<DispatchEvent> generated() {
+        return eventManager.triggerEvent(event);
+    }
+
+    public static class DispatchEvent extends GeyserEvent {
+    }
+
+    public static class Listener {
+        private final Blackhole blackhole;
+
+        public Listener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @GeyserEventHandler
+        public void onEvent(DispatchEvent event) {
+            blackhole.consume(event);
+        }
+    }
+
+    private static final class ReflectiveHandler {
+        private final Object listener;
+        private final Method method;
+        private final int priority = 50;
+
+        private ReflectiveHandler(Object listener, Method method) {
+            this.listener = listener;
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import org.geysermc.connector.event.EventManager;
+import org.geysermc.connector.event.EventResult;
+import org.geysermc.connector.event.GeyserEvent;
+import org.geysermc.connector.event.annotations.GeyserEventHandler;
+import org.geysermc.connector.event.handlers.EventHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event dispatch, done at least once for every packet sent or received.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventManagerBenchmark {
+
+    @Param({"0", "1", "4"})
+    public int handlers;
+
+    /**
+     * "lambda" registers with {@link EventManager#on}, "method" registers annotated methods
+     */
+    @Param({"lambda", "method"})
+    public String kind;
+
+    private EventManager eventManager;
+    private BenchmarkEvent event;
+    private final List<EventHandler<?>> lambdaHandlers = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        BenchmarkBootstrap.get();
+        eventManager = EventManager.getInstance();
+        event = new BenchmarkEvent();
+
+        for (int i = 0; i < handlers; i++) {
+            if (kind.equals("lambda")) {
+                lambdaHandlers.add(eventManager.on(BenchmarkEvent.class, blackhole::consume));
+            } else {
+                Listener listener = new Listener(blackhole);
+                eventManager.registerEvents(listener);
+                listeners.add(listener);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (EventHandler<?> handler : lambdaHandlers) {
+            handler.unregister();
+        }
+        lambdaHandlers.clear();
+        for (Listener listener : listeners) {
+            eventManager.unregisterEvents(listener);
+        }
+        listeners.clear();
+    }
+
+    @Benchmark
+    public EventResult<BenchmarkEvent> triggerEvent() {
+        return eventManager.triggerEvent(event);
+    }
+
+    public static class BenchmarkEvent extends GeyserEvent {
+    }
+
+    public static class Listener {
+        private final Blackhole blackhole;
+
+        public Listener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @GeyserEventHandler
+        public void onEvent(BenchmarkEvent event) {
+            blackhole.consume(event);
+        }
+    }
+}
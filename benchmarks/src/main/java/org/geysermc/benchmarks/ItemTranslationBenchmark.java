@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
+import com.github.steveice10.opennbt.tag.builtin.*;
+import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.item.ItemRegistry;
+import org.geysermc.connector.network.translators.item.ItemTranslator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java to Bedrock item translation, done for every inventory slot, entity equipment and recipe ingredient.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemTranslationBenchmark {
+    private static final String[] ENCHANTMENTS = {"minecraft:sharpness", "minecraft:smite", "minecraft:bane_of_arthropods",
+            "minecraft:knockback", "minecraft:fire_aspect", "minecraft:looting", "minecraft:sweeping", "minecraft:unbreaking",
+            "minecraft:mending"};
+
+    @Param({"plain", "heavy"})
+    public String nbt;
+
+    private GeyserSession session;
+    private ItemStack stack;
+
+    @Setup
+    public void setup() {
+        session = BenchmarkBootstrap.get().getSession();
+        int javaId = ItemRegistry.getItemEntry("minecraft:diamond_sword").getJavaId();
+        stack = new ItemStack(javaId, 1, nbt.equals("heavy") ? heavyNbt() : null);
+    }
+
+    /**
+     * @return the kind of NBT custom item plugins put on every item in a GUI
+     */
+    private static CompoundTag heavyNbt() {
+        CompoundTag tag = new CompoundTag("");
+
+        CompoundTag display = new CompoundTag("display");
+        display.put(new StringTag("Name", "{\"text\":\"Blade of the Benchmark\",\"color\":\"#ffaa00\",\"bold\":true,\"italic\":false}"));
+        List<Tag> lore = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            lore.add(new StringTag("", "{\"text\":\"\",\"extra\":[{\"text\":\"Line " + i + ": \",\"color\":\"gray\"},"
+                    + "{\"text\":\"+" + i + " damage\",\"color\":\"green\",\"italic\":false}]}"));
+        }
+        display.put(new ListTag("Lore", lore));
+        tag.put(display);
+
+        List<Tag> enchantments = new ArrayList<>();
+        for (String id : ENCHANTMENTS) {
+            CompoundTag enchantment = new CompoundTag("");
+            enchantment.put(new StringTag("id", id));
+            enchantment.put(new ShortTag("lvl", (short) 3));
+            enchantments.add(enchantment);
+        }
+        tag.put(new ListTag("Enchantments", enchantments));
+
+        List<Tag> canDestroy = new ArrayList<>();
+        canDestroy.add(new StringTag("", "minecraft:stone"));
+        canDestroy.add(new StringTag("", "minecraft:cobweb"));
+        tag.put(new ListTag("CanDestroy", canDestroy));
+
+        tag.put(new IntTag("Damage", 12));
+        tag.put(new IntTag("CustomModelData", 1001));
+        tag.put(new ByteTag("Unbreakable", (byte) 1));
+        tag.put(new IntTag("HideFlags", 2));
+        return tag;
+    }
+
+    @Benchmark
+    public ItemData translateToBedrock() {
+        return ItemTranslator.translateToBedrock(session, stack);
+    }
+}
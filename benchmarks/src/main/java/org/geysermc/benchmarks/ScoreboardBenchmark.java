@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks;
+
+import com.github.steveice10.mc.protocol.data.game.scoreboard.NameTagVisibility;
+import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
+import com.github.steveice10.mc.protocol.data.game.scoreboard.TeamColor;
+import org.geysermc.connector.scoreboard.Objective;
+import org.geysermc.connector.scoreboard.Scoreboard;
+import org.geysermc.connector.scoreboard.Team;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scoreboard update after a single score changed, on a large player list objective where every entry is in a
+ * team - what nametag plugins do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreboardBenchmark {
+    @Param({"100", "1000"})
+    public int entries;
+
+    @Param({"1", "300"})
+    public int teams;
+
+    private Scoreboard scoreboard;
+    private Objective objective;
+    private int next;
+
+    @Setup
+    public void setup() {
+        scoreboard = new Scoreboard(BenchmarkBootstrap.get().getSession());
+        objective = scoreboard.displayObjective("list", ScoreboardPosition.PLAYER_LIST);
+
+        for (int team = 0; team < teams; team++) {
+            Set<String> members = new HashSet<>();
+            for (int entry = team; entry < entries; entry += teams) {
+                members.add(entryName(entry));
+            }
+            scoreboard.registerNewTeam("team" + team, members)
+                    .setName("Team " + team)
+                    .setColor(TeamColor.WHITE)
+                    .setNameTagVisibility(NameTagVisibility.ALWAYS)
+                    .setPrefix("[" + team + "] ")
+                    .setSuffix("");
+        }
+        for (int entry = 0; entry < entries; entry++) {
+            objective.setScore(entryName(entry), entry);
+        }
+        scoreboard.onUpdate();
+    }
+
+    private static String entryName(int entry) {
+        return "Player" + entry;
+    }
+
+    @Benchmark
+    public void singleScoreChange() {
+        int entry = next++ % entries;
+        objective.setScore(entryName(entry), next);
+        scoreboard.onUpdate();
+    }
+
+    @Benchmark
+    public Team getTeamFor() {
+        return scoreboard.getTeamFor(entryName(next++ % entries));
+    }
+}
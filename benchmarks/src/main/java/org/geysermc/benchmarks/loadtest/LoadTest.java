@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks.loadtest;
+
+import org.geysermc.benchmarks.BenchmarkBootstrap;
+import org.geysermc.connector.metrics.LatencyHistogram;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a headless Geyser with synthetic Bedrock clients in front of a scripted Java server, all in this JVM
+ * and without any Mojang or Xbox Live services. Reports throughput, tail latencies, heap per session and GC
+ * activity once the run is over.
+ *
+ * <pre>
+ * java -cp geyser-benchmarks.jar org.geysermc.benchmarks.loadtest.LoadTest --clients 100 --ramp 20 --duration 120
+ * </pre>
+ *
+ * See {@link LoadTestOptions} for every option.
+ */
+public final class LoadTest {
+    private final LoadTestOptions options;
+    private final LoadTestStatistics statistics = new LoadTestStatistics();
+    private final List<SyntheticBedrockClient> clients = new ArrayList<>();
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(LoadTestOptions.parse(args)).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        int javaPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            javaPort = socket.getLocalPort();
+        }
+
+        BenchmarkBootstrap bootstrap = BenchmarkBootstrap.startProxy(javaPort);
+        InetSocketAddress geyserAddress = new InetSocketAddress("127.0.0.1", bootstrap.getGeyserConfig().getBedrock().getPort());
+
+        ScheduledExecutorService serverScheduler = Executors.newSingleThreadScheduledExecutor();
+        ScheduledExecutorService clientScheduler = Executors.newSingleThreadScheduledExecutor();
+        LoadTestServer server = new LoadTestServer(javaPort, options, statistics, serverScheduler);
+        server.bind();
+
+        long baselineHeap = usedHeapAfterGc();
+        System.out.printf(Locale.ROOT, "Connecting %d clients over %d s%n", options.getClients(), options.getRamp());
+
+        long rampNanos = TimeUnit.SECONDS.toNanos(options.getRamp());
+        long start = System.nanoTime();
+        for (int i = 0; i < options.getClients(); i++) {
+            long due = start + rampNanos * i / Math.max(1, options.getClients());
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            SyntheticBedrockClient client = new SyntheticBedrockClient("LoadTest" + i, statistics);
+            try {
+                client.connect(geyserAddress);
+                clients.add(client);
+            } catch (Exception e) {
+                statistics.getFailed().incrementAndGet();
+                System.err.println("Unable to connect " + client.getName() + ": " + e.getMessage());
+            }
+        }
+        clientScheduler.scheduleAtFixedRate(() -> {
+            for (SyntheticBedrockClient client : clients) {
+                client.tick(options.isMove(), options.getChatInterval());
+            }
+        }, 50, 50, TimeUnit.MILLISECONDS);
+
+        // Give the last logins a moment to finish before measuring
+        TimeUnit.SECONDS.sleep(5);
+        int connected = statistics.getConnected().get();
+        long sessionHeap = connected == 0 ? 0 : (usedHeapAfterGc() - baselineHeap) / connected;
+
+        statistics.reset();
+        long gcCount = gcCount();
+        long gcTime = gcTime();
+        long measureStart = System.nanoTime();
+        for (int second = 1; second <= options.getDuration(); second++) {
+            TimeUnit.SECONDS.sleep(1);
+            if (second % 10 == 0) {
+                System.out.printf(Locale.ROOT, "%3d s: %d connected, %.0f Bedrock packets/s%n", second, statistics.getConnected().get(),
+                        perSecond(statistics.getBedrockPacketsReceived().sum(), System.nanoTime() - measureStart));
+            }
+        }
+        long elapsed = System.nanoTime() - measureStart;
+        gcCount = gcCount() - gcCount;
+        gcTime = gcTime() - gcTime;
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Clients: %d connected, %d failed to log in, %d disconnected%n", statistics.getConnected().get(),
+                statistics.getFailed().get(), statistics.getDisconnected().get());
+        System.out.println("Login time:          " + formatHistogram(statistics.getLoginTime()));
+        System.out.printf(Locale.ROOT, "Java -> Geyser:      %.0f packets/s%n", perSecond(statistics.getJavaPacketsSent().sum(), elapsed));
+        System.out.printf(Locale.ROOT, "Geyser -> Bedrock:   %.0f packets/s, %.1f KiB/s%n", perSecond(statistics.getBedrockPacketsReceived().sum(), elapsed),
+                perSecond(statistics.getBedrockBytesReceived().sum(), elapsed) / 1024);
+        System.out.printf(Locale.ROOT, "Bedrock -> Geyser:   %.0f packets/s%n", perSecond(statistics.getBedrockPacketsSent().sum(), elapsed));
+        System.out.printf(Locale.ROOT, "Geyser -> Java:      %.0f packets/s%n", perSecond(statistics.getJavaPacketsReceived().sum(), elapsed));
+        System.out.println("Java to Bedrock chat: " + formatHistogram(statistics.getDownstreamLatency()));
+        System.out.println("Bedrock to Java chat: " + formatHistogram(statistics.getUpstreamLatency()));
+        System.out.printf(Locale.ROOT, "Heap per session:    %.1f KiB (includes the synthetic peers)%n", sessionHeap / 1024d);
+        System.out.printf(Locale.ROOT, "GC:                  %d collections, %d ms (%.2f%% of the run)%n", gcCount, gcTime,
+                gcTime * 100d / TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        clientScheduler.shutdownNow();
+        for (SyntheticBedrockClient client : clients) {
+            client.close();
+        }
+        serverScheduler.shutdownNow();
+        server.close();
+        bootstrap.onDisable();
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return count / (nanos / 1_000_000_000d);
+    }
+
+    private static String formatHistogram(LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "no samples";
+        }
+        // The histogram only knows power of two buckets, so these are upper bounds
+        return String.format(Locale.ROOT, "%d samples, p50 < %s, p99 < %s, p99.9 < %s", histogram.getCount(),
+                formatMicros(histogram.getQuantileMicros(0.5)), formatMicros(histogram.getQuantileMicros(0.99)),
+                formatMicros(histogram.getQuantileMicros(0.999)));
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros == Long.MAX_VALUE) {
+            return "overflow";
+        }
+        if (micros >= 1000) {
+            return String.format(Locale.ROOT, "%.1f ms", micros / 1000d);
+        }
+        return micros + " us";
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks.loadtest;
+
+import lombok.Getter;
+
+/**
+ * Command line options of the load test, given as {@code --name value}.
+ */
+@Getter
+public class LoadTestOptions {
+    /**
+     * The amount of Bedrock clients to connect
+     */
+    private int clients = 20;
+    /**
+     * Seconds over which the clients are connected, one after another
+     */
+    private int ramp = 10;
+    /**
+     * Seconds to measure for once every client is connected
+     */
+    private int duration = 60;
+    /**
+     * The radius of chunks every player receives when joining
+     */
+    private int viewDistance = 4;
+    /**
+     * Mobs every player sees, all of them moving every tick
+     */
+    private int entities = 20;
+    /**
+     * Chunks resent to every player each second after joining
+     */
+    private int chunksPerSecond = 4;
+    /**
+     * Ticks between two chat messages, in both directions. 0 disables chat and with it the latency measurement.
+     */
+    private int chatInterval = 20;
+    /**
+     * If the Bedrock clients send movement every tick
+     */
+    private boolean move = true;
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (!name.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --<option> <value> but got " + name);
+            }
+            String value = args[++i];
+            switch (name.substring(2)) {
+                case "clients":
+                    options.clients = Integer.parseInt(value);
+                    break;
+                case "ramp":
+                    options.ramp = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.duration = Integer.parseInt(value);
+                    break;
+                case "view-distance":
+                    options.viewDistance = Integer.parseInt(value);
+                    break;
+                case "entities":
+                    options.entities = Integer.parseInt(value);
+                    break;
+                case "chunks-per-second":
+                    options.chunksPerSecond = Integer.parseInt(value);
+                    break;
+                case "chat-interval":
+                    options.chatInterval = Integer.parseInt(value);
+                    break;
+                case "move":
+                    options.move = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        return options;
+    }
+}
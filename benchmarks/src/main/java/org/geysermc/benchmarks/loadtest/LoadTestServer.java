@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks.loadtest;
+
+import com.github.steveice10.mc.auth.data.GameProfile;
+import com.github.steveice10.mc.protocol.MinecraftConstants;
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.ServerLoginHandler;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.mc.protocol.data.game.entity.player.GameMode;
+import com.github.steveice10.mc.protocol.data.game.entity.type.EntityType;
+import com.github.steveice10.mc.protocol.packet.ingame.client.ClientChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerChatPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.ServerJoinGamePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.ServerEntityPositionPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.player.ServerPlayerPositionRotationPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.entity.spawn.ServerSpawnLivingEntityPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerChunkDataPacket;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.StringTag;
+import com.github.steveice10.packetlib.Server;
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.event.server.ServerAdapter;
+import com.github.steveice10.packetlib.event.server.SessionAddedEvent;
+import com.github.steveice10.packetlib.event.server.SessionRemovedEvent;
+import com.github.steveice10.packetlib.event.session.PacketReceivedEvent;
+import com.github.steveice10.packetlib.event.session.PacketSentEvent;
+import com.github.steveice10.packetlib.event.session.SessionAdapter;
+import com.github.steveice10.packetlib.tcp.TcpSessionFactory;
+import net.kyori.adventure.text.Component;
+import org.geysermc.benchmarks.BenchmarkFixtures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scripted Java server for the load test. It accepts any offline player, sends them a fixed world and then
+ * keeps streaming chunks, entity movement and chat at a configurable rate. Nothing is simulated; every session
+ * gets the same script.
+ */
+public class LoadTestServer {
+    private static final int SPAWN_Y = 140;
+    private static final int ENTITY_ID_OFFSET = 1000;
+
+    private final LoadTestOptions options;
+    private final LoadTestStatistics statistics;
+    private final ScheduledExecutorService scheduler;
+    private final List<Column> columns = new ArrayList<>();
+    private final Map<Session, ScheduledFuture<?>> scripts = new ConcurrentHashMap<>();
+    private final Server server;
+
+    public LoadTestServer(int port, LoadTestOptions options, LoadTestStatistics statistics, ScheduledExecutorService scheduler) {
+        this.options = options;
+        this.statistics = statistics;
+        this.scheduler = scheduler;
+
+        // The same columns are sent to everyone; they are only read while encoding
+        int viewDistance = options.getViewDistance();
+        for (int x = -viewDistance; x <= viewDistance; x++) {
+            for (int z = -viewDistance; z <= viewDistance; z++) {
+                columns.add(BenchmarkFixtures.column(x, z, BenchmarkFixtures.INDIRECT_PALETTE_STATES, true, 31L * x + z));
+            }
+        }
+
+        this.server = new Server("127.0.0.1", port, MinecraftProtocol.class, new TcpSessionFactory());
+        server.setGlobalFlag(MinecraftConstants.VERIFY_USERS_KEY, false);
+        server.setGlobalFlag(MinecraftConstants.SERVER_COMPRESSION_THRESHOLD, 256);
+        server.setGlobalFlag(MinecraftConstants.SERVER_LOGIN_HANDLER_KEY, (ServerLoginHandler) this::onLogin);
+        server.addListener(new ServerAdapter() {
+            @Override
+            public void sessionAdded(SessionAddedEvent event) {
+                event.getSession().addListener(new SessionAdapter() {
+                    @Override
+                    public void packetReceived(PacketReceivedEvent event) {
+                        statistics.getJavaPacketsReceived().increment();
+                        if (event.getPacket() instanceof ClientChatPacket) {
+                            onChat(event.getPacket());
+                        }
+                    }
+
+                    @Override
+                    public void packetSent(PacketSentEvent event) {
+                        statistics.getJavaPacketsSent().increment();
+                    }
+                });
+            }
+
+            @Override
+            public void sessionRemoved(SessionRemovedEvent event) {
+                ScheduledFuture<?> script = scripts.remove(event.getSession());
+                if (script != null) {
+                    script.cancel(false);
+                }
+            }
+        });
+    }
+
+    public void bind() {
+        server.bind();
+    }
+
+    public void close() {
+        server.close();
+    }
+
+    private void onLogin(Session session) {
+        GameProfile profile = session.getFlag(MinecraftConstants.PROFILE_KEY);
+        String world = "minecraft:overworld";
+
+        CompoundTag dimension = new CompoundTag("");
+        dimension.put(new StringTag("effects", world));
+        session.send(new ServerJoinGamePacket(profile.getName().hashCode() & Integer.MAX_VALUE, false, GameMode.SURVIVAL, GameMode.SURVIVAL,
+                1, new String[] {world}, new CompoundTag(""), dimension, world, 0, 100, options.getViewDistance(),
+                false, true, false, false));
+
+        for (Column column : columns) {
+            session.send(new ServerChunkDataPacket(column));
+        }
+
+        for (int i = 0; i < options.getEntities(); i++) {
+            session.send(new ServerSpawnLivingEntityPacket(ENTITY_ID_OFFSET + i, UUID.randomUUID(), EntityType.ZOMBIE,
+                    (i % 16) - 8, SPAWN_Y, (i / 16) - 8, 0, 0, 0, 0, 0, 0));
+        }
+
+        session.send(new ServerPlayerPositionRotationPacket(0.5, SPAWN_Y, 0.5, 0, 0, 1));
+
+        Script script = new Script(session);
+        scripts.put(session, scheduler.scheduleAtFixedRate(script, 50, 50, TimeUnit.MILLISECONDS));
+    }
+
+    private void onChat(ClientChatPacket packet) {
+        String message = packet.getMessage();
+        if (message.startsWith(SyntheticBedrockClient.LATENCY_PREFIX)) {
+            try {
+                long sent = Long.parseLong(message.substring(SyntheticBedrockClient.LATENCY_PREFIX.length()));
+                statistics.getUpstreamLatency().record(System.nanoTime() - sent);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    /**
+     * What a single player receives every tick after joining
+     */
+    private final class Script implements Runnable {
+        private final Session session;
+        private int ticks;
+        private int nextColumn;
+
+        private Script(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void run() {
+            if (!session.isConnected()) {
+                return;
+            }
+            ticks++;
+
+            // Entities wander back and forth along the X axis
+            double moveX = (ticks % 40) < 20 ? 0.1 : -0.1;
+            for (int i = 0; i < options.getEntities(); i++) {
+                session.send(new ServerEntityPositionPacket(ENTITY_ID_OFFSET + i, moveX, 0, 0, true));
+            }
+
+            if (options.getChunksPerSecond() > 0 && ticks % Math.max(1, 20 / options.getChunksPerSecond()) == 0) {
+                // Resend known chunks, as if the player kept loading new terrain
+                int count = Math.max(1, options.getChunksPerSecond() / 20);
+                for (int i = 0; i < count; i++) {
+                    session.send(new ServerChunkDataPacket(columns.get(nextColumn)));
+                    nextColumn = (nextColumn + 1) % columns.size();
+                }
+            }
+
+            if (options.getChatInterval() > 0 && ticks % options.getChatInterval() == 0) {
+                session.send(new ServerChatPacket(Component.text(SyntheticBedrockClient.LATENCY_PREFIX + System.nanoTime())));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks.loadtest;
+
+import lombok.Getter;
+import org.geysermc.connector.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by all synthetic peers of a load test run. Everything runs in one JVM, so
+ * {@link System#nanoTime()} stamps can be compared between the Java server and the Bedrock clients.
+ */
+@Getter
+public class LoadTestStatistics {
+    /**
+     * Time from a chat message leaving the Java server until a Bedrock client received it
+     */
+    private final LatencyHistogram downstreamLatency = new LatencyHistogram();
+    /**
+     * Time from a chat message leaving a Bedrock client until the Java server received it
+     */
+    private final LatencyHistogram upstreamLatency = new LatencyHistogram();
+    /**
+     * Time from opening the RakNet connection until the Bedrock client was spawned
+     */
+    private final LatencyHistogram loginTime = new LatencyHistogram();
+
+    private final LongAdder bedrockPacketsReceived = new LongAdder();
+    private final LongAdder bedrockBytesReceived = new LongAdder();
+    private final LongAdder bedrockPacketsSent = new LongAdder();
+    private final LongAdder javaPacketsSent = new LongAdder();
+    private final LongAdder javaPacketsReceived = new LongAdder();
+
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger disconnected = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * Clears everything measured so far, but keeps track of the connected clients.
+     */
+    public void reset() {
+        downstreamLatency.reset();
+        upstreamLatency.reset();
+        bedrockPacketsReceived.reset();
+        bedrockBytesReceived.reset();
+        bedrockPacketsSent.reset();
+        javaPacketsSent.reset();
+        javaPacketsReceived.reset();
+    }
+}
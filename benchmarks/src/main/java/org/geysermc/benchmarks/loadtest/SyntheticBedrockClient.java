@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.benchmarks.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.protocol.bedrock.BedrockClient;
+import com.nukkitx.protocol.bedrock.BedrockClientSession;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.handler.BatchHandler;
+import com.nukkitx.protocol.bedrock.handler.BedrockPacketHandler;
+import com.nukkitx.protocol.bedrock.packet.*;
+import com.nukkitx.protocol.bedrock.util.EncryptionUtils;
+import io.netty.util.AsciiString;
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.network.BedrockProtocol;
+
+import javax.crypto.SecretKey;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * A Bedrock client that logs in like a real one, using a self-signed chain instead of Xbox Live, and then
+ * only keeps up with what Geyser sends: it does not keep any world state besides its own position.
+ */
+public class SyntheticBedrockClient implements BedrockPacketHandler {
+    /**
+     * Prefix of chat messages carrying a {@link System#nanoTime()} stamp
+     */
+    public static final String LATENCY_PREFIX = "lt:";
+
+    private static final String SKIN_RESOURCE_PATCH = "{\"geometry\":{\"default\":\"geometry.humanoid.custom\"}}";
+    private static final String SKIN_DATA = Base64.getEncoder().encodeToString(new byte[64 * 64 * 4]);
+
+    @Getter
+    private final String name;
+    private final LoadTestStatistics statistics;
+    private final KeyPair keyPair;
+
+    private BedrockClient client;
+    private BedrockClientSession session;
+    private long connectTime;
+    private long runtimeEntityId;
+    @Getter
+    private volatile boolean spawned;
+    private volatile Vector3f position = Vector3f.ZERO;
+    private int ticks;
+
+    public SyntheticBedrockClient(String name, LoadTestStatistics statistics) throws Exception {
+        this.name = name;
+        this.statistics = statistics;
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp384r1"));
+        this.keyPair = generator.generateKeyPair();
+    }
+
+    /**
+     * Opens the connection and sends the login. Completes asynchronously, {@link #isSpawned()} turns true once
+     * Geyser has spawned the player.
+     *
+     * @param address the address Geyser listens on
+     */
+    public void connect(InetSocketAddress address) throws Exception {
+        LoginPacket loginPacket = new LoginPacket();
+        loginPacket.setProtocolVersion(BedrockProtocol.DEFAULT_BEDROCK_CODEC.getProtocolVersion());
+        loginPacket.setChainData(new AsciiString(createChainData()));
+        loginPacket.setSkinData(new AsciiString(createClientData(address)));
+
+        connectTime = System.nanoTime();
+        client = new BedrockClient(new InetSocketAddress("127.0.0.1", 0));
+        client.bind().join();
+        session = client.connect(address).join();
+        session.setPacketCodec(BedrockProtocol.DEFAULT_BEDROCK_CODEC);
+        session.setLogging(false);
+        session.setPacketHandler(this);
+
+        BatchHandler batchHandler = session.getBatchHandler();
+        session.setBatchHandler((bedrockSession, compressed, packets) -> {
+            statistics.getBedrockPacketsReceived().add(packets.size());
+            statistics.getBedrockBytesReceived().add(compressed.writerIndex());
+            batchHandler.handle(bedrockSession, compressed, packets);
+        });
+        session.addDisconnectHandler(reason -> {
+            if (spawned) {
+                statistics.getConnected().decrementAndGet();
+                statistics.getDisconnected().incrementAndGet();
+            } else {
+                statistics.getFailed().incrementAndGet();
+            }
+            spawned = false;
+        });
+
+        session.sendPacketImmediately(loginPacket);
+    }
+
+    /**
+     * Called every 50 milliseconds once spawned.
+     *
+     * @param move if the client should walk around
+     * @param chatInterval the amount of ticks between two chat messages, or 0 to not chat
+     */
+    public void tick(boolean move, int chatInterval) {
+        if (!spawned) {
+            return;
+        }
+        ticks++;
+
+        if (move) {
+            // Walk back and forth so the player never leaves the loaded chunks
+            float offset = (ticks % 40) < 20 ? 0.2f : -0.2f;
+            position = position.add(offset, 0, 0);
+
+            MovePlayerPacket movePlayerPacket = new MovePlayerPacket();
+            movePlayerPacket.setRuntimeEntityId(runtimeEntityId);
+            movePlayerPacket.setPosition(position);
+            movePlayerPacket.setRotation(Vector3f.ZERO);
+            movePlayerPacket.setMode(MovePlayerPacket.Mode.NORMAL);
+            movePlayerPacket.setOnGround(false);
+            send(movePlayerPacket);
+        }
+
+        if (chatInterval > 0 && ticks % chatInterval == 0) {
+            TextPacket textPacket = new TextPacket();
+            textPacket.setType(TextPacket.Type.CHAT);
+            textPacket.setNeedsTranslation(false);
+            textPacket.setSourceName(name);
+            textPacket.setXuid("");
+            textPacket.setPlatformChatId("");
+            textPacket.setMessage(LATENCY_PREFIX + System.nanoTime());
+            send(textPacket);
+        }
+    }
+
+    public void close() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void send(BedrockPacket packet) {
+        session.sendPacket(packet);
+        statistics.getBedrockPacketsSent().increment();
+    }
+
+    @Override
+    public boolean handle(ServerToClientHandshakePacket packet) {
+        try {
+            JWSObject jwt = JWSObject.parse(packet.getJwt());
+            ECPublicKey serverKey = EncryptionUtils.generateKey(jwt.getHeader().getX509CertURL().toString());
+            JsonNode payload = GeyserConnector.JSON_MAPPER.readTree(jwt.getPayload().toBytes());
+            byte[] token = Base64.getDecoder().decode(payload.get("salt").asText());
+
+            SecretKey encryptionKey = EncryptionUtils.getSecretKey(keyPair.getPrivate(), serverKey, token);
+            session.enableEncryption(encryptionKey);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to complete the encryption handshake", e);
+        }
+        session.sendPacketImmediately(new ClientToServerHandshakePacket());
+        return true;
+    }
+
+    @Override
+    public boolean handle(ResourcePacksInfoPacket packet) {
+        ResourcePackClientResponsePacket response = new ResourcePackClientResponsePacket();
+        response.setStatus(ResourcePackClientResponsePacket.Status.HAVE_ALL_PACKS);
+        session.sendPacketImmediately(response);
+        return true;
+    }
+
+    @Override
+    public boolean handle(ResourcePackStackPacket packet) {
+        ResourcePackClientResponsePacket response = new ResourcePackClientResponsePacket();
+        response.setStatus(ResourcePackClientResponsePacket.Status.COMPLETED);
+        session.sendPacketImmediately(response);
+        return true;
+    }
+
+    @Override
+    public boolean handle(StartGamePacket packet) {
+        runtimeEntityId = packet.getRuntimeEntityId();
+        position = packet.getPlayerPosition();
+        return true;
+    }
+
+    @Override
+    public boolean handle(PlayStatusPacket packet) {
+        if (packet.getStatus() == PlayStatusPacket.Status.PLAYER_SPAWN && !spawned) {
+            SetLocalPlayerAsInitializedPacket initializedPacket = new SetLocalPlayerAsInitializedPacket();
+            initializedPacket.setRuntimeEntityId(runtimeEntityId);
+            session.sendPacketImmediately(initializedPacket);
+
+            statistics.getLoginTime().record(System.nanoTime() - connectTime);
+            statistics.getConnected().incrementAndGet();
+            spawned = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(MovePlayerPacket packet) {
+        if (packet.getRuntimeEntityId() == runtimeEntityId) {
+            position = packet.getPosition();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean handle(TextPacket packet) {
+        String message = packet.getMessage();
+        int index = message.indexOf(LATENCY_PREFIX);
+        if (index != -1) {
+            try {
+                long sent = Long.parseLong(message.substring(index + LATENCY_PREFIX.length()).trim());
+                statistics.getDownstreamLatency().record(System.nanoTime() - sent);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the certificate chain of the login packet, signed by this client only
+     */
+    private String createChainData() throws Exception {
+        ObjectNode extraData = GeyserConnector.JSON_MAPPER.createObjectNode();
+        extraData.put("displayName", name);
+        extraData.put("identity", UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8)).toString());
+        extraData.put("XUID", "");
+
+        long now = System.currentTimeMillis() / 1000;
+        ObjectNode payload = GeyserConnector.JSON_MAPPER.createObjectNode();
+        payload.put("nbf", now - 60);
+        payload.put("exp", now + 24 * 60 * 60);
+        payload.put("identityPublicKey", getPublicKey());
+        payload.set("extraData", extraData);
+
+        ObjectNode chainData = GeyserConnector.JSON_MAPPER.createObjectNode();
+        chainData.putArray("chain").add(sign(payload));
+        return GeyserConnector.JSON_MAPPER.writeValueAsString(chainData);
+    }
+
+    /**
+     * @return the client data of the login packet, describing a Windows 10 client with a blank classic skin
+     */
+    private String createClientData(InetSocketAddress address) throws Exception {
+        ObjectNode clientData = GeyserConnector.JSON_MAPPER.createObjectNode();
+        clientData.put("GameVersion", BedrockProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion());
+        clientData.put("ServerAddress", address.getHostString() + ":" + address.getPort());
+        clientData.put("ThirdPartyName", name);
+        clientData.put("LanguageCode", "en_US");
+        clientData.put("SkinId", "Standard_Custom");
+        clientData.put("SkinData", SKIN_DATA);
+        clientData.put("SkinImageWidth", 64);
+        clientData.put("SkinImageHeight", 64);
+        clientData.put("SkinResourcePatch", Base64.getEncoder().encodeToString(SKIN_RESOURCE_PATCH.getBytes(StandardCharsets.UTF_8)));
+        clientData.put("SkinGeometryData", "");
+        clientData.put("CapeId", "");
+        clientData.put("CapeData", "");
+        clientData.put("PersonaSkin", false);
+        clientData.put("DeviceId", UUID.randomUUID().toString());
+        clientData.put("DeviceModel", "Load test");
+        clientData.put("DeviceOS", 7); // Windows 10
+        clientData.put("UIProfile", 0);
+        clientData.put("GuiScale", 0);
+        clientData.put("CurrentInputMode", 1);
+        clientData.put("DefaultInputMode", 1);
+        clientData.put("SelfSignedId", UUID.randomUUID().toString());
+        clientData.put("ClientRandomId", name.hashCode());
+        return sign(clientData);
+    }
+
+    private String sign(JsonNode payload) throws Exception {
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES384)
+                .x509CertURL(new URI(getPublicKey()))
+                .build();
+        JWSObject jws = new JWSObject(header, new Payload(GeyserConnector.JSON_MAPPER.writeValueAsString(payload)));
+        jws.sign(new ECDSASigner((ECPrivateKey) keyPair.getPrivate()));
+        return jws.serialize();
+    }
+
+    private String getPublicKey() {
+        return Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.bungeecord;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.util.AttributeKey;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ListenerInfo;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.network.netty.GeyserInjector;
+import org.geysermc.connector.network.netty.LocalCompressionDisabler;
+import org.geysermc.connector.network.netty.LocalServerChannelWrapper;
+
+import java.lang.reflect.Method;
+
+/**
+ * Binds a local channel that BungeeCord initializes like a connection to its first listener.
+ */
+public class GeyserBungeeInjector extends GeyserInjector {
+    private final ProxyServer proxy;
+
+    public GeyserBungeeInjector(ProxyServer proxy) {
+        this.proxy = proxy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void initializeLocalChannel0(GeyserBootstrap bootstrap) throws Exception {
+        ListenerInfo listenerInfo = proxy.getConfig().getListeners().iterator().next();
+
+        // BungeeCord internals; only the API is available at compile time
+        Class<?> pipelineUtils = Class.forName("net.md_5.bungee.netty.PipelineUtils");
+        ChannelInitializer<Channel> channelInitializer = (ChannelInitializer<Channel>) pipelineUtils.getField("SERVER_CHILD").get(null);
+        AttributeKey<ListenerInfo> listener = (AttributeKey<ListenerInfo>) pipelineUtils.getField("LISTENER").get(null);
+        String packetEncoder = (String) pipelineUtils.getField("PACKET_ENCODER").get(null);
+        Method initChannel = findInitChannel(channelInitializer);
+
+        EventLoopGroup bossGroup = (EventLoopGroup) proxy.getClass().getField("bossEventLoopGroup").get(proxy);
+        EventLoopGroup workerGroup = (EventLoopGroup) proxy.getClass().getField("workerEventLoopGroup").get(proxy);
+
+        ChannelFuture channelFuture = new ServerBootstrap()
+                .channel(LocalServerChannelWrapper.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        if (proxy.getConfig().getServers() == null) {
+                            // The proxy is shutting down
+                            ch.close();
+                            return;
+                        }
+                        initChannel.invoke(channelInitializer, ch);
+                        ch.pipeline().addAfter(packetEncoder, LocalCompressionDisabler.NAME, new LocalCompressionDisabler(
+                                "SetCompression", "LoginSuccess", "compress", "decompress"));
+                    }
+                })
+                .childAttr(listener, listenerInfo)
+                .group(bossGroup, workerGroup)
+                .localAddress(LocalAddress.ANY)
+                .bind()
+                .syncUninterruptibly();
+
+        this.localChannel = channelFuture;
+        this.serverSocketAddress = channelFuture.channel().localAddress();
+    }
+}
@@ -44,6 +44,7 @@ import org.geysermc.platform.bungeecord.command.GeyserBungeeCommandManager;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.file.Path;
 import java.util.UUID;
 import java.util.logging.Level;
@@ -54,6 +55,7 @@ public class GeyserBungeePlugin extends Plugin implements GeyserBootstrap {
     private GeyserBungeeConfiguration geyserConfig;
     private GeyserBungeeLogger geyserLogger;
     private IGeyserPingPassthrough geyserBungeePingPassthrough;
+    private GeyserBungeeInjector geyserInjector;
 
     private GeyserConnector connector;
 
@@ -106,6 +108,9 @@ public class GeyserBungeePlugin extends Plugin implements GeyserBootstrap {
 
         geyserConfig.loadFloodgate(this);
 
+        this.geyserInjector = new GeyserBungeeInjector(getProxy());
+        this.geyserInjector.initializeLocalChannel(this);
+
         this.connector = GeyserConnector.start(PlatformType.BUNGEECORD, this);
 
         this.geyserCommandManager = new GeyserBungeeCommandManager(connector);
@@ -125,6 +130,9 @@ public class GeyserBungeePlugin extends Plugin implements GeyserBootstrap {
     @Override
     public void onDisable() {
         connector.shutdown();
+        if (geyserInjector != null) {
+            geyserInjector.shutdown();
+        }
     }
 
     @Override
@@ -156,4 +164,9 @@ public class GeyserBungeePlugin extends Plugin implements GeyserBootstrap {
     public BootstrapDumpInfo getDumpInfo() {
         return new GeyserBungeeDumpInfo(getProxy());
     }
+
+    @Override
+    public SocketAddress getSocketAddress() {
+        return this.geyserInjector == null ? null : this.geyserInjector.getServerSocketAddress();
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.spigot;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.local.LocalAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.bukkit.Bukkit;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.network.netty.GeyserInjector;
+import org.geysermc.connector.network.netty.LocalCompressionDisabler;
+import org.geysermc.connector.network.netty.LocalServerChannelWrapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+
+/**
+ * Binds a local channel next to the server's own listener, initialized by the same channel initializer.
+ */
+public class GeyserSpigotInjector extends GeyserInjector {
+    /**
+     * The server's list of listening channels; the local channel is added so it is closed with the others
+     */
+    private List<ChannelFuture> allServerChannels;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void initializeLocalChannel0(GeyserBootstrap bootstrap) throws Exception {
+        String version = Bukkit.getServer().getClass().getPackage().getName();
+        version = version.substring(version.lastIndexOf('.') + 1);
+        Class<?> serverClass = Class.forName("net.minecraft.server." + version + ".MinecraftServer");
+        Object server = serverClass.getDeclaredMethod("getServer").invoke(null);
+
+        // Find the class that manages network IO
+        Object connection = null;
+        for (Method method : serverClass.getDeclaredMethods()) {
+            if (method.getReturnType().getSimpleName().equals("ServerConnection") && method.getParameterTypes().length == 0) {
+                connection = method.invoke(server);
+                break;
+            }
+        }
+        if (connection == null) {
+            throw new IllegalStateException("Unable to find the server connection");
+        }
+
+        // Find the channel that Minecraft uses to listen to connections
+        ChannelFuture listeningChannel = null;
+        for (Field field : connection.getClass().getDeclaredFields()) {
+            if (field.getType() != List.class || !(field.getGenericType() instanceof ParameterizedType)) {
+                continue;
+            }
+            if (((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0] != ChannelFuture.class) {
+                continue;
+            }
+            field.setAccessible(true);
+            allServerChannels = (List<ChannelFuture>) field.get(connection);
+            if (!allServerChannels.isEmpty()) {
+                listeningChannel = allServerChannels.get(0);
+            }
+            break;
+        }
+        if (listeningChannel == null) {
+            throw new IllegalStateException("Unable to find the listening channel");
+        }
+
+        ChannelInitializer<Channel> childHandler = getChildHandler(listeningChannel);
+        Method initChannel = findInitChannel(childHandler);
+
+        ChannelFuture channelFuture = new ServerBootstrap()
+                .channel(LocalServerChannelWrapper.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        initChannel.invoke(childHandler, ch);
+                        ch.pipeline().addAfter("encoder", LocalCompressionDisabler.NAME, new LocalCompressionDisabler(
+                                "PacketLoginOutSetCompression", "PacketLoginOutSuccess", "compress", "decompress"));
+                    }
+                })
+                // The same priority that the server uses for its own network threads
+                .group(new DefaultEventLoopGroup(0, new DefaultThreadFactory("Geyser Spigot connection thread", Thread.MAX_PRIORITY)))
+                .localAddress(LocalAddress.ANY)
+                .bind()
+                .syncUninterruptibly();
+
+        // Plugins such as ProtocolLib look at this list to inject into every connection
+        allServerChannels.add(channelFuture);
+        this.localChannel = channelFuture;
+        this.serverSocketAddress = channelFuture.channel().localAddress();
+    }
+
+    /**
+     * @return the child handler of the server bootstrap that owns the listening channel
+     */
+    @SuppressWarnings("unchecked")
+    private ChannelInitializer<Channel> getChildHandler(ChannelFuture listeningChannel) throws ReflectiveOperationException {
+        for (String name : listeningChannel.channel().pipeline().names()) {
+            ChannelHandler handler = listeningChannel.channel().pipeline().get(name);
+            if (handler == null) {
+                continue;
+            }
+            try {
+                Field childHandlerField = handler.getClass().getDeclaredField("childHandler");
+                childHandlerField.setAccessible(true);
+                return (ChannelInitializer<Channel>) childHandlerField.get(handler);
+            } catch (NoSuchFieldException ignored) {
+                // Not the acceptor
+            }
+        }
+        throw new NoSuchFieldException("childHandler");
+    }
+
+    @Override
+    public void shutdown() {
+        if (this.allServerChannels != null && this.localChannel != null) {
+            this.allServerChannels.remove(this.localChannel);
+            this.allServerChannels = null;
+        }
+        super.shutdown();
+    }
+}
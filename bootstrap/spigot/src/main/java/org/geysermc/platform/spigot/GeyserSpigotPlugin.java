@@ -45,6 +45,8 @@ import org.geysermc.platform.spigot.command.GeyserSpigotCommandExecutor;
 import org.geysermc.platform.spigot.command.GeyserSpigotCommandManager;
 import org.geysermc.platform.spigot.command.SpigotCommandSender;
 import org.geysermc.platform.spigot.world.GeyserSpigotBlockPlaceListener;
+import org.geysermc.platform.spigot.world.GeyserSpigotChunkSnapshotCache;
+import org.geysermc.platform.spigot.world.GeyserSpigotChunkSnapshotListener;
 import org.geysermc.platform.spigot.world.manager.*;
 import us.myles.ViaVersion.api.Pair;
 import us.myles.ViaVersion.api.Via;
@@ -55,6 +57,7 @@ import us.myles.ViaVersion.api.protocol.ProtocolVersion;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.SocketAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -67,6 +70,7 @@ public class GeyserSpigotPlugin extends JavaPlugin implements GeyserBootstrap {
     private GeyserSpigotLogger geyserLogger;
     private IGeyserPingPassthrough geyserSpigotPingPassthrough;
     private GeyserSpigotWorldManager geyserWorldManager;
+    private GeyserSpigotInjector geyserInjector;
 
     private GeyserConnector connector;
 
@@ -203,8 +207,24 @@ public class GeyserSpigotPlugin extends JavaPlugin implements GeyserBootstrap {
 
         Bukkit.getServer().getPluginManager().registerEvents(blockPlaceListener, this);
 
+        if (this.geyserWorldManager.usesChunkSnapshots()) {
+            // Read blocks from snapshots taken on the server thread instead of from the live world. Blocks changed by
+            // plugins without firing an event are only picked up right around Bedrock players, every
+            // chunk-snapshot-refresh-seconds; see the listener.
+            GeyserSpigotChunkSnapshotCache chunkSnapshotCache = new GeyserSpigotChunkSnapshotCache();
+            GeyserSpigotChunkSnapshotListener chunkSnapshotListener = new GeyserSpigotChunkSnapshotListener(connector,
+                    this.geyserWorldManager, chunkSnapshotCache);
+            this.geyserWorldManager.setChunkSnapshotCache(chunkSnapshotCache);
+            Bukkit.getServer().getPluginManager().registerEvents(chunkSnapshotListener, this);
+            Bukkit.getScheduler().runTaskTimer(this, chunkSnapshotListener, 1, 1);
+        }
+
         this.getCommand("geyser").setExecutor(new GeyserSpigotCommandExecutor(connector));
 
+        // The server only starts listening once every plugin is enabled
+        this.geyserInjector = new GeyserSpigotInjector();
+        Bukkit.getScheduler().runTask(this, () -> this.geyserInjector.initializeLocalChannel(this));
+
         // Trigger GeyserStart Events
         connector.getEventManager().triggerEvent(new GeyserStartEvent());
     }
@@ -214,6 +234,9 @@ public class GeyserSpigotPlugin extends JavaPlugin implements GeyserBootstrap {
         if (connector != null) {
             connector.shutdown();
         }
+        if (geyserInjector != null) {
+            geyserInjector.shutdown();
+        }
     }
 
     @Override
@@ -256,6 +279,11 @@ public class GeyserSpigotPlugin extends JavaPlugin implements GeyserBootstrap {
         return this.minecraftVersion;
     }
 
+    @Override
+    public SocketAddress getSocketAddress() {
+        return this.geyserInjector == null ? null : this.geyserInjector.getServerSocketAddress();
+    }
+
     public boolean isCompatible(String version, String whichVersion) {
         int[] currentVersion = parseVersion(version);
         int[] otherVersion = parseVersion(whichVersion);
@@ -29,7 +29,6 @@ import com.nukkitx.math.vector.Vector3f;
 import com.nukkitx.protocol.bedrock.data.SoundEvent;
 import com.nukkitx.protocol.bedrock.packet.LevelSoundEventPacket;
 import lombok.AllArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -47,7 +46,7 @@ public class GeyserSpigotBlockPlaceListener implements Listener {
     @EventHandler
     public void place(final BlockPlaceEvent event) {
         for (GeyserSession session : connector.getPlayers()) {
-            if (event.getPlayer() == Bukkit.getPlayer(session.getPlayerEntity().getUsername())) {
+            if (event.getPlayer() == worldManager.getPlayer(session)) {
                 LevelSoundEventPacket placeBlockSoundPacket = new LevelSoundEventPacket();
                 placeBlockSoundPacket.setSound(SoundEvent.PLACE);
                 placeBlockSoundPacket.setPosition(Vector3f.from(event.getBlockPlaced().getX(), event.getBlockPlaced().getY(), event.getBlockPlaced().getZ()));
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.spigot.world;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.block.data.BlockData;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Holds {@link ChunkSnapshot}s of the chunks around Bedrock players so that Geyser's threads can read blocks
+ * without touching the live world. Snapshots are captured on the server thread by
+ * {@link GeyserSpigotChunkSnapshotListener} and can be read from any thread.
+ *
+ * This class only works with Bukkit interfaces and does not call into {@link org.bukkit.Bukkit}, so it can be
+ * used with a mocked server.
+ */
+public class GeyserSpigotChunkSnapshotCache {
+    /**
+     * Returned for blocks in chunks that have not been captured, so the caller can read them from the live world instead
+     */
+    public static final int NOT_CAPTURED = -1;
+
+    /**
+     * World name to chunk key to the latest snapshot of that chunk
+     */
+    private final Map<String, Map<Long, ChunkSnapshot>> worlds = new ConcurrentHashMap<>();
+    /**
+     * Java block states by server block data. CraftBukkit compares block data by the server's block state
+     * instance, so this is effectively an identity lookup and the string form is only built once per state.
+     */
+    private final Map<BlockData, Integer> javaBlockStates = new ConcurrentHashMap<>();
+    /**
+     * Java block states by their string form
+     */
+    private final Map<String, Integer> javaIdBlockMap;
+
+    public GeyserSpigotChunkSnapshotCache() {
+        this(BlockTranslator.getJavaIdBlockMap());
+    }
+
+    public GeyserSpigotChunkSnapshotCache(Map<String, Integer> javaIdBlockMap) {
+        this.javaIdBlockMap = javaIdBlockMap;
+    }
+
+    /**
+     * Publishes a snapshot, replacing the previous snapshot of the same chunk.
+     *
+     * @param snapshot the snapshot to publish
+     */
+    public void put(ChunkSnapshot snapshot) {
+        worlds.computeIfAbsent(snapshot.getWorldName(), name -> new ConcurrentHashMap<>())
+                .put(chunkKey(snapshot.getX(), snapshot.getZ()), snapshot);
+    }
+
+    /**
+     * @param world the world name
+     * @param chunkX the chunk X
+     * @param chunkZ the chunk Z
+     * @return the latest snapshot of the chunk, or null if there is none
+     */
+    public ChunkSnapshot get(String world, int chunkX, int chunkZ) {
+        Map<Long, ChunkSnapshot> chunks = worlds.get(world);
+        if (chunks == null) {
+            return null;
+        }
+        return chunks.get(chunkKey(chunkX, chunkZ));
+    }
+
+    public boolean contains(String world, int chunkX, int chunkZ) {
+        return get(world, chunkX, chunkZ) != null;
+    }
+
+    public void remove(String world, int chunkX, int chunkZ) {
+        Map<Long, ChunkSnapshot> chunks = worlds.get(world);
+        if (chunks != null) {
+            chunks.remove(chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Removes every snapshot of a world whose chunk key does not pass the filter.
+     *
+     * @param world the world name
+     * @param keep tests the {@link #chunkKey(int, int)} of each cached chunk
+     */
+    public void retain(String world, LongPredicate keep) {
+        Map<Long, ChunkSnapshot> chunks = worlds.get(world);
+        if (chunks != null) {
+            chunks.keySet().removeIf(key -> !keep.test(key));
+        }
+    }
+
+    public void removeWorld(String world) {
+        worlds.remove(world);
+    }
+
+    public Iterable<String> getWorlds() {
+        return worlds.keySet();
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * @param world the world name
+     * @param x the block X
+     * @param y the block Y
+     * @param z the block Z
+     * @return the Java block state at the position, or {@link #NOT_CAPTURED} if the chunk has not been captured
+     */
+    public int getBlockAt(String world, int x, int y, int z) {
+        if (y < 0 || y > 255) {
+            return BlockTranslator.JAVA_AIR_ID;
+        }
+        ChunkSnapshot snapshot = get(world, x >> 4, z >> 4);
+        if (snapshot == null) {
+            return NOT_CAPTURED;
+        }
+        return getJavaBlockState(snapshot.getBlockData(x & 15, y, z & 15));
+    }
+
+    /**
+     * Copies a chunk section into a Java chunk.
+     *
+     * @param world the world name
+     * @param x the chunk X
+     * @param y the section Y
+     * @param z the chunk Z
+     * @param chunk the chunk to fill
+     * @return false if the chunk has not been captured and nothing was copied
+     */
+    public boolean getBlocksInSection(String world, int x, int y, int z, Chunk chunk) {
+        ChunkSnapshot snapshot = get(world, x, z);
+        if (snapshot == null) {
+            return false;
+        }
+        if (snapshot.isSectionEmpty(y)) {
+            return true;
+        }
+        int minY = y << 4;
+        for (int blockY = 0; blockY < 16; blockY++) { // Cache-friendly iteration order
+            for (int blockZ = 0; blockZ < 16; blockZ++) {
+                for (int blockX = 0; blockX < 16; blockX++) {
+                    chunk.set(blockX, blockY, blockZ, getJavaBlockState(snapshot.getBlockData(blockX, minY + blockY, blockZ)));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies a box of blocks, looking up the snapshot of each chunk once.
+     * See {@link org.geysermc.connector.network.translators.world.WorldManager#getBlocksInRegion} for the layout.
+     *
+     * @param world the world name
+     * @param blocks the array to fill; blocks in chunks that have not been captured are {@link #NOT_CAPTURED}
+     * @return true if every chunk of the box has been captured
+     */
+    public boolean getBlocksInRegion(String world, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockTranslator.JAVA_AIR_ID);
+        boolean captured = true;
+        int maxX = minX + sizeX - 1;
+        int maxZ = minZ + sizeZ - 1;
+        int fromY = Math.max(minY, 0);
+        int toY = Math.min(minY + sizeY - 1, 255);
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                ChunkSnapshot snapshot = get(world, chunkX, chunkZ);
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                if (snapshot == null) {
+                    captured = false;
+                }
+                for (int y = fromY; y <= toY; y++) {
+                    if (snapshot != null && snapshot.isSectionEmpty(y >> 4)) {
+                        continue;
+                    }
+                    for (int z = fromZ; z <= toZ; z++) {
+                        int index = ((y - minY) * sizeZ + (z - minZ)) * sizeX + (fromX - minX);
+                        for (int x = fromX; x <= toX; x++) {
+                            blocks[index++] = snapshot == null ? NOT_CAPTURED : getJavaBlockState(snapshot.getBlockData(x & 15, y, z & 15));
+                        }
+                    }
+                }
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * @param blockData the server block data
+     * @return the Java block state ID of the block data
+     */
+    public int getJavaBlockState(BlockData blockData) {
+        Integer javaId = javaBlockStates.get(blockData);
+        if (javaId == null) {
+            javaId = javaIdBlockMap.getOrDefault(blockData.getAsString(), BlockTranslator.JAVA_AIR_ID);
+            javaBlockStates.put(blockData, javaId);
+        }
+        return javaId;
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.spigot.world;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.platform.spigot.world.manager.GeyserSpigotWorldManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures {@link org.bukkit.ChunkSnapshot}s of the chunks around Bedrock players on the server thread and
+ * publishes them into a {@link GeyserSpigotChunkSnapshotCache}.
+ *
+ * Chunks are captured when they come into range of a Bedrock player and again on the tick after a block event
+ * in them. Blocks changed through the API without an event are picked up by a refresh of the 3x3 chunks around
+ * each Bedrock player every {@code chunk-snapshot-refresh-seconds}, if enabled; further away they stay stale until
+ * the chunk is reloaded or a block event happens in it. Such blocks are mostly out of reach for collision and block
+ * lookups, and the client itself is sent the real blocks by the server.
+ *
+ * Captures are limited by time rather than count so that a join or teleport is spread over several ticks
+ * whatever the cost of a snapshot on this server.
+ */
+public class GeyserSpigotChunkSnapshotListener implements Listener, Runnable {
+    /**
+     * How long captures may take each tick. At least one chunk is captured per tick regardless.
+     */
+    private static final long MAX_CAPTURE_NANOS_PER_TICK = 1_000_000;
+    /**
+     * How often, in ticks, the chunks in range of Bedrock players are recalculated
+     */
+    private static final int RANGE_INTERVAL = 10;
+
+    private final GeyserConnector connector;
+    private final GeyserSpigotWorldManager worldManager;
+    private final GeyserSpigotChunkSnapshotCache cache;
+    /**
+     * How often, in ticks, the chunks next to Bedrock players are captured again regardless of events, or 0 if never
+     */
+    private final int refreshInterval;
+
+    /**
+     * Chunks in range of at least one Bedrock player, by world name
+     */
+    private Map<String, LongSet> inRange = new HashMap<>();
+    /**
+     * Chunks waiting to be captured, by world name. Only touched on the server thread.
+     */
+    private final Map<String, LongSet> pending = new HashMap<>();
+    private int ticks;
+
+    public GeyserSpigotChunkSnapshotListener(GeyserConnector connector, GeyserSpigotWorldManager worldManager,
+                                             GeyserSpigotChunkSnapshotCache cache) {
+        this.connector = connector;
+        this.worldManager = worldManager;
+        this.cache = cache;
+        this.refreshInterval = Math.max(0, connector.getConfig().getChunkSnapshotRefreshSeconds()) * 20;
+    }
+
+    /**
+     * Runs every tick on the server thread.
+     */
+    @Override
+    public void run() {
+        if (ticks % RANGE_INTERVAL == 0) {
+            updateRange();
+        }
+        if (refreshInterval > 0 && ticks % refreshInterval == 0) {
+            refreshAroundPlayers();
+        }
+        ticks++;
+
+        long deadline = System.nanoTime() + MAX_CAPTURE_NANOS_PER_TICK;
+        for (Map.Entry<String, LongSet> entry : pending.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            LongIterator iterator = entry.getValue().iterator();
+            while (iterator.hasNext() && System.nanoTime() - deadline < 0) {
+                long key = iterator.nextLong();
+                iterator.remove();
+                if (world != null) {
+                    capture(world, (int) (key >> 32), (int) key);
+                }
+            }
+        }
+        pending.values().removeIf(LongSet::isEmpty);
+    }
+
+    /**
+     * Recalculates which chunks are in range of a Bedrock player, queues the ones that are missing and
+     * drops the ones that are no longer needed.
+     */
+    private void updateRange() {
+        int radius = Bukkit.getViewDistance() + 1;
+        Map<String, LongSet> range = new HashMap<>();
+        for (GeyserSession session : connector.getPlayers()) {
+            Player player = worldManager.getPlayer(session);
+            if (player == null) {
+                continue;
+            }
+            String world = player.getWorld().getName();
+            LongSet chunks = range.computeIfAbsent(world, name -> new LongOpenHashSet());
+            int centerX = player.getLocation().getBlockX() >> 4;
+            int centerZ = player.getLocation().getBlockZ() >> 4;
+            for (int x = centerX - radius; x <= centerX + radius; x++) {
+                for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+                    long key = GeyserSpigotChunkSnapshotCache.chunkKey(x, z);
+                    if (chunks.add(key) && !cache.contains(world, x, z)) {
+                        queue(world, key);
+                    }
+                }
+            }
+        }
+
+        for (String world : cache.getWorlds()) {
+            LongSet chunks = range.get(world);
+            if (chunks == null) {
+                cache.removeWorld(world);
+            } else {
+                cache.retain(world, chunks::contains);
+            }
+        }
+        pending.entrySet().removeIf(entry -> {
+            LongSet chunks = range.get(entry.getKey());
+            if (chunks == null) {
+                return true;
+            }
+            LongIterator iterator = entry.getValue().iterator();
+            while (iterator.hasNext()) {
+                if (!chunks.contains(iterator.nextLong())) {
+                    iterator.remove();
+                }
+            }
+            return entry.getValue().isEmpty();
+        });
+        this.inRange = range;
+    }
+
+    private void refreshAroundPlayers() {
+        for (GeyserSession session : connector.getPlayers()) {
+            Player player = worldManager.getPlayer(session);
+            if (player == null) {
+                continue;
+            }
+            String world = player.getWorld().getName();
+            int centerX = player.getLocation().getBlockX() >> 4;
+            int centerZ = player.getLocation().getBlockZ() >> 4;
+            for (int x = centerX - 1; x <= centerX + 1; x++) {
+                for (int z = centerZ - 1; z <= centerZ + 1; z++) {
+                    markDirty(world, x, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Captures the chunk if it is loaded
+     */
+    private void capture(World world, int chunkX, int chunkZ) {
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            cache.put(world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+        }
+    }
+
+    private void queue(String world, long key) {
+        pending.computeIfAbsent(world, name -> new LongLinkedOpenHashSet()).add(key);
+    }
+
+    /**
+     * Queues a chunk to be captured again if it is currently cached.
+     */
+    private void markDirty(String world, int chunkX, int chunkZ) {
+        if (cache.contains(world, chunkX, chunkZ)) {
+            queue(world, GeyserSpigotChunkSnapshotCache.chunkKey(chunkX, chunkZ));
+        }
+    }
+
+    private void markDirty(Block block) {
+        markDirty(block.getWorld().getName(), block.getX() >> 4, block.getZ() >> 4);
+    }
+
+    private void markDirty(List<Block> blocks) {
+        for (Block block : blocks) {
+            markDirty(block);
+        }
+    }
+
+    private void markMoved(Block piston, List<Block> blocks, BlockFace direction) {
+        markDirty(piston.getRelative(direction));
+        for (Block block : blocks) {
+            markDirty(block);
+            markDirty(block.getRelative(direction));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        String world = chunk.getWorld().getName();
+        LongSet chunks = inRange.get(world);
+        long key = GeyserSpigotChunkSnapshotCache.chunkKey(chunk.getX(), chunk.getZ());
+        if (chunks != null && chunks.contains(key)) {
+            queue(world, key);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        cache.remove(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        cache.removeWorld(event.getWorld().getName());
+        pending.remove(event.getWorld().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        markDirty(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        // Also covers spreading blocks
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        markDirty(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBlockRedstone(BlockRedstoneEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        markDirty(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        markDirty(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        markMoved(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        markMoved(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        markDirty(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            markDirty(state.getWorld().getName(), state.getX() >> 4, state.getZ() >> 4);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInteract(PlayerInteractEvent event) {
+        // Doors, trapdoors, levers, repeaters and the like
+        if (event.getClickedBlock() != null && event.getAction() == Action.RIGHT_CLICK_BLOCK) {
+            markDirty(event.getClickedBlock());
+        }
+    }
+}
@@ -25,13 +25,11 @@
 
 package org.geysermc.platform.spigot.world.manager;
 
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.geyser.adapters.spigot.SpigotAdapters;
 import org.geysermc.geyser.adapters.spigot.SpigotWorldAdapter;
-import us.myles.ViaVersion.api.Via;
 import us.myles.ViaVersion.protocols.protocol1_13to1_12_2.storage.BlockStorage;
 
 /**
@@ -47,12 +45,12 @@ public class GeyserSpigot1_12NativeWorldManager extends GeyserSpigot1_12WorldMan
 
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return BlockTranslator.JAVA_AIR_ID;
         }
         // Get block entity storage
-        BlockStorage storage = Via.getManager().getConnection(player.getUniqueId()).get(BlockStorage.class);
+        BlockStorage storage = getBlockStorage(session, player);
         int blockId = adapter.getBlockAt(player.getWorld(), x, y, z);
         return getLegacyBlock(storage, blockId, x, y, z);
     }
@@ -26,7 +26,8 @@
 package org.geysermc.platform.spigot.world.manager;
 
 import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
-import org.bukkit.Bukkit;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
@@ -60,6 +61,13 @@ public class GeyserSpigot1_12WorldManager extends GeyserSpigotWorldManager {
      * The list of all protocols from the client's version to 1.13.
      */
     private final List<Pair<Integer, Protocol>> protocolList;
+    /**
+     * ViaVersion's block entity storage of each session, so the connection is not looked up on every block read
+     */
+    private final Cache<GeyserSession, BlockStorage> blockStorages = CacheBuilder.newBuilder()
+            .weakKeys()
+            .weakValues()
+            .build();
 
     public GeyserSpigot1_12WorldManager() {
         super(false);
@@ -71,7 +79,7 @@ public class GeyserSpigot1_12WorldManager extends GeyserSpigotWorldManager {
     @Override
     @SuppressWarnings("deprecation")
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return BlockTranslator.JAVA_AIR_ID;
         }
@@ -80,13 +88,29 @@ public class GeyserSpigot1_12WorldManager extends GeyserSpigotWorldManager {
             return BlockTranslator.JAVA_AIR_ID;
         }
         // Get block entity storage
-        BlockStorage storage = Via.getManager().getConnection(player.getUniqueId()).get(BlockStorage.class);
+        BlockStorage storage = getBlockStorage(session, player);
         Block block = player.getWorld().getBlockAt(x, y, z);
         // Black magic that gets the old block state ID
         int blockId = (block.getType().getId() << 4) | (block.getData() & 0xF);
         return getLegacyBlock(storage, blockId, x, y, z);
     }
 
+    /**
+     * @param session the session
+     * @param player the Bukkit player of the session
+     * @return ViaVersion's block entity storage for the player
+     */
+    protected BlockStorage getBlockStorage(GeyserSession session, Player player) {
+        BlockStorage storage = blockStorages.getIfPresent(session);
+        if (storage == null) {
+            storage = Via.getManager().getConnection(player.getUniqueId()).get(BlockStorage.class);
+            if (storage != null) {
+                blockStorages.put(session, storage);
+            }
+        }
+        return storage;
+    }
+
     /**
      *
      * @param storage ViaVersion's block entity storage (used to fix block entity state differences)
@@ -119,13 +143,13 @@ public class GeyserSpigot1_12WorldManager extends GeyserSpigotWorldManager {
     @SuppressWarnings("deprecation")
     @Override
     public void getBlocksInSection(GeyserSession session, int x, int y, int z, Chunk chunk) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return;
         }
         World world = player.getWorld();
         // Get block entity storage
-        BlockStorage storage = Via.getManager().getConnection(player.getUniqueId()).get(BlockStorage.class);
+        BlockStorage storage = getBlockStorage(session, player);
         for (int blockY = 0; blockY < 16; blockY++) { // Cache-friendly iteration order
             for (int blockZ = 0; blockZ < 16; blockZ++) {
                 for (int blockX = 0; blockX < 16; blockX++) {
@@ -29,6 +29,8 @@ import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 
+import java.util.Arrays;
+
 /**
  * Should only be used when we know {@link GeyserSpigotWorldManager#getBlockAt(GeyserSession, int, int, int)}
  * cannot be accurate. Typically, this is when ViaVersion is not installed but a client still manages to connect.
@@ -50,6 +52,11 @@ public class GeyserSpigotFallbackWorldManager extends GeyserSpigotWorldManager {
         // Do nothing, since we can't do anything with the chunk
     }
 
+    @Override
+    public void getBlocksInRegion(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockTranslator.JAVA_AIR_ID);
+    }
+
     @Override
     public boolean hasMoreBlockDataThanChunkCache() {
         return false;
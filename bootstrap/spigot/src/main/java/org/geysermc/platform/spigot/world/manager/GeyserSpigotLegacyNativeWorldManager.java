@@ -29,7 +29,7 @@ import com.github.steveice10.mc.protocol.MinecraftConstants;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntList;
-import org.geysermc.connector.network.session.GeyserSession;
+import org.bukkit.World;
 import org.geysermc.platform.spigot.GeyserSpigotPlugin;
 import us.myles.ViaVersion.api.Pair;
 import us.myles.ViaVersion.api.data.MappingData;
@@ -67,8 +67,8 @@ public class GeyserSpigotLegacyNativeWorldManager extends GeyserSpigotNativeWorl
     }
 
     @Override
-    public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        int nativeBlockId = super.getBlockAt(session, x, y, z);
+    protected int getNativeBlockAt(World world, int x, int y, int z) {
+        int nativeBlockId = super.getNativeBlockAt(world, x, y, z);
         return oldToNewBlockId.getOrDefault(nativeBlockId, nativeBlockId);
     }
 
@@ -25,13 +25,15 @@
 
 package org.geysermc.platform.spigot.world.manager;
 
-import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.geyser.adapters.spigot.SpigotAdapters;
 import org.geysermc.geyser.adapters.spigot.SpigotWorldAdapter;
 
+import java.util.Arrays;
+
 public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
     protected final SpigotWorldAdapter adapter;
 
@@ -42,10 +44,46 @@ public class GeyserSpigotNativeWorldManager extends GeyserSpigotWorldManager {
 
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
-        Player player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+        Player player = getPlayer(session);
         if (player == null) {
             return BlockTranslator.JAVA_AIR_ID;
         }
-        return adapter.getBlockAt(player.getWorld(), x, y, z);
+        return getNativeBlockAt(player.getWorld(), x, y, z);
+    }
+
+    /**
+     * @return the Java block state at the position, read through the adapter
+     */
+    protected int getNativeBlockAt(World world, int x, int y, int z) {
+        return adapter.getBlockAt(world, x, y, z);
+    }
+
+    @Override
+    public void getBlocksInRegion(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Player player = getPlayer(session);
+        if (player == null) {
+            Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockTranslator.JAVA_AIR_ID);
+            return;
+        }
+        // Same reads as getBlockAt, but the player and world are only looked up once
+        World world = player.getWorld();
+        int index = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            boolean outsideWorld = y < 0 || y > 255;
+            for (int z = minZ; z < minZ + sizeZ; z++) {
+                for (int x = minX; x < minX + sizeX; x++) {
+                    blocks[index++] = outsideWorld ? BlockTranslator.JAVA_AIR_ID : getNativeBlockAt(world, x, y, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * The adapter reads block states straight from the server, which is cheaper than converting snapshot block data,
+     * so every read goes to the live world.
+     */
+    @Override
+    public boolean usesChunkSnapshots() {
+        return false;
     }
 }
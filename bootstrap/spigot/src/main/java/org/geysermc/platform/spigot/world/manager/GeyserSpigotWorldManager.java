@@ -28,8 +28,11 @@ package org.geysermc.platform.spigot.world.manager;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.mc.protocol.MinecraftConstants;
 import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import lombok.Setter;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.block.Biome;
@@ -43,6 +46,7 @@ import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.GameRule;
 import org.geysermc.connector.utils.LanguageUtils;
+import org.geysermc.platform.spigot.world.GeyserSpigotChunkSnapshotCache;
 
 import java.io.InputStream;
 
@@ -71,6 +75,23 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
      * The key is the Spigot Biome ordinal; the value is the Minecraft Java biome numerical ID
      */
     private final Int2IntMap biomeToIdMap = new Int2IntOpenHashMap(Biome.values().length);
+    /**
+     * The Bukkit player of each session, so it is not looked up by name on every block read
+     */
+    private final Cache<GeyserSession, Player> players = CacheBuilder.newBuilder()
+            .weakKeys()
+            .weakValues()
+            .build();
+    /**
+     * Snapshots of the chunks around Bedrock players. If set, blocks are read from here instead of the live world,
+     * except in chunks that have not been captured yet.
+     * <p>
+     * Snapshots are only refreshed after block events and, for the chunks right next to each Bedrock player, every
+     * {@code chunk-snapshot-refresh-seconds}. Blocks a plugin changes without an event elsewhere stay stale until
+     * their chunk is captured again.
+     */
+    @Setter
+    private GeyserSpigotChunkSnapshotCache chunkSnapshotCache;
 
     public GeyserSpigotWorldManager(boolean use3dBiomes) {
         this.use3dBiomes = use3dBiomes;
@@ -96,23 +117,51 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
         }
     }
 
+    /**
+     * @param session the session
+     * @return the Bukkit player of the session, or null if they are not online (yet)
+     */
+    public Player getPlayer(GeyserSession session) {
+        Player player = players.getIfPresent(session);
+        if (player == null && session.getPlayerEntity() != null) {
+            player = Bukkit.getPlayer(session.getPlayerEntity().getUsername());
+            if (player != null) {
+                players.put(session, player);
+            }
+        }
+        return player;
+    }
+
     @Override
     public int getBlockAt(GeyserSession session, int x, int y, int z) {
         Player bukkitPlayer;
-        if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+        if ((bukkitPlayer = getPlayer(session)) == null) {
             return BlockTranslator.JAVA_AIR_ID;
         }
         World world = bukkitPlayer.getWorld();
+        if (chunkSnapshotCache != null) {
+            int javaId = chunkSnapshotCache.getBlockAt(world.getName(), x, y, z);
+            if (javaId != GeyserSpigotChunkSnapshotCache.NOT_CAPTURED) {
+                return javaId;
+            }
+        }
+        return getLiveBlockAt(world, x, y, z);
+    }
+
+    private static int getLiveBlockAt(World world, int x, int y, int z) {
         return BlockTranslator.getJavaIdBlockMap().getOrDefault(world.getBlockAt(x, y, z).getBlockData().getAsString(), BlockTranslator.JAVA_AIR_ID);
     }
 
     @Override
     public void getBlocksInSection(GeyserSession session, int x, int y, int z, Chunk chunk) {
         Player bukkitPlayer;
-        if ((bukkitPlayer = Bukkit.getPlayer(session.getPlayerEntity().getUsername())) == null) {
+        if ((bukkitPlayer = getPlayer(session)) == null) {
             return;
         }
         World world = bukkitPlayer.getWorld();
+        if (chunkSnapshotCache != null && chunkSnapshotCache.getBlocksInSection(world.getName(), x, y, z, chunk)) {
+            return;
+        }
         for (int blockY = 0; blockY < 16; blockY++) { // Cache-friendly iteration order
             for (int blockZ = 0; blockZ < 16; blockZ++) {
                 for (int blockX = 0; blockX < 16; blockX++) {
@@ -124,6 +173,39 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
         }
     }
 
+    @Override
+    public void getBlocksInRegion(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Player bukkitPlayer = getPlayer(session);
+        if (bukkitPlayer != null && chunkSnapshotCache != null && usesChunkSnapshots()) {
+            World world = bukkitPlayer.getWorld();
+            if (chunkSnapshotCache.getBlocksInRegion(world.getName(), minX, minY, minZ, sizeX, sizeY, sizeZ, blocks)) {
+                return;
+            }
+            // Read the blocks of chunks that have not been captured yet from the live world
+            int index = 0;
+            for (int y = minY; y < minY + sizeY; y++) {
+                for (int z = minZ; z < minZ + sizeZ; z++) {
+                    for (int x = minX; x < minX + sizeX; x++) {
+                        if (blocks[index] == GeyserSpigotChunkSnapshotCache.NOT_CAPTURED) {
+                            blocks[index] = getLiveBlockAt(world, x, y, z);
+                        }
+                        index++;
+                    }
+                }
+            }
+            return;
+        }
+        // Legacy managers convert each block on its own, and without snapshots each block is a lookup in the live world
+        int index = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            for (int z = minZ; z < minZ + sizeZ; z++) {
+                for (int x = minX; x < minX + sizeX; x++) {
+                    blocks[index++] = y < 0 || y > 255 ? BlockTranslator.JAVA_AIR_ID : getBlockAt(session, x, y, z);
+                }
+            }
+        }
+    }
+
     @Override
     public boolean hasMoreBlockDataThanChunkCache() {
         return true;
@@ -132,11 +214,12 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
     @Override
     @SuppressWarnings("deprecation")
     public int[] getBiomeDataAt(GeyserSession session, int x, int z) {
-        if (session.getPlayerEntity() == null) {
+        Player bukkitPlayer = getPlayer(session);
+        if (bukkitPlayer == null) {
             return new int[1024];
         }
         int[] biomeData = new int[1024];
-        World world = Bukkit.getPlayer(session.getPlayerEntity().getUsername()).getWorld();
+        World world = bukkitPlayer.getWorld();
         int chunkX = x << 4;
         int chunkZ = z << 4;
         int chunkXmax = chunkX + 16;
@@ -168,17 +251,25 @@ public class GeyserSpigotWorldManager extends GeyserWorldManager {
     }
 
     public Boolean getGameRuleBool(GeyserSession session, GameRule gameRule) {
-        return Boolean.parseBoolean(Bukkit.getPlayer(session.getPlayerEntity().getUsername()).getWorld().getGameRuleValue(gameRule.getJavaID()));
+        return Boolean.parseBoolean(getPlayer(session).getWorld().getGameRuleValue(gameRule.getJavaID()));
     }
 
     @Override
     public int getGameRuleInt(GeyserSession session, GameRule gameRule) {
-        return Integer.parseInt(Bukkit.getPlayer(session.getPlayerEntity().getUsername()).getWorld().getGameRuleValue(gameRule.getJavaID()));
+        return Integer.parseInt(getPlayer(session).getWorld().getGameRuleValue(gameRule.getJavaID()));
     }
 
     @Override
     public boolean hasPermission(GeyserSession session, String permission) {
-        return Bukkit.getPlayer(session.getPlayerEntity().getUsername()).hasPermission(permission);
+        return getPlayer(session).hasPermission(permission);
+    }
+
+    /**
+     * @return true if this manager reads blocks from {@link #setChunkSnapshotCache(GeyserSpigotChunkSnapshotCache) chunk snapshots}
+     * once they are set, and so needs them to be captured
+     */
+    public boolean usesChunkSnapshots() {
+        return !isLegacy();
     }
 
     /**
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.spigot.world;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.block.data.BlockData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the snapshot cache against Bukkit snapshots and block data backed by plain arrays, so no server is needed.
+ */
+public class GeyserSpigotChunkSnapshotCacheTest {
+    private static final String WORLD = "world";
+    private static final int STONE = 1;
+    private static final int DIRT = 10;
+
+    private final AtomicInteger stringConversions = new AtomicInteger();
+    private final BlockData air = blockData("minecraft:air");
+    private final BlockData stone = blockData("minecraft:stone");
+    private final BlockData dirt = blockData("minecraft:dirt");
+
+    private GeyserSpigotChunkSnapshotCache cache;
+
+    @Before
+    public void setUp() {
+        Map<String, Integer> javaIdBlockMap = new HashMap<>();
+        javaIdBlockMap.put("minecraft:air", 0);
+        javaIdBlockMap.put("minecraft:stone", STONE);
+        javaIdBlockMap.put("minecraft:dirt", DIRT);
+        cache = new GeyserSpigotChunkSnapshotCache(javaIdBlockMap);
+    }
+
+    @Test
+    public void getBlockAt() {
+        BlockData[] blocks = emptyChunk();
+        blocks[index(3, 64, 5)] = stone;
+        blocks[index(15, 255, 15)] = dirt;
+        cache.put(snapshot(-1, 2, blocks));
+
+        Assert.assertEquals(STONE, cache.getBlockAt(WORLD, -16 + 3, 64, 32 + 5));
+        Assert.assertEquals(DIRT, cache.getBlockAt(WORLD, -1, 255, 47));
+        Assert.assertEquals(0, cache.getBlockAt(WORLD, -16, 0, 32));
+        Assert.assertEquals("Blocks outside of the world are air", 0, cache.getBlockAt(WORLD, -16, 256, 32));
+        Assert.assertEquals(GeyserSpigotChunkSnapshotCache.NOT_CAPTURED, cache.getBlockAt(WORLD, 0, 64, 32));
+        Assert.assertEquals(GeyserSpigotChunkSnapshotCache.NOT_CAPTURED, cache.getBlockAt("world_nether", -16, 64, 32));
+
+        cache.remove(WORLD, -1, 2);
+        Assert.assertEquals(GeyserSpigotChunkSnapshotCache.NOT_CAPTURED, cache.getBlockAt(WORLD, -16 + 3, 64, 32 + 5));
+    }
+
+    @Test
+    public void getBlocksInSection() {
+        BlockData[] blocks = emptyChunk();
+        for (int i = 0; i < 16; i++) {
+            blocks[index(i, 16 + i, 15 - i)] = stone;
+        }
+        cache.put(snapshot(0, 0, blocks));
+
+        Chunk chunk = new Chunk();
+        Assert.assertTrue(cache.getBlocksInSection(WORLD, 0, 1, 0, chunk));
+        for (int i = 0; i < 16; i++) {
+            Assert.assertEquals(STONE, chunk.get(i, i, 15 - i));
+        }
+        Assert.assertEquals(0, chunk.get(0, 1, 0));
+
+        Assert.assertFalse("Uncaptured sections must be left to the caller", cache.getBlocksInSection(WORLD, 1, 1, 0, new Chunk()));
+    }
+
+    @Test
+    public void getBlocksInRegion() {
+        BlockData[] blocks = emptyChunk();
+        blocks[index(15, 64, 0)] = stone;
+        cache.put(snapshot(0, 0, blocks));
+
+        // 2x3x1 across chunk 0,0 and the uncaptured chunk 1,0
+        int[] region = new int[2 * 3 * 1];
+        Assert.assertFalse(cache.getBlocksInRegion(WORLD, 15, 63, 0, 2, 3, 1, region));
+        Assert.assertArrayEquals(new int[]{0, GeyserSpigotChunkSnapshotCache.NOT_CAPTURED, STONE, GeyserSpigotChunkSnapshotCache.NOT_CAPTURED,
+                0, GeyserSpigotChunkSnapshotCache.NOT_CAPTURED}, region);
+
+        region = new int[2 * 2 * 1];
+        Assert.assertTrue(cache.getBlocksInRegion(WORLD, 14, -1, 0, 2, 2, 1, region));
+        Assert.assertArrayEquals("Blocks outside of the world are air", new int[]{0, 0, 0, 0}, region);
+    }
+
+    @Test
+    public void convertsBlockDataOnce() {
+        BlockData[] blocks = emptyChunk();
+        for (int i = 0; i < blocks.length; i += 2) {
+            blocks[i] = stone;
+        }
+        cache.put(snapshot(0, 0, blocks));
+        stringConversions.set(0);
+
+        Assert.assertTrue(cache.getBlocksInSection(WORLD, 0, 0, 0, new Chunk()));
+        Assert.assertTrue(cache.getBlocksInSection(WORLD, 0, 8, 0, new Chunk()));
+        Assert.assertEquals("Block data must be cached by identity", 2, stringConversions.get());
+    }
+
+    private BlockData blockData(String state) {
+        return (BlockData) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{BlockData.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getAsString":
+                    stringConversions.incrementAndGet();
+                    return state;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return state;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private BlockData[] emptyChunk() {
+        BlockData[] blocks = new BlockData[16 * 256 * 16];
+        Arrays.fill(blocks, air);
+        return blocks;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    private ChunkSnapshot snapshot(int chunkX, int chunkZ, BlockData[] blocks) {
+        return (ChunkSnapshot) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ChunkSnapshot.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getWorldName":
+                    return WORLD;
+                case "getX":
+                    return chunkX;
+                case "getZ":
+                    return chunkZ;
+                case "getBlockData":
+                    return blocks[index((Integer) args[0], (Integer) args[1], (Integer) args[2])];
+                case "isSectionEmpty": {
+                    int minY = (Integer) args[0] << 4;
+                    for (int i = minY << 8; i < (minY + 16) << 8; i++) {
+                        if (blocks[i] != air) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.platform.velocity;
+
+import com.velocitypowered.api.proxy.ProxyServer;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.local.LocalAddress;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.network.netty.GeyserInjector;
+import org.geysermc.connector.network.netty.LocalCompressionDisabler;
+import org.geysermc.connector.network.netty.LocalServerChannelWrapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Binds a local channel that Velocity initializes like a connection to its own listener.
+ */
+public class GeyserVelocityInjector extends GeyserInjector {
+    private final ProxyServer proxy;
+
+    public GeyserVelocityInjector(ProxyServer proxy) {
+        this.proxy = proxy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void initializeLocalChannel0(GeyserBootstrap bootstrap) throws Exception {
+        // Velocity internals; only the API is available at compile time
+        Field connectionManagerField = proxy.getClass().getDeclaredField("cm");
+        connectionManagerField.setAccessible(true);
+        Object connectionManager = connectionManagerField.get(proxy);
+        Class<?> connectionManagerClass = connectionManager.getClass();
+
+        Supplier<ChannelInitializer<Channel>> initializerHolder = (Supplier<ChannelInitializer<Channel>>) connectionManagerClass
+                .getMethod("getServerChannelInitializer").invoke(connectionManager);
+        ChannelInitializer<Channel> channelInitializer = initializerHolder.get();
+        Method initChannel = findInitChannel(channelInitializer);
+
+        Field bossGroupField = connectionManagerClass.getDeclaredField("bossGroup");
+        bossGroupField.setAccessible(true);
+        Field workerGroupField = connectionManagerClass.getDeclaredField("workerGroup");
+        workerGroupField.setAccessible(true);
+
+        ServerBootstrap serverBootstrap = new ServerBootstrap()
+                .channel(LocalServerChannelWrapper.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) throws Exception {
+                        initChannel.invoke(channelInitializer, ch);
+                        ch.pipeline().addAfter("minecraft-encoder", LocalCompressionDisabler.NAME, new LocalCompressionDisabler(
+                                "SetCompression", "ServerLoginSuccess", "compression-encoder", "compression-decoder"));
+                    }
+                })
+                .group((EventLoopGroup) bossGroupField.get(connectionManager), (EventLoopGroup) workerGroupField.get(connectionManager))
+                .localAddress(LocalAddress.ANY);
+        try {
+            // Velocity sets this on its own listener; without it the initial world load can stall
+            Field writeMarkField = connectionManagerClass.getDeclaredField("SERVER_WRITE_MARK");
+            writeMarkField.setAccessible(true);
+            serverBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, (WriteBufferWaterMark) writeMarkField.get(null));
+        } catch (NoSuchFieldException ignored) {
+        }
+
+        ChannelFuture channelFuture = serverBootstrap.bind().syncUninterruptibly();
+        this.localChannel = channelFuture;
+        this.serverSocketAddress = channelFuture.channel().localAddress();
+    }
+}
@@ -50,6 +50,7 @@ import org.slf4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.UUID;
@@ -70,6 +71,7 @@ public class GeyserVelocityPlugin implements GeyserBootstrap {
     private GeyserVelocityConfiguration geyserConfig;
     private GeyserVelocityLogger geyserLogger;
     private IGeyserPingPassthrough geyserPingPassthrough;
+    private GeyserVelocityInjector geyserInjector;
 
     private GeyserConnector connector;
 
@@ -119,6 +121,9 @@ public class GeyserVelocityPlugin implements GeyserBootstrap {
 
         geyserConfig.loadFloodgate(this, proxyServer, configFolder.toFile());
 
+        this.geyserInjector = new GeyserVelocityInjector(proxyServer);
+        this.geyserInjector.initializeLocalChannel(this);
+
         this.connector = GeyserConnector.start(PlatformType.VELOCITY, this);
 
         this.geyserCommandManager = new GeyserVelocityCommandManager(connector);
@@ -136,6 +141,9 @@ public class GeyserVelocityPlugin implements GeyserBootstrap {
     @Override
     public void onDisable() {
         connector.shutdown();
+        if (geyserInjector != null) {
+            geyserInjector.shutdown();
+        }
     }
 
     @Override
@@ -172,4 +180,9 @@ public class GeyserVelocityPlugin implements GeyserBootstrap {
     public BootstrapDumpInfo getDumpInfo() {
         return new GeyserVelocityDumpInfo(proxyServer);
     }
+
+    @Override
+    public SocketAddress getSocketAddress() {
+        return this.geyserInjector == null ? null : this.geyserInjector.getServerSocketAddress();
+    }
 }
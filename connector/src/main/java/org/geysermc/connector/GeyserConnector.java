@@ -31,6 +31,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nukkitx.network.raknet.RakNetConstants;
 import com.nukkitx.network.util.EventLoops;
 import com.nukkitx.protocol.bedrock.BedrockServer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import lombok.Getter;
 import lombok.Setter;
 import org.geysermc.common.PlatformType;
@@ -41,12 +45,15 @@ import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.extension.ExtensionManager;
 import org.geysermc.connector.metrics.Metrics;
+import org.geysermc.connector.metrics.PerformanceMonitor;
 import org.geysermc.connector.network.ConnectorServerEventHandler;
+import org.geysermc.connector.network.netty.DownstreamConnectionManager;
 import org.geysermc.connector.network.remote.RemoteServer;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.BiomeTranslator;
 import org.geysermc.connector.network.translators.EntityIdentifierRegistry;
 import org.geysermc.connector.network.translators.PacketTranslatorRegistry;
+import org.geysermc.connector.network.translators.RegistryInitializer;
 import org.geysermc.connector.network.translators.collision.CollisionTranslator;
 import org.geysermc.connector.network.translators.effect.EffectRegistry;
 import org.geysermc.connector.network.translators.item.ItemRegistry;
@@ -109,9 +116,15 @@ public class GeyserConnector {
     private final ScheduledExecutorService generalThreadPool;
 
     private BedrockServer bedrockServer;
+    /**
+     * Only set when the Bedrock port is bound by more than one listener thread
+     */
+    private EventLoopGroup bedrockEventLoopGroup;
+    private DownstreamConnectionManager downstreamConnectionManager;
     private final PlatformType platformType;
     private final GeyserBootstrap bootstrap;
 
+    private final PerformanceMonitor performanceMonitor;
     private final EventManager eventManager;
     private final ExtensionManager extensionManager;
 
@@ -141,25 +154,28 @@ public class GeyserConnector {
 
         logger.setDebug(config.isDebugMode());
 
+        this.performanceMonitor = new PerformanceMonitor(config.getPerformanceMonitor());
         this.eventManager = new EventManager(this);
         this.extensionManager = new ExtensionManager(this, bootstrap.getConfigFolder().resolve("extensions").toFile());
 
-        PacketTranslatorRegistry.init();
-
         /* Initialize translators and registries */
-        BiomeTranslator.init();
-        BlockTranslator.init();
-        BlockEntityTranslator.init();
-        EffectRegistry.init();
-        EntityIdentifierRegistry.init();
-        ItemRegistry.init();
-        ItemTranslator.init();
-        CollisionTranslator.init();
-        LocaleUtils.init();
-        PotionMixRegistry.init();
-        RecipeRegistry.init();
-        SoundRegistry.init();
-        SoundHandlerRegistry.init();
+        new RegistryInitializer()
+                .stage("locales", LocaleUtils::init)
+                .stage("biomes", BiomeTranslator::init)
+                .stage("entity identifiers", EntityIdentifierRegistry::init)
+                .stage("effects", EffectRegistry::init)
+                .stage("sounds", SoundRegistry::init)
+                .stage("blocks", BlockTranslator::init)
+                .stage("block entities", BlockEntityTranslator::init, "blocks")
+                .stage("collision", CollisionTranslator::init, "blocks")
+                .stage("items", ItemRegistry::init, "blocks")
+                .stage("item translators", ItemTranslator::init, "items")
+                .stage("potion mixes", PotionMixRegistry::init, "items")
+                .stage("recipes", RecipeRegistry::init, "items")
+                .stage("sound handlers", SoundHandlerRegistry::init, "blocks", "items")
+                // Translators reach into the other registries from their static fields
+                .stage("packet translators", PacketTranslatorRegistry::init, "blocks", "items", "item translators")
+                .run(logger);
 
         ResourcePack.loadPacks();
 
@@ -198,6 +214,7 @@ public class GeyserConnector {
         }
 
         remoteServer = new RemoteServer(config.getRemote().getAddress(), remotePort);
+        downstreamConnectionManager = new DownstreamConnectionManager(config.getRemote());
         authType = AuthType.getByName(config.getRemote().getAuthType());
 
         CooldownUtils.setShowCooldown(config.isShowCooldown());
@@ -209,22 +226,39 @@ public class GeyserConnector {
         logger.debug("Setting MTU to " + config.getMtu());
 
         boolean enableProxyProtocol = config.getBedrock().isEnableProxyProtocol();
+        int listenerThreads = Math.max(1, config.getBedrock().getListenerThreads());
+        EventLoopGroup bedrockGroup = EventLoops.commonGroup();
+        if (listenerThreads > 1) {
+            if (Epoll.isAvailable()) {
+                // One loop per socket; RakNet sessions stay on the loop of the socket their client hashes to
+                bedrockEventLoopGroup = new EpollEventLoopGroup(listenerThreads, new DefaultThreadFactory("Geyser Bedrock listener", true));
+                bedrockGroup = bedrockEventLoopGroup;
+            } else {
+                logger.warning("listener-threads is set to " + listenerThreads + " but binding the Bedrock port more than once needs Linux with native epoll; using one listener");
+                listenerThreads = 1;
+            }
+        }
         bedrockServer = new BedrockServer(
                 new InetSocketAddress(config.getBedrock().getAddress(), config.getBedrock().getPort()),
-                1,
-                EventLoops.commonGroup(),
+                listenerThreads,
+                bedrockGroup,
                 enableProxyProtocol
         );
         bedrockServer.setHandler(new ConnectorServerEventHandler(this));
         bedrockServer.bind().whenComplete((avoid, throwable) -> {
             if (throwable == null) {
                 logger.info(LanguageUtils.getLocaleStringLog("geyser.core.start", config.getBedrock().getAddress(), String.valueOf(config.getBedrock().getPort())));
+                if (performanceMonitor.isEnabled()) {
+                    performanceMonitor.getBedrockIngress().attach(bedrockServer.getRakNet(), logger);
+                }
             } else {
                 logger.severe(LanguageUtils.getLocaleStringLog("geyser.core.fail", config.getBedrock().getAddress(), String.valueOf(config.getBedrock().getPort())));
                 throwable.printStackTrace();
             }
         }).join();
 
+        performanceMonitor.start(logger);
+
         if (config.getMetrics().isEnabled()) {
             metrics = new Metrics(this, "GeyserMC", config.getMetrics().getUniqueId(), false, java.util.logging.Logger.getLogger(""));
             metrics.addCustomChart(new Metrics.SingleLineChart("players", players::size));
@@ -352,7 +386,14 @@ public class GeyserConnector {
         }
 
         generalThreadPool.shutdown();
+        eventManager.shutdown();
         bedrockServer.close();
+        if (bedrockEventLoopGroup != null) {
+            bedrockEventLoopGroup.shutdownGracefully();
+            bedrockEventLoopGroup = null;
+        }
+        downstreamConnectionManager.shutdown();
+        performanceMonitor.shutdown();
         players.clear();
         remoteServer = null;
         authType = null;
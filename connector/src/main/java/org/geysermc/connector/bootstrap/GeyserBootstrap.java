@@ -34,6 +34,7 @@ import org.geysermc.connector.network.translators.world.GeyserWorldManager;
 import org.geysermc.connector.network.translators.world.WorldManager;
 
 import javax.annotation.Nullable;
+import java.net.SocketAddress;
 import java.nio.file.Path;
 
 public interface GeyserBootstrap {
@@ -114,4 +115,15 @@ public interface GeyserBootstrap {
     default String getMinecraftServerVersion() {
         return null;
     }
+
+    /**
+     * Returns the address that sessions can connect to directly, without going through TCP. This is only available
+     * on platforms where Geyser runs inside the Java server or proxy it connects to.
+     *
+     * @return the local address of the server, or <code>null</code> if sessions should connect over TCP
+     */
+    @Nullable
+    default SocketAddress getSocketAddress() {
+        return null;
+    }
 }
@@ -54,6 +54,8 @@ public abstract class CommandManager {
         registerCommand(new SettingsCommand(connector, "settings", "geyser.commands.settings.desc", "geyser.command.settings"));
         registerCommand(new StatisticsCommand(connector, "statistics", "geyser.commands.statistics.desc", "geyser.command.statistics"));
         registerCommand(new AdvancementsCommand(connector, "advancements", "geyser.commands.advancements.desc", "geyser.command.advancements"));
+        registerCommand(new TranslatorsCommand(connector, "translators", "geyser.commands.translators.desc", "geyser.command.translators"));
+        registerCommand(new PerfCommand(connector, "perf", "geyser.commands.perf.desc", "geyser.command.perf"));
     }
 
     public void registerCommand(GeyserCommand command) {
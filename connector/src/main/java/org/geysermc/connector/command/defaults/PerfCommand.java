@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.CommandSender;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.common.ChatColor;
+import org.geysermc.connector.event.AsyncEventExecutor;
+import org.geysermc.connector.metrics.BedrockIngressMetrics;
+import org.geysermc.connector.metrics.LatencyHistogram;
+import org.geysermc.connector.metrics.PerformanceMonitor;
+import org.geysermc.connector.metrics.SessionMetrics;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.ChunkCache;
+import org.geysermc.connector.utils.LanguageUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Shows a summary of what the {@link PerformanceMonitor} has recorded.
+ */
+public class PerfCommand extends GeyserCommand {
+
+    private static final int TRANSLATOR_LIMIT = 10;
+
+    private final GeyserConnector connector;
+
+    public PerfCommand(GeyserConnector connector, String name, String description, String permission) {
+        super(name, description, permission);
+
+        this.connector = connector;
+    }
+
+    @Override
+    public void execute(GeyserSession session, CommandSender sender, String[] args) {
+        String locale = sender.getLocale();
+        PerformanceMonitor monitor = connector.getPerformanceMonitor();
+        if (!monitor.isEnabled()) {
+            sender.sendMessage(ChatColor.RED + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.disabled", locale));
+            return;
+        }
+
+        if (args.length >= 1 && args[0].equalsIgnoreCase("reset")) {
+            monitor.reset();
+            sender.sendMessage(ChatColor.YELLOW + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.reset", locale));
+            return;
+        }
+
+        if (monitor.getSampleRate() > 1) {
+            sender.sendMessage(ChatColor.GRAY + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.sample_rate", locale, monitor.getSampleRate()));
+        }
+        sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.perf.session_tick", locale, formatHistogram(monitor.getSessionTick(), locale)));
+        sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.perf.chunk_translation", locale, formatHistogram(monitor.getChunkTranslation(), locale)));
+
+        List<Map.Entry<Class<?>, LatencyHistogram>> translators = new ArrayList<>(monitor.getTranslatorLatencies().entrySet());
+        translators.sort(Comparator.comparingLong((Map.Entry<Class<?>, LatencyHistogram> entry) -> entry.getValue().getTotalNanos()).reversed());
+        sender.sendMessage(ChatColor.BOLD + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.translators", locale));
+        for (int i = 0; i < Math.min(TRANSLATOR_LIMIT, translators.size()); i++) {
+            Map.Entry<Class<?>, LatencyHistogram> entry = translators.get(i);
+            sender.sendMessage(ChatColor.AQUA + entry.getKey().getSimpleName() + ChatColor.RESET + ": " + formatHistogram(entry.getValue(), locale));
+        }
+
+        sender.sendMessage(ChatColor.BOLD + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.event_handlers", locale));
+        for (Map.Entry<String, LatencyHistogram> entry : monitor.getEventHandlerLatencies().entrySet()) {
+            sender.sendMessage(ChatColor.AQUA + entry.getKey() + ChatColor.RESET + ": " + formatHistogram(entry.getValue(), locale));
+        }
+
+        List<Map.Entry<String, LatencyHistogram>> handlers = new ArrayList<>(monitor.getSingleEventHandlerLatencies().entrySet());
+        handlers.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getTotalNanos()).reversed());
+        sender.sendMessage(ChatColor.BOLD + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.slowest_event_handlers", locale));
+        for (int i = 0; i < Math.min(TRANSLATOR_LIMIT, handlers.size()); i++) {
+            Map.Entry<String, LatencyHistogram> entry = handlers.get(i);
+            sender.sendMessage(ChatColor.AQUA + entry.getKey() + ChatColor.RESET + ": " + formatHistogram(entry.getValue(), locale));
+        }
+        for (AsyncEventExecutor executor : connector.getEventManager().getAsyncExecutors().values()) {
+            sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.perf.async", locale,
+                    ChatColor.AQUA + executor.getName() + ChatColor.RESET, executor.getQueued(), executor.getDropped()));
+        }
+
+        List<BedrockIngressMetrics.Listener> listeners = monitor.getBedrockIngress().getListeners();
+        if (listeners.size() > 1) {
+            sender.sendMessage(ChatColor.BOLD + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.listeners", locale));
+            for (BedrockIngressMetrics.Listener listener : listeners) {
+                sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.perf.listener", locale,
+                        ChatColor.AQUA + "#" + listener.getIndex() + ChatColor.RESET, listener.getDatagrams().sum(), listener.getBytes().sum() / 1024));
+            }
+        }
+
+        sender.sendMessage(ChatColor.BOLD + LanguageUtils.getPlayerLocaleString("geyser.commands.perf.sessions", locale));
+        for (GeyserSession player : connector.getPlayers()) {
+            SessionMetrics metrics = player.getMetrics();
+            ChunkCache chunkCache = player.getChunkCache();
+            sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.perf.session", locale,
+                    ChatColor.AQUA + PerformanceMonitor.getSessionName(player) + ChatColor.RESET,
+                    formatRate(metrics, metrics.getUpstreamPacketsReceived()), formatRate(metrics, metrics.getUpstreamPacketsSent()),
+                    formatKibRate(metrics, metrics.getUpstreamBytesReceived()),
+                    formatRate(metrics, metrics.getDownstreamPacketsReceived()), formatRate(metrics, metrics.getDownstreamPacketsSent()),
+                    formatKibRate(metrics, metrics.getDownstreamBytesReceived()), formatKibRate(metrics, metrics.getDownstreamBytesReceivedUncompressed()),
+                    chunkCache == null ? 0 : chunkCache.getMemoryUsage() / 1024));
+        }
+    }
+
+    private static String formatHistogram(LatencyHistogram histogram, String locale) {
+        long count = histogram.getCount();
+        if (count == 0) {
+            return LanguageUtils.getPlayerLocaleString("geyser.commands.perf.no_samples", locale);
+        }
+        return LanguageUtils.getPlayerLocaleString("geyser.commands.perf.histogram", locale, count,
+                formatMicros(histogram.getQuantileMicros(0.5)), formatMicros(histogram.getQuantileMicros(0.99)),
+                String.format(Locale.ROOT, "%.2f", histogram.getTotalNanos() / 1_000_000d));
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros == Long.MAX_VALUE) {
+            return "4 s+";
+        }
+        if (micros >= 1000) {
+            return String.format(Locale.ROOT, "%.1f ms", micros / 1000d);
+        }
+        return micros + " µs";
+    }
+
+    private static String formatRate(SessionMetrics metrics, long count) {
+        return String.format(Locale.ROOT, "%.1f", metrics.perSecond(count));
+    }
+
+    private static String formatKibRate(SessionMetrics metrics, long bytes) {
+        return String.format(Locale.ROOT, "%.1f", metrics.perSecond(bytes) / 1024d);
+    }
+
+    @Override
+    public List<String> getSubCommands() {
+        return Arrays.asList("reset");
+    }
+}
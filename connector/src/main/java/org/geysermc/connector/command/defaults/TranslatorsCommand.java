@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.command.defaults;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.command.CommandSender;
+import org.geysermc.connector.command.GeyserCommand;
+import org.geysermc.connector.common.ChatColor;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.PacketTranslatorRegistry;
+import org.geysermc.connector.utils.LanguageUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Shows which packet translators Geyser spends the most time in.
+ */
+public class TranslatorsCommand extends GeyserCommand {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    public TranslatorsCommand(GeyserConnector connector, String name, String description, String permission) {
+        super(name, description, permission);
+    }
+
+    @Override
+    public void execute(GeyserSession session, CommandSender sender, String[] args) {
+        if (args.length >= 1 && args[0].equalsIgnoreCase("reset")) {
+            PacketTranslatorRegistry.JAVA_TRANSLATOR.resetStatistics();
+            PacketTranslatorRegistry.BEDROCK_TRANSLATOR.resetStatistics();
+            sender.sendMessage(ChatColor.YELLOW + LanguageUtils.getPlayerLocaleString("geyser.commands.translators.reset", sender.getLocale()));
+            return;
+        }
+
+        int limit = DEFAULT_LIMIT;
+        if (args.length >= 1) {
+            try {
+                limit = Math.max(1, Integer.parseInt(args[0]));
+            } catch (NumberFormatException ignored) { }
+        }
+
+        sendStatistics(sender, "Java", PacketTranslatorRegistry.JAVA_TRANSLATOR, limit);
+        sendStatistics(sender, "Bedrock", PacketTranslatorRegistry.BEDROCK_TRANSLATOR, limit);
+    }
+
+    private void sendStatistics(CommandSender sender, String name, PacketTranslatorRegistry<?> registry, int limit) {
+        List<PacketTranslatorRegistry.TranslatorEntry> entries = new ArrayList<>();
+        long totalNanos = 0;
+        for (PacketTranslatorRegistry.TranslatorEntry entry : registry.getTranslatorEntries()) {
+            if (entry.getInvocations() > 0) {
+                entries.add(entry);
+                totalNanos += entry.getTotalNanos();
+            }
+        }
+        entries.sort(Comparator.comparingLong(PacketTranslatorRegistry.TranslatorEntry::getTotalNanos).reversed());
+
+        sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.translators.header", sender.getLocale(),
+                ChatColor.BOLD + name + ChatColor.RESET, formatMillis(totalNanos)));
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            PacketTranslatorRegistry.TranslatorEntry entry = entries.get(i);
+            long invocations = entry.getInvocations();
+            sender.sendMessage(LanguageUtils.getPlayerLocaleString("geyser.commands.translators.entry", sender.getLocale(),
+                    ChatColor.AQUA + entry.getTranslator().getClass().getSimpleName() + ChatColor.RESET, invocations,
+                    formatMillis(entry.getTotalNanos()),
+                    String.format(Locale.ROOT, "%.1f", entry.getTotalNanos() / (double) invocations / 1000d)));
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000d);
+    }
+
+    @Override
+    public List<String> getSubCommands() {
+        return Arrays.asList("reset");
+    }
+}
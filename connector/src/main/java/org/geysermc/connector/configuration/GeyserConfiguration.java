@@ -43,6 +43,12 @@ public interface GeyserConfiguration {
 
     IRemoteConfiguration getRemote();
 
+    /**
+     * @return true if the remote address was "auto" and has been set to the server Geyser runs on
+     */
+    @JsonIgnore
+    boolean isAutoconfiguredRemote();
+
     Map<String, ? extends IUserAuthenticationInfo> getUserAuths();
 
     boolean isCommandSuggestions();
@@ -61,6 +67,8 @@ public interface GeyserConfiguration {
 
     int getPingPassthroughInterval();
 
+    List<String> getPingPassthroughServers();
+
     boolean isForwardPlayerPing();
 
     int getMaxPlayers();
@@ -85,6 +93,8 @@ public interface GeyserConfiguration {
 
     boolean isCacheChunks();
 
+    IChunkCacheLimitsInfo getChunkCacheLimits();
+
     boolean isForceResourcePacks();
 
     boolean isXboxAchievementsEnabled();
@@ -93,8 +103,18 @@ public interface GeyserConfiguration {
 
     boolean isAllowCustomSkulls();
 
+    int getMaxVisibleCustomSkulls();
+
     IMetricsInfo getMetrics();
 
+    IEffectLimitsInfo getEffectLimits();
+
+    IPerformanceMonitorInfo getPerformanceMonitor();
+
+    IPingRateLimitInfo getPingRateLimit();
+
+    IAsyncEventHandlersInfo getAsyncEventHandlers();
+
     interface IBedrockConfiguration {
 
         String getAddress();
@@ -109,6 +129,11 @@ public interface GeyserConfiguration {
 
         String getServerName();
 
+        /**
+         * @return how many sockets to bind the Bedrock port with. Above 1 this needs {@code SO_REUSEPORT}, so Linux with native epoll
+         */
+        int getListenerThreads();
+
         boolean isEnableProxyProtocol();
 
         List<String> getProxyProtocolWhitelistedIPs();
@@ -134,6 +159,21 @@ public interface GeyserConfiguration {
         boolean isPasswordAuthentication();
 
         boolean isUseProxyProtocol();
+
+        /**
+         * @return the amount of threads shared by all connections to the Java server, or 0 to pick from the CPU count
+         */
+        int getEventLoopThreads();
+
+        /**
+         * @return the zlib level for packets sent to the Java server, 0 to send them uncompressed or -1 for the default
+         */
+        int getCompressionLevel();
+
+        /**
+         * @return packets sent to the Java server smaller than this are not compressed, or -1 to follow the server
+         */
+        int getCompressionThreshold();
     }
 
     interface IUserAuthenticationInfo {
@@ -155,6 +195,64 @@ public interface GeyserConfiguration {
         String getUniqueId();
     }
 
+    interface IEffectLimitsInfo {
+
+        boolean isEnabled();
+
+        int getMaxParticlesPerTick();
+
+        double getParticleMergeDistance();
+
+        int getMaxSoundsPerTick();
+
+        boolean isCullOutsideViewDistance();
+    }
+
+    interface IPerformanceMonitorInfo {
+
+        boolean isEnabled();
+
+        int getSampleRate();
+
+        String getPrometheusAddress();
+
+        int getPrometheusPort();
+    }
+
+    interface IChunkCacheLimitsInfo {
+
+        int getSessionMegabytes();
+
+        int getTotalMegabytes();
+    }
+
+    interface IPingRateLimitInfo {
+
+        boolean isEnabled();
+
+        double getPerSecond();
+
+        int getBurst();
+    }
+
+    interface IAsyncEventHandlersInfo {
+
+        /**
+         * @return the amount of threads each extension runs its async handlers on
+         */
+        int getThreads();
+
+        /**
+         * @return the amount of events each extension can have waiting for its async handlers
+         */
+        int getQueueSize();
+
+        /**
+         * @return what to do with an event when the queue is full: drop-newest, drop-oldest or caller-runs
+         */
+        String getOverflowPolicy();
+    }
+
     int getScoreboardPacketThreshold();
 
     // if u have offline mode enabled pls be safe
@@ -164,6 +262,10 @@ public interface GeyserConfiguration {
 
     boolean isUseAdapters();
 
+    int getChunkSnapshotRefreshSeconds();
+
+    boolean isUseDirectConnection();
+
     int getConfigVersion();
 
     static void checkGeyserConfiguration(GeyserConfiguration geyserConfig, GeyserLogger geyserLogger) {
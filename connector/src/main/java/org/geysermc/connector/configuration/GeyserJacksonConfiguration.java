@@ -79,6 +79,9 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("ping-passthrough-interval")
     private int pingPassthroughInterval = 3;
 
+    @JsonProperty("ping-passthrough-servers")
+    private List<String> pingPassthroughServers = Collections.emptyList();
+
     @JsonProperty("forward-player-ping")
     private boolean forwardPlayerPing = false;
 
@@ -109,12 +112,18 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("cache-chunks")
     private boolean cacheChunks = false;
 
+    @JsonProperty("chunk-cache-limits")
+    private ChunkCacheLimitsInfo chunkCacheLimits = new ChunkCacheLimitsInfo();
+
     @JsonProperty("cache-images")
     private int cacheImages = 0;
 
     @JsonProperty("allow-custom-skulls")
     private boolean allowCustomSkulls = true;
 
+    @JsonProperty("max-visible-custom-skulls")
+    private int maxVisibleCustomSkulls = 128;
+
     @JsonProperty("above-bedrock-nether-building")
     private boolean aboveBedrockNetherBuilding = false;
 
@@ -126,6 +135,12 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
 
     private MetricsInfo metrics = new MetricsInfo();
 
+    @JsonProperty("effect-limits")
+    private EffectLimitsInfo effectLimits = new EffectLimitsInfo();
+
+    @JsonProperty("performance-monitor")
+    private PerformanceMonitorInfo performanceMonitor = new PerformanceMonitorInfo();
+
     @Getter
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class BedrockConfiguration implements IBedrockConfiguration {
@@ -144,6 +159,9 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
         @JsonProperty("server-name")
         private String serverName = GeyserConnector.NAME;
 
+        @JsonProperty("listener-threads")
+        private int listenerThreads = 1;
+
         @JsonProperty("enable-proxy-protocol")
         private boolean enableProxyProtocol = false;
 
@@ -187,6 +205,15 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
 
         @JsonProperty("use-proxy-protocol")
         private boolean useProxyProtocol = false;
+
+        @JsonProperty("event-loop-threads")
+        private int eventLoopThreads = 0;
+
+        @JsonProperty("compression-level")
+        private int compressionLevel = -1;
+
+        @JsonProperty("compression-threshold")
+        private int compressionThreshold = -1;
     }
 
     @Getter
@@ -211,6 +238,78 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
         private String uniqueId = UUID.randomUUID().toString();
     }
 
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class EffectLimitsInfo implements IEffectLimitsInfo {
+        private boolean enabled = true;
+
+        @JsonProperty("max-particles-per-tick")
+        private int maxParticlesPerTick = 64;
+
+        @JsonProperty("particle-merge-distance")
+        private double particleMergeDistance = 0.5;
+
+        @JsonProperty("max-sounds-per-tick")
+        private int maxSoundsPerTick = 16;
+
+        @JsonProperty("cull-outside-view-distance")
+        private boolean cullOutsideViewDistance = true;
+    }
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PerformanceMonitorInfo implements IPerformanceMonitorInfo {
+        private boolean enabled = false;
+
+        @JsonProperty("sample-rate")
+        private int sampleRate = 1;
+
+        @JsonProperty("prometheus-address")
+        private String prometheusAddress = "127.0.0.1";
+
+        @JsonProperty("prometheus-port")
+        private int prometheusPort = 0;
+    }
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ChunkCacheLimitsInfo implements IChunkCacheLimitsInfo {
+        @JsonProperty("session-megabytes")
+        private int sessionMegabytes = 32;
+
+        @JsonProperty("total-megabytes")
+        private int totalMegabytes = 0;
+    }
+
+    @JsonProperty("ping-rate-limit")
+    private PingRateLimitInfo pingRateLimit = new PingRateLimitInfo();
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PingRateLimitInfo implements IPingRateLimitInfo {
+        private boolean enabled = true;
+
+        @JsonProperty("per-second")
+        private double perSecond = 5;
+
+        private int burst = 20;
+    }
+
+    @JsonProperty("async-event-handlers")
+    private AsyncEventHandlersInfo asyncEventHandlers = new AsyncEventHandlersInfo();
+
+    @Getter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class AsyncEventHandlersInfo implements IAsyncEventHandlersInfo {
+        private int threads = 1;
+
+        @JsonProperty("queue-size")
+        private int queueSize = 1024;
+
+        @JsonProperty("overflow-policy")
+        private String overflowPolicy = "drop-newest";
+    }
+
     @JsonProperty("scoreboard-packet-threshold")
     private int scoreboardPacketThreshold = 10;
 
@@ -223,6 +322,12 @@ public abstract class GeyserJacksonConfiguration implements GeyserConfiguration
     @JsonProperty("use-adapters")
     private boolean useAdapters = true;
 
+    @JsonProperty("chunk-snapshot-refresh-seconds")
+    private int chunkSnapshotRefreshSeconds = 5;
+
+    @JsonProperty("use-direct-connection")
+    private boolean useDirectConnection = true;
+
     @JsonProperty("config-version")
     private int configVersion = 0;
 }
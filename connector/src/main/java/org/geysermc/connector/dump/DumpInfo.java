@@ -35,6 +35,7 @@ import org.geysermc.connector.common.serializer.AsteriskSerializer;
 import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.network.BedrockProtocol;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.EffectLimitCache;
 import org.geysermc.connector.utils.DockerCheck;
 import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.floodgate.util.DeviceOS;
@@ -57,6 +58,7 @@ public class DumpInfo {
     private final GeyserConfiguration config;
     private Object2IntMap<DeviceOS> userPlatforms;
     private RamInfo ramInfo;
+    private EffectLimitInfo effectLimitInfo;
     private final BootstrapDumpInfo bootstrapInfo;
 
     public DumpInfo() {
@@ -70,6 +72,7 @@ public class DumpInfo {
         this.config = GeyserConnector.getInstance().getConfig();
 
         this.ramInfo = new DumpInfo.RamInfo();
+        this.effectLimitInfo = new DumpInfo.EffectLimitInfo();
 
         this.userPlatforms = new Object2IntOpenHashMap();
         for (GeyserSession session : GeyserConnector.getInstance().getPlayers()) {
@@ -163,4 +166,20 @@ public class DumpInfo {
             this.max = Runtime.getRuntime().maxMemory() / MEGABYTE;
         }
     }
+
+    @Getter
+    public static class EffectLimitInfo {
+
+        private final long mergedParticles;
+        private final long droppedParticles;
+        private final long droppedSounds;
+        private final long culledEffects;
+
+        EffectLimitInfo() {
+            this.mergedParticles = EffectLimitCache.getTotalMergedParticles().sum();
+            this.droppedParticles = EffectLimitCache.getTotalDroppedParticles().sum();
+            this.droppedSounds = EffectLimitCache.getTotalDroppedSounds().sum();
+            this.culledEffects = EffectLimitCache.getTotalCulledEffects().sum();
+        }
+    }
 }
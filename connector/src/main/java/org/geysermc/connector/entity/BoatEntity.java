@@ -168,7 +168,7 @@ public class BoatEntity extends Entity {
             paddleTimeLeft += ROWING_SPEED;
             sendAnimationPacket(session, rower, AnimatePacket.Action.ROW_LEFT, paddleTimeLeft);
 
-            session.getConnector().getGeneralThreadPool().schedule(() ->
+            session.getTimerWheel().schedule(() ->
                     updateLeftPaddle(session, rower),
                     100,
                     TimeUnit.MILLISECONDS
@@ -181,7 +181,7 @@ public class BoatEntity extends Entity {
             paddleTimeRight += ROWING_SPEED;
             sendAnimationPacket(session, rower, AnimatePacket.Action.ROW_RIGHT, paddleTimeRight);
 
-            session.getConnector().getGeneralThreadPool().schedule(() ->
+            session.getTimerWheel().schedule(() ->
                             updateRightPaddle(session, rower),
                     100,
                     TimeUnit.MILLISECONDS
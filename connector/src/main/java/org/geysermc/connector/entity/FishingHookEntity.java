@@ -27,7 +27,6 @@ package org.geysermc.connector.entity;
 
 import com.github.steveice10.mc.protocol.data.game.entity.metadata.EntityMetadata;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.entity.EntityData;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
 import com.nukkitx.protocol.bedrock.packet.PlaySoundPacket;
@@ -35,13 +34,12 @@ import org.geysermc.connector.entity.player.PlayerEntity;
 import org.geysermc.connector.entity.type.EntityType;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.collision.BoundingBox;
-import org.geysermc.connector.network.translators.collision.CollisionManager;
 import org.geysermc.connector.network.translators.collision.CollisionTranslator;
 import org.geysermc.connector.network.translators.collision.translators.BlockCollision;
+import org.geysermc.connector.network.translators.world.BlockRegion;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class FishingHookEntity extends ThrowableEntity {
@@ -52,6 +50,11 @@ public class FishingHookEntity extends ThrowableEntity {
 
     private boolean inWater = false;
 
+    /**
+     * The blocks around the hook, reused for every movement
+     */
+    private final BlockRegion collidableBlocks = new BlockRegion();
+
     public FishingHookEntity(long entityId, long geyserId, EntityType entityType, Vector3f position, Vector3f motion, Vector3f rotation, PlayerEntity owner) {
         super(entityId, geyserId, entityType, position, motion, rotation);
 
@@ -91,31 +94,38 @@ public class FishingHookEntity extends ThrowableEntity {
         boundingBox.setMiddleY(position.getY() + boundingBox.getSizeY() / 2);
         boundingBox.setMiddleZ(position.getZ());
 
-        CollisionManager collisionManager = session.getCollisionManager();
-        List<Vector3i> collidableBlocks = collisionManager.getCollidableBlocks(boundingBox);
+        session.getCollisionManager().loadCollidableBlocks(boundingBox, collidableBlocks);
+        int minX = collidableBlocks.getMinX();
+        int minY = Math.max(collidableBlocks.getMinY(), 0);
+        int minZ = collidableBlocks.getMinZ();
+        int maxX = collidableBlocks.getMinX() + collidableBlocks.getSizeX() - 1;
+        int maxY = Math.min(collidableBlocks.getMinY() + collidableBlocks.getSizeY() - 1, 255);
+        int maxZ = collidableBlocks.getMinZ() + collidableBlocks.getSizeZ() - 1;
         boolean touchingWater = false;
         boolean collided = false;
-        for (Vector3i blockPos : collidableBlocks) {
-            if (0 <= blockPos.getY() && blockPos.getY() <= 255) {
-                int blockID = session.getConnector().getWorldManager().getBlockAt(session, blockPos);
-                BlockCollision blockCollision = CollisionTranslator.getCollision(blockID, blockPos.getX(), blockPos.getY(), blockPos.getZ());
-                if (blockCollision != null && blockCollision.checkIntersection(boundingBox)) {
-                    // TODO Push bounding box out of collision to improve movement
-                    collided = true;
-                }
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int blockID = collidableBlocks.getBlockAt(x, y, z);
+                    BlockCollision blockCollision = CollisionTranslator.getCollision(blockID, x, y, z);
+                    if (blockCollision != null && blockCollision.checkIntersection(boundingBox)) {
+                        // TODO Push bounding box out of collision to improve movement
+                        collided = true;
+                    }
 
-                int waterLevel = BlockStateValues.getWaterLevel(blockID);
-                if (BlockTranslator.isWaterlogged(blockID)) {
-                    waterLevel = 0;
-                }
-                if (waterLevel >= 0) {
-                    double waterMaxY = blockPos.getY() + 1 - (waterLevel + 1) / 9.0;
-                    // Falling water is a full block
-                    if (waterLevel >= 8) {
-                        waterMaxY = blockPos.getY() + 1;
+                    int waterLevel = BlockStateValues.getWaterLevel(blockID);
+                    if (BlockTranslator.isWaterlogged(blockID)) {
+                        waterLevel = 0;
                     }
-                    if (position.getY() <= waterMaxY) {
-                        touchingWater = true;
+                    if (waterLevel >= 0) {
+                        double waterMaxY = y + 1 - (waterLevel + 1) / 9.0;
+                        // Falling water is a full block
+                        if (waterLevel >= 8) {
+                            waterMaxY = y + 1;
+                        }
+                        if (position.getY() <= waterMaxY) {
+                            touchingWater = true;
+                        }
                     }
                 }
             }
@@ -84,7 +84,7 @@ public class ItemFrameEntity extends Entity {
     public void spawnEntity(GeyserSession session) {
         session.getItemFrameCache().put(bedrockPosition, entityId);
         // Delay is required, or else loading in frames on chunk load is sketchy at best
-        session.getConnector().getGeneralThreadPool().schedule(() -> {
+        session.getTimerWheel().schedule(() -> {
             updateBlock(session);
             session.getConnector().getLogger().debug("Spawned item frame at location " + bedrockPosition + " with java id " + entityId);
         }, 500, TimeUnit.MILLISECONDS);
@@ -31,13 +31,14 @@ import com.nukkitx.protocol.bedrock.data.entity.EntityData;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
 import org.geysermc.connector.entity.type.EntityType;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.TimerWheel;
 
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class TNTEntity extends Entity {
 
     private int currentTick;
+    private TimerWheel.Timer fuseTimer;
 
     public TNTEntity(long entityId, long geyserId, EntityType entityType, Vector3f position, Vector3f motion, Vector3f rotation) {
         super(entityId, geyserId, entityType, position, motion, rotation);
@@ -49,16 +50,29 @@ public class TNTEntity extends Entity {
             currentTick = (int) entityMetadata.getValue();
             metadata.getFlags().setFlag(EntityFlag.IGNITED, true);
             metadata.put(EntityData.FUSE_LENGTH, currentTick);
-            ScheduledFuture<?> future = session.getConnector().getGeneralThreadPool().scheduleAtFixedRate(() -> {
+            if (fuseTimer != null) {
+                fuseTimer.cancel();
+            }
+            fuseTimer = session.getTimerWheel().scheduleAtFixedRate(() -> {
                 if (currentTick % 5 == 0) {
                     metadata.put(EntityData.FUSE_LENGTH, currentTick);
                 }
                 currentTick--;
                 super.updateBedrockMetadata(entityMetadata, session);
+                if (currentTick <= 0) {
+                    fuseTimer.cancel();
+                }
             }, 50, 50, TimeUnit.MILLISECONDS); // 5 ticks
-            session.getConnector().getGeneralThreadPool().schedule(() -> future.cancel(true), (int) entityMetadata.getValue() / 20, TimeUnit.SECONDS);
         }
 
         super.updateBedrockMetadata(entityMetadata, session);
     }
+
+    @Override
+    public boolean despawnEntity(GeyserSession session) {
+        if (fuseTimer != null) {
+            fuseTimer.cancel();
+        }
+        return super.despawnEntity(session);
+    }
 }
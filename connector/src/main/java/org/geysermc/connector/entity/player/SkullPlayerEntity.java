@@ -27,7 +27,6 @@ package org.geysermc.connector.entity.player;
 
 import com.github.steveice10.mc.auth.data.GameProfile;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.entity.EntityData;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
 import lombok.Getter;
@@ -60,9 +59,4 @@ public class SkullPlayerEntity extends PlayerEntity {
         metadata.getOrCreateFlags().setFlag(EntityFlag.CAN_SHOW_NAME, false);
         metadata.getFlags().setFlag(EntityFlag.INVISIBLE, true); // Until the skin is loaded
     }
-
-    public void despawnEntity(GeyserSession session, Vector3i position) {
-        this.despawnEntity(session);
-        session.getSkullCache().remove(position, this);
-    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.event;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the async event handlers of one extension, or of Geyser itself. The queue is bounded, so a handler that
+ * can't keep up either loses events or, with {@link OverflowPolicy#CALLER_RUNS}, slows down whoever fires them.
+ */
+public class AsyncEventExecutor {
+    @Getter
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder dropped = new LongAdder();
+
+    public AsyncEventExecutor(String name, GeyserConfiguration.IAsyncEventHandlersInfo config) {
+        this.name = name;
+        int threads = Math.max(1, config.getThreads());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueSize())),
+                new DefaultThreadFactory("Geyser async events " + name, true),
+                createRejectionHandler(OverflowPolicy.getByName(config.getOverflowPolicy())));
+    }
+
+    private RejectedExecutionHandler createRejectionHandler(OverflowPolicy policy) {
+        switch (policy) {
+            case DROP_OLDEST:
+                return (task, executor) -> {
+                    if (!executor.isShutdown()) {
+                        if (executor.getQueue().poll() != null) {
+                            dropped.increment();
+                        }
+                        executor.execute(task);
+                    }
+                };
+            case CALLER_RUNS:
+                return (task, executor) -> {
+                    if (!executor.isShutdown()) {
+                        task.run();
+                    }
+                };
+            case DROP_NEWEST:
+            default:
+                return (task, executor) -> dropped.increment();
+        }
+    }
+
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * @return how many events were skipped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting events. Events that are already queued still run.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST,
+        CALLER_RUNS;
+
+        public static OverflowPolicy getByName(String name) {
+            if (name != null) {
+                String upperCase = name.toUpperCase(Locale.ROOT).replace('-', '_');
+                for (OverflowPolicy policy : values()) {
+                    if (policy.name().equals(upperCase)) {
+                        return policy;
+                    }
+                }
+            }
+            return DROP_NEWEST;
+        }
+    }
+}
@@ -28,18 +28,22 @@ package org.geysermc.connector.event;
 
 import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.event.annotations.GeyserEventHandler;
 import org.geysermc.connector.event.handlers.EventHandler;
 import org.geysermc.connector.event.handlers.LambdaEventHandler;
 import org.geysermc.connector.event.handlers.MethodEventHandler;
+import org.geysermc.connector.metrics.PerformanceMonitor;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -49,11 +53,33 @@ public class EventManager {
     @Getter
     private static EventManager instance;
 
-    private final Map<Class<? extends GeyserEvent>, PriorityBlockingQueue<EventHandler<?>>> eventHandlers = new ConcurrentHashMap<>();
-    private final Map<Object, ArrayList<EventHandler<?>>> classEventHandlers = new HashMap<>();
+    private static final EventHandler<?>[] NO_HANDLERS = new EventHandler<?>[0];
+    private static final Comparator<EventHandler<?>> PRIORITY_ORDER = Comparator.comparingInt(EventHandler::getPriority);
+
+    /**
+     * The handlers of each event class, sorted by priority. Arrays are never modified once they are in the map;
+     * registering copies the array, so triggering an event never locks or copies.
+     */
+    private final Map<Class<? extends GeyserEvent>, EventHandler<?>[]> eventHandlers = new ConcurrentHashMap<>();
+    private final Map<Object, List<EventHandler<?>>> classEventHandlers = new IdentityHashMap<>();
+
+    /**
+     * The executors async handlers run on, by owner name
+     */
+    private final Map<String, AsyncEventExecutor> asyncExecutors = new ConcurrentHashMap<>();
+    /**
+     * Owners whose executor has been shut down; their async handlers are skipped rather than given a new executor
+     */
+    private final Set<String> shutdownOwners = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    private final PerformanceMonitor performanceMonitor;
+    private final GeyserConfiguration.IAsyncEventHandlersInfo asyncConfig;
 
     public EventManager(GeyserConnector connector) {
         instance = this;
+        this.performanceMonitor = connector.getPerformanceMonitor();
+        this.asyncConfig = connector.getConfig().getAsyncEventHandlers();
     }
 
     /**
@@ -65,13 +91,29 @@ public class EventManager {
      */
     public <T extends GeyserEvent> EventResult<T> triggerEvent(T event) {
         if (event != null) {
-            if (eventHandlers.containsKey(event.getClass())) {
-                for (EventHandler<?> handler : eventHandlers.get(event.getClass())) {
-                    try {
+            EventHandler<?>[] handlers = eventHandlers.get(event.getClass());
+            if (handlers != null) {
+                boolean sample = performanceMonitor != null && performanceMonitor.shouldSample();
+                boolean hasAsync = false;
+                for (EventHandler<?> handler : handlers) {
+                    if (handler.isAsync()) {
+                        hasAsync = true;
+                    } else {
                         //noinspection unchecked
-                        ((EventHandler<T>) handler).execute(event);
-                    } catch (org.geysermc.connector.event.handlers.EventHandler.EventHandlerException e) {
-                        GeyserConnector.getInstance().getLogger().error(e.getMessage(), e);
+                        execute((EventHandler<T>) handler, event, sample);
+                    }
+                }
+
+                // Queued once every synchronous handler is done, so async handlers see the final state of the event
+                if (hasAsync) {
+                    for (EventHandler<?> handler : handlers) {
+                        if (handler.isAsync()) {
+                            AsyncEventExecutor executor = getAsyncExecutor(handler.getOwnerName());
+                            if (executor != null) {
+                                //noinspection unchecked
+                                executor.execute(() -> execute((EventHandler<T>) handler, event, sample));
+                            }
+                        }
                     }
                 }
             }
@@ -79,6 +121,67 @@ public class EventManager {
         return new EventResult<>(this, event);
     }
 
+    private <T extends GeyserEvent> void execute(EventHandler<T> handler, T event, boolean sample) {
+        long startTime = sample ? System.nanoTime() : 0;
+        try {
+            handler.execute(event);
+        } catch (org.geysermc.connector.event.handlers.EventHandler.EventHandlerException e) {
+            GeyserConnector.getInstance().getLogger().error(e.getMessage(), e);
+        }
+        if (sample) {
+            performanceMonitor.recordEventHandler(handler.getOwnerName(), handler.getHandlerName(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Get the executor async handlers of an extension run on, creating it on first use.
+     *
+     * @param owner the extension name, or {@link PerformanceMonitor#GEYSER_HANDLER_NAME}
+     * @return the executor, or null if the owner's executor has been shut down
+     */
+    public AsyncEventExecutor getAsyncExecutor(String owner) {
+        AsyncEventExecutor executor = asyncExecutors.get(owner);
+        if (executor == null) {
+            // Checked inside computeIfAbsent so that a concurrent shutdownAsyncExecutor stops any executor created here
+            executor = asyncExecutors.computeIfAbsent(owner, name -> shutdown || shutdownOwners.contains(name) ?
+                    null : new AsyncEventExecutor(name, asyncConfig));
+        }
+        return executor;
+    }
+
+    /**
+     * Stop the async executor of an extension, letting queued events finish. Async handlers of the extension
+     * that are still registered no longer run.
+     *
+     * @param owner the extension name
+     */
+    public void shutdownAsyncExecutor(String owner) {
+        shutdownOwners.add(owner);
+        AsyncEventExecutor executor = asyncExecutors.remove(owner);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        for (AsyncEventExecutor executor : asyncExecutors.values()) {
+            executor.shutdown();
+        }
+        asyncExecutors.clear();
+    }
+
+    /**
+     * Check if anything listens to an event, so building an event can be skipped when nothing would see it.
+     *
+     * @param cls event class
+     * @return if at least one EventHandler is registered for the event class
+     */
+    public boolean hasHandlers(Class<? extends GeyserEvent> cls) {
+        EventHandler<?>[] handlers = eventHandlers.get(cls);
+        return handlers != null && handlers.length != 0;
+    }
+
     /**
      * Create a new EventHandler using a Lambda
      *
@@ -99,11 +202,13 @@ public class EventManager {
      *
      * @param handler EventHandler to register
      */
-    public <T extends GeyserEvent> void register(EventHandler<T> handler) {
-        if (!eventHandlers.containsKey(handler.getEventClass())) {
-            eventHandlers.put(handler.getEventClass(), new PriorityBlockingQueue<>());
-        }
-        eventHandlers.get(handler.getEventClass()).add(handler);
+    public synchronized <T extends GeyserEvent> void register(EventHandler<T> handler) {
+        EventHandler<?>[] handlers = eventHandlers.getOrDefault(handler.getEventClass(), NO_HANDLERS);
+        EventHandler<?>[] updated = Arrays.copyOf(handlers, handlers.length + 1);
+        updated[handlers.length] = handler;
+        // Stable, so handlers of the same priority run in the order they were registered
+        Arrays.sort(updated, PRIORITY_ORDER);
+        eventHandlers.put(handler.getEventClass(), updated);
     }
 
     /**
@@ -111,9 +216,30 @@ public class EventManager {
      *
      * @param handler EventHandler to unregister
      */
-    public <T extends GeyserEvent> void unregister(EventHandler<T> handler) {
-        if (eventHandlers.containsKey(handler.getEventClass())) {
-            eventHandlers.get(handler.getEventClass()).remove(handler);
+    public synchronized <T extends GeyserEvent> void unregister(EventHandler<T> handler) {
+        EventHandler<?>[] handlers = eventHandlers.get(handler.getEventClass());
+        if (handlers == null) {
+            return;
+        }
+        EventHandler<?>[] updated = Arrays.stream(handlers).filter(existing -> existing != handler).toArray(EventHandler<?>[]::new);
+        if (updated.length == 0) {
+            eventHandlers.remove(handler.getEventClass());
+        } else if (updated.length != handlers.length) {
+            eventHandlers.put(handler.getEventClass(), updated);
+        }
+    }
+
+    /**
+     * Sort the handlers of an event class again, after the priority of one of them changed.
+     *
+     * @param cls event class
+     */
+    public synchronized void sortHandlers(Class<? extends GeyserEvent> cls) {
+        EventHandler<?>[] handlers = eventHandlers.get(cls);
+        if (handlers != null) {
+            EventHandler<?>[] updated = handlers.clone();
+            Arrays.sort(updated, PRIORITY_ORDER);
+            eventHandlers.put(cls, updated);
         }
     }
 
@@ -123,7 +249,7 @@ public class EventManager {
      * The methods must be annotated by @GeyserEventHandler
      * @param obj The class object to look for methods annotated by @GeyserEventHandlder
      */
-    public void registerEvents(Object obj) {
+    public synchronized void registerEvents(Object obj) {
         List<EventHandler<?>> handlers = new ArrayList<>();
         for (Method method : obj.getClass().getMethods()) {
             // Check that the method is annotated with @Event
@@ -142,24 +268,20 @@ public class EventManager {
             handlers.add(handler);
         }
 
-        if (!classEventHandlers.containsKey(obj.getClass())) {
-            classEventHandlers.put(obj.getClass(), new ArrayList<>());
-        }
-        classEventHandlers.get(obj.getClass()).addAll(handlers);
+        classEventHandlers.computeIfAbsent(obj, key -> new ArrayList<>()).addAll(handlers);
     }
 
     /**
      * Unregister all events in class
      */
-    public void unregisterEvents(Object obj) {
-        if (!classEventHandlers.containsKey(obj)) {
+    public synchronized void unregisterEvents(Object obj) {
+        List<EventHandler<?>> handlers = classEventHandlers.remove(obj);
+        if (handlers == null) {
             return;
         }
 
-        for (EventHandler<?> handler : classEventHandlers.get(obj)) {
+        for (EventHandler<?> handler : handlers) {
             unregister(handler);
         }
-
-        classEventHandlers.remove(obj);
     }
 }
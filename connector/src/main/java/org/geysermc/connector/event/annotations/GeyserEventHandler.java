@@ -47,4 +47,8 @@ public @interface GeyserEventHandler {
 
     // If ignoreCancelled is true then the handler will not be executed
     boolean ignoreCancelled() default false;
+
+    // If async is true the handler runs on a thread of its extension after the synchronous handlers, instead of on the
+    // thread that fired the event. It must not cancel or change the event, and may be skipped if it falls behind
+    boolean async() default false;
 }
@@ -30,6 +30,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.GeyserEvent;
+import org.geysermc.connector.metrics.PerformanceMonitor;
 
 import java.util.Comparator;
 
@@ -60,6 +61,30 @@ public abstract class EventHandler<T extends GeyserEvent> implements Comparable<
      */
     public abstract int getPriority();
 
+    /**
+     * Return the name time spent in this handler is attributed to
+     * @return the owner name
+     */
+    public String getOwnerName() {
+        return PerformanceMonitor.GEYSER_HANDLER_NAME;
+    }
+
+    /**
+     * Return the name this handler is timed under on its own
+     * @return the handler name
+     */
+    public String getHandlerName() {
+        return getOwnerName() + " " + eventClass.getSimpleName();
+    }
+
+    /**
+     * Return if this handler runs on the async executor of its owner instead of the thread firing the event
+     * @return true if async
+     */
+    public boolean isAsync() {
+        return false;
+    }
+
     @Override
     public int compareTo(EventHandler<T> other) {
         return getPriority() - other.getPriority();
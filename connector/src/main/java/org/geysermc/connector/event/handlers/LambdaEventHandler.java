@@ -42,6 +42,7 @@ public class LambdaEventHandler<T extends GeyserEvent> extends EventHandler<T> {
     private final BiConsumer<T, EventHandler<T>> consumer;
     private int priority = Priority.NORMAL;
     private boolean ignoreCancelled = true;
+    private boolean async = false;
 
     public LambdaEventHandler(EventManager manager, Class<T> cls, BiConsumer<T, EventHandler<T>> consumer) {
         super(manager, cls);
@@ -58,6 +59,8 @@ public class LambdaEventHandler<T extends GeyserEvent> extends EventHandler<T> {
      */
     public LambdaEventHandler<T> priority(int priority) {
         this.priority = priority;
+        // The handler was registered with the old priority
+        getManager().sortHandlers(getEventClass());
         return this;
     }
 
@@ -73,6 +76,18 @@ public class LambdaEventHandler<T extends GeyserEvent> extends EventHandler<T> {
         return this;
     }
 
+    /**
+     * Set if the handler should run on the async executor of its owner, after the synchronous handlers
+     *
+     * Defaults to False. Async handlers must not cancel or change the event
+     * @param async set true to run asynchronously
+     * @return the Event Handler
+     */
+    public LambdaEventHandler<T> async(boolean async) {
+        this.async = async;
+        return this;
+    }
+
     /**
      * Execute the EventHandler with an Event
      * @param event Event passed to handler
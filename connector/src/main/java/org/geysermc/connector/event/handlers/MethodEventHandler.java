@@ -32,11 +32,20 @@ import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.annotations.GeyserEventHandler;
 import org.geysermc.connector.event.GeyserEvent;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * Provides an event handler for an annotated method
+ *
+ * The method is bound to an {@link Invoker} generated with {@link LambdaMetafactory} when the handler is created,
+ * so delivering an event is a plain interface call instead of {@link Method#invoke}.
  */
 @Getter
 public class MethodEventHandler<T extends GeyserEvent> extends EventHandler<T> {
@@ -44,6 +53,8 @@ public class MethodEventHandler<T extends GeyserEvent> extends EventHandler<T> {
     private final Method method;
     private final int priority;
     private final boolean ignoreCancelled;
+    private final boolean async;
+    private final Invoker invoker;
 
     @SuppressWarnings("unchecked")
     public MethodEventHandler(EventManager manager, Object handlerClass, Method method) {
@@ -54,6 +65,13 @@ public class MethodEventHandler<T extends GeyserEvent> extends EventHandler<T> {
         this.method = method;
         this.priority = annotation.priority();
         this.ignoreCancelled = annotation.ignoreCancelled();
+        this.async = annotation.async();
+        this.invoker = createInvoker(method);
+    }
+
+    @Override
+    public String getHandlerName() {
+        return getOwnerName() + " " + method.getDeclaringClass().getSimpleName() + "#" + method.getName();
     }
 
     @Override
@@ -65,9 +83,63 @@ public class MethodEventHandler<T extends GeyserEvent> extends EventHandler<T> {
         }
 
         try {
-            method.invoke(handlerClass, event);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new EventHandlerException("Unable to execute Event Handler", e);
+            invoker.invoke(handlerClass, event);
+        } catch (Throwable t) {
+            throw new EventHandlerException("Unable to execute Event Handler", t);
+        }
+    }
+
+    /**
+     * Calls an event handler method on the object it belongs to
+     */
+    @FunctionalInterface
+    public interface Invoker {
+        void invoke(Object handlerClass, GeyserEvent event) throws Throwable;
+    }
+
+    /**
+     * Generates an invoker for the method. Static methods, and methods that can't be bound because of access
+     * rules, fall back to reflection.
+     *
+     * @param method the annotated method
+     * @return the invoker
+     */
+    public static Invoker createInvoker(Method method) {
+        if (!Modifier.isStatic(method.getModifiers())) {
+            try {
+                MethodHandles.Lookup lookup = lookupIn(method.getDeclaringClass());
+                MethodHandle handle = lookup.unreflect(method);
+                CallSite callSite = LambdaMetafactory.metafactory(
+                        lookup,
+                        "invoke",
+                        MethodType.methodType(Invoker.class),
+                        MethodType.methodType(void.class, Object.class, GeyserEvent.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0])
+                );
+                return (Invoker) callSite.getTarget().invoke();
+            } catch (Throwable ignored) {
+            }
+        }
+
+        method.setAccessible(true);
+        return method::invoke;
+    }
+
+    /**
+     * The generated class is defined next to the class of the handler, so it is visible from an extension's
+     * class loader and can call non-public classes.
+     */
+    private static MethodHandles.Lookup lookupIn(Class<?> targetClass) throws ReflectiveOperationException {
+        try {
+            // Java 9+
+            Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+            return (MethodHandles.Lookup) privateLookupIn.invoke(null, targetClass, MethodHandles.lookup());
+        } catch (NoSuchMethodException e) {
+            // Java 8 only has the private constructor; 15 is every access mode
+            Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(targetClass, 15);
         }
     }
 }
@@ -129,6 +129,9 @@ public class ExtensionManager {
             connector.getLogger().info(String.format("Disabling %s v%s", extension.getName(), extension.getVersion()));
             EventManager.getInstance().triggerEvent(new ExtensionDisableEvent(extension));
             extension.disable();
+            // Unregister first so no new events are queued on the executor once it is shut down
+            extension.unregisterAllEvents();
+            EventManager.getInstance().shutdownAsyncExecutor(extension.getName());
         }
     }
 
@@ -47,6 +47,11 @@ public class ExtensionLambdaEventHandler<T extends GeyserEvent> extends LambdaEv
         this.extension = extension;
     }
 
+    @Override
+    public String getOwnerName() {
+        return extension.getName();
+    }
+
     @Override
     public void unregister() {
         extension.unregister(this);
@@ -46,6 +46,11 @@ public class ExtensionMethodEventHandler<T extends GeyserEvent> extends MethodEv
         this.extension = extension;
     }
 
+    @Override
+    public String getOwnerName() {
+        return extension.getName();
+    }
+
     @Override
     public void unregister() {
         extension.unregister(this);
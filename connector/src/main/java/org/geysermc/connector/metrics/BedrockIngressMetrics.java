@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.metrics;
+
+import com.nukkitx.network.raknet.RakNetServer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.DatagramPacket;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.geysermc.connector.GeyserLogger;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the datagrams and bytes that arrive on and leave each socket bound to the Bedrock port. With more than one
+ * {@code listener-threads} the kernel picks the socket from the client's address, so these show how evenly
+ * players are spread over the event loops.
+ */
+public class BedrockIngressMetrics {
+    public static final String HANDLER_NAME = "geyser-ingress-counter";
+
+    @Getter
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds a counting handler in front of every channel the RakNet server has bound. The channels aren't exposed
+     * by the RakNet library, so they are looked up reflectively; if that fails the counters simply stay empty.
+     *
+     * @param rakNet the bound RakNet server
+     * @param logger the logger to report a failed lookup to
+     */
+    public void attach(RakNetServer rakNet, GeyserLogger logger) {
+        List<Channel> channels = findChannels(rakNet);
+        if (channels.isEmpty()) {
+            logger.debug("Unable to find the Bedrock listener channels; ingress counters are unavailable");
+            return;
+        }
+        for (Channel channel : channels) {
+            Listener listener = new Listener(listeners.size());
+            channel.pipeline().addFirst(HANDLER_NAME, new CountingHandler(listener));
+            listeners.add(listener);
+        }
+    }
+
+    public void reset() {
+        for (Listener listener : listeners) {
+            listener.datagrams.reset();
+            listener.bytes.reset();
+            listener.datagramsSent.reset();
+            listener.bytesSent.reset();
+        }
+    }
+
+    /**
+     * @return the bytes sent to Bedrock clients over all listeners
+     */
+    public long getTotalBytesSent() {
+        long total = 0;
+        for (Listener listener : listeners) {
+            total += listener.bytesSent.sum();
+        }
+        return total;
+    }
+
+    private static List<Channel> findChannels(RakNetServer rakNet) {
+        List<Channel> channels = new ArrayList<>();
+        for (Class<?> clazz = rakNet.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (!Collection.class.isAssignableFrom(field.getType())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    Collection<?> collection = (Collection<?>) field.get(rakNet);
+                    if (collection == null) {
+                        continue;
+                    }
+                    for (Object element : collection) {
+                        if (element instanceof Channel) {
+                            channels.add((Channel) element);
+                        }
+                    }
+                } catch (ReflectiveOperationException | RuntimeException ignored) {
+                }
+                if (!channels.isEmpty()) {
+                    return channels;
+                }
+            }
+        }
+        return channels;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Listener {
+        private final int index;
+        private final LongAdder datagrams = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder datagramsSent = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+    }
+
+    @RequiredArgsConstructor
+    private static final class CountingHandler extends ChannelDuplexHandler {
+        private final Listener listener;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof DatagramPacket) {
+                listener.datagrams.increment();
+                listener.bytes.add(((DatagramPacket) msg).content().readableBytes());
+            }
+            super.channelRead(ctx, msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof DatagramPacket) {
+                listener.datagramsSent.increment();
+                listener.bytesSent.add(((DatagramPacket) msg).content().readableBytes());
+            }
+            super.write(ctx, msg, promise);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.metrics;
+
+import lombok.Getter;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.GeyserLogger;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.event.AsyncEventExecutor;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.session.cache.ChunkCache;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of Geyser's hot paths: translator latency per packet class, chunk translation,
+ * event handlers per extension, session ticks and datagrams per Bedrock listener socket. Latencies are recorded for one in every
+ * {@code sample-rate} measurements so monitoring can stay enabled in production.
+ */
+public class PerformanceMonitor {
+    /**
+     * The name event handlers that don't belong to an extension are recorded under
+     */
+    public static final String GEYSER_HANDLER_NAME = "geyser";
+
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final int sampleRate;
+
+    private final Map<Class<?>, LatencyHistogram> translatorLatencies = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> eventHandlerLatencies = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> singleEventHandlerLatencies = new ConcurrentHashMap<>();
+    @Getter
+    private final LatencyHistogram chunkTranslation = new LatencyHistogram();
+    @Getter
+    private final LatencyHistogram sessionTick = new LatencyHistogram();
+    @Getter
+    private final BedrockIngressMetrics bedrockIngress = new BedrockIngressMetrics();
+    /**
+     * The traffic of all sessions, including the ones that have disconnected
+     */
+    @Getter
+    private final SessionMetrics totalTraffic;
+    private final Map<Class<?>, LongAdder> upstreamPacketsSent = new ConcurrentHashMap<>();
+    private final Map<Class<?>, LongAdder> downstreamPacketsSent = new ConcurrentHashMap<>();
+
+    private final String prometheusAddress;
+    private final int prometheusPort;
+    private PrometheusEndpoint prometheusEndpoint;
+
+    public PerformanceMonitor(GeyserConfiguration.IPerformanceMonitorInfo config) {
+        this.enabled = config.isEnabled();
+        this.sampleRate = Math.max(1, config.getSampleRate());
+        this.prometheusAddress = config.getPrometheusAddress();
+        this.prometheusPort = config.getPrometheusPort();
+        this.totalTraffic = new SessionMetrics(enabled);
+    }
+
+    /**
+     * Starts the Prometheus endpoint if it is enabled in the config.
+     */
+    public void start(GeyserLogger logger) {
+        if (!enabled || prometheusPort <= 0) {
+            return;
+        }
+        try {
+            prometheusEndpoint = new PrometheusEndpoint(this, prometheusAddress, prometheusPort);
+            logger.info("Serving performance metrics on http://" + prometheusAddress + ":" + prometheusPort + PrometheusEndpoint.PATH);
+        } catch (IOException e) {
+            logger.error("Unable to start the performance metrics endpoint on " + prometheusAddress + ":" + prometheusPort, e);
+        }
+    }
+
+    public void shutdown() {
+        if (prometheusEndpoint != null) {
+            prometheusEndpoint.close();
+            prometheusEndpoint = null;
+        }
+    }
+
+    /**
+     * @return true if the next measurement should be recorded
+     */
+    public boolean shouldSample() {
+        return enabled && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    public void recordTranslator(Class<?> packetClass, long nanos) {
+        if (shouldSample()) {
+            getOrCreate(translatorLatencies, packetClass).record(nanos);
+        }
+    }
+
+    /**
+     * Records an event handler duration, both for its extension and for the handler on its own.
+     * Only call this after {@link #shouldSample()} returned true for the event.
+     *
+     * @param owner the extension name, or {@link #GEYSER_HANDLER_NAME}
+     * @param handler the name of the handler
+     * @param nanos how long the handler took
+     */
+    public void recordEventHandler(String owner, String handler, long nanos) {
+        getOrCreate(eventHandlerLatencies, owner).record(nanos);
+        getOrCreate(singleEventHandlerLatencies, handler).record(nanos);
+    }
+
+    public void recordChunkTranslation(long nanos) {
+        if (shouldSample()) {
+            chunkTranslation.record(nanos);
+        }
+    }
+
+    public void recordSessionTick(long nanos) {
+        if (shouldSample()) {
+            sessionTick.record(nanos);
+        }
+    }
+
+    void recordUpstreamPacketSent(Class<?> packetClass) {
+        getOrCreateCounter(upstreamPacketsSent, packetClass).increment();
+    }
+
+    void recordDownstreamPacketSent(Class<?> packetClass) {
+        getOrCreateCounter(downstreamPacketsSent, packetClass).increment();
+    }
+
+    public Map<Class<?>, LatencyHistogram> getTranslatorLatencies() {
+        return translatorLatencies;
+    }
+
+    public Map<String, LatencyHistogram> getEventHandlerLatencies() {
+        return eventHandlerLatencies;
+    }
+
+    public Map<String, LatencyHistogram> getSingleEventHandlerLatencies() {
+        return singleEventHandlerLatencies;
+    }
+
+    public void reset() {
+        translatorLatencies.clear();
+        eventHandlerLatencies.clear();
+        singleEventHandlerLatencies.clear();
+        chunkTranslation.reset();
+        sessionTick.reset();
+        bedrockIngress.reset();
+        totalTraffic.reset();
+        upstreamPacketsSent.clear();
+        downstreamPacketsSent.clear();
+    }
+
+    private static <K> LatencyHistogram getOrCreate(Map<K, LatencyHistogram> map, K key) {
+        // Avoid computeIfAbsent on the fast path as it locks the bin on Java 8 even if the key is present
+        LatencyHistogram histogram = map.get(key);
+        if (histogram == null) {
+            histogram = map.computeIfAbsent(key, k -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private static LongAdder getOrCreateCounter(Map<Class<?>, LongAdder> map, Class<?> key) {
+        LongAdder counter = map.get(key);
+        if (counter == null) {
+            counter = map.computeIfAbsent(key, k -> new LongAdder());
+        }
+        return counter;
+    }
+
+    /**
+     * Writes all metrics in the Prometheus text exposition format.
+     *
+     * @param builder the builder to write into
+     */
+    public void writePrometheus(StringBuilder builder) {
+        builder.append("# TYPE geyser_players gauge\n");
+        builder.append("geyser_players ").append(GeyserConnector.getInstance().getPlayers().size()).append('\n');
+
+        builder.append("# TYPE geyser_translator_seconds histogram\n");
+        for (Map.Entry<Class<?>, LatencyHistogram> entry : translatorLatencies.entrySet()) {
+            writeHistogram(builder, "geyser_translator_seconds", "packet", entry.getKey().getSimpleName(), entry.getValue());
+        }
+
+        builder.append("# TYPE geyser_event_handler_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : eventHandlerLatencies.entrySet()) {
+            writeHistogram(builder, "geyser_event_handler_seconds", "extension", entry.getKey(), entry.getValue());
+        }
+
+        builder.append("# TYPE geyser_event_handler_single_seconds histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : singleEventHandlerLatencies.entrySet()) {
+            writeHistogram(builder, "geyser_event_handler_single_seconds", "handler", entry.getKey(), entry.getValue());
+        }
+
+        Map<String, AsyncEventExecutor> asyncExecutors = GeyserConnector.getInstance().getEventManager().getAsyncExecutors();
+        builder.append("# TYPE geyser_async_events_queued gauge\n");
+        for (AsyncEventExecutor executor : asyncExecutors.values()) {
+            builder.append("geyser_async_events_queued{extension=\"").append(escapeLabel(executor.getName())).append("\"} ")
+                    .append(executor.getQueued()).append('\n');
+        }
+        builder.append("# TYPE geyser_async_events_dropped_total counter\n");
+        for (AsyncEventExecutor executor : asyncExecutors.values()) {
+            builder.append("geyser_async_events_dropped_total{extension=\"").append(escapeLabel(executor.getName())).append("\"} ")
+                    .append(executor.getDropped()).append('\n');
+        }
+
+        builder.append("# TYPE geyser_chunk_translation_seconds histogram\n");
+        writeHistogram(builder, "geyser_chunk_translation_seconds", null, null, chunkTranslation);
+
+        builder.append("# TYPE geyser_session_tick_seconds histogram\n");
+        writeHistogram(builder, "geyser_session_tick_seconds", null, null, sessionTick);
+
+        builder.append("# TYPE geyser_bedrock_listener_datagrams_total counter\n");
+        for (BedrockIngressMetrics.Listener listener : bedrockIngress.getListeners()) {
+            builder.append("geyser_bedrock_listener_datagrams_total{listener=\"").append(listener.getIndex()).append("\"} ")
+                    .append(listener.getDatagrams().sum()).append('\n');
+        }
+        builder.append("# TYPE geyser_bedrock_listener_bytes_total counter\n");
+        for (BedrockIngressMetrics.Listener listener : bedrockIngress.getListeners()) {
+            builder.append("geyser_bedrock_listener_bytes_total{listener=\"").append(listener.getIndex()).append("\"} ")
+                    .append(listener.getBytes().sum()).append('\n');
+        }
+
+        builder.append("# TYPE geyser_bedrock_listener_datagrams_sent_total counter\n");
+        for (BedrockIngressMetrics.Listener listener : bedrockIngress.getListeners()) {
+            builder.append("geyser_bedrock_listener_datagrams_sent_total{listener=\"").append(listener.getIndex()).append("\"} ")
+                    .append(listener.getDatagramsSent().sum()).append('\n');
+        }
+        builder.append("# TYPE geyser_bedrock_listener_bytes_sent_total counter\n");
+        for (BedrockIngressMetrics.Listener listener : bedrockIngress.getListeners()) {
+            builder.append("geyser_bedrock_listener_bytes_sent_total{listener=\"").append(listener.getIndex()).append("\"} ")
+                    .append(listener.getBytesSent().sum()).append('\n');
+        }
+
+        // Totals over all sessions; a label per player would create a new series for every login
+        writeCounter(builder, "geyser_upstream_packets_received_total", totalTraffic.getUpstreamPacketsReceived());
+        writeCounter(builder, "geyser_upstream_packets_sent_total", totalTraffic.getUpstreamPacketsSent());
+        writeCounter(builder, "geyser_upstream_bytes_received_total", totalTraffic.getUpstreamBytesReceived());
+        writeCounter(builder, "geyser_upstream_bytes_sent_total", bedrockIngress.getTotalBytesSent());
+        writeCounter(builder, "geyser_downstream_packets_received_total", totalTraffic.getDownstreamPacketsReceived());
+        writeCounter(builder, "geyser_downstream_packets_sent_total", totalTraffic.getDownstreamPacketsSent());
+        writeCounter(builder, "geyser_downstream_bytes_received_total", totalTraffic.getDownstreamBytesReceived());
+        writeCounter(builder, "geyser_downstream_bytes_received_uncompressed_total", totalTraffic.getDownstreamBytesReceivedUncompressed());
+        writeCounter(builder, "geyser_downstream_bytes_sent_total", totalTraffic.getDownstreamBytesSent());
+        writeCounter(builder, "geyser_downstream_bytes_sent_uncompressed_total", totalTraffic.getDownstreamBytesSentUncompressed());
+
+        writePacketCounters(builder, "geyser_upstream_packets_sent_by_type_total", upstreamPacketsSent);
+        writePacketCounters(builder, "geyser_downstream_packets_sent_by_type_total", downstreamPacketsSent);
+
+        builder.append("# TYPE geyser_chunk_cache_total_bytes gauge\n");
+        builder.append("geyser_chunk_cache_total_bytes ").append(ChunkCache.getTotalMemoryUsage()).append('\n');
+    }
+
+    private static void writeHistogram(StringBuilder builder, String name, String labelName, String labelValue, LatencyHistogram histogram) {
+        String labels = labelName == null ? "" : labelName + "=\"" + escapeLabel(labelValue) + "\",";
+        long cumulative = 0;
+        for (int i = 0; i <= LatencyHistogram.BUCKET_COUNT; i++) {
+            cumulative += histogram.getBucketCount(i);
+            String le = i == LatencyHistogram.BUCKET_COUNT ? "+Inf" : formatSeconds(LatencyHistogram.getBucketUpperBoundMicros(i) * 1000);
+            builder.append(name).append("_bucket{").append(labels).append("le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+        }
+        String suffixLabels = labelName == null ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        builder.append(name).append("_sum").append(suffixLabels).append(' ').append(formatSeconds(histogram.getTotalNanos())).append('\n');
+        builder.append(name).append("_count").append(suffixLabels).append(' ').append(cumulative).append('\n');
+    }
+
+    private static void writeCounter(StringBuilder builder, String name, long value) {
+        builder.append("# TYPE ").append(name).append(" counter\n");
+        builder.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void writePacketCounters(StringBuilder builder, String name, Map<Class<?>, LongAdder> counters) {
+        builder.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<Class<?>, LongAdder> entry : counters.entrySet()) {
+            builder.append(name).append("{packet=\"").append(escapeLabel(entry.getKey().getSimpleName())).append("\"} ")
+                    .append(entry.getValue().sum()).append('\n');
+        }
+    }
+
+    /**
+     * @return the name of the session, or its address if it hasn't logged in yet
+     */
+    public static String getSessionName(GeyserSession session) {
+        if (session.getAuthData() != null) {
+            return session.getAuthData().getName();
+        }
+        return session.getSocketAddress().toString();
+    }
+
+    private static String formatSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000d);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Packet and byte counters for a single session. Only updated while the {@link PerformanceMonitor} is enabled.
+ * Every count is also added to {@link PerformanceMonitor#getTotalTraffic()}, which keeps counting after the
+ * session is gone.
+ */
+public class SessionMetrics {
+    private final boolean enabled;
+    /**
+     * The monitor's totals, or null if these are the totals
+     */
+    private final SessionMetrics total;
+    private final PerformanceMonitor monitor;
+    @Getter
+    private final long creationTime = System.currentTimeMillis();
+
+    private final LongAdder upstreamPacketsReceived = new LongAdder();
+    private final LongAdder upstreamPacketsSent = new LongAdder();
+    private final LongAdder upstreamBytesReceived = new LongAdder();
+    private final LongAdder downstreamPacketsReceived = new LongAdder();
+    private final LongAdder downstreamPacketsSent = new LongAdder();
+    private final LongAdder downstreamBytesReceived = new LongAdder();
+    private final LongAdder downstreamBytesReceivedUncompressed = new LongAdder();
+    private final LongAdder downstreamBytesSent = new LongAdder();
+    private final LongAdder downstreamBytesSentUncompressed = new LongAdder();
+
+    public SessionMetrics(PerformanceMonitor monitor) {
+        this.enabled = monitor.isEnabled();
+        this.total = monitor.getTotalTraffic();
+        this.monitor = monitor;
+    }
+
+    /**
+     * Creates the totals of a monitor
+     */
+    SessionMetrics(boolean enabled) {
+        this.enabled = enabled;
+        this.total = null;
+        this.monitor = null;
+    }
+
+    /**
+     * @param bytes the compressed size of a batch received from the Bedrock client
+     * @param packets the amount of packets in the batch
+     */
+    public void upstreamBatchReceived(int bytes, int packets) {
+        if (enabled) {
+            upstreamBytesReceived.add(bytes);
+            upstreamPacketsReceived.add(packets);
+            if (total != null) {
+                total.upstreamBatchReceived(bytes, packets);
+            }
+        }
+    }
+
+    /**
+     * @param packetClass the class of the packet sent to the Bedrock client
+     */
+    public void upstreamPacketSent(Class<?> packetClass) {
+        if (enabled) {
+            upstreamPacketsSent.increment();
+            if (total != null) {
+                total.upstreamPacketsSent.increment();
+                monitor.recordUpstreamPacketSent(packetClass);
+            }
+        }
+    }
+
+    public void downstreamPacketReceived() {
+        if (enabled) {
+            downstreamPacketsReceived.increment();
+            if (total != null) {
+                total.downstreamPacketsReceived.increment();
+            }
+        }
+    }
+
+    /**
+     * @param packetClass the class of the packet sent to the Java server
+     */
+    public void downstreamPacketSent(Class<?> packetClass) {
+        if (enabled) {
+            downstreamPacketsSent.increment();
+            if (total != null) {
+                total.downstreamPacketsSent.increment();
+                monitor.recordDownstreamPacketSent(packetClass);
+            }
+        }
+    }
+
+    /**
+     * @param compressed the size of a packet from the Java server as it was received, without its length prefix
+     * @param uncompressed the size of the packet after decompression
+     */
+    public void downstreamBytesReceived(int compressed, int uncompressed) {
+        if (enabled) {
+            downstreamBytesReceived.add(compressed);
+            downstreamBytesReceivedUncompressed.add(uncompressed);
+            if (total != null) {
+                total.downstreamBytesReceived(compressed, uncompressed);
+            }
+        }
+    }
+
+    /**
+     * @param uncompressed the size of a packet to the Java server before compression
+     * @param compressed the size of the packet as it is sent, without its length prefix
+     */
+    public void downstreamBytesSent(int uncompressed, int compressed) {
+        if (enabled) {
+            downstreamBytesSentUncompressed.add(uncompressed);
+            downstreamBytesSent.add(compressed);
+            if (total != null) {
+                total.downstreamBytesSent(uncompressed, compressed);
+            }
+        }
+    }
+
+    public long getUpstreamPacketsReceived() {
+        return upstreamPacketsReceived.sum();
+    }
+
+    public long getUpstreamPacketsSent() {
+        return upstreamPacketsSent.sum();
+    }
+
+    public long getUpstreamBytesReceived() {
+        return upstreamBytesReceived.sum();
+    }
+
+    public long getDownstreamPacketsReceived() {
+        return downstreamPacketsReceived.sum();
+    }
+
+    public long getDownstreamPacketsSent() {
+        return downstreamPacketsSent.sum();
+    }
+
+    public long getDownstreamBytesReceived() {
+        return downstreamBytesReceived.sum();
+    }
+
+    public long getDownstreamBytesReceivedUncompressed() {
+        return downstreamBytesReceivedUncompressed.sum();
+    }
+
+    public long getDownstreamBytesSent() {
+        return downstreamBytesSent.sum();
+    }
+
+    public long getDownstreamBytesSentUncompressed() {
+        return downstreamBytesSentUncompressed.sum();
+    }
+
+    /**
+     * Resets the counters. Only used for the totals; sessions keep counting from when they connected.
+     */
+    void reset() {
+        upstreamPacketsReceived.reset();
+        upstreamPacketsSent.reset();
+        upstreamBytesReceived.reset();
+        downstreamPacketsReceived.reset();
+        downstreamPacketsSent.reset();
+        downstreamBytesReceived.reset();
+        downstreamBytesReceivedUncompressed.reset();
+        downstreamBytesSent.reset();
+        downstreamBytesSentUncompressed.reset();
+    }
+
+    /**
+     * @param count a counter of this session
+     * @return the average per second of the counter over the lifetime of this session
+     */
+    public double perSecond(long count) {
+        double seconds = (System.currentTimeMillis() - creationTime) / 1000d;
+        return seconds <= 0 ? 0 : count / seconds;
+    }
+}
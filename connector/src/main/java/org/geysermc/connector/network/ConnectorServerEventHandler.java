@@ -28,6 +28,7 @@ package org.geysermc.connector.network;
 import com.nukkitx.protocol.bedrock.BedrockPong;
 import com.nukkitx.protocol.bedrock.BedrockServerEventHandler;
 import com.nukkitx.protocol.bedrock.BedrockServerSession;
+import com.nukkitx.protocol.bedrock.handler.BatchHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
 import org.geysermc.connector.GeyserConnector;
@@ -43,6 +44,8 @@ import org.geysermc.connector.utils.LanguageUtils;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 public class ConnectorServerEventHandler implements BedrockServerEventHandler {
     /*
@@ -56,9 +59,16 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
     private static final int MAGIC_RAKNET_LENGTH = 338;
 
     private final GeyserConnector connector;
+    private final PingRateLimiter rateLimiter;
+    private final QueryResponseCache queryCache;
+
+    private volatile CachedPong cachedPong;
 
     public ConnectorServerEventHandler(GeyserConnector connector) {
         this.connector = connector;
+        this.rateLimiter = new PingRateLimiter(connector.getConfig().getPingRateLimit());
+        this.queryCache = new QueryResponseCache(connector);
+        connector.getGeneralThreadPool().scheduleAtFixedRate(rateLimiter::cleanUp, 1, 1, TimeUnit.MINUTES);
     }
 
     @Override
@@ -84,6 +94,9 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
 
     @Override
     public BedrockPong onQuery(InetSocketAddress inetSocketAddress) {
+        if (!rateLimiter.tryAcquire(inetSocketAddress.getAddress())) {
+            return null;
+        }
         connector.getLogger().debug(LanguageUtils.getLocaleStringLog("geyser.network.pinged", inetSocketAddress));
 
         GeyserConfiguration config = connector.getConfig();
@@ -94,6 +107,24 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
             pingInfo = pingPassthrough.getPingInformation(inetSocketAddress);
         }
 
+        int playerCount = connector.getPlayers().size();
+        if (EventManager.getInstance().hasHandlers(BedrockPongEvent.class)) {
+            // Handlers may change the pong, so they each get their own
+            return EventManager.getInstance().triggerEvent(new BedrockPongEvent(inetSocketAddress, createPong(pingInfo, playerCount))).getEvent().getPong();
+        }
+
+        // The config can't change while running, so the pong only needs to be rebuilt if the player count or passthrough changed
+        CachedPong cached = cachedPong;
+        if (cached == null || cached.playerCount != playerCount || !Objects.equals(cached.pingInfo, pingInfo)) {
+            cached = new CachedPong(pingInfo, playerCount, createPong(pingInfo, playerCount));
+            cachedPong = cached;
+        }
+        return cached.pong;
+    }
+
+    private BedrockPong createPong(GeyserPingInfo pingInfo, int playerCount) {
+        GeyserConfiguration config = connector.getConfig();
+
         BedrockPong pong = new BedrockPong();
         pong.setEdition("MCPE");
         pong.setGameType("Survival"); // Can only be Survival or Creative as of 1.16.210.59
@@ -118,7 +149,7 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
             pong.setPlayerCount(pingInfo.getPlayers().getOnline());
             pong.setMaximumPlayerCount(pingInfo.getPlayers().getMax());
         } else {
-            pong.setPlayerCount(connector.getPlayers().size());
+            pong.setPlayerCount(playerCount);
             pong.setMaximumPlayerCount(config.getMaxPlayers());
         }
 
@@ -155,19 +186,43 @@ public class ConnectorServerEventHandler implements BedrockServerEventHandler {
             pong.setMaximumPlayerCount(pong.getPlayerCount() + 1);
         }
 
-        return EventManager.getInstance().triggerEvent(new BedrockPongEvent(inetSocketAddress, pong)).getEvent().getPong();
+        return pong;
     }
 
     @Override
     public void onSessionCreation(BedrockServerSession bedrockServerSession) {
         bedrockServerSession.setLogging(true);
-        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, new GeyserSession(connector, bedrockServerSession)));
+        GeyserSession session = new GeyserSession(connector, bedrockServerSession);
+        bedrockServerSession.setPacketHandler(new UpstreamPacketHandler(connector, session));
+        if (connector.getPerformanceMonitor().isEnabled()) {
+            // Count incoming batches before they are handed to the packet handler
+            BatchHandler batchHandler = bedrockServerSession.getBatchHandler();
+            bedrockServerSession.setBatchHandler((bedrockSession, compressed, packets) -> {
+                // The buffer may already have been read while decompressing
+                session.getMetrics().upstreamBatchReceived(compressed.writerIndex(), packets.size());
+                batchHandler.handle(bedrockSession, compressed, packets);
+            });
+        }
         // Set the packet codec to default just in case we need to send disconnect packets.
         bedrockServerSession.setPacketCodec(BedrockProtocol.DEFAULT_BEDROCK_CODEC);
     }
 
     @Override
     public void onUnhandledDatagram(ChannelHandlerContext ctx, DatagramPacket packet) {
-        new QueryPacketHandler(connector, packet.sender(), packet.content());
+        if (rateLimiter.tryAcquire(packet.sender().getAddress())) {
+            new QueryPacketHandler(connector, queryCache, packet.sender(), packet.content());
+        }
+    }
+
+    private static final class CachedPong {
+        private final GeyserPingInfo pingInfo;
+        private final int playerCount;
+        private final BedrockPong pong;
+
+        private CachedPong(GeyserPingInfo pingInfo, int playerCount, BedrockPong pong) {
+            this.pingInfo = pingInfo;
+            this.playerCount = playerCount;
+            this.pong = pong;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network;
+
+import org.geysermc.connector.configuration.GeyserConfiguration;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket per source address for unconnected pings and queries. Both are answered without any handshake,
+ * so without a limit they can be used to keep the server busy or to reflect traffic at a spoofed address.
+ */
+public class PingRateLimiter {
+    /**
+     * Sources can be spoofed, so only this many addresses are tracked. Any other address shares a single bucket.
+     */
+    private static final int MAX_TRACKED_ADDRESSES = 65536;
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final int burst;
+
+    private final Map<InetAddress, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Bucket overflowBucket;
+
+    public PingRateLimiter(GeyserConfiguration.IPingRateLimitInfo config) {
+        this.enabled = config.isEnabled();
+        this.tokensPerNano = config.getPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, config.getBurst());
+        this.overflowBucket = new Bucket(System.nanoTime());
+    }
+
+    /**
+     * @param address the address the ping or query came from
+     * @return if it should be answered
+     */
+    public boolean tryAcquire(InetAddress address) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        Bucket bucket = buckets.get(address);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_TRACKED_ADDRESSES) {
+                bucket = overflowBucket;
+            } else {
+                bucket = new Bucket(now);
+                Bucket existing = buckets.putIfAbsent(address, bucket);
+                if (existing != null) {
+                    bucket = existing;
+                }
+            }
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Forgets addresses that haven't sent anything for a while. Their bucket would be full again anyway.
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(long now) {
+            this.tokens = burst;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized boolean isIdle(long now) {
+            return now - lastRefill > IDLE_NANOS;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network;
+
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.BedrockPacketCodec;
+import com.nukkitx.protocol.bedrock.BedrockPacketHelper;
+import com.nukkitx.protocol.bedrock.BedrockPacketSerializer;
+import com.nukkitx.protocol.bedrock.BedrockSession;
+import com.nukkitx.protocol.bedrock.packet.AvailableEntityIdentifiersPacket;
+import com.nukkitx.protocol.bedrock.packet.BiomeDefinitionListPacket;
+import com.nukkitx.protocol.bedrock.packet.CreativeContentPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.geysermc.connector.network.translators.BiomeTranslator;
+import org.geysermc.connector.network.translators.EntityIdentifierRegistry;
+import org.geysermc.connector.network.translators.item.ItemRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the Bedrock codecs so that login packets whose contents never change are only encoded once per codec.
+ * Their bodies are several hundred kilobytes of NBT that would otherwise be serialized again for every player.
+ *
+ * A packet only uses the cached bytes while it still holds the shared registry contents, so packets that were
+ * changed by an extension or built with other contents are encoded as usual.
+ */
+public final class PreEncodedPackets {
+    private static final Map<BedrockPacketCodec, BedrockPacketCodec> CODECS = new ConcurrentHashMap<>();
+
+    private PreEncodedPackets() {
+    }
+
+    /**
+     * @param codec the codec of the client's protocol version
+     * @return the codec with pre-encoding for static packets, created once per codec
+     */
+    public static BedrockPacketCodec wrap(BedrockPacketCodec codec) {
+        return CODECS.computeIfAbsent(codec, PreEncodedPackets::createCodec);
+    }
+
+    private static BedrockPacketCodec createCodec(BedrockPacketCodec codec) {
+        BedrockPacketCodec.Builder builder = codec.toBuilder();
+        register(builder, codec, BiomeDefinitionListPacket.class, BiomeDefinitionListPacket::new,
+                packet -> packet.getDefinitions() == BiomeTranslator.BIOMES,
+                (decoded, packet) -> packet.setDefinitions(decoded.getDefinitions()));
+        register(builder, codec, AvailableEntityIdentifiersPacket.class, AvailableEntityIdentifiersPacket::new,
+                packet -> packet.getIdentifiers() == EntityIdentifierRegistry.ENTITY_IDENTIFIERS,
+                (decoded, packet) -> packet.setIdentifiers(decoded.getIdentifiers()));
+        register(builder, codec, CreativeContentPacket.class, CreativeContentPacket::new,
+                packet -> packet.getContents() == ItemRegistry.CREATIVE_ITEMS,
+                (decoded, packet) -> packet.setContents(decoded.getContents()));
+        return builder.build();
+    }
+
+    private static <T extends BedrockPacket> void register(BedrockPacketCodec.Builder builder, BedrockPacketCodec codec, Class<T> packetClass,
+                                                           Supplier<T> constructor, Predicate<T> isStatic, BiConsumer<T, T> copyContents) {
+        int id = codec.getId(constructor.get());
+        builder.deregisterPacket(packetClass)
+                .registerPacket(packetClass, new PreEncodingSerializer<>(codec, packetClass, id, isStatic, copyContents), id);
+    }
+
+    /**
+     * Encodes static packets with the original codec the first time and copies those bytes afterwards.
+     * Decoding is left to the original codec, whose result is copied into the packet being read.
+     */
+    private static final class PreEncodingSerializer<T extends BedrockPacket> implements BedrockPacketSerializer<T> {
+        private final BedrockPacketCodec codec;
+        private final Class<T> packetClass;
+        private final int id;
+        private final Predicate<T> isStatic;
+        private final BiConsumer<T, T> copyContents;
+        private volatile ByteBuf encoded;
+
+        private PreEncodingSerializer(BedrockPacketCodec codec, Class<T> packetClass, int id, Predicate<T> isStatic, BiConsumer<T, T> copyContents) {
+            this.codec = codec;
+            this.packetClass = packetClass;
+            this.id = id;
+            this.isStatic = isStatic;
+            this.copyContents = copyContents;
+        }
+
+        @Override
+        public void serialize(ByteBuf buffer, BedrockPacketHelper helper, T packet) {
+            serialize(buffer, helper, packet, null);
+        }
+
+        @Override
+        public void serialize(ByteBuf buffer, BedrockPacketHelper helper, T packet, BedrockSession session) {
+            if (!isStatic.test(packet)) {
+                codec.tryEncode(buffer, packet, session);
+                return;
+            }
+
+            ByteBuf encoded = this.encoded;
+            if (encoded == null) {
+                synchronized (this) {
+                    encoded = this.encoded;
+                    if (encoded == null) {
+                        encoded = Unpooled.buffer();
+                        codec.tryEncode(encoded, packet, session);
+                        this.encoded = encoded;
+                    }
+                }
+            }
+            // Reads with explicit indexes so the shared buffer is never modified
+            buffer.writeBytes(encoded, encoded.readerIndex(), encoded.readableBytes());
+        }
+
+        @Override
+        public void deserialize(ByteBuf buffer, BedrockPacketHelper helper, T packet) {
+            deserialize(buffer, helper, packet, null);
+        }
+
+        @Override
+        public void deserialize(ByteBuf buffer, BedrockPacketHelper helper, T packet, BedrockSession session) {
+            copyContents.accept(packetClass.cast(codec.tryDecode(buffer, id, session)), packet);
+        }
+    }
+}
@@ -27,12 +27,8 @@ package org.geysermc.connector.network;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import org.geysermc.connector.common.ping.GeyserPingInfo;
 import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.network.translators.chat.MessageTranslator;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -40,9 +36,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class QueryPacketHandler {
@@ -51,28 +44,36 @@ public class QueryPacketHandler {
     public static final byte STATISTICS = 0x00;
 
     private GeyserConnector connector;
+    private QueryResponseCache cache;
     private InetSocketAddress sender;
     private byte type;
     private int sessionId;
-    private byte[] token;
+    private int challenge;
 
     /**
      * The Query packet handler instance
      *
      * @param connector Geyser Connector
+     * @param cache The parts of the reply shared between queries
      * @param sender The Sender IP/Port for the Query
      * @param buffer The Query data
      */
-    public QueryPacketHandler(GeyserConnector connector, InetSocketAddress sender, ByteBuf buffer) {
-        if (!isQueryPacket(buffer))
+    public QueryPacketHandler(GeyserConnector connector, QueryResponseCache cache, InetSocketAddress sender, ByteBuf buffer) {
+        if (!isQueryPacket(buffer) || buffer.readableBytes() < 5)
             return;
 
         this.connector = connector;
+        this.cache = cache;
         this.sender = sender;
         this.type = buffer.readByte();
         this.sessionId = buffer.readInt();
 
-        regenerateToken();
+        if (type == STATISTICS) {
+            if (buffer.readableBytes() < 4)
+                return;
+            this.challenge = buffer.readInt();
+        }
+
         handle();
     }
 
@@ -93,8 +94,13 @@ public class QueryPacketHandler {
         switch (type) {
             case HANDSHAKE:
                 sendToken();
+                break;
             case STATISTICS:
-                sendQueryData();
+                // Only answer senders that did a handshake, so spoofed requests can't be used for amplification
+                if (cache.isValidChallenge(sender.getAddress(), challenge)) {
+                    sendQueryData();
+                }
+                break;
         }
     }
 
@@ -105,7 +111,7 @@ public class QueryPacketHandler {
         ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(10);
         reply.writeByte(HANDSHAKE);
         reply.writeInt(sessionId);
-        reply.writeBytes(getTokenString(this.token, this.sender.getAddress()));
+        reply.writeBytes(getTokenString(cache.getToken(), this.sender.getAddress()));
         reply.writeByte(0);
 
         sendPacket(reply);
@@ -115,132 +121,18 @@ public class QueryPacketHandler {
      * Sends the query data to the sender
      */
     private void sendQueryData() {
-        ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(64);
+        byte[] statistics = cache.getStatistics();
+
+        ByteBuf reply = ByteBufAllocator.DEFAULT.ioBuffer(5 + statistics.length);
         reply.writeByte(STATISTICS);
         reply.writeInt(sessionId);
 
-        // Game Info
-        reply.writeBytes(getGameData());
-
-        // Players
-        reply.writeBytes(getPlayers());
+        // Game Info and Players
+        reply.writeBytes(statistics);
 
         sendPacket(reply);
     }
 
-    /**
-     * Gets the game data for the query
-     *
-     * @return the game data for the query
-     */
-    private byte[] getGameData() {
-        ByteArrayOutputStream query = new ByteArrayOutputStream();
-
-        GeyserPingInfo pingInfo = null;
-        String motd;
-        String currentPlayerCount;
-        String maxPlayerCount;
-        String map;
-
-        if (connector.getConfig().isPassthroughMotd() || connector.getConfig().isPassthroughPlayerCounts()) {
-            pingInfo = connector.getBootstrap().getGeyserPingPassthrough().getPingInformation();
-        }
-
-        if (connector.getConfig().isPassthroughMotd() && pingInfo != null) {
-            String[] javaMotd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
-            motd = javaMotd[0].trim(); // First line of the motd.
-        } else {
-            motd = connector.getConfig().getBedrock().getMotd1();
-        }
-
-        // If passthrough player counts is enabled lets get players from the server
-        if (connector.getConfig().isPassthroughPlayerCounts() && pingInfo != null) {
-            currentPlayerCount = String.valueOf(pingInfo.getPlayers().getOnline());
-            maxPlayerCount = String.valueOf(pingInfo.getPlayers().getMax());
-        } else {
-            currentPlayerCount = String.valueOf(connector.getPlayers().size());
-            maxPlayerCount = String.valueOf(connector.getConfig().getMaxPlayers());
-        }
-
-        // If passthrough protocol name is enabled let's get the protocol name from the ping response.
-        if (connector.getConfig().isPassthroughProtocolName() && pingInfo != null) {
-            map = String.valueOf((pingInfo.getVersion().getName()));
-        } else {
-            map = GeyserConnector.NAME;
-        }
-
-        // Create a hashmap of all game data needed in the query
-        Map<String, String> gameData = new HashMap<String, String>();
-        gameData.put("hostname", motd);
-        gameData.put("gametype", "SMP");
-        gameData.put("game_id", "MINECRAFT");
-        gameData.put("version", GeyserConnector.NAME + " (" + GeyserConnector.GIT_VERSION + ") " + BedrockProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion());
-        gameData.put("plugins", "");
-        gameData.put("map", map);
-        gameData.put("numplayers", currentPlayerCount);
-        gameData.put("maxplayers", maxPlayerCount);
-        gameData.put("hostport", String.valueOf(connector.getConfig().getBedrock().getPort()));
-        gameData.put("hostip", connector.getConfig().getBedrock().getAddress());
-
-        try {
-            // Blank Buffer Bytes
-            query.write("GeyserMC".getBytes());
-            query.write((byte) 0x00);
-            query.write((byte) 0x80);
-            query.write((byte) 0x00);
-
-            // Fills the game data
-            for(Map.Entry<String, String> entry : gameData.entrySet()) {
-                query.write(entry.getKey().getBytes());
-                query.write((byte) 0x00);
-                query.write(entry.getValue().getBytes());
-                query.write((byte) 0x00);
-            }
-
-            // Final byte to show the end of the game data
-            query.write(new byte[] { 0x00, 0x01 });
-            return query.toByteArray();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new byte[0];
-        }
-    }
-
-    /**
-     * Generate a byte[] storing the player names
-     *
-     * @return The byte[] representation of players
-     */
-    private byte[] getPlayers() {
-        ByteArrayOutputStream query = new ByteArrayOutputStream();
-
-        GeyserPingInfo pingInfo = null;
-        if (connector.getConfig().isPassthroughMotd() || connector.getConfig().isPassthroughPlayerCounts()) {
-            pingInfo = connector.getBootstrap().getGeyserPingPassthrough().getPingInformation();
-        }
-
-        try {
-            // Start the player section
-            query.write("player_".getBytes());
-            query.write(new byte[] { 0x00, 0x00 });
-
-            // Fill player names
-            if (pingInfo != null) {
-                for (String username : pingInfo.getPlayerList()) {
-                    query.write(username.getBytes());
-                    query.write((byte) 0x00);
-                }
-            }
-
-            // Final byte to show the end of the player data
-            query.write((byte) 0x00);
-            return query.toByteArray();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new byte[0];
-        }
-    }
-
     /**
      * Sends a packet to the sender
      *
@@ -251,27 +143,25 @@ public class QueryPacketHandler {
     }
 
     /**
-     * Regenerates a token
+     * Gets an MD5 token for the current IP/Port.
+     *
+     * @param token the token
+     * @param address the address
+     * @return an MD5 token for the current IP/Port
      */
-    public void regenerateToken() {
-        byte[] token = new byte[16];
-        for (int i = 0; i < 16; i++) {
-            token[i] = (byte) new Random().nextInt(255);
-        }
-
-        this.token = token;
+    public static byte[] getTokenString(byte[] token, InetAddress address) {
+        // Turn the number into a null terminated string
+        return (getChallenge(token, address) + "\0").getBytes();
     }
 
     /**
-     * Gets an MD5 token for the current IP/Port.
-     * This should reset every 30 seconds but a new one is generated per instance
-     * Seems wasteful to code something in to clear it when it has no use.
+     * Gets the challenge a sender has to send back with a statistics request.
      *
      * @param token the token
      * @param address the address
-     * @return an MD5 token for the current IP/Port
+     * @return the first 4 bytes of the MD5 hash of the address and token
      */
-    public static byte[] getTokenString(byte[] token, InetAddress address) {
+    public static int getChallenge(byte[] token, InetAddress address) {
         try {
             // Generate an MD5 hash from the address
             MessageDigest digest = MessageDigest.getInstance("MD5");
@@ -281,13 +171,10 @@ public class QueryPacketHandler {
             // Get the first 4 bytes of the digest
             byte[] digestBytes = Arrays.copyOf(digest.digest(), 4);
 
-            // Convert the bytes to a buffer
-            ByteBuffer byteBuffer = ByteBuffer.wrap(digestBytes);
-
-            // Turn the number into a null terminated string
-            return (byteBuffer.getInt() + "\0").getBytes();
+            // Convert the bytes to a number
+            return ByteBuffer.wrap(digestBytes).getInt();
         } catch (NoSuchAlgorithmException e) {
-            return (ByteBuffer.allocate(4).putInt(ThreadLocalRandom.current().nextInt()).getInt() + "\0").getBytes();
+            return ThreadLocalRandom.current().nextInt();
         }
     }
 }
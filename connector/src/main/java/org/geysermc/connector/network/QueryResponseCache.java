@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.common.ping.GeyserPingInfo;
+import org.geysermc.connector.network.translators.chat.MessageTranslator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds everything a query reply is made of that doesn't depend on who asked. Queries are sent by server list
+ * scanners far more often than anything in the reply changes, so the statistics are only rebuilt when the player
+ * count or the passthrough information changed. The configuration can't change while Geyser is running; a reload
+ * creates a new cache.
+ */
+public class QueryResponseCache {
+    /**
+     * How long a challenge token handed out in a handshake stays valid
+     */
+    private static final long TOKEN_LIFETIME_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final GeyserConnector connector;
+
+    private volatile CachedStatistics statistics;
+
+    private byte[] token;
+    private byte[] previousToken;
+    private long tokenCreationTime;
+
+    public QueryResponseCache(GeyserConnector connector) {
+        this.connector = connector;
+        regenerateToken(System.nanoTime());
+    }
+
+    /**
+     * @return the game data and player list of a full statistics reply
+     */
+    public byte[] getStatistics() {
+        GeyserPingInfo pingInfo = null;
+        if (connector.getConfig().isPassthroughMotd() || connector.getConfig().isPassthroughPlayerCounts()) {
+            pingInfo = connector.getBootstrap().getGeyserPingPassthrough().getPingInformation();
+        }
+        int playerCount = connector.getPlayers().size();
+
+        CachedStatistics cached = statistics;
+        if (cached == null || cached.playerCount != playerCount || !Objects.equals(cached.pingInfo, pingInfo)) {
+            ByteArrayOutputStream query = new ByteArrayOutputStream();
+            try {
+                query.write(getGameData(pingInfo, playerCount));
+                query.write(getPlayers(pingInfo));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            cached = new CachedStatistics(pingInfo, playerCount, query.toByteArray());
+            statistics = cached;
+        }
+        return cached.data;
+    }
+
+    /**
+     * @return the token the challenge of a handshake is currently created from
+     */
+    public synchronized byte[] getToken() {
+        long now = System.nanoTime();
+        if (now - tokenCreationTime > TOKEN_LIFETIME_NANOS) {
+            regenerateToken(now);
+        }
+        return token;
+    }
+
+    /**
+     * Checks the challenge sent with a statistics request. Only addresses that completed a handshake recently know
+     * it, which keeps spoofed requests from being answered with a much larger reply.
+     *
+     * @param address the address the request came from
+     * @param challenge the challenge in the request
+     * @return if the challenge was handed out to this address in the last two token lifetimes
+     */
+    public synchronized boolean isValidChallenge(InetAddress address, int challenge) {
+        byte[] current = getToken();
+        return QueryPacketHandler.getChallenge(current, address) == challenge ||
+                (previousToken != null && QueryPacketHandler.getChallenge(previousToken, address) == challenge);
+    }
+
+    private void regenerateToken(long now) {
+        byte[] token = new byte[16];
+        ThreadLocalRandom.current().nextBytes(token);
+
+        this.previousToken = this.token;
+        this.token = token;
+        this.tokenCreationTime = now;
+    }
+
+    /**
+     * Gets the game data for the query
+     *
+     * @param pingInfo the passthrough information, if enabled
+     * @param playerCount the amount of players on Geyser
+     * @return the game data for the query
+     */
+    private byte[] getGameData(GeyserPingInfo pingInfo, int playerCount) {
+        ByteArrayOutputStream query = new ByteArrayOutputStream();
+
+        String motd;
+        String currentPlayerCount;
+        String maxPlayerCount;
+        String map;
+
+        if (connector.getConfig().isPassthroughMotd() && pingInfo != null) {
+            String[] javaMotd = MessageTranslator.convertMessageLenient(pingInfo.getDescription()).split("\n");
+            motd = javaMotd[0].trim(); // First line of the motd.
+        } else {
+            motd = connector.getConfig().getBedrock().getMotd1();
+        }
+
+        // If passthrough player counts is enabled lets get players from the server
+        if (connector.getConfig().isPassthroughPlayerCounts() && pingInfo != null) {
+            currentPlayerCount = String.valueOf(pingInfo.getPlayers().getOnline());
+            maxPlayerCount = String.valueOf(pingInfo.getPlayers().getMax());
+        } else {
+            currentPlayerCount = String.valueOf(playerCount);
+            maxPlayerCount = String.valueOf(connector.getConfig().getMaxPlayers());
+        }
+
+        // If passthrough protocol name is enabled let's get the protocol name from the ping response.
+        if (connector.getConfig().isPassthroughProtocolName() && pingInfo != null) {
+            map = String.valueOf((pingInfo.getVersion().getName()));
+        } else {
+            map = GeyserConnector.NAME;
+        }
+
+        // Create a hashmap of all game data needed in the query
+        Map<String, String> gameData = new HashMap<String, String>();
+        gameData.put("hostname", motd);
+        gameData.put("gametype", "SMP");
+        gameData.put("game_id", "MINECRAFT");
+        gameData.put("version", GeyserConnector.NAME + " (" + GeyserConnector.GIT_VERSION + ") " + BedrockProtocol.DEFAULT_BEDROCK_CODEC.getMinecraftVersion());
+        gameData.put("plugins", "");
+        gameData.put("map", map);
+        gameData.put("numplayers", currentPlayerCount);
+        gameData.put("maxplayers", maxPlayerCount);
+        gameData.put("hostport", String.valueOf(connector.getConfig().getBedrock().getPort()));
+        gameData.put("hostip", connector.getConfig().getBedrock().getAddress());
+
+        try {
+            // Blank Buffer Bytes
+            query.write("GeyserMC".getBytes());
+            query.write((byte) 0x00);
+            query.write((byte) 0x80);
+            query.write((byte) 0x00);
+
+            // Fills the game data
+            for(Map.Entry<String, String> entry : gameData.entrySet()) {
+                query.write(entry.getKey().getBytes());
+                query.write((byte) 0x00);
+                query.write(entry.getValue().getBytes());
+                query.write((byte) 0x00);
+            }
+
+            // Final byte to show the end of the game data
+            query.write(new byte[] { 0x00, 0x01 });
+            return query.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Generate a byte[] storing the player names
+     *
+     * @param pingInfo the passthrough information, if enabled
+     * @return The byte[] representation of players
+     */
+    private byte[] getPlayers(GeyserPingInfo pingInfo) {
+        ByteArrayOutputStream query = new ByteArrayOutputStream();
+
+        try {
+            // Start the player section
+            query.write("player_".getBytes());
+            query.write(new byte[] { 0x00, 0x00 });
+
+            // Fill player names
+            if (pingInfo != null) {
+                for (String username : pingInfo.getPlayerList()) {
+                    query.write(username.getBytes());
+                    query.write((byte) 0x00);
+                }
+            }
+
+            // Final byte to show the end of the player data
+            query.write((byte) 0x00);
+            return query.toByteArray();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new byte[0];
+        }
+    }
+
+    private static final class CachedStatistics {
+        private final GeyserPingInfo pingInfo;
+        private final int playerCount;
+        private final byte[] data;
+
+        private CachedStatistics(GeyserPingInfo pingInfo, int playerCount, byte[] data) {
+            this.pingInfo = pingInfo;
+            this.playerCount = playerCount;
+            this.data = data;
+        }
+    }
+}
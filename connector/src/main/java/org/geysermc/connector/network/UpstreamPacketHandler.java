@@ -88,7 +88,7 @@ public class UpstreamPacketHandler extends LoggingPacketHandler {
             }
         }
 
-        session.getUpstream().getSession().setPacketCodec(packetCodec);
+        session.getUpstream().getSession().setPacketCodec(PreEncodedPackets.wrap(packetCodec));
 
         LoginEncryptionUtils.encryptPlayerConnection(connector, session, loginPacket);
 
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+
+import java.net.SocketAddress;
+
+/**
+ * A view of a channel that reports a different remote address. Handlers of a {@link LocalChannelWrapper} see this
+ * instead of the local channel itself, so servers that expect an {@link java.net.InetSocketAddress} get the address
+ * of the Bedrock player instead of a {@link io.netty.channel.local.LocalAddress}.
+ */
+public class ChannelWrapper implements Channel {
+    protected final Channel source;
+    private volatile SocketAddress remoteAddress;
+
+    public ChannelWrapper(Channel source) {
+        this.source = source;
+    }
+
+    public void remoteAddress(SocketAddress remoteAddress) {
+        this.remoteAddress = remoteAddress;
+    }
+
+    @Override
+    public SocketAddress remoteAddress() {
+        SocketAddress remoteAddress = this.remoteAddress;
+        return remoteAddress == null ? source.remoteAddress() : remoteAddress;
+    }
+
+    @Override
+    public SocketAddress localAddress() {
+        return source.localAddress();
+    }
+
+    @Override
+    public ChannelId id() {
+        return source.id();
+    }
+
+    @Override
+    public EventLoop eventLoop() {
+        return source.eventLoop();
+    }
+
+    @Override
+    public Channel parent() {
+        return source.parent();
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return source.config();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source.isOpen();
+    }
+
+    @Override
+    public boolean isRegistered() {
+        return source.isRegistered();
+    }
+
+    @Override
+    public boolean isActive() {
+        return source.isActive();
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return source.metadata();
+    }
+
+    @Override
+    public ChannelFuture closeFuture() {
+        return source.closeFuture();
+    }
+
+    @Override
+    public boolean isWritable() {
+        return source.isWritable();
+    }
+
+    @Override
+    public long bytesBeforeUnwritable() {
+        return source.bytesBeforeUnwritable();
+    }
+
+    @Override
+    public long bytesBeforeWritable() {
+        return source.bytesBeforeWritable();
+    }
+
+    @Override
+    public Unsafe unsafe() {
+        return source.unsafe();
+    }
+
+    @Override
+    public ChannelPipeline pipeline() {
+        return source.pipeline();
+    }
+
+    @Override
+    public ByteBufAllocator alloc() {
+        return source.alloc();
+    }
+
+    @Override
+    public Channel read() {
+        source.read();
+        return this;
+    }
+
+    @Override
+    public Channel flush() {
+        source.flush();
+        return this;
+    }
+
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress) {
+        return source.bind(localAddress);
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress) {
+        return source.connect(remoteAddress);
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress) {
+        return source.connect(remoteAddress, localAddress);
+    }
+
+    @Override
+    public ChannelFuture disconnect() {
+        return source.disconnect();
+    }
+
+    @Override
+    public ChannelFuture close() {
+        return source.close();
+    }
+
+    @Override
+    public ChannelFuture deregister() {
+        return source.deregister();
+    }
+
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress, ChannelPromise promise) {
+        return source.bind(localAddress, promise);
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress, ChannelPromise promise) {
+        return source.connect(remoteAddress, promise);
+    }
+
+    @Override
+    public ChannelFuture connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+        return source.connect(remoteAddress, localAddress, promise);
+    }
+
+    @Override
+    public ChannelFuture disconnect(ChannelPromise promise) {
+        return source.disconnect(promise);
+    }
+
+    @Override
+    public ChannelFuture close(ChannelPromise promise) {
+        return source.close(promise);
+    }
+
+    @Override
+    public ChannelFuture deregister(ChannelPromise promise) {
+        return source.deregister(promise);
+    }
+
+    @Override
+    public ChannelFuture write(Object msg) {
+        return source.write(msg);
+    }
+
+    @Override
+    public ChannelFuture write(Object msg, ChannelPromise promise) {
+        return source.write(msg, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlush(Object msg, ChannelPromise promise) {
+        return source.writeAndFlush(msg, promise);
+    }
+
+    @Override
+    public ChannelFuture writeAndFlush(Object msg) {
+        return source.writeAndFlush(msg);
+    }
+
+    @Override
+    public ChannelPromise newPromise() {
+        return source.newPromise();
+    }
+
+    @Override
+    public ChannelProgressivePromise newProgressivePromise() {
+        return source.newProgressivePromise();
+    }
+
+    @Override
+    public ChannelFuture newSucceededFuture() {
+        return source.newSucceededFuture();
+    }
+
+    @Override
+    public ChannelFuture newFailedFuture(Throwable cause) {
+        return source.newFailedFuture(cause);
+    }
+
+    @Override
+    public ChannelPromise voidPromise() {
+        return source.voidPromise();
+    }
+
+    @Override
+    public <T> Attribute<T> attr(AttributeKey<T> key) {
+        return source.attr(key);
+    }
+
+    @Override
+    public <T> boolean hasAttr(AttributeKey<T> key) {
+        return source.hasAttr(key);
+    }
+
+    @Override
+    public int compareTo(Channel o) {
+        return source.compareTo(o instanceof ChannelWrapper ? ((ChannelWrapper) o).source : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ChannelWrapper) {
+            return source.equals(((ChannelWrapper) o).source);
+        }
+        return source.equals(o);
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToMessageCodec;
+import lombok.Getter;
+import org.geysermc.connector.metrics.SessionMetrics;
+
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Replaces PacketLib's compression handler on downstream sessions. It sits in the pipeline from the start and
+ * passes packets through until the server enables compression, so the session metrics see every packet.
+ *
+ * The server decides whether it compresses what it sends, but the packets Geyser sends may always go out
+ * uncompressed. Packets below the server threshold must never be compressed, so a threshold override can only
+ * raise it.
+ */
+public class DownstreamCompressionCodec extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+    public static final String NAME = "compression";
+    /**
+     * The largest packet the vanilla client accepts after decompression
+     */
+    private static final int MAXIMUM_UNCOMPRESSED_LENGTH = 2097152;
+
+    private final SessionMetrics metrics;
+    /**
+     * The threshold sent by the server, or -1 while compression is off
+     */
+    @Getter
+    private int serverThreshold = -1;
+    /**
+     * Packets smaller than this are sent uncompressed, if it is above the server threshold. -1 follows the server.
+     */
+    private final int thresholdOverride;
+    /**
+     * The zlib level for outgoing packets. 0 sends every packet uncompressed.
+     */
+    private final int level;
+
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] inputBuffer = new byte[8192];
+    private final byte[] deflateBuffer = new byte[8192];
+
+    public DownstreamCompressionCodec(SessionMetrics metrics, int level, int thresholdOverride) {
+        this.metrics = metrics;
+        this.level = level;
+        this.thresholdOverride = thresholdOverride;
+    }
+
+    public void setServerThreshold(int serverThreshold) {
+        this.serverThreshold = serverThreshold;
+        if (serverThreshold >= 0 && inflater == null) {
+            deflater = new Deflater(level);
+            inflater = new Inflater();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        super.handlerRemoved(ctx);
+        if (deflater != null) {
+            deflater.end();
+            inflater.end();
+            deflater = null;
+            inflater = null;
+        }
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        int length = msg.readableBytes();
+        if (serverThreshold < 0) {
+            metrics.downstreamBytesSent(length, length);
+            out.add(msg.retain());
+            return;
+        }
+
+        ByteBuf compressed = ctx.alloc().ioBuffer(length + 5);
+        if (level == 0 || length < Math.max(serverThreshold, thresholdOverride)) {
+            writeVarInt(compressed, 0);
+            compressed.writeBytes(msg);
+        } else {
+            writeVarInt(compressed, length);
+            byte[] input = toArray(msg, length);
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int written = deflater.deflate(deflateBuffer);
+                compressed.writeBytes(deflateBuffer, 0, written);
+            }
+            deflater.reset();
+        }
+        metrics.downstreamBytesSent(length, compressed.readableBytes());
+        out.add(compressed);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        int length = msg.readableBytes();
+        if (serverThreshold < 0) {
+            metrics.downstreamBytesReceived(length, length);
+            out.add(msg.retain());
+            return;
+        }
+
+        int uncompressedLength = readVarInt(msg);
+        if (uncompressedLength == 0) {
+            metrics.downstreamBytesReceived(length, msg.readableBytes());
+            out.add(msg.retain());
+            return;
+        }
+        if (uncompressedLength < serverThreshold) {
+            throw new DecoderException("Badly compressed packet: size of " + uncompressedLength + " is below the threshold of " + serverThreshold);
+        }
+        if (uncompressedLength > MAXIMUM_UNCOMPRESSED_LENGTH) {
+            throw new DecoderException("Badly compressed packet: size of " + uncompressedLength + " is larger than the protocol maximum");
+        }
+
+        int compressedLength = msg.readableBytes();
+        inflater.setInput(toArray(msg, compressedLength), 0, compressedLength);
+        ByteBuf uncompressed = ctx.alloc().heapBuffer(uncompressedLength, uncompressedLength);
+        try {
+            int inflated = inflater.inflate(uncompressed.array(), uncompressed.arrayOffset() + uncompressed.writerIndex(), uncompressedLength);
+            if (inflated != uncompressedLength) {
+                throw new DecoderException("Badly compressed packet: expected " + uncompressedLength + " bytes but got " + inflated);
+            }
+            uncompressed.writerIndex(uncompressedLength);
+        } catch (DataFormatException | RuntimeException e) {
+            uncompressed.release();
+            throw e instanceof DecoderException ? (DecoderException) e : new DecoderException(e);
+        } finally {
+            inflater.reset();
+        }
+        metrics.downstreamBytesReceived(length, uncompressedLength);
+        out.add(uncompressed);
+    }
+
+    /**
+     * Copies the readable bytes into the reused buffer, which zlib on Java 8 needs, and consumes them.
+     */
+    private byte[] toArray(ByteBuf msg, int length) {
+        if (inputBuffer.length < length) {
+            inputBuffer = new byte[Math.max(length, inputBuffer.length * 2)];
+        }
+        msg.readBytes(inputBuffer, 0, length);
+        return inputBuffer;
+    }
+
+    private static int readVarInt(ByteBuf buf) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buf.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new DecoderException("VarInt too big");
+    }
+
+    private static void writeVarInt(ByteBuf buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import com.github.steveice10.packetlib.Client;
+import com.github.steveice10.packetlib.ConnectionListener;
+import com.github.steveice10.packetlib.Server;
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.SessionFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.net.SocketAddress;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Owns the event loops that every connection to the Java server runs on. PacketLib would otherwise create an
+ * event loop group, and its threads, for each player.
+ */
+public class DownstreamConnectionManager {
+    @Getter
+    private final EventLoopGroup eventLoopGroup;
+    private final Class<? extends SocketChannel> channelClass;
+    private final int compressionLevel;
+    private final int compressionThreshold;
+
+    public DownstreamConnectionManager(GeyserConfiguration.IRemoteConfiguration config) {
+        int threads = Math.max(0, config.getEventLoopThreads());
+        ThreadFactory threadFactory = new DefaultThreadFactory("Geyser downstream", true);
+        if (Epoll.isAvailable()) {
+            this.eventLoopGroup = new EpollEventLoopGroup(threads, threadFactory);
+            this.channelClass = EpollSocketChannel.class;
+        } else {
+            this.eventLoopGroup = new NioEventLoopGroup(threads, threadFactory);
+            this.channelClass = NioSocketChannel.class;
+        }
+        this.compressionLevel = clampCompressionLevel(config.getCompressionLevel());
+        this.compressionThreshold = config.getCompressionThreshold();
+    }
+
+    /**
+     * @param session the session that connects; its downstream compression overrides replace the config values
+     * @param directAddress the address to connect to in the same JVM, or null to connect over TCP
+     * @return a session factory for the downstream {@link Client} of this session
+     */
+    public SessionFactory createSessionFactory(GeyserSession session, SocketAddress directAddress) {
+        int level = session.getDownstreamCompressionLevel() != null ? clampCompressionLevel(session.getDownstreamCompressionLevel()) : compressionLevel;
+        int threshold = session.getDownstreamCompressionThreshold() != null ? session.getDownstreamCompressionThreshold() : compressionThreshold;
+        return new SessionFactory() {
+            @Override
+            public Session createClientSession(Client client) {
+                if (directAddress != null) {
+                    return new LocalSession(client, eventLoopGroup, session.getMetrics(), directAddress, session.getUpstream().getAddress());
+                }
+                return new TcpDownstreamSession(client, eventLoopGroup, channelClass, session.getMetrics(), level, threshold);
+            }
+
+            @Override
+            public ConnectionListener createServerListener(Server server) {
+                throw new UnsupportedOperationException("Geyser only creates client sessions");
+            }
+        };
+    }
+
+    /**
+     * -1 is zlib's default level
+     */
+    private static int clampCompressionLevel(int level) {
+        return Math.max(-1, Math.min(9, level));
+    }
+
+    public void shutdown() {
+        eventLoopGroup.shutdownGracefully();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import com.github.steveice10.packetlib.Client;
+import com.github.steveice10.packetlib.packet.PacketProtocol;
+import com.github.steveice10.packetlib.tcp.TcpClientSession;
+import com.github.steveice10.packetlib.tcp.TcpPacketCodec;
+import com.github.steveice10.packetlib.tcp.TcpPacketEncryptor;
+import com.github.steveice10.packetlib.tcp.TcpPacketSizer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import org.geysermc.connector.metrics.SessionMetrics;
+
+/**
+ * A connection to the Java server that runs on the event loops of the {@link DownstreamConnectionManager},
+ * instead of PacketLib creating a group for every session, and that compresses with a
+ * {@link DownstreamCompressionCodec}.
+ */
+public abstract class DownstreamSession extends TcpClientSession {
+    protected final Client client;
+    protected final EventLoopGroup eventLoopGroup;
+    private final DownstreamCompressionCodec compression;
+
+    protected DownstreamSession(Client client, EventLoopGroup eventLoopGroup, SessionMetrics metrics, int compressionLevel, int compressionThreshold) {
+        super(client.getHost(), client.getPort(), client.getPacketProtocol(), client, null);
+        this.client = client;
+        this.eventLoopGroup = eventLoopGroup;
+        this.compression = new DownstreamCompressionCodec(metrics, compressionLevel, compressionThreshold);
+    }
+
+    /**
+     * Sets up the pipeline the way PacketLib does, with compression in place from the start.
+     *
+     * @param channel the channel being initialized
+     */
+    protected void initChannel(Channel channel) {
+        PacketProtocol protocol = getPacketProtocol();
+        protocol.newClientSession(client, this);
+
+        refreshReadTimeoutHandler(channel);
+        refreshWriteTimeoutHandler(channel);
+
+        ChannelPipeline pipeline = channel.pipeline();
+        // Does nothing unless the server enables encryption
+        pipeline.addLast("encryption", new TcpPacketEncryptor(this));
+        pipeline.addLast("sizer", new TcpPacketSizer(this));
+        pipeline.addLast(DownstreamCompressionCodec.NAME, compression);
+        pipeline.addLast("codec", new TcpPacketCodec(this));
+        pipeline.addLast("manager", this);
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        return compression.getServerThreshold();
+    }
+
+    /**
+     * Called by MCProtocolLib when the server enables compression. The codec is already in the pipeline,
+     * so PacketLib's own compression handler is never added.
+     */
+    @Override
+    public void setCompressionThreshold(int threshold) {
+        compression.setServerThreshold(threshold);
+    }
+}
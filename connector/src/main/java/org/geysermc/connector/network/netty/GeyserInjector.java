@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import lombok.Getter;
+import org.geysermc.connector.bootstrap.GeyserBootstrap;
+
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+
+/**
+ * Binds a local channel into the Netty server of the platform that Geyser runs on, so sessions can connect
+ * to it directly with a {@link LocalSession}. Each bootstrap that can offer this implements
+ * {@link #initializeLocalChannel0(GeyserBootstrap)}.
+ */
+public abstract class GeyserInjector {
+    /**
+     * The local channel that was bound, or null if direct connections are not available
+     */
+    protected ChannelFuture localChannel;
+    /**
+     * The address to connect to, or null if direct connections are not available
+     */
+    @Getter
+    protected SocketAddress serverSocketAddress;
+
+    /**
+     * Binds the local channel if direct connections are enabled. If this fails, sessions keep using TCP.
+     *
+     * @param bootstrap the bootstrap Geyser is running on
+     */
+    public void initializeLocalChannel(GeyserBootstrap bootstrap) {
+        if (!bootstrap.getGeyserConfig().isUseDirectConnection()) {
+            bootstrap.getGeyserLogger().debug("Direct connections are disabled in the config.");
+            return;
+        }
+        if (bootstrap.getGeyserConfig().getRemote().isUseProxyProtocol()) {
+            // The server expects a PROXY header that a direct connection would not send
+            bootstrap.getGeyserLogger().debug("Not using direct connections as the PROXY protocol is enabled.");
+            return;
+        }
+        if (!bootstrap.getGeyserConfig().isAutoconfiguredRemote() && !isLocalAddress(bootstrap.getGeyserConfig().getRemote().getAddress())) {
+            // Geyser has been pointed at another server, which a direct connection would skip
+            bootstrap.getGeyserLogger().debug("Not using direct connections as the remote address is not this server.");
+            return;
+        }
+        if (this.localChannel != null) {
+            bootstrap.getGeyserLogger().warning("Geyser attempted to inject into the server connection handler twice! Please ensure you aren't using /reload or any plugin that (re)loads Geyser after the server has started.");
+            return;
+        }
+
+        try {
+            initializeLocalChannel0(bootstrap);
+            bootstrap.getGeyserLogger().debug("Direct connections are available at " + this.serverSocketAddress);
+        } catch (Exception e) {
+            if (bootstrap.getGeyserLogger().isDebug()) {
+                bootstrap.getGeyserLogger().error("Unable to inject into the server; falling back to TCP", e);
+            }
+        }
+    }
+
+    /**
+     * @param address the configured remote address
+     * @return true if the address belongs to this machine
+     */
+    private static boolean isLocalAddress(String address) {
+        try {
+            InetAddress inetAddress = InetAddress.getByName(address);
+            return inetAddress.isAnyLocalAddress() || inetAddress.isLoopbackAddress() || NetworkInterface.getByInetAddress(inetAddress) != null;
+        } catch (UnknownHostException | SocketException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Binds the local channel and sets {@link #localChannel} and {@link #serverSocketAddress}.
+     *
+     * @param bootstrap the bootstrap Geyser is running on
+     * @throws Exception if the platform's network internals could not be reached
+     */
+    protected abstract void initializeLocalChannel0(GeyserBootstrap bootstrap) throws Exception;
+
+    public void shutdown() {
+        if (this.localChannel != null && this.localChannel.channel().isOpen()) {
+            this.localChannel.channel().close().syncUninterruptibly();
+        }
+        this.localChannel = null;
+        this.serverSocketAddress = null;
+    }
+
+    /**
+     * @param initializer the platform's channel initializer
+     * @return its protected initChannel method, made accessible
+     * @throws NoSuchMethodException if no initChannel method was found
+     */
+    protected static Method findInitChannel(ChannelInitializer<?> initializer) throws NoSuchMethodException {
+        Class<?> clazz = initializer.getClass();
+        while (clazz != null && clazz != ChannelInitializer.class) {
+            try {
+                Method initChannel = clazz.getDeclaredMethod("initChannel", Channel.class);
+                initChannel.setAccessible(true);
+                return initChannel;
+            } catch (NoSuchMethodException e) {
+                clazz = clazz.getSuperclass();
+            }
+        }
+        throw new NoSuchMethodException("initChannel in " + initializer.getClass().getName());
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import io.netty.channel.DefaultChannelPipeline;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+
+/**
+ * The server end of a direct connection. Its pipeline hands out a {@link ChannelWrapper} as the channel, so the
+ * server sees the address of the Bedrock player.
+ */
+public class LocalChannelWrapper extends LocalChannel {
+    /**
+     * Not final and not initialized here; it is set while the super constructor creates the pipeline
+     */
+    private ChannelWrapper wrapper;
+
+    public LocalChannelWrapper() {
+    }
+
+    public LocalChannelWrapper(LocalServerChannel parent, LocalChannel peer) {
+        super(parent, peer);
+    }
+
+    public ChannelWrapper wrapper() {
+        return wrapper;
+    }
+
+    @Override
+    protected DefaultChannelPipeline newChannelPipeline() {
+        this.wrapper = new ChannelWrapper(this);
+        return new DefaultChannelPipeline(wrapper) {
+        };
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Added to the server end of a direct connection so the server never compresses packets to Geyser.
+ * The set compression packet is dropped, and when login succeeds the compression handlers that the server added
+ * are removed, along with this handler.
+ *
+ * Packets are matched by simple class name, as the server classes are not available to Geyser.
+ */
+public class LocalCompressionDisabler extends ChannelOutboundHandlerAdapter {
+    public static final String NAME = "geyser-compression-disabler";
+
+    private final String setCompressionPacket;
+    private final String loginSuccessPacket;
+    private final String[] compressionHandlers;
+
+    /**
+     * @param setCompressionPacket the simple class name of the server's set compression packet
+     * @param loginSuccessPacket the simple class name of the server's login success packet
+     * @param compressionHandlers the names of the pipeline handlers that compress and decompress
+     */
+    public LocalCompressionDisabler(String setCompressionPacket, String loginSuccessPacket, String... compressionHandlers) {
+        this.setCompressionPacket = setCompressionPacket;
+        this.loginSuccessPacket = loginSuccessPacket;
+        this.compressionHandlers = compressionHandlers;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        String packetName = msg.getClass().getSimpleName();
+        if (packetName.equals(setCompressionPacket)) {
+            // Pretend it was sent so the server carries on with the login
+            promise.trySuccess();
+            return;
+        }
+        if (packetName.equals(loginSuccessPacket)) {
+            // Compression can no longer be enabled after this
+            for (String handler : compressionHandlers) {
+                if (ctx.pipeline().get(handler) != null) {
+                    ctx.pipeline().remove(handler);
+                }
+            }
+            ctx.pipeline().remove(this);
+        }
+        super.write(ctx, msg, promise);
+    }
+}
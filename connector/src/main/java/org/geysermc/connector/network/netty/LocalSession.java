@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import com.github.steveice10.packetlib.Client;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import org.geysermc.connector.metrics.SessionMetrics;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * A downstream session that connects to the Java server or proxy in the same JVM through a Netty local channel,
+ * instead of over loopback TCP.
+ *
+ * The link is only framed: the server end drops compression (see {@link LocalCompressionDisabler}), and encryption
+ * is only enabled if the server asks for it, which it does not for Floodgate or offline players.
+ */
+public final class LocalSession extends DownstreamSession {
+    private final SocketAddress targetAddress;
+    private final InetSocketAddress clientAddress;
+
+    public LocalSession(Client client, EventLoopGroup eventLoopGroup, SessionMetrics metrics, SocketAddress targetAddress, InetSocketAddress clientAddress) {
+        // Compression settings don't matter as the server never enables it
+        super(client, eventLoopGroup, metrics, 0, -1);
+        this.targetAddress = targetAddress;
+        this.clientAddress = clientAddress;
+    }
+
+    @Override
+    public void connect(boolean wait) {
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .channel(LocalChannelWithRemoteAddress.class)
+                    .group(eventLoopGroup)
+                    .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout() * 1000)
+                    .handler(new ChannelInitializer<LocalChannelWithRemoteAddress>() {
+                        @Override
+                        protected void initChannel(LocalChannelWithRemoteAddress channel) {
+                            channel.setSpoofedRemoteAddress(clientAddress);
+                            LocalSession.this.initChannel(channel);
+                        }
+                    });
+
+            ChannelFuture future = bootstrap.connect(targetAddress);
+            if (wait) {
+                future.syncUninterruptibly();
+            }
+            future.addListener(connectFuture -> {
+                if (!connectFuture.isSuccess()) {
+                    exceptionCaught(null, connectFuture.cause());
+                }
+            });
+        } catch (Throwable t) {
+            exceptionCaught(null, t);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.netty;
+
+import com.github.steveice10.packetlib.BuiltinFlags;
+import com.github.steveice10.packetlib.Client;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.haproxy.HAProxyCommand;
+import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.handler.codec.haproxy.HAProxyMessageEncoder;
+import io.netty.handler.codec.haproxy.HAProxyProtocolVersion;
+import io.netty.handler.codec.haproxy.HAProxyProxiedProtocol;
+import org.geysermc.connector.metrics.SessionMetrics;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+
+/**
+ * A downstream session over TCP.
+ */
+public final class TcpDownstreamSession extends DownstreamSession {
+    private final Class<? extends SocketChannel> channelClass;
+
+    public TcpDownstreamSession(Client client, EventLoopGroup eventLoopGroup, Class<? extends SocketChannel> channelClass,
+                                SessionMetrics metrics, int compressionLevel, int compressionThreshold) {
+        super(client, eventLoopGroup, metrics, compressionLevel, compressionThreshold);
+        this.channelClass = channelClass;
+    }
+
+    @Override
+    public void connect(boolean wait) {
+        try {
+            Bootstrap bootstrap = new Bootstrap()
+                    .channel(channelClass)
+                    .group(eventLoopGroup)
+                    .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.IP_TOS, 0x18)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getConnectTimeout() * 1000)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel channel) {
+                            TcpDownstreamSession.this.initChannel(channel);
+                            addProxyProtocolSupport(channel);
+                        }
+                    });
+
+            ChannelFuture future = bootstrap.connect(new InetSocketAddress(getHost(), getPort()));
+            if (wait) {
+                future.syncUninterruptibly();
+            }
+            future.addListener(connectFuture -> {
+                if (!connectFuture.isSuccess()) {
+                    exceptionCaught(null, connectFuture.cause());
+                }
+            });
+        } catch (Throwable t) {
+            exceptionCaught(null, t);
+        }
+    }
+
+    /**
+     * Sends a PROXY protocol header with the Bedrock player's address before anything else, if enabled.
+     */
+    private void addProxyProtocolSupport(Channel channel) {
+        Boolean enabled = getFlag(BuiltinFlags.ENABLE_CLIENT_PROXY_PROTOCOL);
+        if (enabled == null || !enabled) {
+            return;
+        }
+        channel.pipeline().addFirst("proxy-protocol-encoder", HAProxyMessageEncoder.INSTANCE);
+        channel.pipeline().addFirst("proxy-protocol-packet-sender", new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                InetSocketAddress clientAddress = getFlag(BuiltinFlags.CLIENT_PROXIED_ADDRESS);
+                InetSocketAddress remoteAddress = (InetSocketAddress) ctx.channel().remoteAddress();
+                HAProxyProxiedProtocol proxiedProtocol = clientAddress.getAddress() instanceof Inet4Address ?
+                        HAProxyProxiedProtocol.TCP4 : HAProxyProxiedProtocol.TCP6;
+                ctx.channel().writeAndFlush(new HAProxyMessage(HAProxyProtocolVersion.V2, HAProxyCommand.PROXY, proxiedProtocol,
+                        clientAddress.getAddress().getHostAddress(), remoteAddress.getAddress().getHostAddress(),
+                        clientAddress.getPort(), remoteAddress.getPort()));
+                ctx.pipeline().remove(this);
+                ctx.pipeline().remove("proxy-protocol-encoder");
+                super.channelActive(ctx);
+            }
+        });
+    }
+}
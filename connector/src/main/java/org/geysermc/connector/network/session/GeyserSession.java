@@ -49,7 +49,6 @@ import com.github.steveice10.packetlib.BuiltinFlags;
 import com.github.steveice10.packetlib.Client;
 import com.github.steveice10.packetlib.event.session.*;
 import com.github.steveice10.packetlib.packet.Packet;
-import com.github.steveice10.packetlib.tcp.TcpSessionFactory;
 import com.nukkitx.math.GenericMath;
 import com.nukkitx.math.vector.*;
 import com.nukkitx.protocol.bedrock.BedrockPacket;
@@ -80,7 +79,6 @@ import org.geysermc.connector.entity.Entity;
 import org.geysermc.connector.entity.attribute.Attribute;
 import org.geysermc.connector.entity.attribute.AttributeType;
 import org.geysermc.connector.entity.player.SessionPlayerEntity;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
 import org.geysermc.connector.entity.type.EntityType;
 import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.EventResult;
@@ -94,6 +92,7 @@ import org.geysermc.connector.inventory.PlayerInventory;
 import org.geysermc.connector.network.remote.RemoteServer;
 import org.geysermc.connector.network.session.auth.AuthData;
 import org.geysermc.connector.network.session.auth.BedrockClientData;
+import org.geysermc.connector.metrics.SessionMetrics;
 import org.geysermc.connector.network.session.cache.*;
 import org.geysermc.connector.network.translators.BiomeTranslator;
 import org.geysermc.connector.network.translators.EntityIdentifierRegistry;
@@ -112,11 +111,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeUnit;
@@ -140,9 +139,31 @@ public class GeyserSession implements CommandSender {
     private final SessionPlayerEntity playerEntity;
     private PlayerInventory inventory;
 
+    private final SessionMetrics metrics;
+
+    /**
+     * Overrides {@code remote.compression-level} for this session's connection to the Java server, or null to use the config.
+     * Only read when connecting, so extensions set it beforehand, e.g. from a {@link SessionConnectEvent} handler.
+     */
+    @Setter
+    private Integer downstreamCompressionLevel;
+    /**
+     * Overrides {@code remote.compression-threshold} for this session's connection to the Java server, or null to use the config.
+     * Only read when connecting.
+     */
+    @Setter
+    private Integer downstreamCompressionThreshold;
+
+    /**
+     * Delayed and repeating tasks that run on the session tick and stop when the session closes
+     */
+    private final TimerWheel timerWheel;
+
     private AdvancementsCache advancementsCache;
+    private final BlockEntityCache blockEntityCache;
     private BookEditCache bookEditCache;
     private ChunkCache chunkCache;
+    private final EffectLimitCache effectLimitCache;
     private EntityCache entityCache;
     private EntityEffectCache effectCache;
     private InventoryCache inventoryCache;
@@ -159,7 +180,7 @@ public class GeyserSession implements CommandSender {
      */
     private final CollisionManager collisionManager;
 
-    private final Map<Vector3i, SkullPlayerEntity> skullCache = new ConcurrentHashMap<>();
+    private final SkullCache skullCache;
     private final Long2ObjectMap<ClientboundMapItemDataPacket> storedMaps = Long2ObjectMaps.synchronize(new Long2ObjectOpenHashMap<>());
 
     /**
@@ -398,14 +419,19 @@ public class GeyserSession implements CommandSender {
     public GeyserSession(GeyserConnector connector, BedrockServerSession bedrockServerSession) {
         this.connector = connector;
         this.upstream = new UpstreamSession(bedrockServerSession);
+        this.metrics = new SessionMetrics(connector.getPerformanceMonitor());
+        this.timerWheel = new TimerWheel(connector.getLogger());
 
         this.advancementsCache = new AdvancementsCache(this);
+        this.blockEntityCache = new BlockEntityCache(this);
         this.bookEditCache = new BookEditCache(this);
         this.chunkCache = new ChunkCache(this);
+        this.effectLimitCache = new EffectLimitCache(this);
         this.entityCache = new EntityCache(this);
         this.effectCache = new EntityEffectCache();
         this.inventoryCache = new InventoryCache(this);
         this.pistonCache = new PistonCache(this);
+        this.skullCache = new SkullCache(this);
         this.worldCache = new WorldCache(this);
         this.windowCache = new WindowCache(this);
 
@@ -622,7 +648,10 @@ public class GeyserSession implements CommandSender {
         // Start ticking
         tickThread = connector.getGeneralThreadPool().scheduleAtFixedRate(this::tick, 50, 50, TimeUnit.MILLISECONDS);
 
-        downstream = new Client(remoteServer.getAddress(), remoteServer.getPort(), protocol, new TcpSessionFactory());
+        // If Geyser runs inside the server or proxy this skips TCP entirely
+        SocketAddress directAddress = connector.getBootstrap().getSocketAddress();
+        downstream = new Client(remoteServer.getAddress(), remoteServer.getPort(), protocol,
+                connector.getDownstreamConnectionManager().createSessionFactory(this, directAddress));
         if (connector.getConfig().getRemote().isUseProxyProtocol()) {
             downstream.getSession().setFlag(BuiltinFlags.ENABLE_CLIENT_PROXY_PROTOCOL, true);
             downstream.getSession().setFlag(BuiltinFlags.CLIENT_PROXIED_ADDRESS, upstream.getAddress());
@@ -730,6 +759,8 @@ public class GeyserSession implements CommandSender {
     }
 
     public void handleDownstreamPacket(Packet packet) {
+        metrics.downstreamPacketReceived();
+
         // Required, or else Floodgate players break with Bukkit chunk caching
         if (packet instanceof LoginSuccessPacket) {
             GameProfile profile = ((LoginSuccessPacket) packet).getProfile();
@@ -763,6 +794,12 @@ public class GeyserSession implements CommandSender {
         if (tickThread != null) {
             tickThread.cancel(true);
         }
+        timerWheel.close();
+
+        if (this.chunkCache != null) {
+            // Give the memory back to the shared chunk cache budget
+            this.chunkCache.clear();
+        }
 
         this.advancementsCache = null;
         this.bookEditCache = null;
@@ -786,7 +823,10 @@ public class GeyserSession implements CommandSender {
      * Called every 50 milliseconds - one Minecraft tick.
      */
     public void tick() {
+        long tickStart = System.nanoTime();
+        timerWheel.tick();
         pistonCache.tick();
+        skullCache.tick();
         // Check to see if the player's position needs updating - a position update should be sent once every 3 seconds
         if (spawned && (System.currentTimeMillis() - lastMovementTimestamp) > 3000) {
             // Recalculate in case something else changed position
@@ -822,6 +862,10 @@ public class GeyserSession implements CommandSender {
         for (Tickable entity : entityCache.getTickableEntities()) {
             entity.tick(this);
         }
+
+        effectLimitCache.tick();
+
+        connector.getPerformanceMonitor().recordSessionTick(System.nanoTime() - tickStart);
     }
 
     public void setAuthenticationData(AuthData authData) {
@@ -1081,6 +1125,7 @@ public class GeyserSession implements CommandSender {
         EventManager.getInstance().triggerEvent(UpstreamPacketSendEvent.of(this, packet))
                 .onNotCancelled(result -> {
                     if (upstream != null) {
+                        metrics.upstreamPacketSent(result.getEvent().getPacket().getClass());
                         upstream.sendPacket(result.getEvent().getPacket());
                     } else {
                         connector.getLogger().debug("Tried to send upstream packet " + result.getEvent().getPacket().getClass().getSimpleName() + " but the session was null");
@@ -1116,6 +1161,7 @@ public class GeyserSession implements CommandSender {
         EventManager.getInstance().triggerEvent(UpstreamPacketSendEvent.of(this, packet))
                 .onNotCancelled(result -> {
                     if (upstream != null) {
+                        metrics.upstreamPacketSent(result.getEvent().getPacket().getClass());
                         upstream.sendPacketImmediately(result.getEvent().getPacket());
                     } else {
                         connector.getLogger().debug("Tried to send upstream packet " + result.getEvent().getPacket().getClass().getSimpleName() + " immediately but the session was null");
@@ -1132,6 +1178,7 @@ public class GeyserSession implements CommandSender {
         EventManager.getInstance().triggerEvent(DownstreamPacketSendEvent.of(this, packet))
                 .onNotCancelled(result -> {
                     if (downstream != null && downstream.getSession() != null && protocol.getSubProtocol().equals(SubProtocol.GAME)) {
+                        metrics.downstreamPacketSent(result.getEvent().getPacket().getClass());
                         downstream.getSession().send(result.getEvent().getPacket());
                     } else {
                         connector.getLogger().debug("Tried to send downstream packet " + result.getEvent().getPacket().getClass().getSimpleName() + " before connected to the server");
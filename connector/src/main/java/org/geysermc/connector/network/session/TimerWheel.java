@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session;
+
+import org.geysermc.connector.GeyserLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delayed and repeating tasks of a session, run on the session tick instead of each getting its own
+ * future on the general thread pool.
+ *
+ * This is a hierarchical timer wheel: four levels of 64 slots, each slot of a level covering 64 times as many
+ * ticks as one of the level below. Scheduling and cancelling are constant time, and a tick only looks at one slot,
+ * plus moving the entries of a higher level slot down every 64 ticks. Delays are rounded up to whole ticks.
+ */
+public class TimerWheel {
+    public static final long TICK_MILLIS = 50;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final GeyserLogger logger;
+    /**
+     * Sentinel heads of circular lists, per level and slot
+     */
+    private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+
+    private long currentTick;
+    private int size;
+    private boolean closed;
+
+    public TimerWheel(GeyserLogger logger) {
+        this.logger = logger;
+        for (Timer[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer head = new Timer(null, 0);
+                head.previous = head;
+                head.next = head;
+                level[i] = head;
+            }
+        }
+    }
+
+    /**
+     * @param task the task to run on the session tick
+     * @param delay the delay, rounded up to the next tick
+     * @param unit the unit of the delay
+     * @return the timer, which can be cancelled
+     */
+    public Timer schedule(Runnable task, long delay, TimeUnit unit) {
+        return schedule(task, delay, 0, unit);
+    }
+
+    /**
+     * @param task the task to run on the session tick
+     * @param initialDelay the delay before the first run, rounded up to the next tick
+     * @param period the time between runs, rounded up to the next tick
+     * @param unit the unit of the delay and period
+     * @return the timer, which can be cancelled - for example from the task itself
+     */
+    public Timer scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return schedule(task, initialDelay, Math.max(1, toTicks(period, unit)), unit);
+    }
+
+    private synchronized Timer schedule(Runnable task, long delay, long periodTicks, TimeUnit unit) {
+        Timer timer = new Timer(task, periodTicks);
+        if (closed) {
+            timer.cancelled = true;
+            return timer;
+        }
+        timer.deadline = currentTick + Math.max(1, toTicks(delay, unit));
+        insert(timer);
+        return timer;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs the tasks that are due. Called by {@link GeyserSession#tick()}.
+     */
+    public void tick() {
+        List<Timer> due;
+        synchronized (this) {
+            if (closed || size == 0) {
+                currentTick++;
+                return;
+            }
+            currentTick++;
+
+            // Move entries down from every level whose slot boundary we just crossed, highest first
+            int cascadeLevels = 0;
+            while (cascadeLevels < LEVELS - 1 && ((currentTick >>> (SLOT_BITS * cascadeLevels)) & SLOT_MASK) == 0) {
+                cascadeLevels++;
+            }
+            for (int level = cascadeLevels; level >= 1; level--) {
+                Timer head = wheel[level][(int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+                for (Timer timer = detach(head); timer != null; ) {
+                    Timer next = timer.next;
+                    insert(timer);
+                    timer = next;
+                }
+            }
+
+            due = new ArrayList<>();
+            for (Timer timer = detach(wheel[0][(int) currentTick & SLOT_MASK]); timer != null; timer = timer.next) {
+                due.add(timer);
+            }
+        }
+
+        for (Timer timer : due) {
+            if (timer.cancelled) {
+                continue;
+            }
+            try {
+                timer.task.run();
+            } catch (Throwable t) {
+                logger.error("Error while running a scheduled session task", t);
+            }
+            if (timer.period > 0) {
+                synchronized (this) {
+                    if (!timer.cancelled && !closed) {
+                        timer.deadline = currentTick + timer.period;
+                        insert(timer);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels every timer. Called when the session disconnects; nothing can be scheduled afterwards.
+     */
+    public synchronized void close() {
+        closed = true;
+        for (Timer[] level : wheel) {
+            for (Timer head : level) {
+                for (Timer timer = detach(head); timer != null; timer = timer.next) {
+                    timer.cancelled = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the amount of scheduled timers
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void insert(Timer timer) {
+        long ticks = Math.min(Math.max(0, timer.deadline - currentTick), MAX_DELAY_TICKS);
+        long deadline = currentTick + ticks;
+        int level = 0;
+        while (level < LEVELS - 1 && ticks >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer head = wheel[level][(int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK];
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+        size++;
+    }
+
+    /**
+     * Empties the slot.
+     *
+     * @return the first timer of a null-terminated list of the slot's timers
+     */
+    private Timer detach(Timer head) {
+        if (head.next == head) {
+            return null;
+        }
+        Timer first = head.next;
+        head.previous.next = null;
+        head.next = head;
+        head.previous = head;
+        for (Timer timer = first; timer != null; timer = timer.next) {
+            timer.previous = null;
+            size--;
+        }
+        return first;
+    }
+
+    private static long toTicks(long duration, TimeUnit unit) {
+        long millis = unit.toMillis(duration);
+        return (millis + TICK_MILLIS - 1) / TICK_MILLIS;
+    }
+
+    public final class Timer {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private Timer previous;
+        private Timer next;
+        private volatile boolean cancelled;
+
+        private Timer(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        /**
+         * Stops the timer. A task that is running right now finishes, but a repeating one won't run again.
+         *
+         * @return false if the timer was already cancelled
+         */
+        public boolean cancel() {
+            synchronized (TimerWheel.this) {
+                if (cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                if (previous != null) {
+                    previous.next = next;
+                    next.previous = previous;
+                    previous = null;
+                    next = null;
+                    size--;
+                }
+                return true;
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -38,7 +38,11 @@ import org.geysermc.connector.utils.GeyserAdvancement;
 import org.geysermc.connector.utils.LanguageUtils;
 import org.geysermc.connector.utils.LocaleUtils;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -50,16 +54,23 @@ public class AdvancementsCache {
     public static final int ADVANCEMENT_INFO_FORM_ID = 1343;
 
     /**
-     * Stores the player's advancement progress
+     * Stores the advancements sent to the player, in the order the server sent them. The values are the shared
+     * definitions, so a reset of the whole tree only rebuilds this map.
      */
     @Getter
-    private final Map<String, Map<String, Long>> storedAdvancementProgress = new HashMap<>();
+    private final Map<String, GeyserAdvancement> storedAdvancements = new LinkedHashMap<>();
 
     /**
-     * Stores advancements for the player.
+     * Stores the criteria the player has obtained of each stored advancement
      */
-    @Getter
-    private final Map<String, GeyserAdvancement> storedAdvancements = new HashMap<>();
+    private final Map<String, BitSet> storedAdvancementProgress = new HashMap<>();
+
+    /**
+     * Root advancements and the advancements under each root, for the forms. Built when the player opens the
+     * advancements menu and dropped again when the advancements change.
+     */
+    private List<GeyserAdvancement> rootAdvancements = null;
+    private Map<String, List<GeyserAdvancement>> advancementsByRoot = null;
 
     /**
      * Stores player's chosen advancement's ID and title for use in form creators.
@@ -73,6 +84,110 @@ public class AdvancementsCache {
         this.session = session;
     }
 
+    /**
+     * Removes all advancements and progress, as the server does before sending the full tree.
+     */
+    public void clear() {
+        storedAdvancements.clear();
+        storedAdvancementProgress.clear();
+        invalidateForms();
+    }
+
+    public void addAdvancement(GeyserAdvancement advancement) {
+        GeyserAdvancement previous = storedAdvancements.put(advancement.getId(), advancement);
+        if (previous != advancement) {
+            if (previous != null) {
+                // Criteria may be numbered differently now
+                storedAdvancementProgress.remove(advancement.getId());
+            }
+            invalidateForms();
+        }
+    }
+
+    public void removeAdvancement(String id) {
+        if (storedAdvancements.remove(id) != null) {
+            storedAdvancementProgress.remove(id);
+            invalidateForms();
+        }
+    }
+
+    /**
+     * Replaces the progress of an advancement. Progress of advancements that aren't stored is ignored, as it
+     * can't be shown.
+     *
+     * @param id the advancement ID
+     * @param criteria the criteria mapped to the time they were obtained, or -1 if they weren't
+     * @return true if the advancement was not earned before and is earned now
+     */
+    public boolean updateProgress(String id, Map<String, Long> criteria) {
+        GeyserAdvancement advancement = storedAdvancements.get(id);
+        if (advancement == null) {
+            return false;
+        }
+        boolean wasEarned = advancement.isEarned(storedAdvancementProgress.get(id));
+        BitSet progress = advancement.toProgress(criteria);
+        if (progress.isEmpty()) {
+            storedAdvancementProgress.remove(id);
+        } else {
+            storedAdvancementProgress.put(id, progress);
+        }
+        return !wasEarned && advancement.isEarned(progress);
+    }
+
+    private void invalidateForms() {
+        rootAdvancements = null;
+        advancementsByRoot = null;
+    }
+
+    /**
+     * Sorts the stored advancements under their roots, if that hasn't happened since they last changed.
+     */
+    private void buildFormIndex() {
+        if (rootAdvancements != null) {
+            return;
+        }
+        List<GeyserAdvancement> roots = new ArrayList<>();
+        Map<String, List<GeyserAdvancement>> byRoot = new HashMap<>();
+        Map<String, String> rootIds = new HashMap<>();
+        for (GeyserAdvancement advancement : storedAdvancements.values()) {
+            if (advancement.getParentId() == null) { // No parent means this is a root advancement
+                roots.add(advancement);
+            } else {
+                String rootId = getRootId(advancement, rootIds);
+                if (rootId != null) {
+                    byRoot.computeIfAbsent(rootId, id -> new ArrayList<>()).add(advancement);
+                }
+            }
+        }
+        rootAdvancements = roots;
+        advancementsByRoot = byRoot;
+    }
+
+    /**
+     * @return the ID of the root above this advancement, or null if a parent is missing
+     */
+    private String getRootId(GeyserAdvancement advancement, Map<String, String> rootIds) {
+        String parentId = advancement.getParentId();
+        if (parentId == null) {
+            return advancement.getId();
+        }
+        String rootId = rootIds.get(advancement.getId());
+        if (rootId == null) {
+            GeyserAdvancement parent = storedAdvancements.get(parentId);
+            // The depth is bounded by the server, and a parent cycle can't be built by vanilla
+            rootId = parent == null ? null : getRootId(parent, rootIds);
+            if (rootId != null) {
+                rootIds.put(advancement.getId(), rootId);
+            }
+        }
+        return rootId;
+    }
+
+    private List<GeyserAdvancement> getCategory(String rootId) {
+        buildFormIndex();
+        return rootId == null ? Collections.emptyList() : advancementsByRoot.getOrDefault(rootId, Collections.emptyList());
+    }
+
     /**
      * Build a form with all advancement categories
      *
@@ -84,10 +199,9 @@ public class AdvancementsCache {
 
         // Created menu window for advancement categories
         SimpleFormWindow window = new SimpleFormWindow(LocaleUtils.getLocaleString("gui.advancements", language), "");
-        for (Map.Entry<String, GeyserAdvancement> advancement : storedAdvancements.entrySet()) {
-            if (advancement.getValue().getParentId() == null) { // No parent means this is a root advancement
-                window.getButtons().add(new FormButton(MessageTranslator.convertMessage(advancement.getValue().getDisplayData().getTitle(), language)));
-            }
+        buildFormIndex();
+        for (GeyserAdvancement advancement : rootAdvancements) {
+            window.getButtons().add(new FormButton(MessageTranslator.convertMessage(advancement.getDisplayData().getTitle(), language)));
         }
 
         if (window.getButtons().isEmpty()) {
@@ -112,20 +226,13 @@ public class AdvancementsCache {
         SimpleFormWindow window = new SimpleFormWindow(MessageTranslator.convertMessage(categoryAdvancement.getDisplayData().getTitle(), language),
                 MessageTranslator.convertMessage(categoryAdvancement.getDisplayData().getDescription(), language));
 
-        if (id != null) {
-            for (Map.Entry<String, GeyserAdvancement> advancementEntry : storedAdvancements.entrySet()) {
-                GeyserAdvancement advancement = advancementEntry.getValue();
-                if (advancement != null) {
-                    if (advancement.getParentId() != null && currentAdvancementCategoryId.equals(advancement.getRootId(this))) {
-                        boolean earned = isEarned(advancement);
-
-                        if (earned || !advancement.getDisplayData().isShowToast()) {
-                            window.getButtons().add(new FormButton("§6" + MessageTranslator.convertMessage(advancementEntry.getValue().getDisplayData().getTitle()) + "\n"));
-                        } else {
-                            window.getButtons().add(new FormButton(MessageTranslator.convertMessage(advancementEntry.getValue().getDisplayData().getTitle()) + "\n"));
-                        }
-                    }
-                }
+        for (GeyserAdvancement advancement : getCategory(id)) {
+            boolean earned = isEarned(advancement);
+
+            if (earned || !advancement.getDisplayData().isShowToast()) {
+                window.getButtons().add(new FormButton("§6" + MessageTranslator.convertMessage(advancement.getDisplayData().getTitle()) + "\n"));
+            } else {
+                window.getButtons().add(new FormButton(MessageTranslator.convertMessage(advancement.getDisplayData().getTitle()) + "\n"));
             }
         }
 
@@ -179,34 +286,7 @@ public class AdvancementsCache {
      * @return true if the advancement has been earned.
      */
     public boolean isEarned(GeyserAdvancement advancement) {
-        boolean earned = false;
-        if (advancement.getRequirements().size() == 0) {
-            // Minecraft handles this case, so we better as well
-            return false;
-        }
-        Map<String, Long> progress = storedAdvancementProgress.get(advancement.getId());
-        if (progress != null) {
-            // Each advancement's requirement must be fulfilled
-            // For example, [[zombie, blaze, skeleton]] means that one of those three categories must be achieved
-            // But [[zombie], [blaze], [skeleton]] means that all three requirements must be completed
-            for (List<String> requirements : advancement.getRequirements()) {
-                boolean requirementsDone = false;
-                for (String requirement : requirements) {
-                    Long obtained = progress.get(requirement);
-                    // -1 means that this particular component required for completing the advancement
-                    // has yet to be fulfilled
-                    if (obtained != null && !obtained.equals(-1L)) {
-                        requirementsDone = true;
-                        break;
-                    }
-                }
-                if (!requirementsDone) {
-                    return false;
-                }
-            }
-            earned = true;
-        }
-        return earned;
+        return advancement.isEarned(storedAdvancementProgress.get(advancement.getId()));
     }
 
     /**
@@ -223,16 +303,10 @@ public class AdvancementsCache {
 
         String id = "";
         if (formResponse != null && formResponse.getClickedButton() != null) {
-            int advancementIndex = 0;
-            for (Map.Entry<String, GeyserAdvancement> advancement : storedAdvancements.entrySet()) {
-                if (advancement.getValue().getParentId() == null) { // Root advancement
-                    if (advancementIndex == formResponse.getClickedButtonId()) {
-                        id = advancement.getKey();
-                        break;
-                    } else {
-                        advancementIndex++;
-                    }
-                }
+            buildFormIndex();
+            int advancementIndex = formResponse.getClickedButtonId();
+            if (advancementIndex >= 0 && advancementIndex < rootAdvancements.size()) {
+                id = rootAdvancements.get(advancementIndex).getId();
             }
         }
         if (!id.equals("")) {
@@ -264,18 +338,11 @@ public class AdvancementsCache {
 
         if (!listForm.isClosed() && formResponse != null && formResponse.getClickedButton() != null) {
             GeyserAdvancement advancement = null;
-            int advancementIndex = 0;
-            // Loop around to find the advancement that the client pressed
-            for (GeyserAdvancement advancementEntry : storedAdvancements.values()) {
-                if (advancementEntry.getParentId() != null &&
-                        currentAdvancementCategoryId.equals(advancementEntry.getRootId(this))) {
-                    if (advancementIndex == formResponse.getClickedButtonId()) {
-                        advancement = advancementEntry;
-                        break;
-                    } else {
-                        advancementIndex++;
-                    }
-                }
+            // The buttons are in the same order as the category, followed by the back button
+            List<GeyserAdvancement> category = getCategory(currentAdvancementCategoryId);
+            int advancementIndex = formResponse.getClickedButtonId();
+            if (advancementIndex >= 0 && advancementIndex < category.size()) {
+                advancement = category.get(advancementIndex);
             }
             if (advancement != null) {
                 session.sendForm(buildInfoForm(advancement), ADVANCEMENT_INFO_FORM_ID);
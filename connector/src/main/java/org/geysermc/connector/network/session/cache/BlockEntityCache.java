@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.mc.protocol.data.game.entity.metadata.Position;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.IntTag;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
+import org.geysermc.connector.utils.MathUtils;
+
+/**
+ * Remembers the Java block states at block entity positions, grouped by chunk so they are forgotten when the
+ * chunk unloads. Bedrock stores things in block entity tags that Java keeps in the block state (bed colors, skull
+ * rotation, piston state...), so translating a block entity needs its block state even when chunks aren't cached.
+ */
+public class BlockEntityCache {
+    /**
+     * Returned by {@link #get(int, int, int)} when the position isn't known
+     */
+    public static final int UNKNOWN = -1;
+
+    private final GeyserSession session;
+
+    /**
+     * Packed chunk position to packed block position to Java block state
+     */
+    private final Long2ObjectMap<Long2IntMap> chunks = new Long2ObjectOpenHashMap<>();
+
+    public BlockEntityCache(GeyserSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Records the block entities of a column received from the server. A full column replaces everything known
+     * about the chunk; a partial one replaces what was known about the sections it contains.
+     */
+    public synchronized void loadColumn(Column column) {
+        long chunkPosition = MathUtils.chunkPositionToLong(column.getX(), column.getZ());
+        Chunk[] sections = column.getChunks();
+        Long2IntMap blockEntities = chunks.get(chunkPosition);
+        if (blockEntities != null) {
+            if (column.getBiomeData() != null) {
+                blockEntities.clear();
+            } else {
+                blockEntities.keySet().removeIf(position -> {
+                    int sectionY = MathUtils.blockPositionY(position) >> 4;
+                    return sectionY >= 0 && sectionY < sections.length && sections[sectionY] != null;
+                });
+            }
+        }
+
+        for (CompoundTag tag : column.getTileEntities()) {
+            IntTag x = tag.get("x");
+            IntTag y = tag.get("y");
+            IntTag z = tag.get("z");
+            if (x == null || y == null || z == null) {
+                continue;
+            }
+            int sectionY = y.getValue() >> 4;
+            Chunk section = sectionY >= 0 && sectionY < sections.length ? sections[sectionY] : null;
+            int blockState = section == null ? BlockTranslator.JAVA_AIR_ID : section.get(x.getValue() & 0xF, y.getValue() & 0xF, z.getValue() & 0xF);
+            put(x.getValue(), y.getValue(), z.getValue(), blockState);
+        }
+    }
+
+    public synchronized void put(int x, int y, int z, int blockState) {
+        long chunkPosition = MathUtils.chunkPositionToLong(x >> 4, z >> 4);
+        Long2IntMap blockEntities = chunks.get(chunkPosition);
+        if (blockEntities == null) {
+            blockEntities = new Long2IntOpenHashMap();
+            blockEntities.defaultReturnValue(UNKNOWN);
+            chunks.put(chunkPosition, blockEntities);
+        }
+        blockEntities.put(MathUtils.blockPositionToLong(x, y, z), blockState);
+    }
+
+    /**
+     * Records the block state unless a newer one is already known, for block entities found while translating
+     * a chunk off the network thread
+     */
+    public synchronized void putIfAbsent(int x, int y, int z, int blockState) {
+        Long2IntMap blockEntities = chunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        if (blockEntities == null || !blockEntities.containsKey(MathUtils.blockPositionToLong(x, y, z))) {
+            put(x, y, z, blockState);
+        }
+    }
+
+    public synchronized void remove(int x, int y, int z) {
+        Long2IntMap blockEntities = chunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        if (blockEntities != null) {
+            blockEntities.remove(MathUtils.blockPositionToLong(x, y, z));
+        }
+    }
+
+    /**
+     * @return the recorded block state, or {@link #UNKNOWN}
+     */
+    public synchronized int get(int x, int y, int z) {
+        Long2IntMap blockEntities = chunks.get(MathUtils.chunkPositionToLong(x >> 4, z >> 4));
+        if (blockEntities == null) {
+            return UNKNOWN;
+        }
+        return blockEntities.get(MathUtils.blockPositionToLong(x, y, z));
+    }
+
+    /**
+     * @return the Java block state at this position, asking the world manager if it isn't recorded here
+     */
+    public int getBlockState(int x, int y, int z) {
+        int blockState = get(x, y, z);
+        if (blockState == UNKNOWN) {
+            return session.getConnector().getWorldManager().getBlockAt(session, x, y, z);
+        }
+        return blockState;
+    }
+
+    public int getBlockState(Position position) {
+        return getBlockState(position.getX(), position.getY(), position.getZ());
+    }
+
+    /**
+     * Forgets the chunk.
+     *
+     * @return packed block positions to block states of the chunk, or null if nothing was recorded
+     */
+    public synchronized Long2IntMap removeChunk(int chunkX, int chunkZ) {
+        return chunks.remove(MathUtils.chunkPositionToLong(chunkX, chunkZ));
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A Java chunk column as kept by the {@link ChunkCache}. Sections are stored as {@link CachedSection}s and biomes
+ * are stored in the smallest array that fits them.
+ *
+ * Everything here may be read from any thread without locking. Writes are serialised by the {@link ChunkCache},
+ * and every write bumps {@link #getVersion()} before and after so readers that need a consistent view of more
+ * than one block can check that nothing changed while they were reading.
+ */
+public final class CachedColumn {
+    public static final int SECTION_COUNT = 16;
+    private static final int BIOME_COUNT = 1024;
+
+    @Getter
+    private final int x;
+    @Getter
+    private final int z;
+    /**
+     * Null entries are sections the server has never sent
+     */
+    private final AtomicReferenceArray<CachedSection> sections = new AtomicReferenceArray<>(SECTION_COUNT);
+
+    /**
+     * Odd while a write is in progress
+     */
+    private volatile int version;
+
+    /**
+     * One of: null if there is no biome data, an {@link Integer} if the whole column is one biome,
+     * a byte[] if every biome ID fits into a byte, or the original int[]
+     */
+    private volatile Object biomes;
+
+    @Getter
+    private volatile CompoundTag[] tileEntities;
+
+    /**
+     * The object header and the section array
+     */
+    @Getter
+    private volatile long memoryUsage = 64 + 16 + 4 * SECTION_COUNT;
+
+    public CachedColumn(int x, int z) {
+        this.x = x;
+        this.z = z;
+    }
+
+    public CachedSection getSection(int sectionY) {
+        return sections.get(sectionY);
+    }
+
+    public void setSection(int sectionY, CachedSection section) {
+        CachedSection old = sections.get(sectionY);
+        sections.set(sectionY, section);
+        memoryUsage += (section == null ? 0 : section.getMemoryUsage()) - (old == null ? 0 : old.getMemoryUsage());
+    }
+
+    /**
+     * Changes a single block, replacing the section if it had to grow.
+     *
+     * @param index the YZX index of the block in the section
+     */
+    public void setBlock(int sectionY, int index, int state) {
+        CachedSection section = sections.get(sectionY);
+        if (section != null) {
+            beginWrite();
+            try {
+                CachedSection updated = section.set(index, state);
+                if (updated != section) {
+                    setSection(sectionY, updated);
+                }
+            } finally {
+                endWrite();
+            }
+        }
+    }
+
+    /**
+     * @return the write version; odd while a write is in progress
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    void beginWrite() {
+        version++; // Only ever written by the thread holding the cache lock
+    }
+
+    void endWrite() {
+        version++;
+    }
+
+    public void setTileEntities(CompoundTag[] tileEntities) {
+        memoryUsage += estimateTileEntities(tileEntities) - estimateTileEntities(this.tileEntities);
+        this.tileEntities = tileEntities;
+    }
+
+    public void setBiomeData(int[] biomeData) {
+        memoryUsage -= estimateBiomes();
+        if (biomeData == null || biomeData.length != BIOME_COUNT) {
+            this.biomes = biomeData;
+        } else {
+            int first = biomeData[0];
+            boolean single = true;
+            boolean fitsByte = true;
+            for (int biome : biomeData) {
+                single &= biome == first;
+                fitsByte &= (biome & ~0xFF) == 0;
+            }
+            if (single) {
+                this.biomes = first;
+            } else if (fitsByte) {
+                byte[] bytes = new byte[BIOME_COUNT];
+                for (int i = 0; i < BIOME_COUNT; i++) {
+                    bytes[i] = (byte) biomeData[i];
+                }
+                this.biomes = bytes;
+            } else {
+                this.biomes = biomeData.clone();
+            }
+        }
+        memoryUsage += estimateBiomes();
+    }
+
+    /**
+     * @return a new copy of the biome data, or null if the server has not sent any
+     */
+    public int[] getBiomeData() {
+        if (biomes == null) {
+            return null;
+        }
+        if (biomes instanceof int[]) {
+            return ((int[]) biomes).clone();
+        }
+        int[] biomeData = new int[BIOME_COUNT];
+        if (biomes instanceof Integer) {
+            Arrays.fill(biomeData, (Integer) biomes);
+        } else {
+            byte[] bytes = (byte[]) biomes;
+            for (int i = 0; i < BIOME_COUNT; i++) {
+                biomeData[i] = bytes[i] & 0xFF;
+            }
+        }
+        return biomeData;
+    }
+
+    private long estimateBiomes() {
+        if (biomes instanceof int[]) {
+            return 16 + 4L * ((int[]) biomes).length;
+        }
+        if (biomes instanceof byte[]) {
+            return 16 + BIOME_COUNT;
+        }
+        return biomes == null ? 0 : 16;
+    }
+
+    /**
+     * NBT is not worth walking for an estimate; block entities are a few hundred bytes each on average
+     */
+    private static long estimateTileEntities(CompoundTag[] tileEntities) {
+        return tileEntities == null ? 0 : 16 + 256L * tileEntities.length;
+    }
+}
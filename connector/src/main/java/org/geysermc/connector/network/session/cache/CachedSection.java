@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.BitStorage;
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.GlobalPalette;
+import com.github.steveice10.mc.protocol.data.game.chunk.palette.Palette;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A 16x16x16 section of Java block states, stored as compactly as possible: a single state if the section only
+ * contains one, otherwise palette indexes packed into a long array. Sections with more than 256 states store the
+ * states themselves.
+ *
+ * Indexes are in the Java YZX order, the same as {@link Chunk}.
+ *
+ * Sections may be read from any thread while one thread writes to them. Entries are a power of two bits wide and
+ * never span two longs, so a write is a single atomic store and readers always see either the old or the new
+ * state of a block. A write that needs a bigger palette returns a new section instead of changing this one.
+ * Writes must be serialised by the caller - {@link ChunkCache} does this.
+ */
+public final class CachedSection {
+    public static final int SIZE = 4096;
+
+    private static final int DIRECT_BITS = 16;
+    private static final int MAX_PALETTE_BITS = 8;
+
+    /**
+     * The block states of the section, or null if {@link #data} holds the states directly
+     */
+    private final int[] palette;
+    /**
+     * Palette indexes or states, or null if every block is {@link #singleState}
+     */
+    private final AtomicLongArray data;
+    private final int bitsPerEntry;
+    private final int singleState;
+
+    private CachedSection(int[] palette, long[] data, int bitsPerEntry, int singleState) {
+        this.palette = palette;
+        this.data = data == null ? null : new AtomicLongArray(data);
+        this.bitsPerEntry = bitsPerEntry;
+        this.singleState = singleState;
+    }
+
+    /**
+     * @param state the block state of every block in the section
+     * @return a section that only stores one state
+     */
+    public static CachedSection single(int state) {
+        return new CachedSection(null, null, 0, state);
+    }
+
+    /**
+     * @param chunk the section received from the Java server
+     * @return a compact copy of the section
+     */
+    public static CachedSection of(Chunk chunk) {
+        if (chunk.isEmpty()) {
+            return single(BlockTranslator.JAVA_AIR_ID);
+        }
+
+        Palette javaPalette = chunk.getPalette();
+        BitStorage javaData = chunk.getStorage();
+        if (javaPalette instanceof GlobalPalette) {
+            // Collect the states that are actually used; most sections use far fewer than the global palette allows
+            int[] states = new int[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                states[i] = javaData.get(i);
+            }
+            return of(states);
+        }
+
+        int[] palette = new int[javaPalette.size()];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = javaPalette.idToState(i);
+        }
+        if (palette.length == 1) {
+            return single(palette[0]);
+        }
+        int bits = bitsFor(palette.length);
+        long[] data = new long[dataLength(bits)];
+        for (int i = 0; i < SIZE; i++) {
+            write(data, bits, i, javaData.get(i));
+        }
+        return new CachedSection(palette, data, bits, 0);
+    }
+
+    /**
+     * @param states all block states of the section in YZX order
+     * @return a compact section with the given states
+     */
+    public static CachedSection of(int[] states) {
+        Int2IntMap indexes = new Int2IntOpenHashMap();
+        indexes.defaultReturnValue(-1);
+        IntList palette = new IntArrayList();
+        for (int state : states) {
+            if (indexes.putIfAbsent(state, palette.size()) == -1) {
+                palette.add(state);
+            }
+        }
+        if (palette.size() == 1) {
+            return single(palette.getInt(0));
+        }
+        if (palette.size() > 1 << MAX_PALETTE_BITS) {
+            long[] data = new long[dataLength(DIRECT_BITS)];
+            for (int i = 0; i < SIZE; i++) {
+                write(data, DIRECT_BITS, i, states[i]);
+            }
+            return new CachedSection(null, data, DIRECT_BITS, 0);
+        }
+        int bits = bitsFor(palette.size());
+        long[] data = new long[dataLength(bits)];
+        for (int i = 0; i < SIZE; i++) {
+            write(data, bits, i, indexes.get(states[i]));
+        }
+        return new CachedSection(palette.toIntArray(), data, bits, 0);
+    }
+
+    /**
+     * @param index the YZX index of the block
+     * @return the Java block state
+     */
+    public int get(int index) {
+        if (data == null) {
+            return singleState;
+        }
+        int bitIndex = index * bitsPerEntry;
+        int value = (int) ((data.get(bitIndex >> 6) >>> (bitIndex & 63)) & ((1L << bitsPerEntry) - 1));
+        return palette == null ? value : palette[value];
+    }
+
+    public int get(int x, int y, int z) {
+        return get(index(x, y, z));
+    }
+
+    /**
+     * @param index the YZX index of the block
+     * @param state the new Java block state
+     * @return the section with the block changed; this is a new section if the state did not fit into this one,
+     * which the caller has to publish in place of this one
+     */
+    public CachedSection set(int index, int state) {
+        if (data == null) {
+            if (state == singleState) {
+                return this;
+            }
+            return copyWith(index, state);
+        }
+
+        if (palette == null) {
+            writeInPlace(index, state);
+            return this;
+        }
+        for (int i = 0; i < palette.length; i++) {
+            if (palette[i] == state) {
+                writeInPlace(index, i);
+                return this;
+            }
+        }
+        return copyWith(index, state);
+    }
+
+    private void writeInPlace(int index, int value) {
+        int bitIndex = index * bitsPerEntry;
+        int cell = bitIndex >> 6;
+        int shift = bitIndex & 63;
+        long mask = ((1L << bitsPerEntry) - 1) << shift;
+        // Only one thread writes, so there is no need to compare-and-set
+        data.set(cell, (data.get(cell) & ~mask) | (((long) value << shift) & mask));
+    }
+
+    private CachedSection copyWith(int index, int state) {
+        int[] states = toStates();
+        states[index] = state;
+        return of(states);
+    }
+
+    /**
+     * @return every block state in YZX order
+     */
+    public int[] toStates() {
+        int[] states = new int[SIZE];
+        if (data == null) {
+            Arrays.fill(states, singleState);
+            return states;
+        }
+        for (int i = 0; i < SIZE; i++) {
+            states[i] = get(i);
+        }
+        return states;
+    }
+
+    /**
+     * @return a Java section with the same blocks, for code that needs MCProtocolLib's representation
+     */
+    public Chunk toChunk() {
+        Chunk chunk = new Chunk();
+        if (data == null && singleState == BlockTranslator.JAVA_AIR_ID) {
+            return chunk;
+        }
+        for (int i = 0; i < SIZE; i++) {
+            chunk.set(i & 0xF, (i >> 8) & 0xF, (i >> 4) & 0xF, get(i));
+        }
+        return chunk;
+    }
+
+    /**
+     * @return if the section only contains air
+     */
+    public boolean isEmpty() {
+        return data == null && singleState == BlockTranslator.JAVA_AIR_ID;
+    }
+
+    /**
+     * @return the approximate heap size of this section in bytes
+     */
+    public long getMemoryUsage() {
+        long size = 32;
+        if (palette != null) {
+            size += 16 + 4L * palette.length;
+        }
+        if (data != null) {
+            size += 32 + 8L * data.length();
+        }
+        return size;
+    }
+
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    /**
+     * Entries never span two longs and are powers of two wide, so finding one is a shift and a mask
+     */
+    private static int bitsFor(int paletteSize) {
+        int bits = 1;
+        while ((1 << bits) < paletteSize) {
+            bits <<= 1;
+        }
+        return bits;
+    }
+
+    private static int dataLength(int bits) {
+        return SIZE * bits / 64;
+    }
+
+    private static void write(long[] data, int bits, int index, int value) {
+        int bitIndex = index * bits;
+        int cell = bitIndex >> 6;
+        int shift = bitIndex & 63;
+        long mask = ((1L << bits) - 1) << shift;
+        data[cell] = (data[cell] & ~mask) | (((long) value << shift) & mask);
+    }
+}
@@ -23,99 +23,416 @@
  * @link https://github.com/GeyserMC/Geyser
  */
 
+
 package org.geysermc.connector.network.session.cache;
 
 import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
 import com.github.steveice10.mc.protocol.data.game.chunk.Column;
-import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.IntTag;
+import com.nukkitx.math.vector.Vector2i;
+import com.nukkitx.math.vector.Vector3f;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.Getter;
 import org.geysermc.connector.bootstrap.GeyserBootstrap;
+import org.geysermc.connector.configuration.GeyserConfiguration;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.connector.utils.MathUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the Java chunks of a session so that collision, pistons and similar can look up blocks.
+ *
+ * Sections are stored compactly (see {@link CachedSection}), and the cache is bounded by the
+ * {@code chunk-cache-limits} config: when a session or all sessions together use more than allowed,
+ * the columns furthest away from the player are dropped first.
+ *
+ * The cache is written from the downstream thread and read from chunk translation, collision and pistons.
+ * Writers take the cache's lock; readers never lock. Columns are stored in a {@link ColumnTable}, sections are
+ * replaced rather than resized in place, and every write to a column bumps its version, so readers see each
+ * block either before or after a write and can detect writes that happened during a multi-block read.
+ */
 public class ChunkCache {
+    /**
+     * Memory used by the chunk caches of all sessions
+     */
+    private static final AtomicLong TOTAL_MEMORY_USAGE = new AtomicLong();
+    /**
+     * Evict down to this fraction of the budget so we don't evict again on the next chunk
+     */
+    private static final double EVICTION_TARGET = 0.9;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    /**
+     * How many times {@link #copySection(int, int, int, Chunk)} retries when the section changes while copying
+     */
+    private static final int MAX_COPY_ATTEMPTS = 4;
 
+    private final GeyserSession session;
     private final boolean cache;
+    private final long sessionBudget;
+    private final long totalBudget;
+
+    private final ColumnTable chunks = new ColumnTable();
 
-    private final Long2ObjectMap<Column> chunks = new Long2ObjectOpenHashMap<>();
+    /**
+     * The player's chunk and render distance when eviction last failed to get under the budget, or
+     * {@link Long#MIN_VALUE}. Only accessed while holding the lock.
+     */
+    private long blockedEvictionKey = Long.MIN_VALUE;
+
+    /**
+     * The approximate amount of heap this cache uses, in bytes
+     */
+    @Getter
+    private volatile long memoryUsage;
 
     public ChunkCache(GeyserSession session) {
+        this(session, isCacheEnabled(session), session.getConnector().getConfig().getChunkCacheLimits());
+    }
+
+    ChunkCache(GeyserSession session, boolean cache, GeyserConfiguration.IChunkCacheLimitsInfo limits) {
+        this.session = session;
+        this.cache = cache;
+        this.sessionBudget = Math.max(0, limits.getSessionMegabytes()) * BYTES_PER_MEGABYTE;
+        this.totalBudget = Math.max(0, limits.getTotalMegabytes()) * BYTES_PER_MEGABYTE;
+    }
+
+    private static boolean isCacheEnabled(GeyserSession session) {
         if (session.getConnector().getWorldManager().getClass() == GeyserBootstrap.DEFAULT_CHUNK_MANAGER.getClass()) {
-            this.cache = session.getConnector().getConfig().isCacheChunks();
-        } else {
-            this.cache = false; // To prevent Spigot from initializing
+            return session.getConnector().getConfig().isCacheChunks();
         }
+        return false; // To prevent Spigot from initializing
+    }
+
+    /**
+     * @return the memory used by the chunk caches of all sessions, in bytes
+     */
+    public static long getTotalMemoryUsage() {
+        return TOTAL_MEMORY_USAGE.get();
     }
 
-    public Column addToCache(Column chunk) {
+    /**
+     * Stores the column, merging it into the cached column if it is not a full chunk.
+     *
+     * @param chunk the column received from the server
+     * @return the column to translate, or null if nothing changed
+     */
+    public synchronized Column addToCache(Column chunk) {
         if (!cache) {
             return chunk;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(chunk.getX(), chunk.getZ());
-        Column existingChunk;
+        CachedColumn existingColumn;
         if (chunk.getBiomeData() == null // Only consider merging columns if the new chunk isn't a full chunk
-            && (existingChunk = chunks.getOrDefault(chunkPosition, null)) != null) { // Column is already present in cache, we can merge with existing
-            boolean changed = false;
-            for (int i = 0; i < chunk.getChunks().length; i++) { // The chunks member is final, so chunk.getChunks() will probably be inlined and then completely optimized away
-                if (chunk.getChunks()[i] != null) {
-                    existingChunk.getChunks()[i] = chunk.getChunks()[i];
-                    changed = true;
+                && (existingColumn = chunks.get(chunkPosition)) != null) { // Column is already present in cache, we can merge with existing
+            return merge(existingColumn, chunk);
+        }
+
+        CachedColumn column = new CachedColumn(chunk.getX(), chunk.getZ());
+        Chunk[] sections = chunk.getChunks();
+        for (int i = 0; i < sections.length; i++) {
+            if (sections[i] != null) {
+                column.setSection(i, CachedSection.of(sections[i]));
+            }
+        }
+        column.setBiomeData(chunk.getBiomeData());
+        column.setTileEntities(chunk.getTileEntities());
+
+        CachedColumn old = chunks.put(chunkPosition, column);
+        addMemoryUsage(column.getMemoryUsage() - (old == null ? 0 : old.getMemoryUsage()));
+        evictIfNeeded();
+        // The packet's own column already has everything the translator needs
+        return chunk;
+    }
+
+    /**
+     * Merges a non-full chunk into the cached column.
+     *
+     * @return a complete column to translate, or null if the chunk contained no sections
+     */
+    private Column merge(CachedColumn column, Column chunk) {
+        Chunk[] newSections = chunk.getChunks();
+        Chunk[] mergedSections = new Chunk[CachedColumn.SECTION_COUNT];
+        boolean changed = false;
+        for (int i = 0; i < newSections.length; i++) {
+            if (newSections[i] != null) {
+                mergedSections[i] = newSections[i];
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return null;
+        }
+
+        // Block entities in the resent sections are replaced by the ones in this packet
+        List<CompoundTag> tileEntities = new ArrayList<>();
+        if (column.getTileEntities() != null) {
+            for (CompoundTag tag : column.getTileEntities()) {
+                IntTag y = tag.get("y");
+                int sectionY = y == null ? -1 : y.getValue() >> 4;
+                if (sectionY < 0 || sectionY >= newSections.length || newSections[sectionY] == null) {
+                    tileEntities.add(tag);
+                }
+            }
+        }
+        for (CompoundTag tag : chunk.getTileEntities()) {
+            tileEntities.add(tag);
+        }
+        CompoundTag[] mergedTileEntities = tileEntities.toArray(new CompoundTag[0]);
+
+        long before = column.getMemoryUsage();
+        column.beginWrite();
+        try {
+            for (int i = 0; i < newSections.length; i++) {
+                if (newSections[i] != null) {
+                    column.setSection(i, CachedSection.of(newSections[i]));
+                }
+            }
+            column.setTileEntities(mergedTileEntities);
+        } finally {
+            column.endWrite();
+        }
+        addMemoryUsage(column.getMemoryUsage() - before);
+
+        // The rest of the column has to be translated too, so expand the sections that weren't resent
+        for (int i = 0; i < mergedSections.length; i++) {
+            if (mergedSections[i] == null) {
+                CachedSection section = column.getSection(i);
+                if (section != null) {
+                    mergedSections[i] = section.toChunk();
                 }
             }
-            return changed ? existingChunk : null;
-        } else {
-            chunks.put(chunkPosition, chunk);
-            return chunk;
         }
+        return new Column(column.getX(), column.getZ(), mergedSections, mergedTileEntities, chunk.getHeightMaps(), column.getBiomeData());
     }
 
-    public Column getChunk(int chunkX, int chunkZ)  {
+    public CachedColumn getChunk(int chunkX, int chunkZ)  {
         long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        return chunks.getOrDefault(chunkPosition, null);
+        return chunks.get(chunkPosition);
     }
 
-    public void updateBlock(int x, int y, int z, int block) {
-        if (!cache) {
+    public synchronized void updateBlock(int x, int y, int z, int block) {
+        if (!cache || y < 0 || y >> 4 >= CachedColumn.SECTION_COUNT) {
             return;
         }
 
-        Column column = this.getChunk(x >> 4, z >> 4);
+        CachedColumn column = this.getChunk(x >> 4, z >> 4);
         if (column == null) {
             return;
         }
 
-        Chunk chunk = column.getChunks()[y >> 4];
-        if (chunk != null) {
-            chunk.set(x & 0xF, y & 0xF, z & 0xF, block);
-        }
+        long before = column.getMemoryUsage();
+        column.setBlock(y >> 4, CachedSection.index(x & 0xF, y & 0xF, z & 0xF), block);
+        addMemoryUsage(column.getMemoryUsage() - before);
     }
 
     public int getBlockAt(int x, int y, int z) {
-        if (!cache) {
+        if (!cache || y < 0 || y >> 4 >= CachedColumn.SECTION_COUNT) {
             return BlockTranslator.JAVA_AIR_ID;
         }
 
-        Column column = this.getChunk(x >> 4, z >> 4);
+        CachedColumn column = this.getChunk(x >> 4, z >> 4);
         if (column == null) {
             return BlockTranslator.JAVA_AIR_ID;
         }
 
-        Chunk chunk = column.getChunks()[y >> 4];
-        if (chunk != null) {
-            return chunk.get(x & 0xF, y & 0xF, z & 0xF);
+        CachedSection section = column.getSection(y >> 4);
+        if (section != null) {
+            return section.get(x & 0xF, y & 0xF, z & 0xF);
         }
 
         return BlockTranslator.JAVA_AIR_ID;
     }
 
-    public void removeChunk(int chunkX, int chunkZ) {
+    /**
+     * @param chunkX the chunk X
+     * @param sectionY the section Y, 0-15
+     * @param chunkZ the chunk Z
+     * @param chunk the section to copy the cached block states into
+     * @return false if the section isn't cached
+     */
+    public boolean copySection(int chunkX, int sectionY, int chunkZ, Chunk chunk) {
+        CachedColumn column;
+        if (!cache || sectionY < 0 || sectionY >= CachedColumn.SECTION_COUNT || (column = getChunk(chunkX, chunkZ)) == null) {
+            return false;
+        }
+
+        // Retry if the column was written to while copying, so the copy isn't half old and half new.
+        // If the server keeps changing it, settle for a copy where each block is valid on its own.
+        for (int attempt = 1; ; attempt++) {
+            int version = column.getVersion();
+            CachedSection section = column.getSection(sectionY);
+            if (section == null) {
+                return false;
+            }
+            for (int i = 0; i < CachedSection.SIZE; i++) { // YZX - the same order as the section itself
+                chunk.set(i & 0xF, (i >> 8) & 0xF, (i >> 4) & 0xF, section.get(i));
+            }
+            if (((version & 1) == 0 && version == column.getVersion()) || attempt >= MAX_COPY_ATTEMPTS) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Copies a box of block states, looking up each column and section once instead of once per block.
+     * See {@link org.geysermc.connector.network.translators.world.WorldManager#getBlocksInRegion} for the layout.
+     * Like {@link #getBlockAt(int, int, int)}, blocks that aren't cached are air.
+     */
+    public void copyRegion(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockTranslator.JAVA_AIR_ID);
+        if (!cache) {
+            return;
+        }
+
+        int maxX = minX + sizeX - 1;
+        int maxZ = minZ + sizeZ - 1;
+        int fromY = Math.max(minY, 0);
+        int toY = Math.min(minY + sizeY - 1, (CachedColumn.SECTION_COUNT << 4) - 1);
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                CachedColumn column = getChunk(chunkX, chunkZ);
+                if (column == null) {
+                    continue;
+                }
+                int fromX = Math.max(minX, chunkX << 4);
+                int toX = Math.min(maxX, (chunkX << 4) + 15);
+                int fromZ = Math.max(minZ, chunkZ << 4);
+                int toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                int sectionY = -1;
+                CachedSection section = null;
+                for (int y = fromY; y <= toY; y++) {
+                    if (y >> 4 != sectionY) {
+                        sectionY = y >> 4;
+                        section = column.getSection(sectionY);
+                    }
+                    if (section == null) {
+                        continue;
+                    }
+                    for (int z = fromZ; z <= toZ; z++) {
+                        int index = ((y - minY) * sizeZ + (z - minZ)) * sizeX + (fromX - minX);
+                        for (int x = fromX; x <= toX; x++) {
+                            blocks[index++] = section.get(x & 0xF, y & 0xF, z & 0xF);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the biome data of the column, or null if the column isn't cached
+     */
+    public int[] getBiomeData(int chunkX, int chunkZ) {
+        CachedColumn column = getChunk(chunkX, chunkZ);
+        return column == null ? null : column.getBiomeData();
+    }
+
+    public synchronized void removeChunk(int chunkX, int chunkZ) {
         if (!cache) {
             return;
         }
 
         long chunkPosition = MathUtils.chunkPositionToLong(chunkX, chunkZ);
-        chunks.remove(chunkPosition);
+        CachedColumn column = chunks.remove(chunkPosition);
+        if (column != null) {
+            addMemoryUsage(-column.getMemoryUsage());
+        }
+    }
+
+    /**
+     * Drops every cached column, e.g. on a dimension change or when the session closes
+     */
+    public synchronized void clear() {
+        chunks.clear();
+        addMemoryUsage(-memoryUsage);
+        blockedEvictionKey = Long.MIN_VALUE;
+    }
+
+    /**
+     * Only called while holding the lock
+     */
+    private void addMemoryUsage(long delta) {
+        memoryUsage += delta;
+        TOTAL_MEMORY_USAGE.addAndGet(delta);
+    }
+
+    private void evictIfNeeded() {
+        boolean overSession = sessionBudget > 0 && memoryUsage > sessionBudget;
+        boolean overTotal = totalBudget > 0 && TOTAL_MEMORY_USAGE.get() > totalBudget;
+        if (!overSession && !overTotal) {
+            return;
+        }
+
+        long target = Long.MAX_VALUE;
+        if (overSession) {
+            target = (long) (sessionBudget * EVICTION_TARGET);
+        }
+        if (overTotal) {
+            // Only take from sessions using more than their share so one player can't starve the rest
+            long fairShare = totalBudget / Math.max(1, session.getConnector().getPlayers().size());
+            if (memoryUsage > fairShare) {
+                target = Math.min(target, (long) (fairShare * EVICTION_TARGET));
+            }
+        }
+        if (memoryUsage <= target) {
+            return;
+        }
+
+        int centerX;
+        int centerZ;
+        Vector2i lastChunkPosition = session.getLastChunkPosition();
+        if (lastChunkPosition != null) {
+            centerX = lastChunkPosition.getX();
+            centerZ = lastChunkPosition.getY();
+        } else {
+            Vector3f position = session.getPlayerEntity().getPosition();
+            centerX = position.getFloorX() >> 4;
+            centerZ = position.getFloorZ() >> 4;
+        }
+        int renderDistance = session.getRenderDistance();
+        long evictionKey = ((centerX & 0xFFFFFFL) << 40) | ((centerZ & 0xFFFFFFL) << 16) | (renderDistance & 0xFFFFL);
+        if (evictionKey == blockedEvictionKey) {
+            // The player hasn't moved since eviction last failed to get under the budget, so no more columns could go
+            return;
+        }
+
+        // Columns the player can see are never evicted, as the server won't send them again. Of the rest, sort by
+        // distance from the player, furthest first; the distance is packed above the position so that a single
+        // primitive sort is enough
+        LongArrayList candidates = new LongArrayList();
+        for (CachedColumn column : chunks.values()) {
+            int distance = Math.max(Math.abs(column.getX() - centerX), Math.abs(column.getZ() - centerZ));
+            if (distance > renderDistance) {
+                candidates.add(((long) Math.min(distance, 0x7FFF) << 48) | ((column.getX() & 0xFFFFFFL) << 24) | (column.getZ() & 0xFFFFFFL));
+            }
+        }
+        candidates.sort(null);
+
+        for (int i = candidates.size() - 1; i >= 0 && memoryUsage > target; i--) {
+            CachedColumn column = findColumn(candidates.getLong(i));
+            if (column != null) {
+                removeChunk(column.getX(), column.getZ());
+            }
+        }
+
+        // If the columns in view alone are over the budget, don't scan again on every chunk until the player moves
+        // to another chunk or changes their render distance
+        blockedEvictionKey = memoryUsage > target ? evictionKey : Long.MIN_VALUE;
+    }
+
+    /**
+     * Candidates keep 24 bits of each chunk coordinate, which covers the whole world border
+     */
+    private CachedColumn findColumn(long candidate) {
+        int x = (int) (candidate << 16 >> 40);
+        int z = (int) (candidate << 40 >> 40);
+        return getChunk(x, z);
     }
 }
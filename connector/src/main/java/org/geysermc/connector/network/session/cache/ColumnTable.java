@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A map from packed chunk positions to columns that can be read without locking while one thread writes to it.
+ *
+ * Buckets are chains of immutable nodes. Writers build a new chain and publish it with a single store, and
+ * resizing builds a whole new table before publishing it, so readers always walk a complete chain and never
+ * see a half-resized table. Writes must be serialised by the caller.
+ */
+final class ColumnTable {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private volatile AtomicReferenceArray<Node> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    private int size;
+
+    CachedColumn get(long key) {
+        AtomicReferenceArray<Node> table = this.table;
+        for (Node node = table.get(bucket(key, table.length())); node != null; node = node.next) {
+            if (node.key == key) {
+                return node.column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the column previously stored at this position, or null
+     */
+    CachedColumn put(long key, CachedColumn column) {
+        AtomicReferenceArray<Node> table = this.table;
+        int bucket = bucket(key, table.length());
+        Node head = table.get(bucket);
+        CachedColumn old = find(head, key);
+        table.set(bucket, new Node(key, column, old == null ? head : without(head, key)));
+        if (old == null && ++size > table.length() * LOAD_FACTOR) {
+            resize(table);
+        }
+        return old;
+    }
+
+    /**
+     * @return the removed column, or null if there was none
+     */
+    CachedColumn remove(long key) {
+        AtomicReferenceArray<Node> table = this.table;
+        int bucket = bucket(key, table.length());
+        Node head = table.get(bucket);
+        CachedColumn old = find(head, key);
+        if (old != null) {
+            table.set(bucket, without(head, key));
+            size--;
+        }
+        return old;
+    }
+
+    void clear() {
+        table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the columns at the time of the call
+     */
+    List<CachedColumn> values() {
+        AtomicReferenceArray<Node> table = this.table;
+        List<CachedColumn> values = new ArrayList<>(size);
+        for (int i = 0; i < table.length(); i++) {
+            for (Node node = table.get(i); node != null; node = node.next) {
+                values.add(node.column);
+            }
+        }
+        return values;
+    }
+
+    private void resize(AtomicReferenceArray<Node> oldTable) {
+        AtomicReferenceArray<Node> newTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Node node = oldTable.get(i); node != null; node = node.next) {
+                int bucket = bucket(node.key, newTable.length());
+                newTable.set(bucket, new Node(node.key, node.column, newTable.get(bucket)));
+            }
+        }
+        this.table = newTable;
+    }
+
+    private static CachedColumn find(Node head, long key) {
+        for (Node node = head; node != null; node = node.next) {
+            if (node.key == key) {
+                return node.column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Copies the chain up to the node with the key, sharing everything after it
+     */
+    private static Node without(Node head, long key) {
+        if (head.key == key) {
+            return head.next;
+        }
+        return new Node(head.key, head.column, without(head.next, key));
+    }
+
+    private static int bucket(long key, int length) {
+        return (int) HashCommon.mix(key) & (length - 1);
+    }
+
+    private static final class Node {
+        private final long key;
+        private final CachedColumn column;
+        private final Node next;
+
+        private Node(long key, CachedColumn column, Node next) {
+            this.key = key;
+            this.column = column;
+            this.next = next;
+        }
+    }
+}
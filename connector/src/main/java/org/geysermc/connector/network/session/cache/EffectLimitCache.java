@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+package org.geysermc.connector.network.session.cache;
+
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.protocol.bedrock.BedrockPacket;
+import com.nukkitx.protocol.bedrock.packet.LevelEventPacket;
+import com.nukkitx.protocol.bedrock.packet.LevelSoundEventPacket;
+import com.nukkitx.protocol.bedrock.packet.PlaySoundPacket;
+import com.nukkitx.protocol.bedrock.packet.SpawnParticleEffectPacket;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.geysermc.connector.network.session.GeyserSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies a per-tick budget to the particles, sounds and level effects sent to a Bedrock client.
+ * Effects are sent right away while the budget lasts. Effects over the budget wait for the next tick, where
+ * the nearest are sent and the rest dropped. Identical particles close to each other are merged and
+ * everything outside of the player's view distance is dropped.
+ */
+public class EffectLimitCache {
+    /**
+     * Totals across all sessions
+     */
+    @Getter
+    private static final LongAdder totalMergedParticles = new LongAdder();
+    @Getter
+    private static final LongAdder totalDroppedParticles = new LongAdder();
+    @Getter
+    private static final LongAdder totalDroppedSounds = new LongAdder();
+    @Getter
+    private static final LongAdder totalCulledEffects = new LongAdder();
+
+    private static final Comparator<PendingEffect> BY_DISTANCE = Comparator.comparingDouble(PendingEffect::getDistanceSquared);
+
+    private final GeyserSession session;
+
+    private final boolean enabled;
+    private final int maxParticlesPerTick;
+    private final double particleMergeDistance;
+    private final int maxSoundsPerTick;
+    private final boolean cullOutsideViewDistance;
+
+    /**
+     * Effects sent this tick. Effects are sent right away until the budget is used up.
+     */
+    private int sentParticles = 0;
+    private int sentSounds = 0;
+    /**
+     * Effects over the budget, waiting for the next tick
+     */
+    private List<PendingEffect> pendingParticles = new ArrayList<>();
+    private List<PendingEffect> pendingSounds = new ArrayList<>();
+    private final Set<ParticleKey> particleKeys = new ObjectOpenHashSet<>();
+
+    @Getter
+    private long mergedParticles = 0;
+    @Getter
+    private long droppedParticles = 0;
+    @Getter
+    private long droppedSounds = 0;
+    @Getter
+    private long culledEffects = 0;
+
+    public EffectLimitCache(GeyserSession session) {
+        this.session = session;
+
+        GeyserConfiguration.IEffectLimitsInfo config = session.getConnector().getConfig().getEffectLimits();
+        this.enabled = config.isEnabled();
+        this.maxParticlesPerTick = config.getMaxParticlesPerTick();
+        this.particleMergeDistance = config.getParticleMergeDistance();
+        this.maxSoundsPerTick = config.getMaxSoundsPerTick();
+        this.cullOutsideViewDistance = config.isCullOutsideViewDistance();
+    }
+
+    public void sendParticle(LevelEventPacket packet) {
+        queueParticle(packet, packet.getType(), packet.getData(), packet.getPosition());
+    }
+
+    public void sendParticle(SpawnParticleEffectPacket packet) {
+        queueParticle(packet, packet.getIdentifier(), 0, packet.getPosition());
+    }
+
+    public void sendSound(LevelSoundEventPacket packet) {
+        queueSound(packet, packet.getPosition());
+    }
+
+    public void sendSound(PlaySoundPacket packet) {
+        queueSound(packet, packet.getPosition());
+    }
+
+    /**
+     * Send a level event that is only a sound, such as door and dispenser sounds.
+     *
+     * @param packet the level event packet
+     */
+    public void sendSound(LevelEventPacket packet) {
+        queueSound(packet, packet.getPosition());
+    }
+
+    /**
+     * Starts a new tick: the effects that were over the budget last tick are sent, nearest first, as far as
+     * this tick's budget allows, and the rest are dropped.
+     */
+    public void tick() {
+        List<PendingEffect> particles;
+        List<PendingEffect> sounds;
+        synchronized (this) {
+            particleKeys.clear();
+            particles = pendingParticles;
+            sounds = pendingSounds;
+            if (particles.isEmpty() && sounds.isEmpty()) {
+                sentParticles = 0;
+                sentSounds = 0;
+                return;
+            }
+            pendingParticles = new ArrayList<>();
+            pendingSounds = new ArrayList<>();
+
+            int particlesOverBudget = trimToBudget(particles, maxParticlesPerTick);
+            droppedParticles += particlesOverBudget;
+            totalDroppedParticles.add(particlesOverBudget);
+            sentParticles = particles.size();
+
+            int soundsOverBudget = trimToBudget(sounds, maxSoundsPerTick);
+            droppedSounds += soundsOverBudget;
+            totalDroppedSounds.add(soundsOverBudget);
+            sentSounds = sounds.size();
+        }
+
+        for (PendingEffect particle : particles) {
+            session.sendUpstreamPacket(particle.getPacket());
+        }
+        for (PendingEffect sound : sounds) {
+            session.sendUpstreamPacket(sound.getPacket());
+        }
+    }
+
+    /**
+     * Forgets the effects over the budget, so they aren't sent in another dimension.
+     */
+    public synchronized void clear() {
+        pendingParticles.clear();
+        pendingSounds.clear();
+        particleKeys.clear();
+    }
+
+    private void queueParticle(BedrockPacket packet, Object type, int data, Vector3f position) {
+        if (!enabled) {
+            session.sendUpstreamPacket(packet);
+            return;
+        }
+
+        double distanceSquared = distanceSquaredToPlayer(position);
+        synchronized (this) {
+            if (isOutsideViewDistance(distanceSquared)) {
+                culledEffects++;
+                totalCulledEffects.increment();
+                return;
+            }
+
+            if (!particleKeys.add(ParticleKey.of(type, data, position, particleMergeDistance))) {
+                // An identical particle has already been sent close to here this tick
+                mergedParticles++;
+                totalMergedParticles.increment();
+                return;
+            }
+            if (sentParticles >= maxParticlesPerTick) {
+                // Over the budget; decided on the next tick
+                pendingParticles.add(new PendingEffect(packet, distanceSquared));
+                return;
+            }
+            sentParticles++;
+        }
+        session.sendUpstreamPacket(packet);
+    }
+
+    private void queueSound(BedrockPacket packet, Vector3f position) {
+        if (!enabled) {
+            session.sendUpstreamPacket(packet);
+            return;
+        }
+
+        double distanceSquared = distanceSquaredToPlayer(position);
+        synchronized (this) {
+            if (isOutsideViewDistance(distanceSquared)) {
+                culledEffects++;
+                totalCulledEffects.increment();
+                return;
+            }
+            if (sentSounds >= maxSoundsPerTick) {
+                // Over the budget; decided on the next tick
+                pendingSounds.add(new PendingEffect(packet, distanceSquared));
+                return;
+            }
+            sentSounds++;
+        }
+        session.sendUpstreamPacket(packet);
+    }
+
+    /**
+     * Keeps only the nearest effects if there are more than the budget allows.
+     *
+     * @return the amount of effects removed
+     */
+    private static int trimToBudget(List<PendingEffect> effects, int budget) {
+        int overBudget = effects.size() - Math.max(budget, 0);
+        if (overBudget <= 0) {
+            return 0;
+        }
+        effects.sort(BY_DISTANCE);
+        effects.subList(effects.size() - overBudget, effects.size()).clear();
+        return overBudget;
+    }
+
+    private double distanceSquaredToPlayer(Vector3f position) {
+        if (position == null) {
+            return 0;
+        }
+        return session.getPlayerEntity().getPosition().distanceSquared(position);
+    }
+
+    private boolean isOutsideViewDistance(double distanceSquared) {
+        if (!cullOutsideViewDistance || session.getRenderDistance() <= 0) {
+            return false;
+        }
+        double viewDistance = session.getRenderDistance() << 4;
+        return distanceSquared > viewDistance * viewDistance;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingEffect {
+        private final BedrockPacket packet;
+        private final double distanceSquared;
+    }
+
+    @Value
+    private static class ParticleKey {
+        Object type;
+        int data;
+        long x;
+        long y;
+        long z;
+
+        static ParticleKey of(Object type, int data, Vector3f position, double mergeDistance) {
+            if (position == null) {
+                return new ParticleKey(type, data, 0, 0, 0);
+            }
+            if (mergeDistance <= 0) {
+                // Only merge particles at the exact same position
+                return new ParticleKey(type, data, Float.floatToIntBits(position.getX()),
+                        Float.floatToIntBits(position.getY()), Float.floatToIntBits(position.getZ()));
+            }
+            return new ParticleKey(type, data, (long) Math.floor(position.getX() / mergeDistance),
+                    (long) Math.floor(position.getY() / mergeDistance), (long) Math.floor(position.getZ() / mergeDistance));
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.auth.data.GameProfile;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import com.github.steveice10.opennbt.tag.builtin.ListTag;
+import com.github.steveice10.opennbt.tag.builtin.Tag;
+import com.nukkitx.math.vector.Vector3f;
+import com.nukkitx.math.vector.Vector3i;
+import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
+import lombok.Getter;
+import org.geysermc.connector.entity.player.SkullPlayerEntity;
+import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.world.block.BlockStateValues;
+import org.geysermc.connector.network.translators.world.block.entity.SkullBlockEntityTranslator;
+import org.geysermc.connector.skin.SkullSkinManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the custom player heads around the player. Every custom head has to be shown as a fake player
+ * entity with its own skin, so only the nearest ones - up to {@code max-visible-custom-skulls} - are spawned.
+ * As the player moves, heads that fall out of that set are despawned and closer ones are spawned in their place.
+ *
+ * Heads with the same owner share one profile lookup, and skin textures are only downloaded and converted once.
+ */
+public class SkullCache {
+    /**
+     * How far the player has to move before the visible heads are recalculated
+     */
+    private static final float UPDATE_DISTANCE_SQUARED = 4 * 4;
+    /**
+     * Spreads spawning a chunk full of heads over a few ticks; the nearest ones always go first
+     */
+    private static final int MAX_SPAWNS_PER_TICK = 16;
+
+    private final GeyserSession session;
+    private final int maxVisibleSkulls;
+
+    private final Map<Vector3i, Skull> skulls = new ConcurrentHashMap<>();
+    /**
+     * Profile lookups by owner, so a build with hundreds of copies of one head only resolves it once
+     */
+    private final Map<String, CompletableFuture<GameProfile>> profiles = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+    private Vector3f lastUpdatePosition;
+    @Getter
+    private int visibleSkulls;
+
+    public SkullCache(GeyserSession session) {
+        this.session = session;
+        int max = session.getConnector().getConfig().getMaxVisibleCustomSkulls();
+        this.maxVisibleSkulls = max < 0 ? Integer.MAX_VALUE : max;
+    }
+
+    /**
+     * Registers a custom head from a block entity tag. It is spawned on a later tick if it is close enough.
+     *
+     * @param tag the skull block entity tag, which has to contain a SkullOwner
+     * @param blockState the Java block state of the head
+     */
+    public void putSkull(CompoundTag tag, int blockState) {
+        Vector3i position = Vector3i.from((int) tag.get("x").getValue(), (int) tag.get("y").getValue(), (int) tag.get("z").getValue());
+        Skull skull = new Skull(position, blockState);
+        removeSkull(position); // Ensure that two skulls can't spawn on the same point
+        skulls.put(position, skull);
+
+        String owner = getOwnerKey(tag);
+        CompletableFuture<GameProfile> profile = owner == null ? SkullBlockEntityTranslator.getProfile(tag)
+                : profiles.computeIfAbsent(owner, key -> SkullBlockEntityTranslator.getProfile(tag));
+        profile.whenComplete((gameProfile, throwable) -> {
+            if (gameProfile == null) {
+                session.getConnector().getLogger().debug("Custom skull with invalid SkullOwner tag: " + position + " " + tag);
+                skulls.remove(position, skull);
+                return;
+            }
+            skull.profile = gameProfile;
+            dirty = true;
+        });
+    }
+
+    /**
+     * Forgets the head at this position and despawns it if it is visible
+     */
+    public synchronized void removeSkull(Vector3i position) {
+        Skull skull = skulls.remove(position);
+        if (skull != null) {
+            despawn(skull);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes the head at this position if the block changed into something else
+     */
+    public void updateBlock(Vector3i position, int blockState) {
+        Skull skull = skulls.get(position);
+        if (skull != null && skull.blockState != blockState) {
+            removeSkull(position);
+        }
+    }
+
+    /**
+     * Updates which heads are visible if the player moved far enough or heads were added or removed.
+     * Called every session tick.
+     */
+    public synchronized void tick() {
+        if (skulls.isEmpty() || !session.getUpstream().isInitialized()) {
+            return;
+        }
+        Vector3f playerPosition = session.getPlayerEntity().getPosition();
+        if (!dirty && lastUpdatePosition != null && lastUpdatePosition.distanceSquared(playerPosition) < UPDATE_DISTANCE_SQUARED) {
+            return;
+        }
+        dirty = false;
+        lastUpdatePosition = playerPosition;
+
+        List<Skull> candidates = new ArrayList<>(skulls.size());
+        for (Skull skull : skulls.values()) {
+            if (skull.profile != null) {
+                skull.distanceSquared = skull.entityPosition.distanceSquared(playerPosition);
+                candidates.add(skull);
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(skull -> skull.distanceSquared));
+
+        int visible = Math.min(maxVisibleSkulls, candidates.size());
+        // Make room first so we never go over the budget
+        for (int i = visible; i < candidates.size(); i++) {
+            despawn(candidates.get(i));
+        }
+        int spawned = 0;
+        for (int i = 0; i < visible; i++) {
+            Skull skull = candidates.get(i);
+            if (skull.entity == null) {
+                if (spawned++ == MAX_SPAWNS_PER_TICK) {
+                    // Finish on the next tick
+                    dirty = true;
+                    break;
+                }
+                spawn(skull);
+            }
+        }
+        visibleSkulls = 0;
+        for (Skull skull : candidates) {
+            if (skull.entity != null) {
+                visibleSkulls++;
+            }
+        }
+    }
+
+    /**
+     * Forgets all heads without despawning them, as the client already removed them, e.g. on a dimension change
+     */
+    public synchronized void clear() {
+        skulls.clear();
+        profiles.clear();
+        visibleSkulls = 0;
+        lastUpdatePosition = null;
+    }
+
+    public SkullPlayerEntity getEntity(Vector3i position) {
+        Skull skull = skulls.get(position);
+        return skull == null ? null : skull.entity;
+    }
+
+    private void spawn(Skull skull) {
+        // Every fake player needs its own UUID, even if the profile is shared
+        GameProfile gameProfile = new GameProfile(UUID.randomUUID(), "");
+        gameProfile.setProperties(skull.profile.getProperties());
+        long geyserId = session.getEntityCache().getNextEntityId().incrementAndGet();
+        SkullPlayerEntity entity = new SkullPlayerEntity(gameProfile, geyserId, skull.entityPosition, skull.entityRotation);
+        entity.setBlockState(skull.blockState);
+        skull.entity = entity;
+        entity.spawnEntity(session);
+
+        SkullSkinManager.requestAndHandleSkin(entity, session, (skin -> session.getTimerWheel().schedule(() -> {
+            // Delay to minimize split-second "player" pop-in
+            if (skull.entity == entity) {
+                entity.getMetadata().getFlags().setFlag(EntityFlag.INVISIBLE, false);
+                entity.updateBedrockMetadata(session);
+            }
+        }, 250, TimeUnit.MILLISECONDS)));
+    }
+
+    private void despawn(Skull skull) {
+        if (skull.entity != null) {
+            skull.entity.despawnEntity(session);
+            skull.entity = null;
+        }
+    }
+
+    /**
+     * @return a key that is the same for heads with the same owner, or null if there is none
+     */
+    private static String getOwnerKey(CompoundTag tag) {
+        CompoundTag owner = tag.get("SkullOwner");
+        if (owner == null) {
+            return null;
+        }
+        CompoundTag properties = owner.get("Properties");
+        if (properties != null) {
+            ListTag textures = properties.get("textures");
+            if (textures != null && textures.size() > 0) {
+                return "textures:" + textures.get(0).getValue();
+            }
+        }
+        Tag id = owner.get("Id");
+        Tag name = owner.get("Name");
+        if (id == null && name == null) {
+            return null;
+        }
+        return "owner:" + (id == null ? "" : id.getValue() instanceof int[] ? Arrays.toString((int[]) id.getValue()) : id.getValue())
+                + ":" + (name == null ? "" : name.getValue());
+    }
+
+    private static final class Skull {
+        private final int blockState;
+        private final Vector3f entityPosition;
+        private final Vector3f entityRotation;
+        private volatile GameProfile profile;
+        private SkullPlayerEntity entity;
+        private float distanceSquared;
+
+        private Skull(Vector3i position, int blockState) {
+            this.blockState = blockState;
+            float x = position.getX() + .5f;
+            float y = position.getY() - .01f;
+            float z = position.getZ() + .5f;
+            float rotation;
+
+            byte floorRotation = BlockStateValues.getSkullRotation(blockState);
+            if (floorRotation == -1) {
+                // Wall skull
+                y += 0.25f;
+                rotation = BlockStateValues.getSkullWallDirections().get(blockState);
+                switch ((int) rotation) {
+                    case 180:
+                        // North
+                        z += 0.24f;
+                        break;
+                    case 0:
+                        // South
+                        z -= 0.24f;
+                        break;
+                    case 90:
+                        // West
+                        x += 0.24f;
+                        break;
+                    case 270:
+                        // East
+                        x -= 0.24f;
+                        break;
+                }
+            } else {
+                rotation = (180f + (floorRotation * 22.5f)) % 360;
+            }
+            this.entityPosition = Vector3f.from(x, y, z);
+            this.entityRotation = Vector3f.from(rotation, 0, rotation);
+        }
+    }
+}
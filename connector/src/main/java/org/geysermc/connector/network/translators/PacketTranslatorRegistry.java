@@ -29,33 +29,45 @@ import com.github.steveice10.mc.protocol.packet.ingame.server.ServerPlayerListDa
 import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerUpdateLightPacket;
 import com.github.steveice10.packetlib.packet.Packet;
 import com.nukkitx.protocol.bedrock.BedrockPacket;
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArraySet;
 import lombok.Getter;
 import org.geysermc.common.PlatformType;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.events.registry.PacketTranslatorRegistryEvent;
 import org.geysermc.connector.network.session.GeyserSession;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.LanguageUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
-@Getter
 public class PacketTranslatorRegistry<T> {
     private final Map<Class<? extends T>, PacketTranslator<? extends T>> translators = new HashMap<>();
 
+    /**
+     * Translators and ignored packets keyed by packet class identity, so lookups on the packet path never need to
+     * check the ignored packets. Rebuilt and replaced whenever a translator is registered or a packet ignored.
+     */
+    private volatile Map<Class<?>, TranslatorEntry> dispatch = Collections.emptyMap();
+
     public static final PacketTranslatorRegistry<Packet> JAVA_TRANSLATOR = new PacketTranslatorRegistry<>();
     public static final PacketTranslatorRegistry<BedrockPacket> BEDROCK_TRANSLATOR = new PacketTranslatorRegistry<>();
 
-    public static final ObjectArrayList<Class<?>> IGNORED_PACKETS = new ObjectArrayList<>();
+    private static final Set<Class<?>> ignoredPackets = new ObjectArraySet<>();
+    /**
+     * Packets that are deliberately not translated. Use {@link #ignorePacket(Class)} to add to this.
+     */
+    public static final Set<Class<?>> IGNORED_PACKETS = Collections.unmodifiableSet(ignoredPackets);
 
     static {
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators") : new Reflections("org.geysermc.connector.network.translators");
         PacketTranslatorRegistryEvent event = EventManager.getInstance().triggerEvent(new PacketTranslatorRegistryEvent(
-                ref.getTypesAnnotatedWith(Translator.class))
+                RegistrySnapshot.getTypesAnnotatedWith("org.geysermc.connector.network.translators", Translator.class))
         ).getEvent();
 
         for (Class<?> clazz : event.getRegisteredTranslators()) {
@@ -82,8 +94,11 @@ public class PacketTranslatorRegistry<T> {
             }
         }
 
-        IGNORED_PACKETS.add(ServerUpdateLightPacket.class); // Light is handled on Bedrock for us
-        IGNORED_PACKETS.add(ServerPlayerListDataPacket.class); // Cant be implemented in bedrock
+        ignoredPackets.add(ServerUpdateLightPacket.class); // Light is handled on Bedrock for us
+        ignoredPackets.add(ServerPlayerListDataPacket.class); // Cant be implemented in bedrock
+
+        JAVA_TRANSLATOR.compile();
+        BEDROCK_TRANSLATOR.compile();
     }
 
     private PacketTranslatorRegistry() {
@@ -93,16 +108,107 @@ public class PacketTranslatorRegistry<T> {
         // no-op
     }
 
+    /**
+     * Registers a translator, replacing any existing translator for the packet.
+     *
+     * @param packetClass the packet to translate
+     * @param translator the translator
+     */
+    public synchronized <P extends T> void registerTranslator(Class<P> packetClass, PacketTranslator<P> translator) {
+        translators.put(packetClass, translator);
+        compile();
+    }
+
+    /**
+     * Stops translating a packet.
+     *
+     * @param packetClass the packet to stop translating
+     * @return the translator that was removed, or null if there was none
+     */
+    public synchronized PacketTranslator<? extends T> unregisterTranslator(Class<? extends T> packetClass) {
+        PacketTranslator<? extends T> translator = translators.remove(packetClass);
+        if (translator != null) {
+            compile();
+        }
+        return translator;
+    }
+
+    /**
+     * Marks a packet as deliberately not translated, so it isn't reported as unknown.
+     *
+     * @param packetClass the packet to ignore
+     */
+    public static void ignorePacket(Class<?> packetClass) {
+        synchronized (ignoredPackets) {
+            if (!ignoredPackets.add(packetClass)) {
+                return;
+            }
+        }
+        JAVA_TRANSLATOR.compile();
+        BEDROCK_TRANSLATOR.compile();
+    }
+
+    /**
+     * @return the registered translators by packet class
+     */
+    public Map<Class<? extends T>, PacketTranslator<? extends T>> getTranslators() {
+        return Collections.unmodifiableMap(translators);
+    }
+
+    /**
+     * Builds a new dispatch table, keeping the statistics of translators that didn't change.
+     */
+    private synchronized void compile() {
+        Map<Class<?>, TranslatorEntry> previous = dispatch;
+        Map<Class<?>, TranslatorEntry> compiled = new IdentityHashMap<>();
+        for (Map.Entry<Class<? extends T>, PacketTranslator<? extends T>> entry : translators.entrySet()) {
+            TranslatorEntry existing = previous.get(entry.getKey());
+            compiled.put(entry.getKey(), existing != null && existing.translator == entry.getValue()
+                    ? existing : new TranslatorEntry(entry.getKey(), entry.getValue()));
+        }
+        synchronized (ignoredPackets) {
+            for (Class<?> packet : ignoredPackets) {
+                if (!compiled.containsKey(packet)) {
+                    TranslatorEntry existing = previous.get(packet);
+                    compiled.put(packet, existing != null && existing.isIgnored() ? existing : new TranslatorEntry(packet, null));
+                }
+            }
+        }
+        dispatch = compiled;
+    }
+
+    /**
+     * @return the translators of this registry along with how often they have been invoked and how long they took
+     */
+    public Collection<TranslatorEntry> getTranslatorEntries() {
+        return Collections.unmodifiableCollection(dispatch.values());
+    }
+
+    /**
+     * Resets the invocation counts and timings of all translators in this registry
+     */
+    public void resetStatistics() {
+        for (TranslatorEntry entry : dispatch.values()) {
+            entry.invocations.reset();
+            entry.totalNanos.reset();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public <P extends T> boolean translate(Class<? extends P> clazz, P packet, GeyserSession session) {
         if (!session.getUpstream().isClosed() && !session.isClosed()) {
             try {
-                PacketTranslator<P> translator = (PacketTranslator<P>) translators.get(clazz);
-                if (translator != null) {
-                    translator.translate(packet, session);
+                TranslatorEntry entry = dispatch.get(clazz);
+                if (entry != null && entry.translator != null) {
+                    long startTime = System.nanoTime();
+                    ((PacketTranslator<P>) entry.translator).translate(packet, session);
+                    long duration = System.nanoTime() - startTime;
+                    entry.invocations.increment();
+                    entry.totalNanos.add(duration);
+                    GeyserConnector.getInstance().getPerformanceMonitor().recordTranslator(clazz, duration);
                     return true;
-                } else {
-                    if ((GeyserConnector.getInstance().getPlatformType() != PlatformType.STANDALONE || !(packet instanceof BedrockPacket)) && !IGNORED_PACKETS.contains(clazz)) {
+                } else if (entry == null && GeyserConnector.getInstance().getLogger().isDebug()) {
+                    if (GeyserConnector.getInstance().getPlatformType() != PlatformType.STANDALONE || !(packet instanceof BedrockPacket)) {
                         // Other debug logs already take care of Bedrock packets for us if on standalone
                         GeyserConnector.getInstance().getLogger().debug("Could not find packet for " + (packet.toString().length() > 25 ? packet.getClass().getSimpleName() : packet));
                     }
@@ -114,4 +220,37 @@ public class PacketTranslatorRegistry<T> {
         }
         return false;
     }
+
+    /**
+     * A translator for a single packet class, or an ignored packet if there is no translator
+     */
+    public static class TranslatorEntry {
+        @Getter
+        private final Class<?> packetClass;
+        @Getter
+        private final PacketTranslator<?> translator;
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private TranslatorEntry(Class<?> packetClass, PacketTranslator<?> translator) {
+            this.packetClass = packetClass;
+            this.translator = translator;
+        }
+
+        /**
+         * @return true if this packet is deliberately not translated
+         */
+        public boolean isIgnored() {
+            return translator == null;
+        }
+
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+    }
 }
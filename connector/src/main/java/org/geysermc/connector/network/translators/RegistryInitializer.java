@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.translators;
+
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.GeyserLogger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Loads the registries in parallel. Each stage only starts once the stages it depends on have finished,
+ * so independent registries (and the locale download) load side by side.
+ *
+ * Most registries load in their static initializer, so two stages must never depend on each other through
+ * static fields; the JVM would otherwise deadlock when both initialize at the same time.
+ */
+public class RegistryInitializer {
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    /**
+     * Add a stage to run
+     *
+     * @param name the name used in the startup log
+     * @param task what to run
+     * @param dependencies the names of stages that must finish first; these must have been added already
+     * @return this
+     */
+    public RegistryInitializer stage(String name, Runnable task, String... dependencies) {
+        List<Stage> dependencyStages = new ArrayList<>();
+        for (String dependency : dependencies) {
+            Stage stage = stages.get(dependency);
+            if (stage == null) {
+                throw new IllegalArgumentException("Stage " + name + " depends on unknown stage " + dependency);
+            }
+            dependencyStages.add(stage);
+        }
+        if (stages.putIfAbsent(name, new Stage(name, task, dependencyStages)) != null) {
+            throw new IllegalArgumentException("Duplicate stage " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Run all stages and wait for them. If a stage fails, this returns as soon as that happens without waiting
+     * for unrelated stages, and stages depending on the failed one are never started.
+     *
+     * @param logger where to report the timings
+     */
+    public void run(GeyserLogger logger) {
+        long start = System.nanoTime();
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), stages.size()));
+        ForkJoinPool pool = new ForkJoinPool(parallelism, RegistryInitializer::newThread, null, false);
+
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Stage stage : stages.values()) {
+            CompletableFuture<?>[] dependencies = new CompletableFuture<?>[stage.dependencies.size()];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = stage.dependencies.get(i).future;
+            }
+            stage.future = CompletableFuture.allOf(dependencies).thenRunAsync(stage::run, pool);
+            stage.future.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    failure.completeExceptionally(throwable);
+                }
+            });
+            futures.add(stage.future);
+        }
+
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), failure).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Unable to load registries", cause);
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Stage> byDuration = new ArrayList<>(stages.values());
+        byDuration.sort(Comparator.comparingLong((Stage stage) -> stage.nanos).reversed());
+        StringBuilder builder = new StringBuilder();
+        for (Stage stage : byDuration) {
+            if (builder.length() != 0) {
+                builder.append(", ");
+            }
+            builder.append(stage.name).append(' ').append(stage.nanos / 1_000_000).append(" ms");
+        }
+        logger.info(String.format(Locale.ROOT, "Loaded registries in %d ms on %d threads (%s)",
+                (System.nanoTime() - start) / 1_000_000, parallelism, builder));
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("Geyser registry loader #" + thread.getPoolIndex());
+        // Plugin platforms load Geyser with their own class loader, which resources and Reflections need
+        thread.setContextClassLoader(GeyserConnector.class.getClassLoader());
+        return thread;
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final Runnable task;
+        private final List<Stage> dependencies;
+        private CompletableFuture<Void> future;
+        private volatile long nanos;
+
+        private Stage(String name, Runnable task, List<Stage> dependencies) {
+            this.name = name;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+
+        private void run() {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+        }
+    }
+}
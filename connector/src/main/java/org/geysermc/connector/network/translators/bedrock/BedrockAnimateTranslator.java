@@ -47,8 +47,8 @@ public class BedrockAnimateTranslator extends PacketTranslator<AnimatePacket> {
 
         switch (packet.getAction()) {
             case SWING_ARM:
-                // Delay so entity damage can be processed first
-                session.getConnector().getGeneralThreadPool().schedule(() ->
+                // Delay so entity damage can be processed first - until the next session tick
+                session.getTimerWheel().schedule(() ->
                         session.sendDownstreamPacket(new ClientPlayerSwingArmPacket(Hand.MAIN_HAND)),
                         25,
                         TimeUnit.MILLISECONDS
@@ -27,7 +27,6 @@ package org.geysermc.connector.network.translators.collision;
 
 import com.nukkitx.math.vector.Vector3d;
 import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.protocol.bedrock.data.entity.EntityData;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
 import com.nukkitx.protocol.bedrock.data.entity.EntityFlags;
@@ -40,11 +39,10 @@ import org.geysermc.connector.entity.type.EntityType;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.session.cache.PistonCache;
 import org.geysermc.connector.network.translators.collision.translators.BlockCollision;
+import org.geysermc.connector.network.translators.world.BlockRegion;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 
 import java.text.DecimalFormat;
-import java.util.ArrayList;
-import java.util.List;
 
 public class CollisionManager {
 
@@ -75,6 +73,16 @@ public class CollisionManager {
      */
     private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#.#####");
 
+    /**
+     * The blocks around the player, reused for every movement. Only used while holding its lock.
+     */
+    private final BlockRegion collisionRegion = new BlockRegion();
+    /**
+     * The blocks above the player for {@link #isUnderSlab()}, which is called from both the upstream and downstream
+     * threads and so locks this instead of sharing the collision region
+     */
+    private final BlockRegion underSlabRegion = new BlockRegion();
+
     public CollisionManager(GeyserSession session) {
         this.session = session;
         this.playerBoundingBox = new BoundingBox(0, 0, 0, 0.6, 1.8, 0.6);
@@ -194,9 +202,13 @@ public class CollisionManager {
         session.sendUpstreamPacket(movePlayerPacket);
     }
 
-    public List<Vector3i> getCollidableBlocks(BoundingBox box) {
-        List<Vector3i> blocks = new ArrayList<>();
-
+    /**
+     * Reads every block that could collide with the bounding box with one world manager call.
+     *
+     * @param box the bounding box to check
+     * @param region the region to load the blocks into
+     */
+    public void loadCollidableBlocks(BoundingBox box, BlockRegion region) {
         Vector3d position = Vector3d.from(box.getMiddleX(),
                 box.getMiddleY() - (box.getSizeY() / 2),
                 box.getMiddleZ());
@@ -213,21 +225,7 @@ public class CollisionManager {
         int minCollisionZ = (int) Math.floor(position.getZ() - ((box.getSizeZ() / 2) + COLLISION_TOLERANCE));
         int maxCollisionZ = (int) Math.floor(position.getZ() + (box.getSizeZ() / 2) + COLLISION_TOLERANCE);
 
-        // Blocks are checked from top to bottom to prevent players from being pushed up
-        // onto slabs that you can't stand on
-        for (int y = maxCollisionY; y >= minCollisionY; y--) {
-            for (int x = minCollisionX; x < maxCollisionX + 1; x++) {
-                for (int z = minCollisionZ; z < maxCollisionZ + 1; z++) {
-                    blocks.add(Vector3i.from(x, y, z));
-                }
-            }
-        }
-
-        return blocks;
-    }
-
-    public List<Vector3i> getPlayerCollidableBlocks() {
-        return getCollidableBlocks(playerBoundingBox);
+        region.load(session, minCollisionX, minCollisionY, minCollisionZ, maxCollisionX, maxCollisionY, maxCollisionZ);
     }
 
     /**
@@ -241,26 +239,42 @@ public class CollisionManager {
         touchingScaffolding = false;
         onScaffolding = false;
 
-        List<Vector3i> collidableBlocks = getPlayerCollidableBlocks();
-
-        // Used when correction code needs to be run before the main correction
-        for (Vector3i blockPos : collidableBlocks) {
-            BlockCollision blockCollision = CollisionTranslator.getCollisionAt(
-                    session, blockPos.getX(), blockPos.getY(), blockPos.getZ()
-            );
-            if (blockCollision != null) {
-                blockCollision.beforeCorrectPosition(playerBoundingBox);
+        // Both passes, including the scaffolding checks, read from this one copy of the blocks. This runs on the
+        // upstream thread and from the session tick and pistons, so the region is locked from loading to the last read.
+        synchronized (collisionRegion) {
+            loadCollidableBlocks(playerBoundingBox, collisionRegion);
+            int minX = collisionRegion.getMinX();
+            int minY = collisionRegion.getMinY();
+            int minZ = collisionRegion.getMinZ();
+            int maxX = minX + collisionRegion.getSizeX() - 1;
+            int maxY = minY + collisionRegion.getSizeY() - 1;
+            int maxZ = minZ + collisionRegion.getSizeZ() - 1;
+
+            // Used when correction code needs to be run before the main correction
+            // Blocks are checked from top to bottom to prevent players from being pushed up
+            // onto slabs that you can't stand on
+            for (int y = maxY; y >= minY; y--) {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        BlockCollision blockCollision = CollisionTranslator.getCollision(collisionRegion.getBlockAt(x, y, z), x, y, z);
+                        if (blockCollision != null) {
+                            blockCollision.beforeCorrectPosition(playerBoundingBox);
+                        }
+                    }
+                }
             }
-        }
 
-        // Main correction code
-        for (Vector3i blockPos : collidableBlocks) {
-            BlockCollision blockCollision = CollisionTranslator.getCollisionAt(
-                    session, blockPos.getX(), blockPos.getY(), blockPos.getZ()
-            );
-            if (blockCollision != null) {
-                if (!blockCollision.correctPosition(session, playerBoundingBox)) {
-                    return false;
+            // Main correction code
+            for (int y = maxY; y >= minY; y--) {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        BlockCollision blockCollision = CollisionTranslator.getCollision(collisionRegion.getBlockAt(x, y, z), x, y, z);
+                        if (blockCollision != null) {
+                            if (!blockCollision.correctPosition(session, playerBoundingBox)) {
+                                return false;
+                            }
+                        }
+                    }
                 }
             }
         }
@@ -271,23 +285,39 @@ public class CollisionManager {
     }
 
     /**
-     * @return true if the block located at the player's floor position plus 1 would intersect with the player,
-     * were they not sneaking
+     * @return true if a block above the player's head would intersect with the player, were they not sneaking
      */
     public boolean isUnderSlab() {
         if (!session.getConnector().getConfig().isCacheChunks()) {
             // We can't reliably determine this
             return false;
         }
-        Vector3i position = session.getPlayerEntity().getPosition().toInt();
-        BlockCollision collision = CollisionTranslator.getCollisionAt(session, position.getX(), position.getY(), position.getZ());
-        if (collision != null) {
-            // Determine, if the player's bounding box *were* at full height, if it would intersect with the block
-            // at the current location.
-            playerBoundingBox.setSizeY(EntityType.PLAYER.getHeight());
-            boolean result = collision.checkIntersection(playerBoundingBox);
-            playerBoundingBox.setSizeY(session.getPlayerEntity().getMetadata().getFloat(EntityData.BOUNDING_BOX_HEIGHT));
-            return result;
+        // Determine, if the player's bounding box *were* at full height, if it would intersect with any of
+        // the blocks between the current top of the bounding box and the top at full height.
+        double minY = playerBoundingBox.getMiddleY() - (playerBoundingBox.getSizeY() / 2);
+        double height = EntityType.PLAYER.getHeight();
+        BoundingBox standingBoundingBox = new BoundingBox(playerBoundingBox.getMiddleX(), minY + (height / 2), playerBoundingBox.getMiddleZ(),
+                playerBoundingBox.getSizeX(), height, playerBoundingBox.getSizeZ());
+
+        int minX = (int) Math.floor(playerBoundingBox.getMiddleX() - (playerBoundingBox.getSizeX() / 2));
+        int maxX = (int) Math.floor(playerBoundingBox.getMiddleX() + (playerBoundingBox.getSizeX() / 2));
+        int minBlockY = (int) Math.floor(minY + playerBoundingBox.getSizeY());
+        int maxBlockY = (int) Math.floor(minY + height);
+        int minZ = (int) Math.floor(playerBoundingBox.getMiddleZ() - (playerBoundingBox.getSizeZ() / 2));
+        int maxZ = (int) Math.floor(playerBoundingBox.getMiddleZ() + (playerBoundingBox.getSizeZ() / 2));
+
+        synchronized (underSlabRegion) {
+            underSlabRegion.load(session, minX, minBlockY, minZ, maxX, maxBlockY, maxZ);
+            for (int y = minBlockY; y <= maxBlockY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        BlockCollision collision = CollisionTranslator.getCollision(underSlabRegion.getBlockAt(x, y, z), x, y, z);
+                        if (collision != null && collision.checkIntersection(standingBoundingBox)) {
+                            return true;
+                        }
+                    }
+                }
+            }
         }
         return false;
     }
@@ -36,10 +36,8 @@ import org.geysermc.connector.network.translators.collision.translators.EmptyCol
 import org.geysermc.connector.network.translators.collision.translators.OtherCollision;
 import org.geysermc.connector.network.translators.collision.translators.SolidCollision;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
-import org.geysermc.connector.utils.FileUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
-import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -57,8 +55,7 @@ public class CollisionTranslator {
 
         Map<Class<?>, CollisionRemapper> annotationMap = new HashMap<>();
 
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators.collision.translators") : new Reflections("org.geysermc.connector.network.translators.collision.translators");
-        for (Class<?> clazz : ref.getTypesAnnotatedWith(CollisionRemapper.class)) {
+        for (Class<?> clazz : RegistrySnapshot.getTypesAnnotatedWith("org.geysermc.connector.network.translators.collision.translators", CollisionRemapper.class)) {
             GeyserConnector.getInstance().getLogger().debug("Found annotated collision translator: " + clazz.getCanonicalName());
 
             collisionTypes.add(clazz);
@@ -66,11 +63,9 @@ public class CollisionTranslator {
         }
 
         // Load collision mappings file
-        InputStream stream = FileUtils.getResource("mappings/collision.json");
-
         ArrayNode collisionList;
         try {
-            collisionList = (ArrayNode) GeyserConnector.JSON_MAPPER.readTree(stream);
+            collisionList = (ArrayNode) RegistrySnapshot.readJson("mappings/collision.json");
         } catch (Exception e) {
             throw new AssertionError("Unable to load collision data", e);
         }
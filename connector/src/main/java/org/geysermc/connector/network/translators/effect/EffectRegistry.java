@@ -36,9 +36,8 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.NonNull;
 import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -71,10 +70,9 @@ public class EffectRegistry {
 
     static {
         /* Load particles */
-        InputStream particleStream = FileUtils.getResource("mappings/particles.json");
         JsonNode particleEntries;
         try {
-            particleEntries = GeyserConnector.JSON_MAPPER.readTree(particleStream);
+            particleEntries = RegistrySnapshot.readJson("mappings/particles.json");
         } catch (Exception e) {
             throw new AssertionError("Unable to load particle map", e);
         }
@@ -101,10 +99,9 @@ public class EffectRegistry {
         }
 
         /* Load effects */
-        InputStream effectsStream = FileUtils.getResource("mappings/effects.json");
         JsonNode effects;
         try {
-            effects = GeyserConnector.JSON_MAPPER.readTree(effectsStream);
+            effects = RegistrySnapshot.readJson("mappings/effects.json");
         } catch (Exception e) {
             throw new AssertionError("Unable to load effects mappings", e);
         }
@@ -75,6 +75,6 @@ public class PlaySoundEffect implements Effect {
         playSoundPacket.setPosition(!relative ? session.getPlayerEntity().getPosition() : Vector3f.from(packet.getPosition().getX(), packet.getPosition().getY(), packet.getPosition().getZ()).add(0.5f, 0.5f, 0.5f));
         playSoundPacket.setVolume(volume);
         playSoundPacket.setPitch((pitchSub ? (rand.nextFloat() - rand.nextFloat()) : rand.nextFloat()) * pitchMul + pitchAdd); //replicates java client randomness
-        session.sendUpstreamPacket(playSoundPacket);
+        session.getEffectLimitCache().sendSound(playSoundPacket);
     }
 }
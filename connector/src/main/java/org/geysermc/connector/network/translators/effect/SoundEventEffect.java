@@ -58,6 +58,11 @@ public class SoundEventEffect implements Effect {
         levelSoundEvent.setRelativeVolumeDisabled(packet.isBroadcast());
         levelSoundEvent.setPosition(Vector3f.from(packet.getPosition().getX(), packet.getPosition().getY(), packet.getPosition().getZ()).add(0.5f, 0.5f, 0.5f));
         levelSoundEvent.setBabySound(false);
-        session.sendUpstreamPacket(levelSoundEvent);
+        if (packet.isBroadcast()) {
+            // Broadcast sounds are heard everywhere and shouldn't be culled by distance
+            session.sendUpstreamPacket(levelSoundEvent);
+        } else {
+            session.getEffectLimitCache().sendSound(levelSoundEvent);
+        }
     }
 }
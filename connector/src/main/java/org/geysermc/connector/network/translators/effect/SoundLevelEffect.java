@@ -50,6 +50,11 @@ public class SoundLevelEffect implements Effect {
         eventPacket.setType(levelEventType);
         eventPacket.setData(data);
         eventPacket.setPosition(Vector3f.from(packet.getPosition().getX(), packet.getPosition().getY(), packet.getPosition().getZ()).add(0.5f, 0.5f, 0.5f));
-        session.sendUpstreamPacket(eventPacket);
+        if (packet.isBroadcast()) {
+            // Broadcast sounds are heard everywhere and shouldn't be culled by distance
+            session.sendUpstreamPacket(eventPacket);
+        } else {
+            session.getEffectLimitCache().sendSound(eventPacket);
+        }
     }
 }
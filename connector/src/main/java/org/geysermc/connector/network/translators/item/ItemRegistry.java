@@ -25,7 +25,6 @@
 
 package org.geysermc.connector.network.translators.item;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.mc.protocol.data.game.entity.metadata.ItemStack;
 import com.nukkitx.nbt.NbtMap;
@@ -37,12 +36,11 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.LanguageUtils;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -58,6 +56,11 @@ public class ItemRegistry {
     private static final List<String> JAVA_ONLY_ITEMS = Arrays.asList("minecraft:spectral_arrow", "minecraft:debug_stick",
             "minecraft:knowledge_book");
 
+    /**
+     * The creative inventory sent to every player. Must not be modified: sessions share this array, and
+     * {@link org.geysermc.connector.network.PreEncodedPackets} recognizes it by identity to reuse its encoded bytes.
+     * Send a copy to change the contents for a single player.
+     */
     public static final ItemData[] CREATIVE_ITEMS;
 
     public static final List<StartGamePacket.ItemEntry> ITEMS = new ArrayList<>();
@@ -113,19 +116,14 @@ public class ItemRegistry {
 
     static {
         /* Load item palette */
-        InputStream stream = FileUtils.getResource("bedrock/runtime_item_states.json");
-
-        TypeReference<List<JsonNode>> itemEntriesType = new TypeReference<List<JsonNode>>() {
-        };
-
         // Used to get the Bedrock namespaced ID (in instances where there are small differences)
         Int2ObjectMap<String> bedrockIdToIdentifier = new Int2ObjectOpenHashMap<>();
 
         List<String> itemNames = new ArrayList<>();
 
-        List<JsonNode> itemEntries;
+        JsonNode itemEntries;
         try {
-            itemEntries = GeyserConnector.JSON_MAPPER.readValue(stream, itemEntriesType);
+            itemEntries = RegistrySnapshot.readJson("bedrock/runtime_item_states.json");
         } catch (Exception e) {
             throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.toolbox.fail.runtime_bedrock"), e);
         }
@@ -140,11 +138,9 @@ public class ItemRegistry {
             }
         }
 
-        stream = FileUtils.getResource("mappings/items.json");
-
         JsonNode items;
         try {
-            items = GeyserConnector.JSON_MAPPER.readTree(stream);
+            items = RegistrySnapshot.readJson("mappings/items.json");
         } catch (Exception e) {
             throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.toolbox.fail.runtime_java"), e);
         }
@@ -228,11 +224,9 @@ public class ItemRegistry {
                 lodestoneCompassId, 0, false));
 
         /* Load creative items */
-        stream = FileUtils.getResource("bedrock/creative_items.json");
-
         JsonNode creativeItemEntries;
         try {
-            creativeItemEntries = GeyserConnector.JSON_MAPPER.readTree(stream).get("items");
+            creativeItemEntries = RegistrySnapshot.readJson("bedrock/creative_items.json").get("items");
         } catch (Exception e) {
             throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.toolbox.fail.creative"), e);
         }
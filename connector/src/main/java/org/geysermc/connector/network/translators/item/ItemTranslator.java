@@ -41,9 +41,8 @@ import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.ItemRemapper;
 import org.geysermc.connector.network.translators.chat.MessageTranslator;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.LanguageUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
 import java.util.*;
 import java.util.List;
@@ -62,9 +61,8 @@ public abstract class ItemTranslator {
 
     static {
         /* Load item translators */
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators.item") : new Reflections("org.geysermc.connector.network.translators.item");
         Set<Class<?>> itemRemapperClasses = EventManager.getInstance().triggerEvent(new ItemRemapperRegistryEvent(
-                ref.getTypesAnnotatedWith(ItemRemapper.class)
+                RegistrySnapshot.getTypesAnnotatedWith("org.geysermc.connector.network.translators.item", ItemRemapper.class)
         )).getEvent().getRegisteredTranslators();
 
         Map<NbtItemStackTranslator, Integer> loadedNbtItemTranslators = new HashMap<>();
@@ -29,11 +29,9 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.nukkitx.protocol.bedrock.data.inventory.CraftingData;
 import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
-import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.LanguageUtils;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
-import java.io.InputStream;
 import java.util.*;
 
 /**
@@ -109,11 +107,9 @@ public class RecipeRegistry {
         // https://github.com/pmmp/PocketMine-MP/blob/stable/src/pocketmine/inventory/MultiRecipe.php
 
         // Get all recipes that are not directly sent from a Java server
-        InputStream stream = FileUtils.getResource("mappings/recipes.json");
-
         JsonNode items;
         try {
-            items = GeyserConnector.JSON_MAPPER.readTree(stream);
+            items = RegistrySnapshot.readJson("mappings/recipes.json");
         } catch (Exception e) {
             throw new AssertionError(LanguageUtils.getLocaleStringLog("geyser.toolbox.fail.runtime_java"), e);
         }
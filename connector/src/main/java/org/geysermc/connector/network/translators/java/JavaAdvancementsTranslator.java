@@ -43,61 +43,52 @@ public class JavaAdvancementsTranslator extends PacketTranslator<ServerAdvanceme
 
     @Override
     public void translate(ServerAdvancementsPacket packet, GeyserSession session) {
+        // Applied as a patch: definitions are shared between sessions, so only the map of this session changes
         AdvancementsCache advancementsCache = session.getAdvancementsCache();
         if (packet.isReset()) {
-            advancementsCache.getStoredAdvancements().clear();
-            advancementsCache.getStoredAdvancementProgress().clear();
+            advancementsCache.clear();
         }
 
         // Removes removed advancements from player's stored advancements
         for (String removedAdvancement : packet.getRemovedAdvancements()) {
-            advancementsCache.getStoredAdvancements().remove(removedAdvancement);
+            advancementsCache.removeAdvancement(removedAdvancement);
         }
 
-        advancementsCache.getStoredAdvancementProgress().putAll(packet.getProgress());
-
-        sendToolbarAdvancementUpdates(session, packet);
-
         // Adds advancements to the player's stored advancements when advancements are sent
         for (Advancement advancement : packet.getAdvancements()) {
             if (advancement.getDisplayData() != null && !advancement.getDisplayData().isHidden()) {
-                GeyserAdvancement geyserAdvancement = GeyserAdvancement.from(advancement);
-                advancementsCache.getStoredAdvancements().put(advancement.getId(), geyserAdvancement);
+                advancementsCache.addAdvancement(GeyserAdvancement.from(advancement));
             } else {
-                advancementsCache.getStoredAdvancements().remove(advancement.getId());
+                advancementsCache.removeAdvancement(advancement.getId());
+            }
+        }
+
+        for (Map.Entry<String, Map<String, Long>> progress : packet.getProgress().entrySet()) {
+            boolean earned = advancementsCache.updateProgress(progress.getKey(), progress.getValue());
+            // Advancements are being cleared on a reset, so they can't be granted
+            if (earned && !packet.isReset()) {
+                sendToolbarAdvancementUpdate(session, advancementsCache.getStoredAdvancements().get(progress.getKey()));
             }
         }
     }
 
     /**
-     * Handle all advancements progress updates
+     * Send an action bar message stating they earned an advancement.
+     * Sent for instances where broadcasting advancements through chat are disabled
      */
-    public void sendToolbarAdvancementUpdates(GeyserSession session, ServerAdvancementsPacket packet) {
-        if (packet.isReset()) {
-            // Advancements are being cleared, so they can't be granted
-            return;
-        }
-        for (Map.Entry<String, Map<String, Long>> progress : packet.getProgress().entrySet()) {
-            GeyserAdvancement advancement = session.getAdvancementsCache().getStoredAdvancements().get(progress.getKey());
-            if (advancement != null && advancement.getDisplayData() != null) {
-                if (session.getAdvancementsCache().isEarned(advancement)) {
-                    // Java uses some pink color for toast challenge completes
-                    String color = advancement.getDisplayData().getFrameType() == Advancement.DisplayData.FrameType.CHALLENGE ?
-                            "§d" : "§a";
-                    String advancementName = MessageTranslator.convertMessage(advancement.getDisplayData().getTitle(), session.getLocale());
+    private void sendToolbarAdvancementUpdate(GeyserSession session, GeyserAdvancement advancement) {
+        // Java uses some pink color for toast challenge completes
+        String color = advancement.getDisplayData().getFrameType() == Advancement.DisplayData.FrameType.CHALLENGE ?
+                "§d" : "§a";
+        String advancementName = MessageTranslator.convertMessage(advancement.getDisplayData().getTitle(), session.getLocale());
 
-                    // Send an action bar message stating they earned an achievement
-                    // Sent for instances where broadcasting advancements through chat are disabled
-                    SetTitlePacket titlePacket = new SetTitlePacket();
-                    titlePacket.setText(color + "[" + LocaleUtils.getLocaleString("advancements.toast." +
-                            advancement.getDisplayData().getFrameType().toString().toLowerCase(), session.getLocale()) + "]§f " + advancementName);
-                    titlePacket.setType(SetTitlePacket.Type.ACTIONBAR);
-                    titlePacket.setFadeOutTime(3);
-                    titlePacket.setFadeInTime(3);
-                    titlePacket.setStayTime(3);
-                    session.sendUpstreamPacket(titlePacket);
-                }
-            }
-        }
+        SetTitlePacket titlePacket = new SetTitlePacket();
+        titlePacket.setText(color + "[" + LocaleUtils.getLocaleString("advancements.toast." +
+                advancement.getDisplayData().getFrameType().toString().toLowerCase(), session.getLocale()) + "]§f " + advancementName);
+        titlePacket.setType(SetTitlePacket.Type.ACTIONBAR);
+        titlePacket.setFadeOutTime(3);
+        titlePacket.setFadeInTime(3);
+        titlePacket.setStayTime(3);
+        session.sendUpstreamPacket(titlePacket);
     }
 }
@@ -34,6 +34,8 @@ import com.nukkitx.nbt.NbtMap;
 import com.nukkitx.protocol.bedrock.data.inventory.CraftingData;
 import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
 import com.nukkitx.protocol.bedrock.packet.CraftingDataPacket;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import lombok.AllArgsConstructor;
@@ -49,13 +51,37 @@ import java.util.stream.Collectors;
 @Translator(packet = ServerDeclareRecipesPacket.class)
 public class JavaDeclareRecipesTranslator extends PacketTranslator<ServerDeclareRecipesPacket> {
 
+    private static final TranslatedRecipeCache TRANSLATED_RECIPES = new TranslatedRecipeCache();
+
+    /**
+     * How many Java items map to each Bedrock ID
+     */
+    private static final Int2IntMap BEDROCK_ID_VARIANTS = new Int2IntOpenHashMap();
+
+    static {
+        for (ItemEntry itemEntry : ItemRegistry.ITEM_ENTRIES.values()) {
+            BEDROCK_ID_VARIANTS.put(itemEntry.getBedrockId(), BEDROCK_ID_VARIANTS.get(itemEntry.getBedrockId()) + 1);
+        }
+    }
+
     @Override
     public void translate(ServerDeclareRecipesPacket packet, GeyserSession session) {
-        // Get the last known network ID (first used for the pregenerated recipes) and increment from there.
-        int networkId = RecipeRegistry.LAST_RECIPE_NET_ID;
+        List<CraftingData> craftingData = TRANSLATED_RECIPES.get(packet.getRecipes(), session.getLocale(),
+                recipes -> translateRecipes(recipes, session));
+
+        // A new packet each time as extensions may change it before it is sent
         CraftingDataPacket craftingDataPacket = new CraftingDataPacket();
         craftingDataPacket.setCleanRecipes(true);
-        for (Recipe recipe : packet.getRecipes()) {
+        craftingDataPacket.getCraftingData().addAll(craftingData);
+        craftingDataPacket.getPotionMixData().addAll(PotionMixRegistry.POTION_MIXES);
+        session.sendUpstreamPacket(craftingDataPacket);
+    }
+
+    private List<CraftingData> translateRecipes(Recipe[] recipes, GeyserSession session) {
+        // Get the last known network ID (first used for the pregenerated recipes) and increment from there.
+        int networkId = RecipeRegistry.LAST_RECIPE_NET_ID;
+        List<CraftingData> craftingData = new ArrayList<>();
+        for (Recipe recipe : recipes) {
             switch (recipe.getType()) {
                 case CRAFTING_SHAPELESS: {
                     ShapelessRecipeData shapelessRecipeData = (ShapelessRecipeData) recipe.getData();
@@ -64,7 +90,7 @@ public class JavaDeclareRecipesTranslator extends PacketTranslator<ServerDeclare
                     ItemData[][] inputCombinations = combinations(session, shapelessRecipeData.getIngredients());
                     for (ItemData[] inputs : inputCombinations) {
                         UUID uuid = UUID.randomUUID();
-                        craftingDataPacket.getCraftingData().add(CraftingData.fromShapeless(uuid.toString(),
+                        craftingData.add(CraftingData.fromShapeless(uuid.toString(),
                                 Arrays.asList(inputs), Collections.singletonList(output), uuid, "crafting_table", 0, networkId++));
                     }
                     break;
@@ -76,7 +102,7 @@ public class JavaDeclareRecipesTranslator extends PacketTranslator<ServerDeclare
                     ItemData[][] inputCombinations = combinations(session, shapedRecipeData.getIngredients());
                     for (ItemData[] inputs : inputCombinations) {
                         UUID uuid = UUID.randomUUID();
-                        craftingDataPacket.getCraftingData().add(CraftingData.fromShaped(uuid.toString(),
+                        craftingData.add(CraftingData.fromShaped(uuid.toString(),
                                 shapedRecipeData.getWidth(), shapedRecipeData.getHeight(), Arrays.asList(inputs),
                                 Collections.singletonList(output), uuid, "crafting_table", 0, networkId++));
                     }
@@ -85,56 +111,55 @@ public class JavaDeclareRecipesTranslator extends PacketTranslator<ServerDeclare
 
                 // These recipes are enabled by sending a special recipe
                 case CRAFTING_SPECIAL_BOOKCLONING: {
-                    craftingDataPacket.getCraftingData().add(RecipeRegistry.BOOK_CLONING_RECIPE_DATA);
+                    craftingData.add(RecipeRegistry.BOOK_CLONING_RECIPE_DATA);
                     break;
                 }
                 case CRAFTING_SPECIAL_REPAIRITEM: {
-                    craftingDataPacket.getCraftingData().add(RecipeRegistry.TOOL_REPAIRING_RECIPE_DATA);
+                    craftingData.add(RecipeRegistry.TOOL_REPAIRING_RECIPE_DATA);
                     break;
                 }
                 case CRAFTING_SPECIAL_MAPCLONING: {
-                    craftingDataPacket.getCraftingData().add(RecipeRegistry.MAP_CLONING_RECIPE_DATA);
+                    craftingData.add(RecipeRegistry.MAP_CLONING_RECIPE_DATA);
                     break;
                 }
                 case CRAFTING_SPECIAL_MAPEXTENDING: {
-                    craftingDataPacket.getCraftingData().add(RecipeRegistry.MAP_EXTENDING_RECIPE_DATA);
+                    craftingData.add(RecipeRegistry.MAP_EXTENDING_RECIPE_DATA);
                     break;
                 }
                 case CRAFTING_SPECIAL_BANNERDUPLICATE: {
-                    craftingDataPacket.getCraftingData().add(RecipeRegistry.BANNER_DUPLICATING_RECIPE_DATA);
+                    craftingData.add(RecipeRegistry.BANNER_DUPLICATING_RECIPE_DATA);
                     break;
                 }
 
                 // Java doesn't actually tell us the recipes so we need to calculate this ahead of time.
                 case CRAFTING_SPECIAL_FIREWORK_ROCKET: {
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.FIREWORK_ROCKET_RECIPES);
+                    craftingData.addAll(RecipeRegistry.FIREWORK_ROCKET_RECIPES);
                     break;
                 }
                 case CRAFTING_SPECIAL_FIREWORK_STAR: {
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.FIREWORK_STAR_RECIPES);
+                    craftingData.addAll(RecipeRegistry.FIREWORK_STAR_RECIPES);
                     break;
                 }
                 case CRAFTING_SPECIAL_SHULKERBOXCOLORING: {
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.SHULKER_BOX_DYEING_RECIPES);
+                    craftingData.addAll(RecipeRegistry.SHULKER_BOX_DYEING_RECIPES);
                     break;
                 }
                 case CRAFTING_SPECIAL_SUSPICIOUSSTEW: {
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.SUSPICIOUS_STEW_RECIPES);
+                    craftingData.addAll(RecipeRegistry.SUSPICIOUS_STEW_RECIPES);
                     break;
                 }
                 case CRAFTING_SPECIAL_TIPPEDARROW: {
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.TIPPED_ARROW_RECIPES);
+                    craftingData.addAll(RecipeRegistry.TIPPED_ARROW_RECIPES);
                     break;
                 }
                 case CRAFTING_SPECIAL_ARMORDYE: {
                     // This one's even worse since it's not actually on Bedrock, but it still works!
-                    craftingDataPacket.getCraftingData().addAll(RecipeRegistry.LEATHER_DYEING_RECIPES);
+                    craftingData.addAll(RecipeRegistry.LEATHER_DYEING_RECIPES);
                     break;
                 }
             }
         }
-        craftingDataPacket.getPotionMixData().addAll(PotionMixRegistry.POTION_MIXES);
-        session.sendUpstreamPacket(craftingDataPacket);
+        return Collections.unmodifiableList(craftingData);
     }
 
     //TODO: rewrite
@@ -153,14 +178,7 @@ public class JavaDeclareRecipesTranslator extends PacketTranslator<ServerDeclare
             for (Map.Entry<GroupedItem, List<ItemData>> entry : groupedByIds.entrySet()) {
                 if (entry.getValue().size() > 1) {
                     GroupedItem groupedItem = entry.getKey();
-                    int idCount = 0;
-                    //not optimal
-                    for (ItemEntry itemEntry : ItemRegistry.ITEM_ENTRIES.values()) {
-                        if (itemEntry.getBedrockId() == groupedItem.id) {
-                            idCount++;
-                        }
-                    }
-                    if (entry.getValue().size() < idCount) {
+                    if (entry.getValue().size() < BEDROCK_ID_VARIANTS.get(groupedItem.id)) {
                         optionSet.addAll(entry.getValue());
                     } else {
                         optionSet.add(ItemData.of(groupedItem.id, Short.MAX_VALUE, groupedItem.count, groupedItem.tag));
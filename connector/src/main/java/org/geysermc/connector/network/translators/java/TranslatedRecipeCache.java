@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.translators.java;
+
+import com.github.steveice10.mc.protocol.data.game.recipe.Recipe;
+import com.nukkitx.protocol.bedrock.data.inventory.CraftingData;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Every player on a server receives the same recipes, so their translation is shared between sessions.
+ * Item names can be translated, so the locale is part of the key.
+ */
+class TranslatedRecipeCache {
+    /**
+     * A proxy only ever sees a few different recipe sets; this only guards against a server that keeps changing them
+     */
+    static final int MAX_CACHED_RECIPE_SETS = 16;
+
+    private final Map<RecipeSet, List<CraftingData>> translatedRecipes = new ConcurrentHashMap<>();
+
+    /**
+     * @param recipes the recipes declared by the server
+     * @param locale the locale item names are translated to
+     * @param translator translates the recipes if they are not cached yet
+     * @return the translated recipes, shared with other sessions
+     */
+    List<CraftingData> get(Recipe[] recipes, String locale, Function<Recipe[], List<CraftingData>> translator) {
+        RecipeSet key = new RecipeSet(recipes, locale);
+        List<CraftingData> craftingData = translatedRecipes.get(key);
+        if (craftingData == null) {
+            if (translatedRecipes.size() >= MAX_CACHED_RECIPE_SETS) {
+                translatedRecipes.clear();
+            }
+            craftingData = translatedRecipes.computeIfAbsent(key, k -> translator.apply(k.recipes));
+        }
+        return craftingData;
+    }
+
+    int size() {
+        return translatedRecipes.size();
+    }
+
+    /**
+     * Java recipes compare by value, so identical recipe lists from different servers or logins share a translation
+     */
+    private static final class RecipeSet {
+        private final Recipe[] recipes;
+        private final String locale;
+        private final int hashCode;
+
+        private RecipeSet(Recipe[] recipes, String locale) {
+            this.recipes = recipes;
+            this.locale = locale;
+            this.hashCode = 31 * Arrays.hashCode(recipes) + Objects.hashCode(locale);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RecipeSet)) {
+                return false;
+            }
+            RecipeSet other = (RecipeSet) o;
+            return hashCode == other.hashCode && Objects.equals(locale, other.locale) && Arrays.equals(recipes, other.recipes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
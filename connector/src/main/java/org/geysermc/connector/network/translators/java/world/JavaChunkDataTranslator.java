@@ -66,6 +66,9 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
             return;
         }
 
+        // Block entity states are recorded on the network thread so later block updates always win
+        session.getBlockEntityCache().loadColumn(packet.getColumn());
+
         // Merge received column with cache on network thread
         Column mergedColumn = session.getChunkCache().addToCache(packet.getColumn());
         if (mergedColumn == null) { // There were no changes?!?
@@ -75,6 +78,7 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
         boolean isNonFullChunk = packet.getColumn().getBiomeData() == null;
 
         GeyserConnector.getInstance().getGeneralThreadPool().execute(() -> {
+            long startTime = System.nanoTime();
             try {
                 ChunkUtils.ChunkData chunkData = ChunkUtils.translateToBedrock(session, mergedColumn, isNonFullChunk);
                 ChunkSection[] sections = chunkData.getSections();
@@ -132,6 +136,7 @@ public class JavaChunkDataTranslator extends PacketTranslator<ServerChunkDataPac
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
+            GeyserConnector.getInstance().getPerformanceMonitor().recordChunkTranslation(System.nanoTime() - startTime);
         });
     }
 }
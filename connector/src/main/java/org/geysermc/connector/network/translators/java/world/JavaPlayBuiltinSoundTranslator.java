@@ -44,7 +44,7 @@ public class JavaPlayBuiltinSoundTranslator extends PacketTranslator<ServerPlayB
     public void translate(ServerPlayBuiltinSoundPacket packet, GeyserSession session) {
         String packetSound = packet.getSound().getName();
 
-        SoundRegistry.SoundMapping soundMapping = SoundRegistry.fromJava(packetSound);
+        SoundRegistry.SoundMapping soundMapping = SoundRegistry.fromJava(packet.getSound());
         if (soundMapping == null) {
             session.getConnector().getLogger().debug("[Builtin] Sound mapping " + packetSound + " not found - " + packet.toString());
             return;
@@ -55,17 +55,11 @@ public class JavaPlayBuiltinSoundTranslator extends PacketTranslator<ServerPlayB
             levelEventPacket.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
             levelEventPacket.setData(0);
             levelEventPacket.setType(LevelEventType.valueOf(soundMapping.getBedrock()));
-            session.sendUpstreamPacket(levelEventPacket);
+            session.getEffectLimitCache().sendSound(levelEventPacket);
             return;
         }
         LevelSoundEventPacket soundPacket = new LevelSoundEventPacket();
-        SoundEvent sound = SoundRegistry.toSoundEvent(soundMapping.getBedrock());
-        if (sound == null) {
-            sound = SoundRegistry.toSoundEvent(soundMapping.getBedrock());
-        }
-        if (sound == null) {
-            sound = SoundRegistry.toSoundEvent(packetSound);
-        }
+        SoundEvent sound = SoundRegistry.toSoundEvent(packet.getSound());
         if (sound == null) {
             session.getConnector().getLogger().debug("[Builtin] Sound for original " + packetSound + " to mappings " + soundPacket
                             + " was not a playable level sound, or has yet to be mapped to an enum in "
@@ -95,6 +89,6 @@ public class JavaPlayBuiltinSoundTranslator extends PacketTranslator<ServerPlayB
 
         soundPacket.setBabySound(false); // might need to adjust this in the future
         soundPacket.setRelativeVolumeDisabled(false);
-        session.sendUpstreamPacket(soundPacket);
+        session.getEffectLimitCache().sendSound(soundPacket);
     }
 }
@@ -119,7 +119,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 case BLOCK_LAVA_EXTINGUISH: {
@@ -133,7 +133,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 case BLOCK_REDSTONE_TORCH_BURNOUT: {
@@ -147,7 +147,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 case BLOCK_END_PORTAL_FRAME_FILL: {
@@ -161,7 +161,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 case SMOKE: {
@@ -222,7 +222,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 case BREAK_EYE_OF_ENDER: {
@@ -252,7 +252,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                         soundEventPacket.setExtraData(-1);
                         soundEventPacket.setBabySound(false);
                         soundEventPacket.setRelativeVolumeDisabled(false);
-                        session.sendUpstreamPacket(soundEventPacket);
+                        session.getEffectLimitCache().sendSound(soundEventPacket);
                     }
                     break;
                 }
@@ -276,7 +276,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     soundEventPacket.setExtraData(-1);
                     soundEventPacket.setBabySound(false);
                     soundEventPacket.setRelativeVolumeDisabled(false);
-                    session.sendUpstreamPacket(soundEventPacket);
+                    session.getEffectLimitCache().sendSound(soundEventPacket);
                     break;
                 }
                 default: {
@@ -284,7 +284,7 @@ public class JavaPlayEffectTranslator extends PacketTranslator<ServerPlayEffectP
                     return;
                 }
             }
-            session.sendUpstreamPacket(effectPacket);
+            session.getEffectLimitCache().sendParticle(effectPacket);
         }
     }
 }
\ No newline at end of file
@@ -41,16 +41,18 @@ public class JavaPlaySoundTranslator extends PacketTranslator<ServerPlaySoundPac
     @Override
     public void translate(ServerPlaySoundPacket packet, GeyserSession session) {
         String packetSound;
+        SoundRegistry.SoundMapping soundMapping;
         if (packet.getSound() instanceof BuiltinSound) {
             packetSound = ((BuiltinSound) packet.getSound()).getName();
+            soundMapping = SoundRegistry.fromJava((BuiltinSound) packet.getSound());
         } else if (packet.getSound() instanceof CustomSound) {
             packetSound = ((CustomSound) packet.getSound()).getName();
+            soundMapping = SoundRegistry.fromJava(packetSound.replace("minecraft:", ""));
         } else {
             session.getConnector().getLogger().debug("Unknown sound packet, we were unable to map this. " + packet.toString());
             return;
         }
 
-        SoundRegistry.SoundMapping soundMapping = SoundRegistry.fromJava(packetSound.replace("minecraft:", ""));
         String playsound;
         if (soundMapping == null || soundMapping.getPlaysound() == null) {
             // no mapping
@@ -67,6 +69,6 @@ public class JavaPlaySoundTranslator extends PacketTranslator<ServerPlaySoundPac
         playSoundPacket.setVolume(packet.getVolume());
         playSoundPacket.setPitch(packet.getPitch());
 
-        session.sendUpstreamPacket(playSoundPacket);
+        session.getEffectLimitCache().sendSound(playSoundPacket);
     }
 }
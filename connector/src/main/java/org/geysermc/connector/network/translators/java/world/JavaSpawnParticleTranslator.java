@@ -53,7 +53,7 @@ public class JavaSpawnParticleTranslator extends PacketTranslator<ServerSpawnPar
                 particle.setType(LevelEventType.PARTICLE_DESTROY_BLOCK_NO_SOUND);
                 particle.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
                 particle.setData(BlockTranslator.getBedrockBlockId(((BlockParticleData) packet.getParticle().getData()).getBlockState()));
-                session.sendUpstreamPacket(particle);
+                session.getEffectLimitCache().sendParticle(particle);
                 break;
             case FALLING_DUST:
                 //In fact, FallingDustParticle should have data like DustParticle,
@@ -61,7 +61,7 @@ public class JavaSpawnParticleTranslator extends PacketTranslator<ServerSpawnPar
                 particle.setType(LevelEventType.PARTICLE_FALLING_DUST);
                 particle.setData(BlockTranslator.getBedrockBlockId(((FallingDustParticleData)packet.getParticle().getData()).getBlockState()));
                 particle.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
-                session.sendUpstreamPacket(particle);
+                session.getEffectLimitCache().sendParticle(particle);
                 break;
             case ITEM:
                 ItemStack javaItem = ((ItemParticleData)packet.getParticle().getData()).getItemStack();
@@ -71,7 +71,7 @@ public class JavaSpawnParticleTranslator extends PacketTranslator<ServerSpawnPar
                 particle.setType(LevelEventType.PARTICLE_ITEM_BREAK);
                 particle.setData(id << 16 | damage);
                 particle.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
-                session.sendUpstreamPacket(particle);
+                session.getEffectLimitCache().sendParticle(particle);
                 break;
             case DUST:
                 DustParticleData data = (DustParticleData)packet.getParticle().getData();
@@ -81,14 +81,14 @@ public class JavaSpawnParticleTranslator extends PacketTranslator<ServerSpawnPar
                 particle.setType(LevelEventType.PARTICLE_FALLING_DUST);
                 particle.setData(((0xff) << 24) | ((r & 0xff) << 16) | ((g & 0xff) << 8) | (b & 0xff));
                 particle.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
-                session.sendUpstreamPacket(particle);
+                session.getEffectLimitCache().sendParticle(particle);
                 break;
             default:
                 LevelEventType typeParticle = EffectRegistry.getParticleLevelEventType(packet.getParticle().getType());
                 if (typeParticle != null) {
                     particle.setType(typeParticle);
                     particle.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
-                    session.sendUpstreamPacket(particle);
+                    session.getEffectLimitCache().sendParticle(particle);
                 } else {
                     String stringParticle = EffectRegistry.getParticleString(packet.getParticle().getType());
                     if (stringParticle != null) {
@@ -96,7 +96,7 @@ public class JavaSpawnParticleTranslator extends PacketTranslator<ServerSpawnPar
                         stringPacket.setIdentifier(stringParticle);
                         stringPacket.setDimensionId(DimensionUtils.javaToBedrock(session.getDimension()));
                         stringPacket.setPosition(Vector3f.from(packet.getX(), packet.getY(), packet.getZ()));
-                        session.sendUpstreamPacket(stringPacket);
+                        session.getEffectLimitCache().sendParticle(stringPacket);
                     }
                 }
                 break;
@@ -49,15 +49,17 @@ public class JavaStopSoundTranslator extends PacketTranslator<ServerStopSoundPac
         }
 
         String packetSound;
+        SoundRegistry.SoundMapping soundMapping;
         if (packet.getSound() instanceof BuiltinSound) {
             packetSound = ((BuiltinSound) packet.getSound()).getName();
+            soundMapping = SoundRegistry.fromJava((BuiltinSound) packet.getSound());
         } else if (packet.getSound() instanceof CustomSound) {
             packetSound = ((CustomSound) packet.getSound()).getName();
+            soundMapping = SoundRegistry.fromJava(packetSound.replace("minecraft:", ""));
         } else {
             session.getConnector().getLogger().debug("Unknown sound packet, we were unable to map this. " + packet.toString());
             return;
         }
-        SoundRegistry.SoundMapping soundMapping = SoundRegistry.fromJava(packetSound.replace("minecraft:", ""));
         session.getConnector().getLogger()
                 .debug("[StopSound] Sound mapping " + packetSound + " -> "
                         + soundMapping + (soundMapping == null ? "[not found]" : "")
@@ -27,11 +27,12 @@ package org.geysermc.connector.network.translators.java.world;
 
 import com.github.steveice10.mc.protocol.packet.ingame.server.world.ServerUnloadChunkPacket;
 import com.nukkitx.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.PacketTranslator;
 import org.geysermc.connector.network.translators.Translator;
-
-import java.util.Iterator;
+import org.geysermc.connector.network.translators.world.block.BlockStateValues;
+import org.geysermc.connector.utils.MathUtils;
 
 @Translator(packet = ServerUnloadChunkPacket.class)
 public class JavaUnloadChunkTranslator extends PacketTranslator<ServerUnloadChunkPacket> {
@@ -40,14 +41,19 @@ public class JavaUnloadChunkTranslator extends PacketTranslator<ServerUnloadChun
     public void translate(ServerUnloadChunkPacket packet, GeyserSession session) {
         session.getChunkCache().removeChunk(packet.getX(), packet.getZ());
 
-        //Checks if a skull is in an unloaded chunk then removes it
-        Iterator<Vector3i> iterator = session.getSkullCache().keySet().iterator();
-        while (iterator.hasNext()) {
-            Vector3i position = iterator.next();
-            if ((position.getX() >> 4) == packet.getX() && (position.getZ() >> 4) == packet.getZ()) {
-                session.getSkullCache().get(position).despawnEntity(session);
-                iterator.remove();
+        Long2IntMap blockEntities = session.getBlockEntityCache().removeChunk(packet.getX(), packet.getZ());
+        if (blockEntities == null) {
+            return;
+        }
+
+        // Despawn the custom skulls of the chunk
+        for (Long2IntMap.Entry entry : blockEntities.long2IntEntrySet()) {
+            if (BlockStateValues.getSkullVariant(entry.getIntValue()) == -1) {
+                continue;
             }
+            long position = entry.getLongKey();
+            session.getSkullCache().removeSkull(Vector3i.from(MathUtils.blockPositionX(position),
+                    MathUtils.blockPositionY(position), MathUtils.blockPositionZ(position)));
         }
     }
 }
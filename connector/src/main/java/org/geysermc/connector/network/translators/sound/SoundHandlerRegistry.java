@@ -25,15 +25,11 @@
 
 package org.geysermc.connector.network.translators.sound;
 
-import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.events.registry.SoundHandlerRegistryEvent;
-import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.event.EventManager;
 import org.geysermc.connector.event.events.registry.SoundHandlerRegistryEvent;
-import org.geysermc.connector.utils.FileUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -47,10 +43,8 @@ public class SoundHandlerRegistry {
     public static final Map<SoundHandler, SoundInteractionHandler<?>> INTERACTION_HANDLERS = new HashMap<>();
 
     static {
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators.sound") : new Reflections("org.geysermc.connector.network.translators.sound");
-
         Set<Class<?>> soundHandlerClasses = EventManager.getInstance().triggerEvent(new SoundHandlerRegistryEvent(
-                new Reflections("org.geysermc.connector.network.translators.sound").getTypesAnnotatedWith(SoundHandler.class))
+                RegistrySnapshot.getTypesAnnotatedWith("org.geysermc.connector.network.translators.sound", SoundHandler.class))
         ).getEvent().getRegisteredTranslators();
 
         for (Class<?> clazz : soundHandlerClasses) {
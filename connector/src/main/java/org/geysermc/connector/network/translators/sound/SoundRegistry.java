@@ -26,13 +26,13 @@
 package org.geysermc.connector.network.translators.sound;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.steveice10.mc.protocol.data.game.world.sound.BuiltinSound;
 import com.nukkitx.protocol.bedrock.data.SoundEvent;
 import lombok.Data;
 import lombok.ToString;
-import org.geysermc.connector.GeyserConnector;
-import org.geysermc.connector.utils.FileUtils;
+import org.geysermc.connector.utils.RegistrySnapshot;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -41,6 +41,12 @@ public class SoundRegistry {
 
     private static final Map<String, SoundMapping> SOUNDS;
 
+    /**
+     * Sound mappings and Bedrock sound events for each built-in Java sound, resolved once on startup
+     */
+    private static final Map<BuiltinSound, SoundMapping> BUILTIN_SOUNDS = new EnumMap<>(BuiltinSound.class);
+    private static final Map<BuiltinSound, SoundEvent> BUILTIN_SOUND_EVENTS = new EnumMap<>(BuiltinSound.class);
+
     private SoundRegistry() {
     }
 
@@ -50,10 +56,9 @@ public class SoundRegistry {
 
     static {
         /* Load sound mappings */
-        InputStream stream  = FileUtils.getResource("mappings/sounds.json");
         JsonNode soundsTree;
         try {
-            soundsTree = GeyserConnector.JSON_MAPPER.readTree(stream);
+            soundsTree = RegistrySnapshot.readJson("mappings/sounds.json");
         } catch (IOException e) {
             throw new AssertionError("Unable to load sound mappings", e);
         }
@@ -75,6 +80,23 @@ public class SoundRegistry {
             );
         }
         SOUNDS = soundMappings;
+
+        for (BuiltinSound builtinSound : BuiltinSound.values()) {
+            String javaName = builtinSound.getName().replace("minecraft:", "");
+            SoundMapping soundMapping = soundMappings.get(javaName);
+            if (soundMapping == null) {
+                continue;
+            }
+            BUILTIN_SOUNDS.put(builtinSound, soundMapping);
+
+            SoundEvent soundEvent = toSoundEvent(soundMapping.getBedrock());
+            if (soundEvent == null) {
+                soundEvent = toSoundEvent(javaName);
+            }
+            if (soundEvent != null) {
+                BUILTIN_SOUND_EVENTS.put(builtinSound, soundEvent);
+            }
+        }
     }
 
     /**
@@ -86,6 +108,26 @@ public class SoundRegistry {
         return SOUNDS.get(java);
     }
 
+    /**
+     * Get's the sound mapping for a built-in Java edition sound
+     * @param java Java edition built-in sound
+     * @return SoundMapping object with information for bedrock, nukkit, java, etc. null if not found
+     */
+    public static SoundMapping fromJava(BuiltinSound java) {
+        return BUILTIN_SOUNDS.get(java);
+    }
+
+    /**
+     * Gets the Bedrock sound event for a built-in Java edition sound, null if one
+     * does not exist.
+     *
+     * @param sound the built-in Java edition sound
+     * @return a sound event from the given sound
+     */
+    public static SoundEvent toSoundEvent(BuiltinSound sound) {
+        return BUILTIN_SOUND_EVENTS.get(sound);
+    }
+
     /**
      * Maps a sound name to a sound event, null if one
      * does not exist.
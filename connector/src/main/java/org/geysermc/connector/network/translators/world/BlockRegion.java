@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.translators.world;
+
+import com.nukkitx.math.vector.Vector3i;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.geysermc.connector.network.session.GeyserSession;
+
+/**
+ * A box of Java block states read with one {@link WorldManager#getBlocksInRegion} call, so that code checking
+ * the blocks around a position doesn't go through the world manager once per block.
+ * <p>
+ * The array is reused between loads, so keep one instance per user and don't share it between threads.
+ */
+@Getter
+public class BlockRegion {
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int sizeX;
+    private int sizeY;
+    private int sizeZ;
+    @Getter(AccessLevel.NONE)
+    private int[] blocks = new int[0];
+
+    /**
+     * Reads every block from the minimum to the maximum coordinates, inclusive.
+     *
+     * @param session the session to read the blocks of
+     */
+    public void load(GeyserSession session, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = maxX - minX + 1;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+
+        int volume = sizeX * sizeY * sizeZ;
+        if (blocks.length < volume) {
+            blocks = new int[volume];
+        }
+        session.getConnector().getWorldManager().getBlocksInRegion(session, minX, minY, minZ, sizeX, sizeY, sizeZ, blocks);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x < minX + sizeX
+                && y >= minY && y < minY + sizeY
+                && z >= minZ && z < minZ + sizeZ;
+    }
+
+    public boolean contains(Vector3i position) {
+        return contains(position.getX(), position.getY(), position.getZ());
+    }
+
+    /**
+     * @return the Java block state at the position, which must be inside of this region
+     */
+    public int getBlockAt(int x, int y, int z) {
+        return blocks[((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)];
+    }
+
+    /**
+     * @return the Java block state at the position, which must be inside of this region
+     */
+    public int getBlockAt(Vector3i position) {
+        return getBlockAt(position.getX(), position.getY(), position.getZ());
+    }
+}
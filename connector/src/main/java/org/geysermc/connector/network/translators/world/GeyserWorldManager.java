@@ -26,7 +26,6 @@
 package org.geysermc.connector.network.translators.world;
 
 import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
-import com.github.steveice10.mc.protocol.data.game.chunk.Column;
 import com.github.steveice10.mc.protocol.data.game.entity.player.GameMode;
 import com.github.steveice10.mc.protocol.data.game.setting.Difficulty;
 import com.github.steveice10.mc.protocol.packet.ingame.client.ClientChatPacket;
@@ -34,8 +33,11 @@ import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.session.cache.ChunkCache;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.connector.utils.GameRule;
 
+import java.util.Arrays;
+
 public class GeyserWorldManager extends WorldManager {
 
     private static final Object2ObjectMap<String, String> gameruleCache = new Object2ObjectOpenHashMap<>();
@@ -52,19 +54,18 @@ public class GeyserWorldManager extends WorldManager {
     @Override
     public void getBlocksInSection(GeyserSession session, int x, int y, int z, Chunk chunk) {
         ChunkCache chunkCache = session.getChunkCache();
-        Column cachedColumn;
-        Chunk cachedChunk;
-        if (chunkCache == null || (cachedColumn = chunkCache.getChunk(x, z)) == null || (cachedChunk = cachedColumn.getChunks()[y]) == null) {
-            return;
+        if (chunkCache != null) { // Chunk cache can be null if the session is closed asynchronously
+            chunkCache.copySection(x, y, z, chunk);
         }
+    }
 
-        // Copy state IDs from cached chunk to output chunk
-        for (int blockY = 0; blockY < 16; blockY++) { // Cache-friendly iteration order
-            for (int blockZ = 0; blockZ < 16; blockZ++) {
-                for (int blockX = 0; blockX < 16; blockX++) {
-                    chunk.set(blockX, blockY, blockZ, cachedChunk.get(blockX, blockY, blockZ));
-                }
-            }
+    @Override
+    public void getBlocksInRegion(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        ChunkCache chunkCache = session.getChunkCache();
+        if (chunkCache != null) { // Chunk cache can be null if the session is closed asynchronously
+            chunkCache.copyRegion(minX, minY, minZ, sizeX, sizeY, sizeZ, blocks);
+        } else {
+            Arrays.fill(blocks, 0, sizeX * sizeY * sizeZ, BlockTranslator.JAVA_AIR_ID);
         }
     }
 
@@ -79,9 +80,9 @@ public class GeyserWorldManager extends WorldManager {
         if (session.getConnector().getConfig().isCacheChunks()) {
             ChunkCache chunkCache = session.getChunkCache();
             if (chunkCache != null) { // Chunk cache can be null if the session is closed asynchronously
-                Column column = chunkCache.getChunk(x, z);
-                if (column != null) { // Column can be null if the server sent a partial chunk update before the first ground-up-continuous one
-                    return column.getBiomeData();
+                int[] biomeData = chunkCache.getBiomeData(x, z);
+                if (biomeData != null) { // Column can be null if the server sent a partial chunk update before the first ground-up-continuous one
+                    return biomeData;
                 }
             }
         }
@@ -31,6 +31,7 @@ import com.github.steveice10.mc.protocol.data.game.entity.player.GameMode;
 import com.github.steveice10.mc.protocol.data.game.setting.Difficulty;
 import com.nukkitx.math.vector.Vector3i;
 import org.geysermc.connector.network.session.GeyserSession;
+import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.connector.utils.GameRule;
 
 /**
@@ -86,6 +87,35 @@ public abstract class WorldManager {
      */
     public abstract void getBlocksInSection(GeyserSession session, int x, int y, int z, Chunk section);
 
+    /**
+     * Gets all block states in a small box, such as the blocks around a player for collision.
+     * <p>
+     * Blocks are stored in YZX order, the same as a chunk section: the block at (x, y, z) is stored at
+     * {@code ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x - minX)}. Blocks outside of the world are air.
+     * World managers that can read several blocks with one lookup should override this.
+     *
+     * @param session the session
+     * @param minX the lowest X coordinate of the box
+     * @param minY the lowest Y coordinate of the box
+     * @param minZ the lowest Z coordinate of the box
+     * @param sizeX the size of the box on the X axis
+     * @param sizeY the size of the box on the Y axis
+     * @param sizeZ the size of the box on the Z axis
+     * @param blocks the array to store the block states in, at least sizeX * sizeY * sizeZ long
+     * @see BlockRegion
+     */
+    public void getBlocksInRegion(GeyserSession session, int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ, int[] blocks) {
+        int index = 0;
+        for (int y = minY; y < minY + sizeY; y++) {
+            boolean outsideWorld = y < 0 || y > 255;
+            for (int z = minZ; z < minZ + sizeZ; z++) {
+                for (int x = minX; x < minX + sizeX; x++) {
+                    blocks[index++] = outsideWorld ? BlockTranslator.JAVA_AIR_ID : getBlockAt(session, x, y, z);
+                }
+            }
+        }
+    }
+
     /**
      * Checks whether or not this world manager has access to more block data than the chunk cache.
      * <p>
@@ -34,9 +34,8 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
-import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.utils.FileUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
 import java.io.DataInputStream;
 import java.io.InputStream;
@@ -138,17 +137,13 @@ public class BlockTranslator {
             blockStateOrderedMap.put(blockTag, i);
         }
 
-        stream = FileUtils.getResource("mappings/blocks.json");
         JsonNode blocks;
         try {
-            blocks = GeyserConnector.JSON_MAPPER.readTree(stream);
+            blocks = RegistrySnapshot.readJson("mappings/blocks.json");
         } catch (Exception e) {
             throw new AssertionError("Unable to load Java block mappings", e);
         }
 
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators.world.block.entity")
-                : new Reflections("org.geysermc.connector.network.translators.world.block.entity");
-
         int javaWaterRuntimeId = -1;
         int bedrockWaterRuntimeId = -1;
         int javaRuntimeId = -1;
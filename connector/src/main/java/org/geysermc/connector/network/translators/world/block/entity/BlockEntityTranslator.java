@@ -34,9 +34,8 @@ import com.nukkitx.nbt.NbtMapBuilder;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.utils.BlockEntityUtils;
-import org.geysermc.connector.utils.FileUtils;
 import org.geysermc.connector.utils.LanguageUtils;
-import org.reflections.Reflections;
+import org.geysermc.connector.utils.RegistrySnapshot;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -74,8 +73,7 @@ public abstract class BlockEntityTranslator {
     }
 
     static {
-        Reflections ref = GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections("org.geysermc.connector.network.translators.world.block.entity") : new Reflections("org.geysermc.connector.network.translators.world.block.entity");
-        for (Class<?> clazz : ref.getTypesAnnotatedWith(BlockEntity.class)) {
+        for (Class<?> clazz : RegistrySnapshot.getTypesAnnotatedWith("org.geysermc.connector.network.translators.world.block.entity", BlockEntity.class)) {
             GeyserConnector.getInstance().getLogger().debug("Found annotated block entity: " + clazz.getCanonicalName());
 
             try {
@@ -85,7 +83,7 @@ public abstract class BlockEntityTranslator {
             }
         }
         boolean cacheChunks = GeyserConnector.getInstance().getConfig().isCacheChunks();
-        for (Class<?> clazz : ref.getSubTypesOf(RequiresBlockState.class)) {
+        for (Class<?> clazz : RegistrySnapshot.getSubTypesOf("org.geysermc.connector.network.translators.world.block.entity", RequiresBlockState.class)) {
             GeyserConnector.getInstance().getLogger().debug("Found block entity that requires block state: " + clazz.getCanonicalName());
 
             try {
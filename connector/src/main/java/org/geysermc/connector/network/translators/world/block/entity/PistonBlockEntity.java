@@ -41,6 +41,7 @@ import org.geysermc.connector.network.translators.collision.CollisionManager;
 import org.geysermc.connector.network.translators.collision.CollisionTranslator;
 import org.geysermc.connector.network.translators.collision.translators.BlockCollision;
 import org.geysermc.connector.network.translators.collision.translators.SolidCollision;
+import org.geysermc.connector.network.translators.world.BlockRegion;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
 import org.geysermc.connector.utils.BlockEntityUtils;
@@ -94,8 +95,9 @@ public class PistonBlockEntity {
         this.position = position;
         this.orientation = orientation;
 
-        if (session.getConnector().getConfig().isCacheChunks()) {
-            int blockId = session.getConnector().getWorldManager().getBlockAt(session, position);
+        // Piston states are recorded in the block entity cache even without chunk caching
+        int blockId = session.getBlockEntityCache().getBlockState(position.getX(), position.getY(), position.getZ());
+        if (BlockStateValues.getPistonValues().containsKey(blockId)) {
             sticky = BlockStateValues.isStickyPiston(blockId);
             boolean extended = BlockStateValues.getPistonValues().get(blockId);
             if (extended) {
@@ -215,6 +217,16 @@ public class PistonBlockEntity {
             blocksToCheck.add(position.add(directionOffset));
         }
 
+        // Read the line of blocks in front of the piston and the blocks next to it at once.
+        // Up to 12 blocks can move, so the 13th block in front is the furthest one in line that is checked.
+        // Sticky blocks can reach further to the side, which is read block by block.
+        Vector3i side = Vector3i.ONE.sub(directionOffset.abs());
+        Vector3i front = position.add(directionOffset.mul(13));
+        Vector3i min = position.min(front).sub(side);
+        Vector3i max = position.max(front).add(side);
+        BlockRegion region = new BlockRegion();
+        region.load(session, min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+
         boolean moveBlocks = true;
         while (!blocksToCheck.isEmpty() && attachedBlocks.size() <= 12) {
             Vector3i blockPos = blocksToCheck.remove();
@@ -223,7 +235,7 @@ public class PistonBlockEntity {
                 continue;
             }
             blocksChecked.add(blockPos);
-            int blockId = session.getConnector().getWorldManager().getBlockAt(session, blockPos);
+            int blockId = getBlockAt(region, blockPos);
             if (blockId == BlockTranslator.JAVA_AIR_ID) {
                 continue;
             }
@@ -247,7 +259,7 @@ public class PistonBlockEntity {
                         if (action == PistonValueType.PULLING && position.add(directionOffset).equals(adjacentPos)) {
                             continue;
                         }
-                        int adjacentBlockId = session.getConnector().getWorldManager().getBlockAt(session, adjacentPos);
+                        int adjacentBlockId = getBlockAt(region, adjacentPos);
                         if (adjacentBlockId != BlockTranslator.JAVA_AIR_ID && isBlockAttached(blockId, adjacentBlockId) && canMoveBlock(adjacentBlockId, false)) {
                             // If it is another slime/honey block we need to check its adjacent blocks
                             if (isBlockSticky(adjacentBlockId)) {
@@ -274,6 +286,13 @@ public class PistonBlockEntity {
         flattenPositions();
     }
 
+    private int getBlockAt(BlockRegion region, Vector3i position) {
+        if (region.contains(position)) {
+            return region.getBlockAt(position);
+        }
+        return session.getConnector().getWorldManager().getBlockAt(session, position);
+    }
+
     private boolean canMoveBlock(int javaId, boolean isPushing) {
         if (javaId == BlockTranslator.JAVA_AIR_ID) {
             return true;
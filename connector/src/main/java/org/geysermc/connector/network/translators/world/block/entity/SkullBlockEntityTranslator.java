@@ -29,22 +29,16 @@ import com.github.steveice10.mc.auth.data.GameProfile;
 import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
 import com.github.steveice10.opennbt.tag.builtin.ListTag;
 import com.github.steveice10.opennbt.tag.builtin.StringTag;
-import com.nukkitx.math.vector.Vector3f;
-import com.nukkitx.math.vector.Vector3i;
 import com.nukkitx.nbt.NbtMapBuilder;
-import com.nukkitx.protocol.bedrock.data.entity.EntityFlag;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.skin.SkinProvider;
-import org.geysermc.connector.skin.SkullSkinManager;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
 
 @BlockEntity(name = "Skull", regex = "skull")
 public class SkullBlockEntityTranslator extends BlockEntityTranslator implements RequiresBlockState {
@@ -89,75 +83,11 @@ public class SkullBlockEntityTranslator extends BlockEntityTranslator implements
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * Hands a custom player head to the session's {@link org.geysermc.connector.network.session.cache.SkullCache},
+     * which decides if and when it is shown
+     */
     public static void spawnPlayer(GeyserSession session, CompoundTag tag, int blockState) {
-        int posX = (int) tag.get("x").getValue();
-        int posY = (int) tag.get("y").getValue();
-        int posZ = (int) tag.get("z").getValue();
-        float x = posX + .5f;
-        float y = posY - .01f;
-        float z = posZ + .5f;
-        float rotation;
-
-        byte floorRotation = BlockStateValues.getSkullRotation(blockState);
-        if (floorRotation == -1) {
-            // Wall skull
-            y += 0.25f;
-            rotation = BlockStateValues.getSkullWallDirections().get(blockState);
-            switch ((int) rotation) {
-                case 180:
-                    // North
-                    z += 0.24f;
-                    break;
-                case 0:
-                    // South
-                    z -= 0.24f;
-                    break;
-                case 90:
-                    // West
-                    x += 0.24f;
-                    break;
-                case 270:
-                    // East
-                    x -= 0.24f;
-                    break;
-            }
-        } else {
-            rotation = (180f + (floorRotation * 22.5f)) % 360;
-        }
-
-        Vector3i blockPosition = Vector3i.from(posX, posY, posZ);
-        Vector3f entityPosition = Vector3f.from(x, y, z);
-        Vector3f entityRotation = Vector3f.from(rotation, 0, rotation);
-        long geyserId = session.getEntityCache().getNextEntityId().incrementAndGet();
-
-        getProfile(tag).whenComplete((gameProfile, throwable) -> {
-            if (gameProfile == null) {
-                session.getConnector().getLogger().debug("Custom skull with invalid SkullOwner tag: " + blockPosition.toString() + " " + tag.toString());
-                return;
-            }
-
-            SkullPlayerEntity existingSkull = session.getSkullCache().get(blockPosition);
-            if (existingSkull != null) {
-                // Ensure that two skulls can't spawn on the same point
-                existingSkull.despawnEntity(session, blockPosition);
-            }
-
-            SkullPlayerEntity player = new SkullPlayerEntity(gameProfile, geyserId, entityPosition, entityRotation);
-            player.setBlockState(blockState);
-
-            // Cache entity
-            session.getSkullCache().put(blockPosition, player);
-
-            // Only send to session if we are initialized, otherwise it will happen then.
-            if (session.getUpstream().isInitialized()) {
-                player.spawnEntity(session);
-
-                SkullSkinManager.requestAndHandleSkin(player, session, (skin -> session.getConnector().getGeneralThreadPool().schedule(() -> {
-                    // Delay to minimize split-second "player" pop-in
-                    player.getMetadata().getFlags().setFlag(EntityFlag.INVISIBLE, false);
-                    player.updateBedrockMetadata(session);
-                }, 250, TimeUnit.MILLISECONDS)));
-            }
-        });
+        session.getSkullCache().putSkull(tag, blockState);
     }
 }
@@ -23,34 +23,81 @@
  * @link https://github.com/GeyserMC/Geyser
  */
 
+
 package org.geysermc.connector.ping;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.github.steveice10.mc.protocol.MinecraftConstants;
-import com.nukkitx.nbt.util.VarInts;
-import org.geysermc.connector.common.ping.GeyserPingInfo;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.common.ping.GeyserPingInfo;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.ConnectException;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Pings one or more Java servers with the status protocol and combines their responses.
+ *
+ * All network I/O happens on a small shared Netty event loop, so a slow or unreachable server never holds up
+ * a thread of the general thread pool or the other servers. A server that is still answering the previous ping
+ * is skipped, and its last response keeps being served until it has missed {@link #STALE_INTERVALS} intervals.
+ */
 public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runnable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_SECONDS = 5;
+    /**
+     * How many intervals a server may go without a successful ping before its last response is dropped
+     */
+    private static final int STALE_INTERVALS = 5;
+    /**
+     * Status responses can include a base64 favicon, but nothing legitimate comes close to this
+     */
+    private static final int MAX_RESPONSE_LENGTH = 1 << 18;
+
+    private static EventLoopGroup eventLoopGroup;
 
-    private GeyserConnector connector;
+    private final GeyserConnector connector;
+    private final List<Backend> backends = new ArrayList<>();
+    private final long maxStaleNanos;
 
-    public GeyserLegacyPingPassthrough(GeyserConnector connector) {
+    private volatile GeyserPingInfo pingInfo;
+
+    public GeyserLegacyPingPassthrough(GeyserConnector connector, int interval) {
         this.connector = connector;
-    }
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos((long) interval * STALE_INTERVALS);
 
-    private GeyserPingInfo pingInfo;
+        // The remote server always comes first so its MOTD and version take priority
+        backends.add(new Backend(connector.getConfig().getRemote().getAddress(), connector.getConfig().getRemote().getPort()));
+        for (String server : connector.getConfig().getPingPassthroughServers()) {
+            Backend backend = parseBackend(server);
+            if (backend == null) {
+                connector.getLogger().warning("Ignoring invalid ping passthrough server " + server + ", expected address:port");
+                continue;
+            }
+            backends.add(backend);
+        }
+    }
 
     /**
      * Start legacy ping passthrough thread
@@ -59,16 +106,25 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
      */
     public static IGeyserPingPassthrough init(GeyserConnector connector) {
         if (connector.getConfig().isPassthroughMotd() || connector.getConfig().isPassthroughPlayerCounts()) {
-            GeyserLegacyPingPassthrough pingPassthrough = new GeyserLegacyPingPassthrough(connector);
             // Ensure delay is not zero
             int interval = (connector.getConfig().getPingPassthroughInterval() == 0) ? 1 : connector.getConfig().getPingPassthroughInterval();
-            connector.getLogger().debug("Scheduling ping passthrough at an interval of " + interval + " second(s).");
+            GeyserLegacyPingPassthrough pingPassthrough = new GeyserLegacyPingPassthrough(connector, interval);
+            connector.getLogger().debug("Scheduling ping passthrough of " + pingPassthrough.backends.size() + " server(s) at an interval of " + interval + " second(s).");
+            // Only starts the pings, so this never blocks a thread of the pool
             connector.getGeneralThreadPool().scheduleAtFixedRate(pingPassthrough, 1, interval, TimeUnit.SECONDS);
             return pingPassthrough;
         }
         return null;
     }
 
+    private static synchronized EventLoopGroup getEventLoopGroup() {
+        // Shared between reloads; the threads are daemons and idle between pings
+        if (eventLoopGroup == null) {
+            eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("Geyser ping passthrough", true));
+        }
+        return eventLoopGroup;
+    }
+
     @Override
     public GeyserPingInfo getPingInformation(InetSocketAddress inetSocketAddress) {
         return pingInfo;
@@ -76,54 +132,255 @@ public class GeyserLegacyPingPassthrough implements IGeyserPingPassthrough, Runn
 
     @Override
     public void run() {
-        try {
-            Socket socket = new Socket();
-            String address = connector.getConfig().getRemote().getAddress();
-            int port = connector.getConfig().getRemote().getPort();
-            socket.connect(new InetSocketAddress(address, port), 5000);
-
-            ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
-            DataOutputStream handshake = new DataOutputStream(byteArrayStream);
-            handshake.write(0x0);
-            VarInts.writeUnsignedInt(handshake, MinecraftConstants.PROTOCOL_VERSION);
-            VarInts.writeUnsignedInt(handshake, address.length());
-            handshake.writeBytes(address);
-            handshake.writeShort(port);
-            VarInts.writeUnsignedInt(handshake, 1);
-
-            DataOutputStream dataOutputStream = new DataOutputStream(socket.getOutputStream());
-            VarInts.writeUnsignedInt(dataOutputStream, byteArrayStream.size());
-            dataOutputStream.write(byteArrayStream.toByteArray());
-            dataOutputStream.writeByte(0x01);
-            dataOutputStream.writeByte(0x00);
-
-            DataInputStream dataInputStream = new DataInputStream(socket.getInputStream());
-            VarInts.readUnsignedInt(dataInputStream);
-            VarInts.readUnsignedInt(dataInputStream);
-            int length = VarInts.readUnsignedInt(dataInputStream);
-            byte[] buffer = new byte[length];
-            dataInputStream.readFully(buffer);
-            dataOutputStream.writeByte(0x09);
-            dataOutputStream.writeByte(0x01);
-            dataOutputStream.writeLong(System.currentTimeMillis());
-
-            VarInts.readUnsignedInt(dataInputStream);
-            String json = new String(buffer);
-
-            this.pingInfo = GeyserConnector.JSON_MAPPER.readValue(json, GeyserPingInfo.class);
-
-            byteArrayStream.close();
-            handshake.close();
-            dataOutputStream.close();
-            dataInputStream.close();
-            socket.close();
-        } catch (SocketTimeoutException | ConnectException ex) {
+        for (Backend backend : backends) {
+            backend.ping();
+        }
+        // Drops servers that have been unreachable for too long
+        combine();
+    }
+
+    /**
+     * Rebuilds {@link #pingInfo} from the latest response of every server. Player counts are added up and the
+     * MOTD and version come from the first server in the list that has a response.
+     */
+    private synchronized void combine() {
+        long now = System.nanoTime();
+        GeyserPingInfo primary = null;
+        int online = 0;
+        int max = 0;
+        List<String> playerList = new ArrayList<>();
+        for (Backend backend : backends) {
+            GeyserPingInfo info = backend.lastInfo;
+            if (info == null || now - backend.lastSuccess > maxStaleNanos) {
+                continue;
+            }
+            if (primary == null) {
+                primary = info;
+            }
+            if (info.getPlayers() != null) {
+                online += info.getPlayers().getOnline();
+                max += info.getPlayers().getMax();
+            }
+            playerList.addAll(info.getPlayerList());
+        }
+
+        if (primary == null) {
             this.pingInfo = null;
-            this.connector.getLogger().debug("Connection timeout for ping passthrough.");
-        } catch (JsonParseException | JsonMappingException ex) {
-            this.connector.getLogger().error("Failed to parse json when pinging server!", ex);
-        } catch (IOException e) {
-            e.printStackTrace();
+            return;
+        }
+        if (backends.size() == 1) {
+            this.pingInfo = primary;
+            return;
+        }
+        GeyserPingInfo combined = new GeyserPingInfo(primary.getDescription(), new GeyserPingInfo.Players(max, online), primary.getVersion());
+        combined.setPlayerList(playerList);
+        this.pingInfo = combined;
+    }
+
+    /**
+     * @param server the server as address:port, where the port defaults to 25565
+     * @return the server to ping, or null if it could not be parsed
+     */
+    private Backend parseBackend(String server) {
+        int separator = server.lastIndexOf(':');
+        String address = separator == -1 ? server : server.substring(0, separator);
+        int port = 25565;
+        if (separator != -1) {
+            try {
+                port = Integer.parseInt(server.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        if (address.startsWith("[") && address.endsWith("]")) {
+            // IPv6
+            address = address.substring(1, address.length() - 1);
+        }
+        if (address.isEmpty() || port <= 0 || port > 65535) {
+            return null;
+        }
+        return new Backend(address, port);
+    }
+
+    private static GeyserPingInfo parse(JsonNode json) throws IOException {
+        GeyserPingInfo info = GeyserConnector.JSON_MAPPER.treeToValue(json, GeyserPingInfo.class);
+        for (JsonNode player : json.path("players").path("sample")) {
+            JsonNode name = player.get("name");
+            if (name != null) {
+                info.getPlayerList().add(name.asText());
+            }
+        }
+        return info;
+    }
+
+    private static void writeVarInt(ByteBuf buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte(value);
+    }
+
+    /**
+     * @return the value, or -1 if the buffer ends before the VarInt does
+     */
+    private static int readVarInt(ByteBuf buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.isReadable()) {
+                return -1;
+            }
+            byte b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CorruptedFrameException("VarInt too big");
+    }
+
+    private final class Backend {
+        private final String address;
+        private final int port;
+        /**
+         * Set while a ping is in progress so that overlapping pings are skipped
+         */
+        private final AtomicBoolean pinging = new AtomicBoolean();
+
+        private volatile GeyserPingInfo lastInfo;
+        private volatile long lastSuccess;
+
+        private Backend(String address, int port) {
+            this.address = address;
+            this.port = port;
+        }
+
+        private void ping() {
+            if (!pinging.compareAndSet(false, true)) {
+                connector.getLogger().debug("Skipping ping passthrough of " + address + ":" + port + " as the last ping has not finished.");
+                return;
+            }
+
+            new Bootstrap()
+                    .group(getEventLoopGroup())
+                    .channel(NioSocketChannel.class)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS)
+                    .handler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel channel) {
+                            channel.pipeline()
+                                    .addLast(new ReadTimeoutHandler(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+                                    .addLast(new StatusResponseDecoder(Backend.this));
+                        }
+                    })
+                    .connect(address, port)
+                    .addListener((ChannelFutureListener) future -> {
+                        if (!future.isSuccess()) {
+                            complete(null, future.cause());
+                            return;
+                        }
+                        future.channel().writeAndFlush(createRequest(future.channel().alloc()));
+                    });
+        }
+
+        private ByteBuf createRequest(ByteBufAllocator allocator) {
+            byte[] addressBytes = address.getBytes(StandardCharsets.UTF_8);
+
+            // Handshake with the next state set to status
+            ByteBuf handshake = allocator.buffer();
+            handshake.writeByte(0x00);
+            writeVarInt(handshake, MinecraftConstants.PROTOCOL_VERSION);
+            writeVarInt(handshake, addressBytes.length);
+            handshake.writeBytes(addressBytes);
+            handshake.writeShort(port);
+            writeVarInt(handshake, 1);
+
+            ByteBuf request = allocator.buffer(handshake.readableBytes() + 7);
+            writeVarInt(request, handshake.readableBytes());
+            request.writeBytes(handshake);
+            handshake.release();
+
+            // Status request
+            request.writeByte(0x01);
+            request.writeByte(0x00);
+            return request;
+        }
+
+        private void complete(GeyserPingInfo info, Throwable cause) {
+            if (info != null) {
+                this.lastInfo = info;
+                this.lastSuccess = System.nanoTime();
+            } else {
+                connector.getLogger().debug("Ping passthrough of " + address + ":" + port + " failed: " + cause);
+            }
+            pinging.set(false);
+            combine();
+        }
+    }
+
+    /**
+     * Reads the length-prefixed status response, completes the ping and closes the connection
+     */
+    private static final class StatusResponseDecoder extends ByteToMessageDecoder {
+        private final Backend backend;
+        private boolean completed;
+
+        private StatusResponseDecoder(Backend backend) {
+            this.backend = backend;
+        }
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+            if (completed) {
+                in.skipBytes(in.readableBytes());
+                return;
+            }
+            in.markReaderIndex();
+            int length = readVarInt(in);
+            if (length == -1) {
+                in.resetReaderIndex();
+                return;
+            }
+            if (length > MAX_RESPONSE_LENGTH) {
+                throw new CorruptedFrameException("Status response of " + length + " bytes is too large");
+            }
+            if (in.readableBytes() < length) {
+                in.resetReaderIndex();
+                return;
+            }
+
+            ByteBuf frame = in.readSlice(length);
+            readVarInt(frame); // Packet ID
+            int jsonLength = readVarInt(frame);
+            if (jsonLength < 0 || jsonLength > frame.readableBytes()) {
+                throw new CorruptedFrameException("Invalid status response");
+            }
+            JsonNode json;
+            try (ByteBufInputStream stream = new ByteBufInputStream(frame, jsonLength)) {
+                json = GeyserConnector.JSON_MAPPER.readTree(stream);
+            }
+            complete(parse(json), null);
+            ctx.close();
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            complete(null, cause);
+            ctx.close();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            super.channelInactive(ctx);
+            // Closed by the server before it sent a full response
+            complete(null, new ClosedChannelException());
+        }
+
+        private void complete(GeyserPingInfo info, Throwable cause) {
+            if (!completed) {
+                completed = true;
+                backend.complete(info, cause);
+            }
         }
     }
 }
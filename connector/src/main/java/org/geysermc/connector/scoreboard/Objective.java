@@ -26,10 +26,16 @@
 package org.geysermc.connector.scoreboard;
 
 import com.github.steveice10.mc.protocol.data.game.scoreboard.ScoreboardPosition;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
@@ -48,6 +54,11 @@ public final class Objective {
     private int type = 0; // 0 = integer, 1 = heart
 
     private Map<String, Score> scores = new ConcurrentHashMap<>();
+    /**
+     * Scores that have changed since the last {@link Scoreboard#onUpdate()}
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<Score> changedScores = ConcurrentHashMap.newKeySet();
 
     private Objective(Scoreboard scoreboard) {
         this.id = scoreboard.getNextId().getAndIncrement();
@@ -105,6 +116,7 @@ public final class Objective {
                     .setTeam(scoreboard.getTeamFor(id))
                     .setUpdateType(UpdateType.ADD);
             scores.put(id, scoreObject);
+            changedScores.add(scoreObject);
         }
     }
 
@@ -113,6 +125,7 @@ public final class Objective {
         if (stored != null) {
             stored.setScore(score)
                     .setUpdateType(UpdateType.UPDATE);
+            changedScores.add(stored);
             return;
         }
         registerScore(id, score);
@@ -122,6 +135,7 @@ public final class Objective {
         Score stored = scores.get(id);
         if (stored != null) {
             stored.setUpdateType(UpdateType.REMOVE);
+            changedScores.add(stored);
         }
     }
 
@@ -132,6 +146,48 @@ public final class Objective {
         scores.remove(id);
     }
 
+    /**
+     * Marks a score as changed, for example because the team it belongs to has changed.
+     */
+    void markChanged(Score score) {
+        changedScores.add(score);
+    }
+
+    /**
+     * Marks the score of the given entity as changed, if this objective has one.
+     */
+    void markChanged(String id) {
+        Score score = scores.get(id);
+        if (score != null) {
+            changedScores.add(score);
+        }
+    }
+
+    /**
+     * @return the scores that have changed since the last call. They are no longer marked as changed afterwards.
+     */
+    Collection<Score> pollChangedScores() {
+        List<Score> changed = new ArrayList<>(changedScores.size());
+        Iterator<Score> iterator = changedScores.iterator();
+        while (iterator.hasNext()) {
+            Score score = iterator.next();
+            iterator.remove();
+            // The score could have been removed, and maybe registered again, since it was marked
+            if (scores.get(score.getName()) == score) {
+                changed.add(score);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return every score of this objective, for when the whole objective has to be sent again
+     */
+    Collection<Score> pollAllScores() {
+        changedScores.clear();
+        return scores.values();
+    }
+
     public Objective setDisplayName(String displayName) {
         this.displayName = displayName;
         if (updateType == UpdateType.NOTHING) {
@@ -158,5 +214,6 @@ public final class Objective {
 
     public void removed() {
         scores = null;
+        changedScores.clear();
     }
 }
@@ -118,7 +118,6 @@ public final class Score {
 
         String name = this.name;
         if (cachedData.team != null) {
-            cachedData.team.prepareUpdate();
             name = cachedData.team.getDisplayName(name);
         }
         cachedInfo = new ScoreInfo(id, objectiveName, cachedData.score, name);
@@ -30,6 +30,7 @@ import com.nukkitx.protocol.bedrock.data.ScoreInfo;
 import com.nukkitx.protocol.bedrock.packet.RemoveObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetDisplayObjectivePacket;
 import com.nukkitx.protocol.bedrock.packet.SetScorePacket;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.GeyserLogger;
@@ -50,6 +51,16 @@ public final class Scoreboard {
 
     private final Map<String, Objective> objectives = new ConcurrentHashMap<>();
     private final Map<String, Team> teams = new HashMap<>();
+    /**
+     * The team of every entity that is in one, so looking it up doesn't have to go over every team
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Team> entityTeams = new HashMap<>();
+    /**
+     * Teams that have changed since the last update. The scores of their entities have to be sent again.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Set<Team> changedTeams = ConcurrentHashMap.newKeySet();
 
     private int lastAddScoreCount = 0;
     private int lastRemoveScoreCount = 0;
@@ -106,6 +117,7 @@ public final class Scoreboard {
 
         team = new Team(this, teamName).addEntities(players);
         teams.put(teamName, team);
+        changedTeams.add(team);
         return team;
     }
 
@@ -128,6 +140,9 @@ public final class Scoreboard {
         Team remove = teams.remove(teamName);
         if (remove != null) {
             remove.setUpdateType(REMOVE);
+            for (String entity : remove.getEntities()) {
+                entityTeams.remove(entity, remove);
+            }
         }
     }
 
@@ -136,6 +151,22 @@ public final class Scoreboard {
         List<ScoreInfo> removeScores = new ArrayList<>(getLastRemoveScoreCount());
         List<Objective> removedObjectives = new ArrayList<>();
 
+        // Take the current state of the changed teams and mark the scores of their entities as changed
+        List<Team> updatedTeams = new ArrayList<>(changedTeams.size());
+        Iterator<Team> changedTeamIterator = changedTeams.iterator();
+        while (changedTeamIterator.hasNext()) {
+            Team team = changedTeamIterator.next();
+            changedTeamIterator.remove();
+
+            team.prepareUpdate();
+            updatedTeams.add(team);
+            for (String entity : team.getEntities()) {
+                for (Objective objective : objectives.values()) {
+                    objective.markChanged(entity);
+                }
+            }
+        }
+
         for (Objective objective : objectives.values()) {
             if (!objective.isActive()) {
                 logger.debug("Ignoring non-active Scoreboard Objective '" + objective.getObjectiveName() + '\'');
@@ -144,7 +175,7 @@ public final class Scoreboard {
 
             // hearts can't hold teams, so we treat them differently
             if (objective.getType() == 1) {
-                for (Score score : objective.getScores().values()) {
+                for (Score score : objective.pollChangedScores()) {
                     boolean update = score.shouldUpdate();
 
                     if (update) {
@@ -165,7 +196,12 @@ public final class Scoreboard {
             boolean objectiveAdd = objective.getUpdateType() == ADD;
             boolean objectiveRemove = objective.getUpdateType() == REMOVE;
 
-            for (Score score : objective.getScores().values()) {
+            // every score has to be sent again if the objective itself changed
+            Collection<Score> scores = objective.getUpdateType() == NOTHING ?
+                    objective.pollChangedScores() :
+                    objective.pollAllScores();
+
+            for (Score score : scores) {
                 Team team = score.getTeam();
 
                 boolean add = objectiveAdd || objectiveUpdate;
@@ -235,17 +271,10 @@ public final class Scoreboard {
             objective.setUpdateType(NOTHING);
         }
 
-        Iterator<Team> teamIterator = teams.values().iterator();
-        while (teamIterator.hasNext()) {
-            Team current = teamIterator.next();
-
-            switch (current.getUpdateType()) {
-                case ADD:
-                case UPDATE:
-                    current.markUpdated();
-                    break;
-                case REMOVE:
-                    teamIterator.remove();
+        for (Team team : updatedTeams) {
+            // removed teams are already gone from the team map
+            if (team.getUpdateType() != REMOVE) {
+                team.markUpdated();
             }
         }
 
@@ -282,11 +311,29 @@ public final class Scoreboard {
     }
 
     public Team getTeamFor(String entity) {
-        for (Team team : teams.values()) {
-            if (team.hasEntity(entity)) {
-                return team;
-            }
-        }
-        return null;
+        return entityTeams.get(entity);
+    }
+
+    /**
+     * Used internally to keep track of the team of an entity
+     *
+     * @return the team the entity was in before
+     */
+    Team setTeamFor(String entity, Team team) {
+        return entityTeams.put(entity, team);
+    }
+
+    /**
+     * Used internally to keep track of the team of an entity
+     */
+    void removeTeamFor(String entity, Team team) {
+        entityTeams.remove(entity, team);
+    }
+
+    /**
+     * Used internally to mark a team as changed, so the scores of its entities will be sent again
+     */
+    void markChanged(Team team) {
+        changedTeams.add(team);
     }
 }
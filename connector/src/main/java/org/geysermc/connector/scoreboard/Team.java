@@ -27,7 +27,6 @@ package org.geysermc.connector.scoreboard;
 
 import com.github.steveice10.mc.protocol.data.game.scoreboard.NameTagVisibility;
 import com.github.steveice10.mc.protocol.data.game.scoreboard.TeamColor;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
@@ -36,6 +35,7 @@ import lombok.experimental.Accessors;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 @Accessors(chain = true)
@@ -57,7 +57,8 @@ public final class Team {
         this.scoreboard = scoreboard;
         this.id = id;
         currentData = new TeamData();
-        entities = new ObjectOpenHashSet<>();
+        // Read by the scoreboard updater while the team packets are translated
+        entities = ConcurrentHashMap.newKeySet();
     }
 
     private void checkAddedEntities(List<String> added) {
@@ -71,6 +72,7 @@ public final class Team {
                 Score score = objective.getScores().get(addedEntity);
                 if (score != null) {
                     score.setTeam(this);
+                    objective.markChanged(score);
                 }
             }
         }
@@ -79,9 +81,7 @@ public final class Team {
     public Team addEntities(String... names) {
         List<String> added = new ArrayList<>();
         for (String name : names) {
-            if (entities.add(name)) {
-                added.add(name);
-            }
+            addEntity(name, added);
         }
         checkAddedEntities(added);
         return this;
@@ -90,17 +90,32 @@ public final class Team {
     public Team addEntities(Set<String> names) {
         List<String> added = new ArrayList<>();
         for (String name : names) {
-            if (entities.add(name)) {
-                added.add(name);
-            }
+            addEntity(name, added);
         }
         checkAddedEntities(added);
         return this;
     }
 
+    private void addEntity(String name, List<String> added) {
+        if (entities.add(name)) {
+            added.add(name);
+            Team previous = scoreboard.setTeamFor(name, this);
+            if (previous != null && previous != this) {
+                // Like the Java client, an entity can only be in one team at a time
+                previous.entities.remove(name);
+            }
+        }
+    }
+
     public void removeEntities(String... names) {
         for (String name : names) {
-            entities.remove(name);
+            if (entities.remove(name)) {
+                scoreboard.removeTeamFor(name, this);
+                // the scores of the entity don't belong to this team anymore
+                for (Objective objective : scoreboard.getObjectives().values()) {
+                    objective.markChanged(name);
+                }
+            }
         }
     }
 
@@ -108,6 +123,10 @@ public final class Team {
         return entities.contains(name);
     }
 
+    Set<String> getEntities() {
+        return entities;
+    }
+
     public Team setName(String name) {
         currentData.name = name;
         return this;
@@ -175,6 +194,7 @@ public final class Team {
     public Team setUpdateType(UpdateType updateType) {
         if (updateType != UpdateType.NOTHING) {
             currentData.updateTime = System.currentTimeMillis();
+            scoreboard.markChanged(this);
         }
         currentData.updateType = updateType;
         return this;
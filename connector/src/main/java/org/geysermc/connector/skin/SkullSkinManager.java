@@ -25,6 +25,8 @@
 
 package org.geysermc.connector.skin;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nukkitx.protocol.bedrock.data.skin.ImageData;
 import com.nukkitx.protocol.bedrock.data.skin.SerializedSkin;
 import com.nukkitx.protocol.bedrock.packet.PlayerSkinPacket;
@@ -34,18 +36,34 @@ import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.utils.LanguageUtils;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class SkullSkinManager extends SkinManager {
+    /**
+     * Skull skins by texture URL. Decorative builds reuse the same few heads many times, so each texture is
+     * only converted once and the same skin object goes into every packet.
+     */
+    private static final Cache<String, SerializedSkin> SKULL_SKINS = CacheBuilder.newBuilder()
+            .maximumSize(1024)
+            .expireAfterAccess(1, TimeUnit.HOURS)
+            .build();
 
     public static SerializedSkin buildSkullEntryManually(String skinId, byte[] skinData) {
+        SerializedSkin cached = SKULL_SKINS.getIfPresent(skinId);
+        if (cached != null) {
+            return cached;
+        }
+        String textureUrl = skinId;
         // Prevents https://cdn.discordapp.com/attachments/613194828359925800/779458146191147008/unknown.png
         skinId = skinId + "_skull";
-        return SerializedSkin.of(
+        SerializedSkin skin = SerializedSkin.of(
                 skinId, "", SkinProvider.SKULL_GEOMETRY.getGeometryName(), ImageData.of(skinData), Collections.emptyList(),
                 ImageData.of(SkinProvider.EMPTY_CAPE.getCapeData()), SkinProvider.SKULL_GEOMETRY.getGeometryData(),
                 "", true, false, false, SkinProvider.EMPTY_CAPE.getCapeId(), skinId
         );
+        SKULL_SKINS.put(textureUrl, skin);
+        return skin;
     }
 
     public static void requestAndHandleSkin(PlayerEntity entity, GeyserSession session,
@@ -44,14 +44,11 @@ import com.nukkitx.protocol.bedrock.packet.NetworkChunkPublisherUpdatePacket;
 import com.nukkitx.protocol.bedrock.packet.UpdateBlockPacket;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.Data;
 import lombok.experimental.UtilityClass;
 import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.entity.Entity;
 import org.geysermc.connector.entity.ItemFrameEntity;
-import org.geysermc.connector.entity.player.SkullPlayerEntity;
 import org.geysermc.connector.network.session.GeyserSession;
 import org.geysermc.connector.network.translators.world.block.BlockStateValues;
 import org.geysermc.connector.network.translators.world.block.BlockTranslator;
@@ -74,12 +71,6 @@ import static org.geysermc.connector.network.translators.world.block.BlockTransl
 
 @UtilityClass
 public class ChunkUtils {
-    /**
-     * Temporarily stores positions of BlockState values that are needed for certain block entities actively.
-     * Not used if cache chunks is enabled
-     */
-    public static final Object2IntMap<Position> CACHED_BLOCK_ENTITIES = new Object2IntOpenHashMap<>();
-
     private static final NbtMap EMPTY_TAG = NbtMap.builder().build();
     public static final byte[] EMPTY_LEVEL_CHUNK_DATA;
 
@@ -174,10 +165,9 @@ public class ChunkUtils {
 
                     // Check if block is piston or flower to see if we'll need to create additional block entities, as they're only block entities in Bedrock
                     if (BlockStateValues.getFlowerPotValues().containsKey(javaId) || BlockStateValues.getPistonValues().containsKey(javaId)) {
-                        bedrockOnlyBlockEntities.add(BedrockOnlyBlockEntity.getTag(
-                                Vector3i.from((column.getX() << 4) + (yzx & 0xF), (sectionY << 4) + ((yzx >> 8) & 0xF), (column.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                javaId
-                        ));
+                        Vector3i blockPosition = Vector3i.from((column.getX() << 4) + (yzx & 0xF), (sectionY << 4) + ((yzx >> 8) & 0xF), (column.getZ() << 4) + ((yzx >> 4) & 0xF));
+                        bedrockOnlyBlockEntities.add(BedrockOnlyBlockEntity.getTag(blockPosition, javaId));
+                        session.getBlockEntityCache().putIfAbsent(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ(), javaId);
                     }
                 }
                 sections[sectionY] = section;
@@ -210,10 +200,10 @@ public class ChunkUtils {
                 for (int yzx = 0; yzx < BlockStorage.SIZE; yzx++) {
                     int paletteId = javaData.get(yzx);
                     if (pistonOrFlowerPaletteIds.get(paletteId)) {
-                        bedrockOnlyBlockEntities.add(BedrockOnlyBlockEntity.getTag(
-                                Vector3i.from((column.getX() << 4) + (yzx & 0xF), (sectionY << 4) + ((yzx >> 8) & 0xF), (column.getZ() << 4) + ((yzx >> 4) & 0xF)),
-                                javaPalette.idToState(paletteId)
-                        ));
+                        Vector3i blockPosition = Vector3i.from((column.getX() << 4) + (yzx & 0xF), (sectionY << 4) + ((yzx >> 8) & 0xF), (column.getZ() << 4) + ((yzx >> 4) & 0xF));
+                        int javaId = javaPalette.idToState(paletteId);
+                        bedrockOnlyBlockEntities.add(BedrockOnlyBlockEntity.getTag(blockPosition, javaId));
+                        session.getBlockEntityCache().putIfAbsent(blockPosition.getX(), blockPosition.getY(), blockPosition.getZ(), javaId);
                     }
                 }
             }
@@ -362,11 +352,8 @@ public class ChunkUtils {
             }
         }
 
-        SkullPlayerEntity skull = session.getSkullCache().get(position);
-        if (skull != null && blockState != skull.getBlockState()) {
-            // Skull is gone
-            skull.despawnEntity(session, position);
-        }
+        // Forget the custom skull if it is gone
+        session.getSkullCache().updateBlock(position, blockState);
 
         // Prevent moving_piston from being placed
         // It's used for extending piston heads, but it isn't needed on Bedrock and causes pistons to flicker
@@ -395,20 +382,23 @@ public class ChunkUtils {
         // Since Java stores bed colors/skull information as part of the namespaced ID and Bedrock stores it as a tag
         // This is the only place I could find that interacts with the Java block state and block updates
         // Iterates through all block entity translators and determines if the block state needs to be saved
-        for (RequiresBlockState requiresBlockState : BlockEntityTranslator.REQUIRES_BLOCK_STATE_LIST) {
-            if (requiresBlockState.isBlock(blockState)) {
+        boolean requiresBlockState = BlockStateValues.getPistonValues().containsKey(blockState);
+        for (RequiresBlockState translator : BlockEntityTranslator.REQUIRES_BLOCK_STATE_LIST) {
+            if (translator.isBlock(blockState)) {
                 // Flower pots are block entities only in Bedrock and are not updated anywhere else like note blocks
-                if (requiresBlockState instanceof BedrockOnlyBlockEntity) {
-                    ((BedrockOnlyBlockEntity) requiresBlockState).updateBlock(session, blockState, position);
-                    break;
-                }
-                if (!session.getConnector().getConfig().isCacheChunks()) {
-                    // Blocks aren't saved to a chunk cache; resort to this smaller cache
-                    CACHED_BLOCK_ENTITIES.put(new Position(position.getX(), position.getY(), position.getZ()), blockState);
+                if (translator instanceof BedrockOnlyBlockEntity) {
+                    ((BedrockOnlyBlockEntity) translator).updateBlock(session, blockState, position);
                 }
+                requiresBlockState = true;
                 break; //No block will be a part of two classes
             }
         }
+        if (requiresBlockState) {
+            session.getBlockEntityCache().put(position.getX(), position.getY(), position.getZ(), blockState);
+        } else {
+            // Whatever block entity was here is gone, or doesn't need its block state
+            session.getBlockEntityCache().remove(position.getX(), position.getY(), position.getZ());
+        }
         session.getChunkCache().updateBlock(position.getX(), position.getY(), position.getZ(), blockState);
     }
 
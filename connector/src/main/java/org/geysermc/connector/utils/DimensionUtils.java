@@ -62,6 +62,9 @@ public class DimensionUtils {
         session.getItemFrameCache().clear();
         session.getPistonCache().clear();
         session.getSkullCache().clear();
+        session.getChunkCache().clear();
+        session.getBlockEntityCache().clear();
+        session.getEffectLimitCache().clear();
 
         Vector3i pos = Vector3i.from(0, Short.MAX_VALUE, 0);
 
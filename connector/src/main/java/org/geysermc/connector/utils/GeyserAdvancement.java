@@ -26,24 +26,69 @@
 package org.geysermc.connector.utils;
 
 import com.github.steveice10.mc.protocol.data.game.advancement.Advancement;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import lombok.NonNull;
-import org.geysermc.connector.network.session.cache.AdvancementsCache;
 
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 
 /**
- * A wrapper around MCProtocolLib's {@link Advancement} class so we can control the parent of an advancement
+ * A wrapper around MCProtocolLib's {@link Advancement} class. Instances are immutable and shared between sessions:
+ * every player on a server receives the same advancements, so each distinct definition is only kept once.
+ *
+ * Criteria are numbered so a player's progress on an advancement fits in a {@link BitSet}.
  */
-public class GeyserAdvancement {
+public final class GeyserAdvancement {
+    private static final Interner<GeyserAdvancement> DEFINITIONS = Interners.newWeakInterner();
+
     private final Advancement advancement;
-    private String rootId = null;
+    private final int hashCode;
+    /**
+     * The bit of each criterion in a progress bitset
+     */
+    private final Object2IntMap<String> criterionIndexes;
+    /**
+     * The bits of {@link #getRequirements()}
+     */
+    private final int[][] requirementIndexes;
 
+    /**
+     * @param advancement the advancement as decoded from the server
+     * @return the shared definition equal to this advancement
+     */
     public static GeyserAdvancement from(Advancement advancement) {
-        return new GeyserAdvancement(advancement);
+        return DEFINITIONS.intern(new GeyserAdvancement(advancement));
     }
 
     private GeyserAdvancement(Advancement advancement) {
         this.advancement = advancement;
+        this.hashCode = advancement.hashCode();
+
+        this.criterionIndexes = new Object2IntOpenHashMap<>(advancement.getCriteria().size());
+        this.criterionIndexes.defaultReturnValue(-1);
+        for (String criterion : advancement.getCriteria()) {
+            criterionIndexes.putIfAbsent(criterion, criterionIndexes.size());
+        }
+
+        List<List<String>> requirements = advancement.getRequirements();
+        this.requirementIndexes = new int[requirements.size()][];
+        for (int i = 0; i < requirements.size(); i++) {
+            List<String> group = requirements.get(i);
+            requirementIndexes[i] = new int[group.size()];
+            for (int j = 0; j < group.size(); j++) {
+                // Requirements should only name criteria, but don't trust the server on that
+                int index = criterionIndexes.getInt(group.get(j));
+                if (index == -1) {
+                    index = criterionIndexes.size();
+                    criterionIndexes.put(group.get(j), index);
+                }
+                requirementIndexes[i][j] = index;
+            }
+        }
     }
 
     @NonNull
@@ -69,21 +114,62 @@ public class GeyserAdvancement {
         return this.advancement.getDisplayData();
     }
 
-    public String getRootId(AdvancementsCache advancementsCache) {
-        if (rootId == null) {
-            if (this.advancement.getParentId() == null) {
-                // We are the root ID
-                this.rootId = this.advancement.getId();
-            } else {
-                // Go through our cache, and descend until we find the root ID
-                GeyserAdvancement advancement = advancementsCache.getStoredAdvancements().get(this.advancement.getParentId());
-                if (advancement.getParentId() == null) {
-                    this.rootId = advancement.getId();
-                } else {
-                    this.rootId = advancement.getRootId(advancementsCache);
+    /**
+     * @param criteria the criteria from a progress update, mapped to the time they were obtained or -1 if they weren't
+     * @return the obtained criteria as a bitset of this advancement
+     */
+    public BitSet toProgress(Map<String, Long> criteria) {
+        BitSet progress = new BitSet(criterionIndexes.size());
+        for (Map.Entry<String, Long> entry : criteria.entrySet()) {
+            int index = criterionIndexes.getInt(entry.getKey());
+            if (index != -1 && entry.getValue() != null && entry.getValue() != -1L) {
+                progress.set(index);
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Each group of requirements must have at least one criterion obtained. For example, [[zombie, blaze, skeleton]]
+     * means that one of those three must be achieved, but [[zombie], [blaze], [skeleton]] means that all three must be.
+     *
+     * @param progress the obtained criteria, or null if nothing has been obtained
+     * @return true if the advancement is earned with this progress
+     */
+    public boolean isEarned(BitSet progress) {
+        if (requirementIndexes.length == 0 || progress == null) {
+            // Minecraft handles no requirements as never earned, so we better as well
+            return false;
+        }
+        for (int[] group : requirementIndexes) {
+            boolean groupDone = false;
+            for (int index : group) {
+                if (progress.get(index)) {
+                    groupDone = true;
+                    break;
                 }
             }
+            if (!groupDone) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GeyserAdvancement)) {
+            return false;
         }
-        return rootId;
+        GeyserAdvancement other = (GeyserAdvancement) o;
+        return hashCode == other.hashCode && advancement.equals(other.advancement);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 }
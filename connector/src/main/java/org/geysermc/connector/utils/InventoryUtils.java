@@ -37,7 +37,6 @@ import com.nukkitx.protocol.bedrock.data.inventory.ContainerId;
 import com.nukkitx.protocol.bedrock.data.inventory.ItemData;
 import com.nukkitx.protocol.bedrock.packet.InventorySlotPacket;
 import com.nukkitx.protocol.bedrock.packet.PlayerHotbarPacket;
-import org.geysermc.connector.GeyserConnector;
 import org.geysermc.connector.common.ChatColor;
 import org.geysermc.connector.inventory.Inventory;
 import org.geysermc.connector.network.session.GeyserSession;
@@ -68,7 +67,7 @@ public class InventoryUtils {
                 delay = Math.max(delay, 200);
             }
             if (delay > 0) {
-                GeyserConnector.getInstance().getGeneralThreadPool().schedule(() -> {
+                session.getTimerWheel().schedule(() -> {
                     translator.openInventory(session, inventory);
                     translator.updateInventory(session, inventory);
                 }, delay, TimeUnit.MILLISECONDS);
@@ -85,4 +85,28 @@ public class MathUtils {
     public static long chunkPositionToLong(int x, int z) {
         return ((x & 0xFFFFFFFFL) << 32L) | (z & 0xFFFFFFFFL);
     }
+
+    /**
+     * Packs a block position into a single {@code long}, with 26 bits for X and Z and 12 bits for Y.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @param z the Z coordinate
+     * @return the packed coordinates
+     */
+    public static long blockPositionToLong(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    public static int blockPositionX(long position) {
+        return (int) (position >> 38);
+    }
+
+    public static int blockPositionY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    public static int blockPositionZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
 }
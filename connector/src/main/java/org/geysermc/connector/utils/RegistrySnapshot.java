@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.geysermc.connector.GeyserConnector;
+import org.geysermc.connector.event.EventManager;
+import org.geysermc.connector.event.events.geyser.ResourceReadEvent;
+import org.geysermc.connector.network.translators.Translator;
+import org.geysermc.connector.network.translators.collision.CollisionRemapper;
+import org.geysermc.connector.network.translators.item.ItemRemapper;
+import org.geysermc.connector.network.translators.sound.SoundHandler;
+import org.geysermc.connector.network.translators.world.block.entity.BlockEntity;
+import org.geysermc.connector.network.translators.world.block.entity.RequiresBlockState;
+import org.reflections.Reflections;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A binary snapshot of the mapping files and translator class lists, written at build time so that startup
+ * neither has to parse several megabytes of JSON nor scan the classpath.
+ *
+ * The snapshot is only used in built jars and is validated with a checksum. Whenever it is missing, corrupt,
+ * or does not contain something, the JSON files and Reflections are used like before.
+ */
+public final class RegistrySnapshot {
+    public static final String RESOURCE = "META-INF/geyser/registry-snapshot.bin";
+
+    private static final int MAGIC = 0x47535253; // GSRS
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Every mapping file read through {@link #readJson(String)} during startup
+     */
+    private static final String[] JSON_RESOURCES = {
+            "bedrock/creative_items.json",
+            "bedrock/runtime_item_states.json",
+            "mappings/blocks.json",
+            "mappings/collision.json",
+            "mappings/effects.json",
+            "mappings/items.json",
+            "mappings/particles.json",
+            "mappings/recipes.json",
+            "mappings/sounds.json"
+    };
+
+    private static final byte SECTION_JSON = 0;
+    private static final byte SECTION_CLASSES = 1;
+
+    private static final byte NODE_NULL = 0;
+    private static final byte NODE_TRUE = 1;
+    private static final byte NODE_FALSE = 2;
+    private static final byte NODE_INT = 3;
+    private static final byte NODE_LONG = 4;
+    private static final byte NODE_DOUBLE = 5;
+    private static final byte NODE_STRING = 6;
+    private static final byte NODE_ARRAY = 7;
+    private static final byte NODE_OBJECT = 8;
+
+    private static RegistrySnapshot instance;
+
+    private final Map<String, JsonNode> json;
+    private final Map<String, List<String>> classes;
+
+    private RegistrySnapshot(Map<String, JsonNode> json, Map<String, List<String>> classes) {
+        this.json = json;
+        this.classes = classes;
+    }
+
+    /**
+     * Read a mapping file from the snapshot, or parse it if the snapshot cannot be used.
+     * Each file is handed out once, as the registries only read it during startup.
+     *
+     * @param resource the path of the JSON resource
+     * @return the parsed JSON tree
+     * @throws IOException if the snapshot cannot be used and the file cannot be parsed
+     */
+    public static JsonNode readJson(String resource) throws IOException {
+        JsonNode node;
+        RegistrySnapshot snapshot = get();
+        synchronized (snapshot) {
+            node = snapshot.json.remove(resource);
+        }
+        // Extensions can replace resources, which only works with the files themselves
+        if (node != null && !EventManager.getInstance().hasHandlers(ResourceReadEvent.class)) {
+            return node;
+        }
+        try (InputStream stream = FileUtils.getResource(resource)) {
+            return GeyserConnector.JSON_MAPPER.readTree(stream);
+        }
+    }
+
+    /**
+     * Get the classes in a package that have an annotation, from the snapshot or the stored reflection data.
+     *
+     * @param packageName the package to look in
+     * @param annotation the annotation to look for
+     * @return the annotated classes
+     */
+    public static Set<Class<?>> getTypesAnnotatedWith(String packageName, Class<? extends Annotation> annotation) {
+        Set<Class<?>> types = get().loadClasses(classesKey(packageName, annotation));
+        if (types != null) {
+            return types;
+        }
+        return getReflections(packageName).getTypesAnnotatedWith(annotation);
+    }
+
+    /**
+     * Get the classes in a package that extend or implement a type, from the snapshot or the stored reflection data.
+     *
+     * @param packageName the package to look in
+     * @param type the type the classes must be a subtype of
+     * @return the subtypes
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Set<Class<? extends T>> getSubTypesOf(String packageName, Class<T> type) {
+        Set<Class<?>> types = get().loadClasses(classesKey(packageName, type));
+        if (types != null) {
+            return (Set<Class<? extends T>>) (Set<?>) types;
+        }
+        return getReflections(packageName).getSubTypesOf(type);
+    }
+
+    private static Reflections getReflections(String packageName) {
+        return GeyserConnector.getInstance().useXmlReflections() ? FileUtils.getReflections(packageName) : new Reflections(packageName);
+    }
+
+    private static String classesKey(String packageName, Class<?> type) {
+        return packageName + ":" + type.getName();
+    }
+
+    private Set<Class<?>> loadClasses(String key) {
+        List<String> names = classes.get(key);
+        if (names == null) {
+            return null;
+        }
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (String name : names) {
+            try {
+                types.add(Class.forName(name, false, RegistrySnapshot.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                // The snapshot does not match this jar
+                GeyserConnector.getInstance().getLogger().debug("Registry snapshot lists missing class " + name);
+                return null;
+            }
+        }
+        return types;
+    }
+
+    private static synchronized RegistrySnapshot get() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    private static RegistrySnapshot load() {
+        RegistrySnapshot empty = new RegistrySnapshot(new HashMap<>(), Collections.emptyMap());
+        // In IDEs the snapshot in the build output can be older than the sources
+        //noinspection ConstantConditions
+        if ("DEV".equals(GeyserConnector.VERSION)) {
+            return empty;
+        }
+        InputStream stream = RegistrySnapshot.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (stream == null) {
+            return empty;
+        }
+
+        long start = System.nanoTime();
+        try (DataInputStream input = new DataInputStream(stream)) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                GeyserConnector.getInstance().getLogger().debug("Ignoring registry snapshot of an unknown format");
+                return empty;
+            }
+            long checksum = input.readLong();
+            byte[] payload = new byte[input.readInt()];
+            input.readFully(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != checksum) {
+                GeyserConnector.getInstance().getLogger().warning("The registry snapshot is corrupt, loading mappings from JSON instead");
+                return empty;
+            }
+
+            RegistrySnapshot snapshot = new Reader(payload).read();
+            GeyserConnector.getInstance().getLogger().debug("Loaded registry snapshot in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            GeyserConnector.getInstance().getLogger().warning("Unable to read the registry snapshot, loading mappings from JSON instead", e);
+            return empty;
+        }
+    }
+
+    /**
+     * Writes the snapshot. Run by the build after the classes have been compiled, with the build output on the classpath.
+     *
+     * @param args the output file
+     * @throws IOException if a mapping file cannot be read or the snapshot cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Writer writer = new Writer();
+        for (String resource : JSON_RESOURCES) {
+            try (InputStream stream = RegistrySnapshot.class.getClassLoader().getResourceAsStream(resource)) {
+                if (stream == null) {
+                    throw new IOException("Missing resource " + resource);
+                }
+                writer.json(resource, GeyserConnector.JSON_MAPPER.readTree(stream));
+            }
+        }
+
+        writer.annotated("org.geysermc.connector.network.translators", Translator.class);
+        writer.annotated("org.geysermc.connector.network.translators.collision.translators", CollisionRemapper.class);
+        writer.annotated("org.geysermc.connector.network.translators.item", ItemRemapper.class);
+        writer.annotated("org.geysermc.connector.network.translators.sound", SoundHandler.class);
+        writer.annotated("org.geysermc.connector.network.translators.world.block.entity", BlockEntity.class);
+        writer.subTypes("org.geysermc.connector.network.translators.world.block.entity", RequiresBlockState.class);
+
+        Path output = Paths.get(args[0]);
+        Files.createDirectories(output.getParent());
+        try (OutputStream stream = Files.newOutputStream(output)) {
+            writer.write(stream);
+        }
+    }
+
+    private static final class Writer {
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final List<String> stringTable = new ArrayList<>();
+        private final ByteArrayOutputStream sections = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(sections);
+        private int sectionCount;
+
+        private void json(String resource, JsonNode node) throws IOException {
+            out.writeByte(SECTION_JSON);
+            writeString(resource);
+            writeNode(node);
+            sectionCount++;
+        }
+
+        private void annotated(String packageName, Class<? extends Annotation> annotation) throws IOException {
+            classes(classesKey(packageName, annotation), new Reflections(packageName).getTypesAnnotatedWith(annotation));
+        }
+
+        private void subTypes(String packageName, Class<?> type) throws IOException {
+            classes(classesKey(packageName, type), new Reflections(packageName).getSubTypesOf(type));
+        }
+
+        private void classes(String key, Set<? extends Class<?>> types) throws IOException {
+            out.writeByte(SECTION_CLASSES);
+            writeString(key);
+            writeVarInt(types.size());
+            for (Class<?> type : types) {
+                writeString(type.getName());
+            }
+            sectionCount++;
+        }
+
+        private void writeNode(JsonNode node) throws IOException {
+            switch (node.getNodeType()) {
+                case BOOLEAN:
+                    out.writeByte(node.booleanValue() ? NODE_TRUE : NODE_FALSE);
+                    break;
+                case NUMBER:
+                    if (node.isInt()) {
+                        out.writeByte(NODE_INT);
+                        out.writeInt(node.intValue());
+                    } else if (node.isLong()) {
+                        out.writeByte(NODE_LONG);
+                        out.writeLong(node.longValue());
+                    } else if (node.isDouble()) {
+                        out.writeByte(NODE_DOUBLE);
+                        out.writeDouble(node.doubleValue());
+                    } else {
+                        throw new IOException("Unsupported number " + node);
+                    }
+                    break;
+                case STRING:
+                    out.writeByte(NODE_STRING);
+                    writeString(node.textValue());
+                    break;
+                case ARRAY:
+                    out.writeByte(NODE_ARRAY);
+                    writeVarInt(node.size());
+                    for (JsonNode element : node) {
+                        writeNode(element);
+                    }
+                    break;
+                case OBJECT:
+                    out.writeByte(NODE_OBJECT);
+                    writeVarInt(node.size());
+                    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                    while (fields.hasNext()) {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        writeString(field.getKey());
+                        writeNode(field.getValue());
+                    }
+                    break;
+                case NULL:
+                    out.writeByte(NODE_NULL);
+                    break;
+                default:
+                    throw new IOException("Unsupported JSON node " + node.getNodeType());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = stringTable.size();
+                strings.put(value, index);
+                stringTable.add(value);
+            }
+            writeVarInt(index);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            writeVarInt(out, value);
+        }
+
+        private void write(OutputStream stream) throws IOException {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            // Strings go first so the reader can resolve indexes as it goes
+            writeVarInt(payload, stringTable.size());
+            for (String value : stringTable) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(payload, bytes.length);
+                payload.write(bytes);
+            }
+            writeVarInt(payload, sectionCount);
+            out.flush();
+            sections.writeTo(payload);
+            payload.flush();
+
+            byte[] data = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(data);
+
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeLong(crc.getValue());
+            header.writeInt(data.length);
+            header.write(data);
+            header.flush();
+        }
+
+        private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+        private final JsonNodeFactory factory = JsonNodeFactory.instance;
+        private final DataInputStream in;
+        private String[] strings;
+
+        private Reader(byte[] payload) {
+            this.in = new DataInputStream(new ByteArrayInputStream(payload));
+        }
+
+        private RegistrySnapshot read() throws IOException {
+            strings = new String[readVarInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[readVarInt()];
+                in.readFully(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            Map<String, JsonNode> json = new HashMap<>();
+            Map<String, List<String>> classes = new HashMap<>();
+            int sectionCount = readVarInt();
+            for (int i = 0; i < sectionCount; i++) {
+                byte kind = in.readByte();
+                String name = readString();
+                if (kind == SECTION_JSON) {
+                    json.put(name, readNode());
+                } else if (kind == SECTION_CLASSES) {
+                    String[] names = new String[readVarInt()];
+                    for (int j = 0; j < names.length; j++) {
+                        names[j] = readString();
+                    }
+                    classes.put(name, Arrays.asList(names));
+                } else {
+                    throw new IOException("Unknown section " + kind);
+                }
+            }
+            return new RegistrySnapshot(json, classes);
+        }
+
+        private JsonNode readNode() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case NODE_NULL:
+                    return factory.nullNode();
+                case NODE_TRUE:
+                    return factory.booleanNode(true);
+                case NODE_FALSE:
+                    return factory.booleanNode(false);
+                case NODE_INT:
+                    return factory.numberNode(in.readInt());
+                case NODE_LONG:
+                    return factory.numberNode(in.readLong());
+                case NODE_DOUBLE:
+                    return factory.numberNode(in.readDouble());
+                case NODE_STRING:
+                    return factory.textNode(readString());
+                case NODE_ARRAY: {
+                    int size = readVarInt();
+                    ArrayNode array = factory.arrayNode(size);
+                    for (int i = 0; i < size; i++) {
+                        array.add(readNode());
+                    }
+                    return array;
+                }
+                case NODE_OBJECT: {
+                    int size = readVarInt();
+                    ObjectNode object = factory.objectNode();
+                    for (int i = 0; i < size; i++) {
+                        String key = readString();
+                        object.set(key, readNode());
+                    }
+                    return object;
+                }
+                default:
+                    throw new IOException("Unknown node type " + type);
+            }
+        }
+
+        private String readString() throws IOException {
+            return strings[readVarInt()];
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = in.readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("VarInt too big");
+        }
+    }
+}
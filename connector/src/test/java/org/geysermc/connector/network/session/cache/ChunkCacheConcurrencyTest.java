@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.session.cache;
+
+import com.github.steveice10.mc.protocol.data.game.chunk.Chunk;
+import com.github.steveice10.mc.protocol.data.game.chunk.Column;
+import com.github.steveice10.opennbt.tag.builtin.CompoundTag;
+import org.geysermc.connector.configuration.GeyserConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replays recorded-style packet traces into chunk caches while other threads read from them, the way the
+ * downstream thread, chunk translation and collision share a session's cache.
+ */
+public class ChunkCacheConcurrencyTest {
+    private static final int SESSIONS = 2;
+    private static final int READERS_PER_SESSION = 3;
+    private static final int TRACE_LENGTH = 20000;
+
+    /**
+     * Columns 0-3 on both axes
+     */
+    private static final int AREA = 4;
+    private static final int SECTIONS = 4;
+    /**
+     * Each column only ever contains air or states from its own range, so a read that mixes up
+     * palettes or columns shows up as a state from the wrong range
+     */
+    private static final int STATES_PER_COLUMN = 600;
+    private static final int[] PALETTE_SIZES = {1, 2, 5, 16, 40, 300};
+
+    private static final GeyserConfiguration.IChunkCacheLimitsInfo UNLIMITED = new GeyserConfiguration.IChunkCacheLimitsInfo() {
+        @Override
+        public int getSessionMegabytes() {
+            return 0;
+        }
+
+        @Override
+        public int getTotalMegabytes() {
+            return 0;
+        }
+    };
+
+    @Test
+    public void concurrentReplay() throws InterruptedException {
+        List<ChunkCache> caches = new ArrayList<>();
+        List<List<Object>> traces = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            caches.add(new ChunkCache(null, true, UNLIMITED));
+            traces.add(trace(i));
+        }
+
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            ChunkCache cache = caches.get(i);
+            List<Object> trace = traces.get(i);
+            writers.add(thread(failures, start, () -> replay(cache, trace)));
+            for (int j = 0; j < READERS_PER_SESSION; j++) {
+                long seed = i * 31L + j;
+                readers.add(thread(failures, start, () -> read(cache, writing, seed)));
+            }
+        }
+
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError("Concurrent access failed");
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+
+        long total = 0;
+        for (int i = 0; i < SESSIONS; i++) {
+            assertMatchesModel(caches.get(i), traces.get(i));
+            total += caches.get(i).getMemoryUsage();
+        }
+        Assert.assertEquals(total, ChunkCache.getTotalMemoryUsage());
+
+        for (ChunkCache cache : caches) {
+            cache.clear();
+        }
+        Assert.assertEquals(0, ChunkCache.getTotalMemoryUsage());
+    }
+
+    private static Thread thread(ConcurrentLinkedQueue<Throwable> failures, CountDownLatch start, Runnable runnable) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+                runnable.run();
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void replay(ChunkCache cache, List<Object> trace) {
+        for (Object packet : trace) {
+            if (packet instanceof Column) {
+                cache.addToCache((Column) packet);
+            } else if (packet instanceof BlockChange) {
+                BlockChange change = (BlockChange) packet;
+                cache.updateBlock(change.x, change.y, change.z, change.state);
+            } else {
+                long position = (Long) packet;
+                cache.removeChunk((int) (position >> 32), (int) position);
+            }
+        }
+    }
+
+    private static void read(ChunkCache cache, AtomicBoolean writing, long seed) {
+        Random random = new Random(seed);
+        while (writing.get()) {
+            int chunkX = random.nextInt(AREA);
+            int chunkZ = random.nextInt(AREA);
+            if (random.nextInt(64) == 0) {
+                Chunk chunk = new Chunk();
+                if (cache.copySection(chunkX, random.nextInt(SECTIONS), chunkZ, chunk)) {
+                    for (int i = 0; i < CachedSection.SIZE; i++) {
+                        assertInRange(chunkX, chunkZ, chunk.get(i & 0xF, (i >> 8) & 0xF, (i >> 4) & 0xF));
+                    }
+                }
+                int[] biomes = cache.getBiomeData(chunkX, chunkZ);
+                Assert.assertTrue(biomes == null || biomes.length == 1024);
+            } else {
+                int x = (chunkX << 4) | random.nextInt(16);
+                int z = (chunkZ << 4) | random.nextInt(16);
+                assertInRange(chunkX, chunkZ, cache.getBlockAt(x, random.nextInt(SECTIONS * 16), z));
+            }
+        }
+    }
+
+    private static void assertInRange(int chunkX, int chunkZ, int state) {
+        int base = firstState(chunkX, chunkZ);
+        if (state != 0 && (state < base || state >= base + STATES_PER_COLUMN)) {
+            throw new AssertionError("State " + state + " does not belong to column " + chunkX + ", " + chunkZ);
+        }
+    }
+
+    /**
+     * Replays the trace into a plain array model and compares the cache against it
+     */
+    private static void assertMatchesModel(ChunkCache cache, List<Object> trace) {
+        Map<Long, int[][]> model = new HashMap<>();
+        for (Object packet : trace) {
+            if (packet instanceof Column) {
+                Column column = (Column) packet;
+                long position = position(column.getX(), column.getZ());
+                int[][] sections = column.getBiomeData() == null ? model.get(position) : null;
+                if (sections == null) {
+                    sections = new int[SECTIONS][];
+                    model.put(position, sections);
+                }
+                for (int i = 0; i < SECTIONS; i++) {
+                    Chunk chunk = column.getChunks()[i];
+                    if (chunk != null) {
+                        sections[i] = new int[CachedSection.SIZE];
+                        for (int j = 0; j < CachedSection.SIZE; j++) {
+                            sections[i][j] = chunk.get(j & 0xF, (j >> 8) & 0xF, (j >> 4) & 0xF);
+                        }
+                    }
+                }
+            } else if (packet instanceof BlockChange) {
+                BlockChange change = (BlockChange) packet;
+                int[][] sections = model.get(position(change.x >> 4, change.z >> 4));
+                if (sections != null && sections[change.y >> 4] != null) {
+                    sections[change.y >> 4][CachedSection.index(change.x & 0xF, change.y & 0xF, change.z & 0xF)] = change.state;
+                }
+            } else {
+                model.remove((Long) packet);
+            }
+        }
+
+        for (int chunkX = 0; chunkX < AREA; chunkX++) {
+            for (int chunkZ = 0; chunkZ < AREA; chunkZ++) {
+                int[][] sections = model.get(position(chunkX, chunkZ));
+                Assert.assertEquals(sections != null, cache.getChunk(chunkX, chunkZ) != null);
+                for (int sectionY = 0; sectionY < SECTIONS; sectionY++) {
+                    int[] expected = sections == null || sections[sectionY] == null ? new int[CachedSection.SIZE] : sections[sectionY];
+                    int[] actual = new int[CachedSection.SIZE];
+                    for (int i = 0; i < CachedSection.SIZE; i++) {
+                        actual[i] = cache.getBlockAt((chunkX << 4) | (i & 0xF), (sectionY << 4) | (i >> 8), (chunkZ << 4) | ((i >> 4) & 0xF));
+                    }
+                    Assert.assertArrayEquals("Column " + chunkX + ", " + chunkZ + " section " + sectionY, expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return full chunks, partial chunks, block changes and unloads in roughly the proportions a moving player sees
+     */
+    private static List<Object> trace(long seed) {
+        Random random = new Random(seed);
+        List<Object> trace = new ArrayList<>(TRACE_LENGTH);
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            int chunkX = random.nextInt(AREA);
+            int chunkZ = random.nextInt(AREA);
+            int roll = random.nextInt(100);
+            if (roll < 4) {
+                trace.add(column(chunkX, chunkZ, true, random));
+            } else if (roll < 6) {
+                trace.add(column(chunkX, chunkZ, false, random));
+            } else if (roll < 7) {
+                trace.add(position(chunkX, chunkZ));
+            } else {
+                int x = (chunkX << 4) | random.nextInt(16);
+                int z = (chunkZ << 4) | random.nextInt(16);
+                int state = random.nextInt(8) == 0 ? 0 : firstState(chunkX, chunkZ) + random.nextInt(STATES_PER_COLUMN);
+                trace.add(new BlockChange(x, random.nextInt(SECTIONS * 16), z, state));
+            }
+        }
+        return trace;
+    }
+
+    private static Column column(int chunkX, int chunkZ, boolean full, Random random) {
+        Chunk[] chunks = new Chunk[16];
+        for (int sectionY = 0; sectionY < SECTIONS; sectionY++) {
+            if (!full && random.nextBoolean()) {
+                continue;
+            }
+            int[] palette = new int[PALETTE_SIZES[random.nextInt(PALETTE_SIZES.length)]];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = firstState(chunkX, chunkZ) + random.nextInt(STATES_PER_COLUMN);
+            }
+            Chunk chunk = new Chunk();
+            for (int i = 0; i < CachedSection.SIZE; i++) {
+                chunk.set(i & 0xF, (i >> 8) & 0xF, (i >> 4) & 0xF, palette[random.nextInt(palette.length)]);
+            }
+            chunks[sectionY] = chunk;
+        }
+        int[] biomes = null;
+        if (full) {
+            biomes = new int[1024];
+            Arrays.fill(biomes, random.nextInt(80));
+        }
+        return new Column(chunkX, chunkZ, chunks, new CompoundTag[0], new CompoundTag("HeightMaps"), biomes);
+    }
+
+    private static int firstState(int chunkX, int chunkZ) {
+        return 1 + (chunkX * AREA + chunkZ) * STATES_PER_COLUMN;
+    }
+
+    private static long position(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static final class BlockChange {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final int state;
+
+        private BlockChange(int x, int y, int z, int state) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019-2021 GeyserMC. http://geysermc.org
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ * @author GeyserMC
+ * @link https://github.com/GeyserMC/Geyser
+ */
+
+
+package org.geysermc.connector.network.translators.java;
+
+import com.github.steveice10.mc.protocol.data.game.recipe.Recipe;
+import com.github.steveice10.mc.protocol.data.game.recipe.RecipeType;
+import com.nukkitx.protocol.bedrock.data.inventory.CraftingData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class TranslatedRecipeCacheTest {
+    private static final Recipe[] RECIPES = {
+            new Recipe(RecipeType.CRAFTING_SPECIAL_BOOKCLONING, "minecraft:book_cloning", null),
+            new Recipe(RecipeType.CRAFTING_SPECIAL_REPAIRITEM, "minecraft:repair_item", null)
+    };
+
+    private final TranslatedRecipeCache cache = new TranslatedRecipeCache();
+    private final AtomicInteger translations = new AtomicInteger();
+    /**
+     * Returns a new list for every translation, so a cache hit can be told apart by identity
+     */
+    private final Function<Recipe[], List<CraftingData>> translator = recipes -> {
+        translations.incrementAndGet();
+        return new ArrayList<>();
+    };
+
+    @Test
+    public void sharesEqualRecipes() {
+        List<CraftingData> miss = cache.get(RECIPES, "en_us", translator);
+        // An equal but not identical array, as sent to the next player
+        List<CraftingData> hit = cache.get(Arrays.copyOf(RECIPES, RECIPES.length), "en_us", translator);
+
+        Assert.assertSame("Equal recipes are translated again", miss, hit);
+        Assert.assertEquals(1, translations.get());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void separatesRecipesAndLocales() {
+        List<CraftingData> english = cache.get(RECIPES, "en_us", translator);
+        List<CraftingData> german = cache.get(RECIPES, "de_de", translator);
+        List<CraftingData> fewer = cache.get(Arrays.copyOf(RECIPES, 1), "en_us", translator);
+
+        Assert.assertNotSame("Locales share translated recipes", english, german);
+        Assert.assertNotSame("Different recipes share a translation", english, fewer);
+        Assert.assertEquals(3, translations.get());
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void limitsCachedRecipeSets() {
+        for (int i = 0; i < TranslatedRecipeCache.MAX_CACHED_RECIPE_SETS * 2; i++) {
+            cache.get(RECIPES, "locale_" + i, translator);
+            Assert.assertTrue(cache.size() <= TranslatedRecipeCache.MAX_CACHED_RECIPE_SETS);
+        }
+        Assert.assertEquals(TranslatedRecipeCache.MAX_CACHED_RECIPE_SETS * 2, translations.get());
+    }
+}